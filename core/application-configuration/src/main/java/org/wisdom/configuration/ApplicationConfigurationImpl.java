@@ -29,10 +29,14 @@ import org.ow2.chameleon.core.services.Watcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wisdom.api.configuration.Configuration;
+import org.wisdom.api.configuration.ConfigurationMapper;
+import org.wisdom.api.configuration.ConfigurationView;
 import org.wisdom.api.content.ParameterFactories;
 
 import java.io.File;
+import java.lang.ref.WeakReference;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Implementation of the configuration service reading application/conf and an external (optional) property.
@@ -75,6 +79,12 @@ public class ApplicationConfigurationImpl extends ConfigurationImpl implements o
      */
     private Config appConf;
 
+    /**
+     * The views created on this configuration, refreshed on reload. Views are weakly referenced so they are
+     * released with their owner.
+     */
+    private final List<WeakReference<ConfigurationViewImpl<?>>> views = new CopyOnWriteArrayList<>();
+
     /**
      * Creates the application configuration object.
      *
@@ -137,7 +147,7 @@ public class ApplicationConfigurationImpl extends ConfigurationImpl implements o
      *
      * @return the location of the file.
      */
-    private String reloadConfiguration() {
+    String reloadConfiguration() {
         String location = System.getProperty(APPLICATION_CONFIGURATION);
         if (location == null) {
             location = "conf/application.conf";
@@ -151,10 +161,43 @@ public class ApplicationConfigurationImpl extends ConfigurationImpl implements o
         }
 
         setConfiguration(configuration);
+        refreshViews();
 
         return location;
     }
 
+    /**
+     * Recomputes the snapshot of the views still in use, and forgets the released ones.
+     */
+    private void refreshViews() {
+        for (WeakReference<ConfigurationViewImpl<?>> reference : views) {
+            ConfigurationViewImpl<?> view = reference.get();
+            if (view == null) {
+                views.remove(reference);
+            } else {
+                try {
+                    view.refresh(this);
+                } catch (RuntimeException e) {
+                    LOGGER.error("Cannot refresh a configuration view, the previous snapshot is kept", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a view on this configuration, refreshed every time the configuration is reloaded.
+     *
+     * @param mapper the mapper
+     * @param <T>    the type of the snapshot
+     * @return the view
+     */
+    @Override
+    public <T> ConfigurationView<T> bind(ConfigurationMapper<T> mapper) {
+        ConfigurationViewImpl<T> view = new ConfigurationViewImpl<>(mapper, this);
+        views.add(new WeakReference<ConfigurationViewImpl<?>>(view));
+        return view;
+    }
+
     /**
      * Stops the service.
      */
@@ -0,0 +1,64 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.configuration;
+
+import org.wisdom.api.configuration.Configuration;
+import org.wisdom.api.configuration.ConfigurationMapper;
+import org.wisdom.api.configuration.ConfigurationView;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Implementation of {@link ConfigurationView} holding the current snapshot in an atomic reference. The snapshot is
+ * replaced when the configuration is reloaded.
+ *
+ * @param <T> the type of the snapshot
+ */
+class ConfigurationViewImpl<T> implements ConfigurationView<T> {
+
+    private final ConfigurationMapper<T> mapper;
+
+    private final AtomicReference<T> snapshot = new AtomicReference<>();
+
+    /**
+     * Creates the view and computes the first snapshot.
+     *
+     * @param mapper        the mapper
+     * @param configuration the configuration
+     */
+    ConfigurationViewImpl(ConfigurationMapper<T> mapper, Configuration configuration) {
+        this.mapper = mapper;
+        refresh(configuration);
+    }
+
+    /**
+     * Recomputes the snapshot.
+     *
+     * @param configuration the configuration
+     */
+    void refresh(Configuration configuration) {
+        snapshot.set(mapper.map(configuration));
+    }
+
+    @Override
+    public T get() {
+        return snapshot.get();
+    }
+}
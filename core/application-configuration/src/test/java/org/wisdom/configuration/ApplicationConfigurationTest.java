@@ -30,6 +30,7 @@ import java.util.Collections;
 import java.util.Dictionary;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
@@ -42,6 +43,8 @@ import org.ow2.chameleon.core.services.Deployer;
 import org.ow2.chameleon.core.services.Watcher;
 import org.wisdom.api.configuration.ApplicationConfiguration;
 import org.wisdom.api.configuration.Configuration;
+import org.wisdom.api.configuration.ConfigurationMapper;
+import org.wisdom.api.configuration.ConfigurationView;
 import org.wisdom.api.content.ParameterConverter;
 import org.wisdom.api.content.ParameterFactory;
 import org.wisdom.content.converters.ParamConverterEngine;
@@ -523,4 +526,26 @@ public class ApplicationConfigurationTest {
             assertThat(sub.has("url")).isTrue();
         }
     }
+
+    @Test
+    public void testViewsAreRefreshedOnReload() {
+        System.setProperty(ApplicationConfigurationImpl.APPLICATION_CONFIGURATION, "target/test-classes/conf/regular.conf");
+        ApplicationConfigurationImpl configuration = new ApplicationConfigurationImpl(null, null);
+        final AtomicInteger calls = new AtomicInteger();
+        ConfigurationView<Integer> view = configuration.bind(new ConfigurationMapper<Integer>() {
+            @Override
+            public Integer map(Configuration configuration) {
+                calls.incrementAndGet();
+                return configuration.getIntegerWithDefault("http.port", -1);
+            }
+        });
+        assertThat(view.get()).isEqualTo(9000);
+        assertThat(view.get()).isEqualTo(9000);
+        assertThat(calls.get()).isEqualTo(1);
+
+        System.setProperty(ApplicationConfigurationImpl.APPLICATION_CONFIGURATION, "target/test-classes/conf/custom.conf");
+        configuration.reloadConfiguration();
+        assertThat(view.get()).isEqualTo(-1);
+        assertThat(calls.get()).isEqualTo(2);
+    }
 }
@@ -26,12 +26,13 @@ import org.apache.felix.ipojo.annotations.Provides;
 import org.apache.felix.ipojo.annotations.Requires;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.wisdom.api.content.BodyParser;
 import org.wisdom.api.content.Json;
+import org.wisdom.api.content.StreamBodyParser;
 import org.wisdom.api.http.Context;
 import org.wisdom.api.http.MimeTypes;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Type;
 import java.util.List;
 
@@ -41,7 +42,7 @@ import java.util.List;
 @Component
 @Provides
 @Instantiate
-public class BodyParserJson implements BodyParser {
+public class BodyParserJson implements StreamBodyParser {
 
     @Requires
     Json json;
@@ -111,6 +112,30 @@ public class BodyParserJson implements BodyParser {
         return t;
     }
 
+    /**
+     * Builds an instance of {@literal T} from the request payload, read from the given stream.
+     *
+     * @param stream      the stream
+     * @param classOfT    The class we expect
+     * @param genericType the generic type (maybe null)
+     * @param <T>         the type of the object
+     * @return the build object, {@literal null} if the object cannot be built.
+     */
+    @Override
+    public <T> T invoke(InputStream stream, Class<T> classOfT, Type genericType) {
+        T t = null;
+        try {
+            if (genericType != null) {
+                t = json.mapper().readValue(stream, json.mapper().constructType(genericType));
+            } else {
+                t = json.mapper().readValue(stream, classOfT);
+            }
+        } catch (IOException e) {
+            LOGGER.error(ERROR, e);
+        }
+        return t;
+    }
+
     /**
      * @return the singleton list containing "application/json".
      */
@@ -29,20 +29,21 @@ import org.apache.felix.ipojo.annotations.Requires;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
-import org.wisdom.api.content.BodyParser;
+import org.wisdom.api.content.StreamBodyParser;
 import org.wisdom.api.content.Xml;
 import org.wisdom.api.http.Context;
 import org.wisdom.api.http.MimeTypes;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Type;
 import java.util.List;
 
 @Component
 @Provides
 @Instantiate
-public class BodyParserXML implements BodyParser {
+public class BodyParserXML implements StreamBodyParser {
 
     @Requires
     Xml xml;
@@ -103,6 +104,32 @@ public class BodyParserXML implements BodyParser {
         return t;
     }
 
+    /**
+     * Invoke the parser and get back a Java object populated with the content read from the given stream.
+     *
+     * @param stream      the stream
+     * @param classOfT    The class we expect
+     * @param genericType the generic type (maybe null)
+     * @return The object instance populated with all values from raw request
+     */
+    @Override
+    public <T> T invoke(InputStream stream, Class<T> classOfT, Type genericType) {
+        T t = null;
+        try {
+            if (classOfT.equals(Document.class)) {
+                return (T) xml.fromInputStream(stream, Charsets.UTF_8);
+            }
+            if (genericType != null) {
+                t = xml.xmlMapper().readValue(stream, xml.xmlMapper().constructType(genericType));
+            } else {
+                t = xml.xmlMapper().readValue(stream, classOfT);
+            }
+        } catch (IOException e) {
+            LOGGER.error(ERROR, e);
+        }
+        return t;
+    }
+
     private Document parseXMLDocument(byte[] bytes) {
         ByteArrayInputStream stream = null;
         try {
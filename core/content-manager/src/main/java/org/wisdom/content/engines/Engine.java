@@ -21,15 +21,16 @@ package org.wisdom.content.engines;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.net.MediaType;
-import org.apache.felix.ipojo.annotations.Component;
-import org.apache.felix.ipojo.annotations.Instantiate;
-import org.apache.felix.ipojo.annotations.Provides;
-import org.apache.felix.ipojo.annotations.Requires;
+import org.apache.felix.ipojo.annotations.*;
 import org.slf4j.LoggerFactory;
 import org.wisdom.api.content.*;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Content Engine.
@@ -39,11 +40,72 @@ import java.util.List;
 @Instantiate(name = "ContentEngine")
 public class Engine implements ContentEngine {
 
-    @Requires(specification = BodyParser.class, optional = true)
+    @Requires(id = "parsers", specification = BodyParser.class, optional = true)
     List<BodyParser> parsers;
-    @Requires(specification = ContentSerializer.class, optional = true)
+    @Requires(id = "serializers", specification = ContentSerializer.class, optional = true)
     List<ContentSerializer> serializers;
 
+    /**
+     * The parsed media type of each serializer, computed when the serializer arrives.
+     */
+    private final ConcurrentMap<ContentSerializer, MediaType> serializerMediaTypes = new ConcurrentHashMap<>();
+
+    /**
+     * The body parser selected for each content type. This map is populated lazily, and cleared when the set of
+     * parsers changes.
+     */
+    private final ConcurrentMap<String, BodyParser> parsersByContentType = new ConcurrentHashMap<>();
+
+    /**
+     * The bound body parsers, checked before keeping a parser in {@link #parsersByContentType}, as a lookup may
+     * race with the departure of the parser it has selected.
+     */
+    private final Set<BodyParser> boundParsers =
+            Collections.newSetFromMap(new ConcurrentHashMap<BodyParser, Boolean>());
+
+    /**
+     * A new body parser is available.
+     *
+     * @param parser the parser
+     */
+    @Bind(id = "parsers")
+    public void bindParser(BodyParser parser) {
+        boundParsers.add(parser);
+        parsersByContentType.clear();
+    }
+
+    /**
+     * A body parser has left.
+     *
+     * @param parser the parser
+     */
+    @Unbind(id = "parsers")
+    public void unbindParser(BodyParser parser) {
+        // Removed from the bound set first, so a lookup memoizing it afterwards drops it.
+        boundParsers.remove(parser);
+        parsersByContentType.clear();
+    }
+
+    /**
+     * A new content serializer is available, its media type is parsed once.
+     *
+     * @param serializer the serializer
+     */
+    @Bind(id = "serializers")
+    public void bindSerializer(ContentSerializer serializer) {
+        serializerMediaTypes.put(serializer, MediaType.parse(serializer.getContentType()));
+    }
+
+    /**
+     * A content serializer has left.
+     *
+     * @param serializer the serializer
+     */
+    @Unbind(id = "serializers")
+    public void unbindSerializer(ContentSerializer serializer) {
+        serializerMediaTypes.remove(serializer);
+    }
+
     /**
      * Gets the body parser that can be used to parse a body with the given content type.
      *
@@ -52,8 +114,21 @@ public class Engine implements ContentEngine {
      */
     @Override
     public BodyParser getBodyParserEngineForContentType(String contentType) {
+        if (contentType != null) {
+            BodyParser cached = parsersByContentType.get(contentType);
+            if (cached != null) {
+                return cached;
+            }
+        }
         for (BodyParser parser : parsers) {
             if (parser.getContentTypes().contains(contentType)) {
+                if (contentType != null) {
+                    parsersByContentType.put(contentType, parser);
+                    if (!boundParsers.contains(parser)) {
+                        // The parser has left during the lookup.
+                        parsersByContentType.remove(contentType, parser);
+                    }
+                }
                 return parser;
             }
         }
@@ -91,13 +166,29 @@ public class Engine implements ContentEngine {
             mediaTypes = ImmutableList.of(MediaType.HTML_UTF_8);
         }
         for (MediaType type : mediaTypes) {
+            MediaType expected = type.withoutParameters();
             for (ContentSerializer ser : serializers) {
-                MediaType mt = MediaType.parse(ser.getContentType());
-                if (mt.is(type.withoutParameters())) {
+                if (getMediaType(ser).is(expected)) {
                     return ser;
                 }
             }
         }
         return null;
     }
+
+    /**
+     * Gets the media type of the given serializer.
+     *
+     * @param serializer the serializer
+     * @return the parsed media type
+     */
+    private MediaType getMediaType(ContentSerializer serializer) {
+        MediaType type = serializerMediaTypes.get(serializer);
+        if (type == null) {
+            // Not bound through the callback (the list was injected directly).
+            type = MediaType.parse(serializer.getContentType());
+            serializerMediaTypes.put(serializer, type);
+        }
+        return type;
+    }
 }
@@ -27,6 +27,9 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.google.common.base.Charsets;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import org.apache.commons.io.IOUtils;
 import org.apache.felix.ipojo.annotations.*;
 import org.slf4j.Logger;
@@ -68,19 +71,15 @@ import java.util.Set;
 public class JacksonSingleton implements JacksonModuleRepository, Json, Xml {
 
     /**
-     * An object used as lock.
+     * An object used as lock when the set of modules is modified.
      */
     private final Object lock = new Object();
 
     /**
-     * The current object mapper.
+     * The current mappers. This snapshot is never modified once published, a new one is created every time a module
+     * arrives or leaves. So reading it does not require any lock.
      */
-    private ObjectMapper mapper;
-
-    /**
-     * The current object mapper.
-     */
-    private XmlMapper xml;
+    private volatile Mappers mappers;
 
     /**
      * The document builder factory used to create new document.
@@ -119,9 +118,11 @@ public class JacksonSingleton implements JacksonModuleRepository, Json, Xml {
      * @return the mapper.
      */
     public ObjectMapper mapper() {
-        synchronized (lock) {
-            return mapper;
+        Mappers current = mappers;
+        if (current == null) {
+            return null;
         }
+        return current.json;
     }
 
     /**
@@ -132,12 +133,27 @@ public class JacksonSingleton implements JacksonModuleRepository, Json, Xml {
      * @throws java.lang.RuntimeException if the JSON Node cannot be created
      */
     public JsonNode toJson(final Object data) {
-        synchronized (lock) {
-            try {
-                return mapper.valueToTree(data);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
+        try {
+            return mapper().valueToTree(data);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes the JSON form of the given object as an UTF-8 encoded byte array. Unlike {@link #toJson(Object)},
+     * no JSON tree is built, the object is directly written using an {@link ObjectWriter} cached for the object's
+     * class.
+     *
+     * @param data the object to write, must not be {@literal null}
+     * @return the JSON form of the object
+     * @throws java.lang.RuntimeException if the object cannot be written
+     */
+    public byte[] toJsonBytes(final Object data) {
+        try {
+            return mappers.writer(data.getClass()).writeValueAsBytes(data);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
         }
     }
 
@@ -149,12 +165,10 @@ public class JacksonSingleton implements JacksonModuleRepository, Json, Xml {
      * @return the String built as follows: "callback(json(data))"
      */
     public String toJsonP(final String callback, final Object data) {
-        synchronized (lock) {
-            try {
-                return callback + "(" + stringify(mapper.valueToTree(data)) + ");";
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
+        try {
+            return callback + "(" + stringify(mapper().valueToTree(data)) + ");";
+        } catch (Exception e) {
+            throw new RuntimeException(e);
         }
     }
 
@@ -167,12 +181,10 @@ public class JacksonSingleton implements JacksonModuleRepository, Json, Xml {
      * @throws java.lang.RuntimeException if the object cannot be created
      */
     public <A> A fromJson(JsonNode json, Class<A> clazz) {
-        synchronized (lock) {
-            try {
-                return mapper.treeToValue(json, clazz);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
+        try {
+            return mapper().treeToValue(json, clazz);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
         }
     }
 
@@ -185,13 +197,12 @@ public class JacksonSingleton implements JacksonModuleRepository, Json, Xml {
      * @throws java.lang.RuntimeException if the object cannot be created
      */
     public <A> A fromJson(String json, Class<A> clazz) {
-        synchronized (lock) {
-            try {
-                JsonNode node = mapper.readTree(json);
-                return mapper.treeToValue(node, clazz);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
+        try {
+            ObjectMapper mapper = mapper();
+            JsonNode node = mapper.readTree(json);
+            return mapper.treeToValue(node, clazz);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
         }
     }
 
@@ -219,12 +230,10 @@ public class JacksonSingleton implements JacksonModuleRepository, Json, Xml {
      * @throws java.lang.RuntimeException if the given string is not a valid JSON String
      */
     public JsonNode parse(String src) {
-        synchronized (lock) {
-            try {
-                return mapper.readValue(src, JsonNode.class);
-            } catch (Exception t) {
-                throw new RuntimeException(t);
-            }
+        try {
+            return mapper().readValue(src, JsonNode.class);
+        } catch (Exception t) {
+            throw new RuntimeException(t);
         }
     }
 
@@ -237,12 +246,10 @@ public class JacksonSingleton implements JacksonModuleRepository, Json, Xml {
      * @throws java.lang.RuntimeException if the given stream is not a valid JSON String
      */
     public JsonNode parse(InputStream stream) {
-        synchronized (lock) {
-            try {
-                return mapper.readValue(stream, JsonNode.class);
-            } catch (Exception t) {
-                throw new RuntimeException(t);
-            }
+        try {
+            return mapper().readValue(stream, JsonNode.class);
+        } catch (Exception t) {
+            throw new RuntimeException(t);
         }
     }
 
@@ -283,11 +290,12 @@ public class JacksonSingleton implements JacksonModuleRepository, Json, Xml {
      */
     private void setMappers(ObjectMapper mapper, XmlMapper xml) {
         synchronized (lock) {
-            this.mapper = mapper;
-            this.xml = xml;
             // mapper and xml are set to null on invalidation.
             if (mapper != null && xml != null) {
                 applyMapperConfiguration(mapper, xml);
+                this.mappers = new Mappers(mapper, xml);
+            } else {
+                this.mappers = null;
             }
         }
     }
@@ -391,17 +399,19 @@ public class JacksonSingleton implements JacksonModuleRepository, Json, Xml {
     }
 
     private void rebuildMappers() {
-        mapper = new ObjectMapper();
+        ObjectMapper mapper = new ObjectMapper();
         for (Module module : modules) {
             mapper.registerModule(module);
         }
 
-        xml = new XmlMapper();
+        XmlMapper xml = new XmlMapper();
         for (Module module : modules) {
             xml.registerModule(module);
         }
 
         applyMapperConfiguration(mapper, xml);
+        // Publish the new snapshot, only fully configured mappers are visible.
+        mappers = new Mappers(mapper, xml);
     }
 
     /**
@@ -431,9 +441,11 @@ public class JacksonSingleton implements JacksonModuleRepository, Json, Xml {
      */
     @Override
     public XmlMapper xmlMapper() {
-        synchronized (lock) {
-            return xml;
+        Mappers current = mappers;
+        if (current == null) {
+            return null;
         }
+        return current.xml;
     }
 
     /**
@@ -565,4 +577,37 @@ public class JacksonSingleton implements JacksonModuleRepository, Json, Xml {
         unregister(module);
     }
 
+    /**
+     * An immutable snapshot of the JSON and XML mappers. It also caches the {@link ObjectWriter} used to write
+     * objects of a given class, so the writers are discarded with the mappers they come from.
+     */
+    private static final class Mappers {
+
+        /**
+         * The maximum number of cached writers. Classes coming from uninstalled bundles are evicted eventually.
+         */
+        private static final int MAX_WRITERS = 1024;
+
+        private final ObjectMapper json;
+        private final XmlMapper xml;
+        private final LoadingCache<Class<?>, ObjectWriter> writers;
+
+        private Mappers(final ObjectMapper json, XmlMapper xml) {
+            this.json = json;
+            this.xml = xml;
+            this.writers = CacheBuilder.newBuilder()
+                    .maximumSize(MAX_WRITERS)
+                    .build(new CacheLoader<Class<?>, ObjectWriter>() {
+                        @Override
+                        public ObjectWriter load(Class<?> clazz) {
+                            return json.writerFor(clazz);
+                        }
+                    });
+        }
+
+        private ObjectWriter writer(Class<?> clazz) {
+            return writers.getUnchecked(clazz);
+        }
+    }
+
 }
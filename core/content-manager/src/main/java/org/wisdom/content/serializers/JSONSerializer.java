@@ -26,6 +26,7 @@ import org.apache.felix.ipojo.annotations.Provides;
 import org.apache.felix.ipojo.annotations.Requires;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wisdom.api.bodies.RenderableObject;
 import org.wisdom.api.content.ContentSerializer;
 import org.wisdom.api.content.Json;
 import org.wisdom.api.http.MimeTypes;
@@ -51,6 +52,12 @@ public class JSONSerializer implements ContentSerializer {
 
     @Override
     public void serialize(Renderable<?> renderable) {
+        if (renderable instanceof RenderableObject && renderable.content() != null) {
+            // Write the object directly, no need to build a JSON tree and its String form.
+            ((RenderableObject) renderable).setSerializedForm(json.toJsonBytes(renderable.content()));
+            return;
+        }
+
         JsonNode node = json.toJson(renderable.content());
         if (node == null) {
             LOGGER.error("Cannot serialize result - cannot create a JSON Node from the response content");
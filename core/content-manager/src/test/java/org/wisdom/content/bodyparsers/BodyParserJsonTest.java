@@ -26,6 +26,7 @@ import org.wisdom.api.http.MimeTypes;
 import org.wisdom.content.jackson.JacksonSingleton;
 import org.wisdom.test.parents.FakeContext;
 
+import java.io.ByteArrayInputStream;
 import java.lang.reflect.Type;
 import java.util.List;
 
@@ -79,6 +80,26 @@ public class BodyParserJsonTest {
         assertThat(data.getAge()).isEqualTo(2);
     }
 
+    @Test
+    public void testParsingFromStream() throws NoSuchFieldException {
+        String body = "[{" +
+                "\"name\":\"wisdom\"," +
+                "\"friends\":[\"clement\",\"jonathan\"]," +
+                "\"age\":2}]";
+        Type type = this.getClass().getDeclaredField("tmp").getGenericType();
+        List<Data> list = parser.invoke(new ByteArrayInputStream(body.getBytes(Charsets.UTF_8)), List.class, type);
+        assertThat(list).hasSize(1);
+        assertThat(list.get(0).getName()).isEqualTo("wisdom");
+
+        Data data = parser.invoke(new ByteArrayInputStream(body.substring(1, body.length() - 1)
+                .getBytes(Charsets.UTF_8)), Data.class, null);
+        assertThat(data.getFriends()).containsExactly("clement", "jonathan");
+        assertThat(data.getAge()).isEqualTo(2);
+
+        assertThat(parser.invoke(new ByteArrayInputStream("{not json".getBytes(Charsets.UTF_8)), Data.class,
+                null)).isNull();
+    }
+
     @Test
     public void testParsingFromByteArray() {
         String body = "{" +
@@ -24,6 +24,9 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.net.MediaType;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.wisdom.api.content.BodyParser;
 import org.wisdom.api.http.MimeTypes;
 import org.wisdom.content.serializers.JSONSerializer;
 import org.wisdom.content.serializers.XMLSerializer;
@@ -31,6 +34,7 @@ import org.wisdom.content.serializers.XMLSerializer;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
 
 
 public class EngineTest {
@@ -107,6 +111,37 @@ public class EngineTest {
     }
 
 
+    @Test
+    public void testParserLeavingDuringTheLookupIsNotMemoized() throws Exception {
+        final BodyParser parser = mock(BodyParser.class);
+        engine.parsers = ImmutableList.of(parser);
+        engine.bindParser(parser);
+        when(parser.getContentTypes()).thenAnswer(new Answer<List<String>>() {
+            @Override
+            public List<String> answer(InvocationOnMock invocation) throws Throwable {
+                // The parser leaves while the engine iterates over the previous list.
+                engine.parsers = ImmutableList.of();
+                engine.unbindParser(parser);
+                return ImmutableList.of(MimeTypes.JSON);
+            }
+        });
+
+        assertThat(engine.getBodyParserEngineForContentType(MimeTypes.JSON)).isEqualTo(parser);
+        assertThat(engine.getBodyParserEngineForContentType(MimeTypes.JSON)).isNull();
+    }
+
+    @Test
+    public void testParserLookupIsMemoized() throws Exception {
+        BodyParser parser = mock(BodyParser.class);
+        when(parser.getContentTypes()).thenReturn(ImmutableList.of(MimeTypes.JSON));
+        engine.parsers = ImmutableList.of(parser);
+        engine.bindParser(parser);
+
+        assertThat(engine.getBodyParserEngineForContentType(MimeTypes.JSON)).isEqualTo(parser);
+        assertThat(engine.getBodyParserEngineForContentType(MimeTypes.JSON)).isEqualTo(parser);
+        verify(parser, times(1)).getContentTypes();
+    }
+
     Collection<MediaType> mediaTypes(String accept) {
         if (accept == null) {
             // Any text by default.
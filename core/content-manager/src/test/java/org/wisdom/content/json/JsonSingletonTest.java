@@ -21,6 +21,7 @@ package org.wisdom.content.json;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableMap;
 import org.apache.commons.io.IOUtils;
 import org.junit.After;
@@ -87,6 +88,23 @@ public class JsonSingletonTest {
         assertThat(node.get("messages").get(1).asText()).isEqualTo(data.messages.get(1));
     }
 
+    @Test
+    public void testToJsonBytes() throws Exception {
+        Data data = new Data();
+        data.age = 32;
+        data.name = "clément";
+        data.messages = Arrays.asList("msg 1", "msg 2", "msg 3");
+
+        byte[] bytes = json.toJsonBytes(data);
+        assertThat(new String(bytes, Charsets.UTF_8)).isEqualTo(json.toJson(data).toString());
+        // Use the cached writer.
+        assertThat(json.toJsonBytes(data)).isEqualTo(bytes);
+
+        Data data2 = json.fromJson(new String(bytes, Charsets.UTF_8), Data.class);
+        assertThat(data2.name).isEqualTo(data.name);
+        assertThat(data2.messages).containsExactly("msg 1", "msg 2", "msg 3");
+    }
+
     @Test
     public void testFromJson() throws Exception {
         String test = "{\"age\":32,\"messages\":[\"msg 1\",\"msg 2\",\"msg 3\"],\"name\":\"clement\"}";
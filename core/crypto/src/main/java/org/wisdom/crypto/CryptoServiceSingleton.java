@@ -69,6 +69,16 @@ public class CryptoServiceSingleton implements Crypto {
     private final String secret;
     private final SecureRandom random = new SecureRandom();
 
+    /**
+     * The HMAC-SHA1 instances initialized with the application secret. {@link Mac} objects are not thread-safe,
+     * but are reset after each computation, so each thread reuses its own instance instead of creating and keying a
+     * new one for every signature.
+     * <p>
+     * A plain {@link ThreadLocal} is used on purpose: a subclass would be a class of this bundle, kept reachable by
+     * the pooled threads after the bundle is uninstalled. The thread values are JDK objects only.
+     */
+    private final ThreadLocal<Mac> signingMac = new ThreadLocal<>();
+
     @SuppressWarnings("UnusedDeclaration")
     public CryptoServiceSingleton(@Requires ApplicationConfiguration configuration) {
         this(
@@ -201,7 +211,20 @@ public class CryptoServiceSingleton implements Crypto {
      */
     @Override
     public String sign(String message) {
-        return sign(message, secret.getBytes(Charsets.UTF_8));
+        Preconditions.checkNotNull(message);
+        return hexToString(getSigningMac().doFinal(message.getBytes(Charsets.UTF_8)));
+    }
+
+    /**
+     * @return the HMAC-SHA1 instance of the current thread, initialized with the application secret.
+     */
+    private Mac getSigningMac() {
+        Mac mac = signingMac.get();
+        if (mac == null) {
+            mac = createMac(secret.getBytes(Charsets.UTF_8));
+            signingMac.set(mac);
+        }
+        return mac;
     }
 
     /**
@@ -215,6 +238,20 @@ public class CryptoServiceSingleton implements Crypto {
     public String sign(String message, byte[] key) {
         Preconditions.checkNotNull(message);
         Preconditions.checkNotNull(key);
+        // Compute the hmac on input data bytes
+        byte[] rawHmac = createMac(key).doFinal(message.getBytes(Charsets.UTF_8));
+
+        // Convert raw bytes to Hex
+        return hexToString(rawHmac);
+    }
+
+    /**
+     * Creates a HMAC-SHA1 instance initialized with the given key.
+     *
+     * @param key the key
+     * @return the Mac instance
+     */
+    private static Mac createMac(byte[] key) {
         try {
             // Get an hmac_sha1 key from the raw key bytes
             SecretKeySpec signingKey = new SecretKeySpec(key, HMAC_SHA_1);
@@ -222,12 +259,7 @@ public class CryptoServiceSingleton implements Crypto {
             // Get an hmac_sha1 Mac instance and initialize with the signing key
             Mac mac = Mac.getInstance(HMAC_SHA_1);
             mac.init(signingKey);
-
-            // Compute the hmac on input data bytes
-            byte[] rawHmac = mac.doFinal(message.getBytes(Charsets.UTF_8));
-
-            // Convert raw bytes to Hex
-            return hexToString(rawHmac);
+            return mac;
         } catch (Exception e) {
             throw new IllegalArgumentException(e);
         }
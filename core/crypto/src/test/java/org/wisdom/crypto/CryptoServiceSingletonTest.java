@@ -19,6 +19,7 @@
  */
 package org.wisdom.crypto;
 
+import com.google.common.base.Charsets;
 import org.junit.Before;
 import org.junit.Test;
 import org.wisdom.api.configuration.ApplicationConfiguration;
@@ -90,6 +91,25 @@ public class CryptoServiceSingletonTest {
         assertThat(s).isEqualTo("64f2c3cbb5bf009e47c97bdc12973324b8a271d7");
     }
 
+    @Test
+    public void testSignReusingTheMac() throws InterruptedException {
+        // The Mac instance is reused, check it is correctly reset between two signatures.
+        assertThat(crypto.sign("hello")).isEqualTo("64f2c3cbb5bf009e47c97bdc12973324b8a271d7");
+        assertThat(crypto.sign("hello")).isEqualTo("64f2c3cbb5bf009e47c97bdc12973324b8a271d7");
+        assertThat(crypto.sign("hello")).isEqualTo(crypto.sign("hello", SECRET.getBytes(Charsets.UTF_8)));
+
+        final String[] fromAnotherThread = new String[1];
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                fromAnotherThread[0] = crypto.sign("hello");
+            }
+        });
+        thread.start();
+        thread.join();
+        assertThat(fromAnotherThread[0]).isEqualTo("64f2c3cbb5bf009e47c97bdc12973324b8a271d7");
+    }
+
     @Test
     public void testAES() {
         String s = crypto.encryptAES("hello");
@@ -42,6 +42,8 @@ import javax.validation.Validator;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The request router responsible for handling request and invoke the action methods.
@@ -83,8 +85,13 @@ public class RequestRouter extends AbstractRouter {
      */
     private Set<Filter> filters = new FilterSet();
 
-    @Requires(optional = true, specification = Interceptor.class)
-    private List<Interceptor<?>> interceptors;
+    private final List<Interceptor<?>> interceptors = new CopyOnWriteArrayList<>();
+
+    /**
+     * Incremented every time a filter or an interceptor arrives or leaves. Routes compare it with the version of
+     * their cached interception chain to detect when the chain must be recomputed.
+     */
+    private final AtomicInteger chainVersion = new AtomicInteger();
 
     @Requires(optional = true, proxy = false)
     private Validator validator;
@@ -94,6 +101,12 @@ public class RequestRouter extends AbstractRouter {
 
     private Set<RouteDelegate> routes = new LinkedHashSet<>();
 
+    /**
+     * The index used to find the routes matching a request. It is rebuilt every time the set of routes changes and
+     * read without lock.
+     */
+    private volatile RouteIndex index = RouteIndex.EMPTY;
+
     /**
      * Binds a new controller.
      *
@@ -124,6 +137,7 @@ public class RequestRouter extends AbstractRouter {
             // remove all new routes as one has failed
             routes.removeAll(newRoutes); //NOSONAR
         }
+        index = new RouteIndex(routes);
     }
 
     /**
@@ -140,6 +154,7 @@ public class RequestRouter extends AbstractRouter {
                 routes.remove(r);
             }
         }
+        index = new RouteIndex(routes);
     }
 
     private void ensureNoConflicts(List<Route> newRoutes) {
@@ -215,12 +230,13 @@ public class RequestRouter extends AbstractRouter {
      * Stopping the router. All routes are cleared.
      */
     @Invalidate
-    public void stop() {
+    public synchronized void stop() {
         routes.clear();
+        index = RouteIndex.EMPTY;
     }
 
-    private synchronized Set<Route> copy() {
-        return new LinkedHashSet<Route>(routes);
+    private Set<Route> copy() {
+        return new LinkedHashSet<>(index.routes());
     }
 
     /**
@@ -234,19 +250,25 @@ public class RequestRouter extends AbstractRouter {
     @Override
     public Route getRouteFor(HttpMethod method, String uri, Request request) {
         // Compute the list of matching routes - only the path is check in this first stage
-        List<Route> list = new ArrayList<>(1);
-        //TODO This can be faster by using an immutable list.
-        for (Route route : copy()) {
-            if (route.matches(method, uri)) {
-                list.add(route);
-            }
-        }
+        List<Route> list = index.find(method, uri);
 
         if (list.isEmpty()) {
             // Creates an unbound route - 404
             return new RouteDelegate(this, new Route(method, uri, Status.NOT_FOUND));
         }
 
+        if (list.size() == 1) {
+            // Fast path, avoid building the intermediate lists when a single route matches.
+            Route route = list.get(0);
+            if (route.isCompliantWithRequestContentType(request) == 0) {
+                return new RouteDelegate(this, new Route(method, uri, Status.UNSUPPORTED_MEDIA_TYPE));
+            }
+            if (route.isCompliantWithRequestAccept(request)) {
+                return route;
+            }
+            return new RouteDelegate(this, new Route(method, uri, Status.NOT_ACCEPTABLE));
+        }
+
         // Find the route that accept the request
         List<Route> fullMatch = new ArrayList<>();
         List<Route> partialMatch = new ArrayList<>();
@@ -293,7 +315,7 @@ public class RequestRouter extends AbstractRouter {
      */
     @Override
     public String getReverseRouteFor(String className, String method, Map<String, Object> params) {
-        for (Route route : copy()) {
+        for (Route route : index.routes()) {
             if (route.getControllerClass().getName().equals(className)
                     && route.getControllerMethod().getName().equals(method)) {
                 return computeUrlForRoute(route, params);
@@ -411,6 +433,22 @@ public class RequestRouter extends AbstractRouter {
         return filters;
     }
 
+    /**
+     * @return a copy of the current set of filters, sorted by priority.
+     */
+    protected List<Filter> getFilterSnapshot() {
+        synchronized (filters) {
+            return new ArrayList<>(filters);
+        }
+    }
+
+    /**
+     * @return the current version of the filter and interceptor set.
+     */
+    protected int getChainVersion() {
+        return chainVersion.get();
+    }
+
     protected List<Interceptor<?>> getInterceptors() {
         return interceptors;
     }
@@ -426,7 +464,10 @@ public class RequestRouter extends AbstractRouter {
      */
     @Bind(aggregate = true, optional = true)
     public void bindFilter(Filter filter) {
-        filters.add(filter);
+        synchronized (filters) {
+            filters.add(filter);
+        }
+        chainVersion.incrementAndGet();
     }
 
     /**
@@ -436,7 +477,32 @@ public class RequestRouter extends AbstractRouter {
      */
     @Unbind
     public void unbindFilter(Filter filter) {
-        filters.remove(filter);
+        synchronized (filters) {
+            filters.remove(filter);
+        }
+        chainVersion.incrementAndGet();
+    }
+
+    /**
+     * Binds an interceptor.
+     *
+     * @param interceptor the interceptor
+     */
+    @Bind(aggregate = true, optional = true)
+    public void bindInterceptor(Interceptor<?> interceptor) {
+        interceptors.add(interceptor);
+        chainVersion.incrementAndGet();
+    }
+
+    /**
+     * Unbinds an interceptor.
+     *
+     * @param interceptor the interceptor
+     */
+    @Unbind
+    public void unbindInterceptor(Interceptor<?> interceptor) {
+        interceptors.remove(interceptor);
+        chainVersion.incrementAndGet();
     }
 
     /**
@@ -51,6 +51,17 @@ public class RouteDelegate extends Route {
     private final boolean mustValidate;
     private final Map<String, Object> interceptors;
 
+    /**
+     * The filter invoking the action method, always the last element of the chain.
+     */
+    private final Filter endOfChain = new EndOfChainInvoker();
+
+    /**
+     * The interception chain, computed on the first invocation and recomputed when the set of filters or
+     * interceptors available in the router changes.
+     */
+    private volatile Chain chain;
+
     /**
      * Creates a new instance of {@link org.wisdom.router.RouteDelegate}.
      *
@@ -175,6 +186,16 @@ public class RouteDelegate extends Route {
         return route.getProducedMediaTypes();
     }
 
+    @Override
+    public Route withStreamingBody() {
+        return route.withStreamingBody();
+    }
+
+    @Override
+    public boolean hasStreamingBody() {
+        return route.hasStreamingBody();
+    }
+
     /**
      * Gets the HTTP Status to return for this unbound route. This method is meaningful only if the route is unbound
      * (and so cannot be served).
@@ -217,34 +238,57 @@ public class RouteDelegate extends Route {
         Context context = Context.CONTEXT.get();
         Preconditions.checkNotNull(context);
 
-        // Build chain if needed.
-        Set<Filter> filters = router.getFilters();
-        List<Filter> chain = new ArrayList<>();
-        for (Filter filter : filters) {
+        Chain current = getChain();
+        if (current.missingInterceptor != null) {
+            return Results.badRequest("Missing interceptor handling " + current.missingInterceptor);
+        }
+
+        // Ready to call the action.
+        RequestContext ctx = new RequestContext(this, current.filters, current.configuration);
+        return ctx.proceed();
+    }
+
+    /**
+     * Gets the interception chain, building it if the set of filters and interceptors has changed since the last
+     * computation.
+     *
+     * @return the chain
+     */
+    private Chain getChain() {
+        int version = router.getChainVersion();
+        Chain current = chain;
+        if (current == null || current.version != version) {
+            current = buildChain(version);
+            chain = current;
+        }
+        return current;
+    }
+
+    private Chain buildChain(int version) {
+        List<Filter> list = new ArrayList<>();
+        for (Filter filter : router.getFilterSnapshot()) {
             if (!(filter instanceof Interceptor)) {
                 // Interceptors will be handled after filters.
-                if (filter.uri().matcher(route.getUrl()).matches()) {
-                    chain.add(filter);
+                Pattern pattern = filter.uri();
+                if (pattern != null && pattern.matcher(route.getUrl()).matches()) {
+                    list.add(filter);
                 }
             }
         }
 
         Map<Interceptor<?>, Object> itcpConfiguration = new LinkedHashMap<>();
-        if (!interceptors.isEmpty()) {
-            for (Map.Entry<String, Object> entry : interceptors.entrySet()) {
-                final Interceptor<?> interceptor = getInterceptorForAnnotation(entry.getKey());
-                if (interceptor == null) {
-                    return Results.badRequest("Missing interceptor handling " + entry.getKey());
-                }
-                itcpConfiguration.put(interceptor, entry.getValue());
-                chain.add(interceptor);
+        for (Map.Entry<String, Object> entry : interceptors.entrySet()) {
+            final Interceptor<?> interceptor = getInterceptorForAnnotation(entry.getKey());
+            if (interceptor == null) {
+                return new Chain(version, entry.getKey());
             }
+            itcpConfiguration.put(interceptor, entry.getValue());
+            list.add(interceptor);
         }
+        list.add(endOfChain);
 
-        // Ready to call the action.
-        Filter endOfChain = new EndOfChainInvoker();
-        RequestContext ctx = new RequestContext(this, chain, itcpConfiguration, null, endOfChain);
-        return ctx.proceed();
+        return new Chain(version, Collections.unmodifiableList(list),
+                Collections.unmodifiableMap(itcpConfiguration));
     }
 
     private Interceptor<?> getInterceptorForAnnotation(String className) {
@@ -286,6 +330,33 @@ public class RouteDelegate extends Route {
         return route.isUnbound();
     }
 
+    /**
+     * An immutable interception chain.
+     */
+    private static final class Chain {
+        private final int version;
+        private final List<Filter> filters;
+        private final Map<Interceptor<?>, Object> configuration;
+        /**
+         * The name of the annotation not handled by any interceptor, {@code null} if all are handled.
+         */
+        private final String missingInterceptor;
+
+        private Chain(int version, List<Filter> filters, Map<Interceptor<?>, Object> configuration) {
+            this.version = version;
+            this.filters = filters;
+            this.configuration = configuration;
+            this.missingInterceptor = null;
+        }
+
+        private Chain(int version, String missingInterceptor) {
+            this.version = version;
+            this.filters = Collections.emptyList();
+            this.configuration = Collections.emptyMap();
+            this.missingInterceptor = missingInterceptor;
+        }
+    }
+
     private class EndOfChainInvoker implements Filter {
         /**
          * We are the end of the chain, so we call the action method.
@@ -304,6 +375,7 @@ public class RouteDelegate extends Route {
             } else {
 
                 // The interceptor and filter may have change some values, compute the parameters.
+                long begin = System.nanoTime();
                 final List<ActionParameter> arguments = getArguments();
                 Object[] parameters = new Object[arguments.size()];
                 for (int i = 0; i < arguments.size(); i++) {
@@ -328,10 +400,16 @@ public class RouteDelegate extends Route {
 
                 // Sets the parameters.
                 context.setParameters(parameters);
+                long bound = System.nanoTime();
+                record(context, ExchangeTimings.BINDING_TIME, bound - begin);
 
                 // Invoke the action method.
-                final Result result = (Result) getControllerMethod().invoke(
-                        getControllerObject(), parameters);
+                final Result result;
+                try {
+                    result = AsyncResult.from(getControllerMethod().invoke(getControllerObject(), parameters));
+                } finally {
+                    record(context, ExchangeTimings.ACTION_TIME, System.nanoTime() - bound);
+                }
 
                 // Manage the VARY header if the route has a 'consume' set:
                 if (! result.getHeaders().containsKey(HeaderNames.VARY)) {
@@ -387,6 +465,20 @@ public class RouteDelegate extends Route {
             // Anyway, we're the last.
             return -1;
         }
+
+        /**
+         * Stores the duration of a stage in the request scope, so it can be reported once the response is written.
+         *
+         * @param context the filter context
+         * @param key     the key
+         * @param time    the duration in nanoseconds
+         */
+        private void record(RequestContext context, String key, long time) {
+            Request request = context.request();
+            if (request != null && request.data() != null) {
+                request.data().put(key, time);
+            }
+        }
     }
 }
 
@@ -0,0 +1,313 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.router;
+
+import com.google.common.collect.ImmutableList;
+import org.wisdom.api.http.HttpMethod;
+import org.wisdom.api.router.Route;
+
+import java.util.*;
+
+/**
+ * An immutable index of the routes, used by the {@link RequestRouter} to find the routes matching a request without
+ * evaluating the regex of every registered route.
+ * <p>
+ * Routes are partitioned by HTTP method. For each method, a radix tree is built over the <em>literal prefix</em> of
+ * the route urls, i.e. the characters preceding the first variable part ({@code {id}}, {@code {path+}},
+ * {@code *}...) or the first regex meta-character. Looking up an uri walks the tree along the uri characters and
+ * only evaluates the routes attached to the traversed nodes. Fully literal routes are matched by a simple length
+ * check, the others fall back to the route regex.
+ * <p>
+ * Instances are never modified once built. The router rebuilds a new index when controllers arrive or leave and
+ * publishes it through a volatile field, so lookups do not require any lock.
+ */
+final class RouteIndex {
+
+    /**
+     * The characters ending the literal prefix of an url. This includes the Wisdom variable syntax and all the regex
+     * meta-characters, as the route url is used as a regex.
+     */
+    private static final String NON_LITERAL_CHARACTERS = "{}*+?.()[]\\|^$";
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final char[] NO_CHARS = new char[0];
+
+    /**
+     * The empty index.
+     */
+    static final RouteIndex EMPTY = new RouteIndex(Collections.<Route>emptyList());
+
+    /**
+     * The root of the tree, one per HTTP method (indexed by ordinal).
+     */
+    private final Node[] roots;
+
+    /**
+     * The routes in their registration order.
+     */
+    private final List<Route> routes;
+
+    /**
+     * Creates a new index.
+     *
+     * @param routes the routes, in registration order
+     */
+    RouteIndex(Collection<? extends Route> routes) {
+        this.routes = ImmutableList.copyOf(routes);
+        HttpMethod[] methods = HttpMethod.values();
+        MutableNode[] builders = new MutableNode[methods.length];
+        int order = 0;
+        for (Route route : this.routes) {
+            HttpMethod method = route.getHttpMethod();
+            if (method == null || route.getUrl() == null) {
+                continue;
+            }
+            MutableNode root = builders[method.ordinal()];
+            if (root == null) {
+                root = new MutableNode("");
+                builders[method.ordinal()] = root;
+            }
+            String url = route.getUrl();
+            String prefix = getLiteralPrefix(url);
+            root.insert(prefix, new Entry(route, order++, prefix.length() == url.length()));
+        }
+
+        roots = new Node[methods.length];
+        for (int i = 0; i < builders.length; i++) {
+            if (builders[i] != null) {
+                roots[i] = builders[i].freeze();
+            }
+        }
+    }
+
+    /**
+     * Computes the literal prefix of the given url.
+     *
+     * @param url the url
+     * @return the prefix, empty if the url starts with a non-literal character.
+     */
+    static String getLiteralPrefix(String url) {
+        for (int i = 0; i < url.length(); i++) {
+            if (NON_LITERAL_CHARACTERS.indexOf(url.charAt(i)) != -1) {
+                return url.substring(0, i);
+            }
+        }
+        return url;
+    }
+
+    /**
+     * @return the indexed routes, in registration order.
+     */
+    List<Route> routes() {
+        return routes;
+    }
+
+    /**
+     * Finds the routes matching the given method and uri. The routes are returned in their registration order,
+     * as the first route accepting the request wins.
+     *
+     * @param method the HTTP method
+     * @param uri    the uri
+     * @return the list of matching routes, empty if none.
+     */
+    List<Route> find(HttpMethod method, String uri) {
+        if (method == null || uri == null) {
+            return Collections.emptyList();
+        }
+        Node node = roots[method.ordinal()];
+        if (node == null) {
+            return Collections.emptyList();
+        }
+
+        // Most requests match a single route, so we only create a list when we find a second match.
+        Entry first = null;
+        List<Entry> matches = null;
+        int position = 0;
+        while (node != null) {
+            for (Entry entry : node.entries) {
+                if (entry.matches(method, uri, position)) {
+                    if (first == null) {
+                        first = entry;
+                    } else {
+                        if (matches == null) {
+                            matches = new ArrayList<>(4);
+                            matches.add(first);
+                        }
+                        matches.add(entry);
+                    }
+                }
+            }
+            if (position == uri.length()) {
+                break;
+            }
+            Node child = node.child(uri.charAt(position));
+            if (child == null || !uri.startsWith(child.label, position)) {
+                break;
+            }
+            position += child.label.length();
+            node = child;
+        }
+
+        if (first == null) {
+            return Collections.emptyList();
+        }
+        if (matches == null) {
+            return Collections.singletonList(first.route);
+        }
+        Collections.sort(matches);
+        List<Route> result = new ArrayList<>(matches.size());
+        for (Entry entry : matches) {
+            result.add(entry.route);
+        }
+        return result;
+    }
+
+    /**
+     * A route attached to the node of its literal prefix.
+     */
+    private static final class Entry implements Comparable<Entry> {
+        private final Route route;
+        private final int order;
+        private final boolean literal;
+
+        private Entry(Route route, int order, boolean literal) {
+            this.route = route;
+            this.order = order;
+            this.literal = literal;
+        }
+
+        /**
+         * Checks whether the route matches the uri. The literal prefix has already been matched when this method is
+         * called.
+         *
+         * @param method   the method
+         * @param uri      the uri
+         * @param position the position reached in the uri
+         * @return {@code true} if the route matches
+         */
+        private boolean matches(HttpMethod method, String uri, int position) {
+            if (literal) {
+                return position == uri.length();
+            }
+            return route.matches(method, uri);
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return Integer.compare(order, other.order);
+        }
+    }
+
+    /**
+     * An immutable node of the radix tree.
+     */
+    private static final class Node {
+        private final String label;
+        private final char[] keys;
+        private final Node[] children;
+        private final Entry[] entries;
+
+        private Node(String label, char[] keys, Node[] children, Entry[] entries) {
+            this.label = label;
+            this.keys = keys;
+            this.children = children;
+            this.entries = entries;
+        }
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index < 0) {
+                return null;
+            }
+            return children[index];
+        }
+    }
+
+    /**
+     * The node structure used while building the tree.
+     */
+    private static final class MutableNode {
+        private String label;
+        private final TreeMap<Character, MutableNode> children = new TreeMap<>();
+        private final List<Entry> entries = new ArrayList<>();
+
+        private MutableNode(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Inserts an entry. The given path is relative to this node (the label of the node has been consumed).
+         *
+         * @param path  the remaining path
+         * @param entry the entry
+         */
+        private void insert(String path, Entry entry) {
+            if (path.isEmpty()) {
+                entries.add(entry);
+                return;
+            }
+            MutableNode child = children.get(path.charAt(0));
+            if (child == null) {
+                MutableNode node = new MutableNode(path);
+                node.entries.add(entry);
+                children.put(path.charAt(0), node);
+                return;
+            }
+
+            int common = commonPrefixLength(child.label, path);
+            if (common < child.label.length()) {
+                // Split the child.
+                MutableNode split = new MutableNode(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.children.put(child.label.charAt(0), child);
+                children.put(split.label.charAt(0), split);
+                child = split;
+            }
+            child.insert(path.substring(common), entry);
+        }
+
+        private static int commonPrefixLength(String a, String b) {
+            int max = Math.min(a.length(), b.length());
+            int i = 0;
+            while (i < max && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
+
+        private Node freeze() {
+            char[] keys = NO_CHARS;
+            Node[] nodes = NO_CHILDREN;
+            if (!children.isEmpty()) {
+                keys = new char[children.size()];
+                nodes = new Node[children.size()];
+                int i = 0;
+                for (Map.Entry<Character, MutableNode> child : children.entrySet()) {
+                    keys[i] = child.getKey();
+                    nodes[i] = child.getValue().freeze();
+                    i++;
+                }
+            }
+            Entry[] array = entries.isEmpty() ? NO_ENTRIES : entries.toArray(new Entry[entries.size()]);
+            return new Node(label, keys, nodes, array);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.router;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * An executor running the submitted tasks one at a time, in submission order, on a delegate executor. Tasks from
+ * different serial executors run concurrently, so it provides ordering for a single web socket client without any
+ * global lock.
+ */
+final class SerialExecutor implements Executor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SerialExecutor.class);
+
+    private final Executor delegate;
+
+    /**
+     * The pending tasks, guarded by the monitor of this object.
+     */
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private Runnable active;
+
+    /**
+     * Creates the executor.
+     *
+     * @param delegate the executor running the tasks
+     */
+    SerialExecutor(Executor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void execute(final Runnable task) {
+        tasks.add(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    task.run();
+                } finally {
+                    scheduleNext();
+                }
+            }
+        });
+        if (active == null) {
+            scheduleNext();
+        }
+    }
+
+    private synchronized void scheduleNext() {
+        active = tasks.poll();
+        if (active != null) {
+            try {
+                delegate.execute(active);
+            } catch (RejectedExecutionException e) {
+                LOGGER.error("Cannot execute the task, the executor rejected it - dropping {} pending tasks",
+                        tasks.size() + 1, e);
+                tasks.clear();
+                active = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.router;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.*;
+
+/**
+ * An immutable index of web socket callbacks, used by the {@link WebSocketRouter} to find the callbacks listening a
+ * web socket without evaluating the regex of every callback.
+ * <p>
+ * Callbacks listening a literal uri (the most common case) are stored in a map keyed by uri. The others are kept in
+ * a list and checked against their literal prefix before evaluating their regex. Lookups return the callbacks in
+ * their registration order. The router rebuilds the index when controllers arrive or leave.
+ *
+ * @param <T> the type of callback
+ */
+final class WebSocketCallbackIndex<T extends DefaultWebSocketCallback> {
+
+    private final List<T> callbacks;
+    private final Map<String, List<T>> literals;
+    private final List<Dynamic<T>> dynamics;
+
+    /**
+     * Creates the index.
+     *
+     * @param callbacks the callbacks, in registration order
+     */
+    WebSocketCallbackIndex(Collection<? extends T> callbacks) {
+        this.callbacks = ImmutableList.copyOf(callbacks);
+        Map<String, List<T>> map = new HashMap<>();
+        List<Dynamic<T>> list = new ArrayList<>();
+        for (T callback : this.callbacks) {
+            String uri = callback.getUri();
+            String prefix = RouteIndex.getLiteralPrefix(uri);
+            if (prefix.length() == uri.length()) {
+                List<T> forUri = map.get(uri);
+                if (forUri == null) {
+                    forUri = new ArrayList<>(1);
+                    map.put(uri, forUri);
+                }
+                forUri.add(callback);
+            } else {
+                list.add(new Dynamic<>(callback, prefix));
+            }
+        }
+        this.literals = map;
+        this.dynamics = list;
+    }
+
+    /**
+     * @return the indexed callbacks, in registration order.
+     */
+    List<T> callbacks() {
+        return callbacks;
+    }
+
+    /**
+     * Finds the callbacks listening the given uri.
+     *
+     * @param uri the uri of the web socket
+     * @return the callbacks in registration order, empty if none
+     */
+    List<T> find(String uri) {
+        List<T> literal = literals.get(uri);
+        if (dynamics.isEmpty()) {
+            return literal == null ? Collections.<T>emptyList() : literal;
+        }
+        List<T> result = null;
+        for (Dynamic<T> dynamic : dynamics) {
+            if (uri.startsWith(dynamic.prefix) && dynamic.callback.matches(uri)) {
+                if (result == null) {
+                    result = new ArrayList<>();
+                }
+                result.add(dynamic.callback);
+            }
+        }
+        if (result == null) {
+            return literal == null ? Collections.<T>emptyList() : literal;
+        }
+        if (literal != null) {
+            // Restore the registration order.
+            result.addAll(literal);
+            final List<T> order = callbacks;
+            Collections.sort(result, new Comparator<T>() {
+                @Override
+                public int compare(T o1, T o2) {
+                    return Integer.compare(order.indexOf(o1), order.indexOf(o2));
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * A callback listening a uri containing dynamic parts.
+     */
+    private static final class Dynamic<T extends DefaultWebSocketCallback> {
+        private final T callback;
+        private final String prefix;
+
+        private Dynamic(T callback, String prefix) {
+            this.callback = callback;
+            this.prefix = prefix;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.wisdom.api.annotations.Closed;
 import org.wisdom.api.annotations.OnMessage;
 import org.wisdom.api.annotations.Opened;
 import org.wisdom.api.concurrent.ManagedExecutorService;
+import org.wisdom.api.configuration.ApplicationConfiguration;
 import org.wisdom.api.content.ContentEngine;
 import org.wisdom.api.content.ParameterFactories;
 import org.wisdom.api.http.websockets.Publisher;
@@ -39,10 +40,15 @@ import org.wisdom.api.router.RouteUtils;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 /**
  * Component handling web socket frame routing.
@@ -61,6 +67,26 @@ public class WebSocketRouter implements WebSocketListener, Publisher {
     Set<DefaultWebSocketCallback> closes = new LinkedHashSet<>();
     Set<OnMessageWebSocketCallback> listeners = new LinkedHashSet<>();
 
+    /**
+     * The indexes of the callbacks, rebuilt when a controller arrives or leaves.
+     */
+    private volatile WebSocketCallbackIndex<DefaultWebSocketCallback> openIndex =
+            new WebSocketCallbackIndex<>(Collections.<DefaultWebSocketCallback>emptyList());
+    private volatile WebSocketCallbackIndex<DefaultWebSocketCallback> closeIndex = openIndex;
+    private volatile WebSocketCallbackIndex<OnMessageWebSocketCallback> messageIndex =
+            new WebSocketCallbackIndex<>(Collections.<OnMessageWebSocketCallback>emptyList());
+
+    /**
+     * The opened connections (uri - client), holding the callbacks receiving their messages.
+     */
+    private final ConcurrentMap<String, Connection> connections = new ConcurrentHashMap<>();
+
+    /**
+     * Whether the messages of a client are delivered in order. Enabled by setting {@code websocket.dispatch} to
+     * {@code ordered}.
+     */
+    boolean ordered;
+
     @Requires(optional = true)
     private ContentEngine contentEngine;
 
@@ -70,6 +96,9 @@ public class WebSocketRouter implements WebSocketListener, Publisher {
     @Requires(filter = "(name=" + ManagedExecutorService.SYSTEM + ")")
     ManagedExecutorService executor;
 
+    @Requires(optional = true)
+    ApplicationConfiguration configuration;
+
     /**
      * @return the logger.
      */
@@ -93,6 +122,15 @@ public class WebSocketRouter implements WebSocketListener, Publisher {
         dispatcher.unregister(this);
     }
 
+    /**
+     * Reads the dispatch mode.
+     */
+    @Validate
+    public void start() {
+        ordered = configuration != null
+                && "ordered".equalsIgnoreCase(configuration.get("websocket.dispatch"));
+    }
+
     @Invalidate
     public void stop() {
         for (WebSocketDispatcher dispatcher : dispatchers) {
@@ -108,6 +146,7 @@ public class WebSocketRouter implements WebSocketListener, Publisher {
     @Bind(aggregate = true)
     public synchronized void bindController(Controller controller) {
         analyze(controller);
+        reindex();
     }
 
     /**
@@ -192,6 +231,17 @@ public class WebSocketRouter implements WebSocketListener, Publisher {
             }
         }
         listeners.removeAll(toRemove);  //NOSONAR type is correct here.
+        reindex();
+    }
+
+    /**
+     * Rebuilds the indexes from the callback sets. Connections detect the new message index and resolve their
+     * callbacks again.
+     */
+    private void reindex() {
+        openIndex = new WebSocketCallbackIndex<>(opens);
+        closeIndex = new WebSocketCallbackIndex<>(closes);
+        messageIndex = new WebSocketCallbackIndex<>(listeners);
     }
 
     /**
@@ -203,25 +253,37 @@ public class WebSocketRouter implements WebSocketListener, Publisher {
      */
     @Override
     public void received(final String uri, final String from, final byte[] content) {
-        for (final OnMessageWebSocketCallback listener : listeners) {
-            if (listener.matches(uri)) {
-                 executor.submit(new Callable<Void>() {
-                     @Override
-                     public Void call() throws Exception {
-                         try {
-                             listener.invoke(uri, from, content);
-                         } catch (InvocationTargetException e) { //NOSONAR
-                             LOGGER.error("An error occurred in the @OnMessage callback {}#{} : {}",
-                                     listener.getController().getClass().getName(), listener.getMethod().getName
-                                             (), e.getTargetException().getMessage(), e.getTargetException()
-                             );
-                         } catch (Exception e) {
-                             LOGGER.error("An error occurred in the @OnMessage callback {}#{} : {}",
-                                     listener.getController().getClass().getName(), listener.getMethod().getName(), e.getMessage(), e);
-                         }
-                         return null;
-                     }
-                 });
+        Connection connection = connections.get(key(uri, from));
+        List<OnMessageWebSocketCallback> targets;
+        Executor serial = null;
+        if (connection != null) {
+            targets = connection.getListeners(messageIndex);
+            serial = connection.executor;
+        } else {
+            targets = messageIndex.find(uri);
+        }
+        for (final OnMessageWebSocketCallback listener : targets) {
+            Callable<Void> task = new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    try {
+                        listener.invoke(uri, from, content);
+                    } catch (InvocationTargetException e) { //NOSONAR
+                        LOGGER.error("An error occurred in the @OnMessage callback {}#{} : {}",
+                                listener.getController().getClass().getName(), listener.getMethod().getName
+                                        (), e.getTargetException().getMessage(), e.getTargetException()
+                        );
+                    } catch (Exception e) {
+                        LOGGER.error("An error occurred in the @OnMessage callback {}#{} : {}",
+                                listener.getController().getClass().getName(), listener.getMethod().getName(), e.getMessage(), e);
+                    }
+                    return null;
+                }
+            };
+            if (serial == null) {
+                executor.submit(task);
+            } else {
+                serial.execute(new FutureTask<>(task));
             }
         }
     }
@@ -234,19 +296,18 @@ public class WebSocketRouter implements WebSocketListener, Publisher {
      */
     @Override
     public void opened(String uri, String client) {
-        for (DefaultWebSocketCallback open : opens) {
-            if (open.matches(uri)) {
-                try {
-                    open.invoke(uri, client, null);
-                } catch (InvocationTargetException e) { //NOSONAR
-                    LOGGER.error("An error occurred in the @Open callback {}#{} : {}",
-                            open.getController().getClass().getName(), open.getMethod().getName
-                                    (), e.getTargetException().getMessage(), e.getTargetException()
-                    );
-                } catch (Exception e) {
-                    LOGGER.error("An error occurred in the @Open callback {}#{} : {}",
-                            open.getController().getClass().getName(), open.getMethod().getName(), e.getMessage(), e);
-                }
+        connections.put(key(uri, client), new Connection(uri, ordered ? new SerialExecutor(executor) : null));
+        for (DefaultWebSocketCallback open : openIndex.find(uri)) {
+            try {
+                open.invoke(uri, client, null);
+            } catch (InvocationTargetException e) { //NOSONAR
+                LOGGER.error("An error occurred in the @Open callback {}#{} : {}",
+                        open.getController().getClass().getName(), open.getMethod().getName
+                                (), e.getTargetException().getMessage(), e.getTargetException()
+                );
+            } catch (Exception e) {
+                LOGGER.error("An error occurred in the @Open callback {}#{} : {}",
+                        open.getController().getClass().getName(), open.getMethod().getName(), e.getMessage(), e);
             }
         }
     }
@@ -259,19 +320,18 @@ public class WebSocketRouter implements WebSocketListener, Publisher {
      */
     @Override
     public void closed(String uri, String client) {
-        for (DefaultWebSocketCallback close : closes) {
-            if (close.matches(uri)) {
-                try {
-                    close.invoke(uri, client, null);
-                } catch (InvocationTargetException e) { //NOSONAR
-                    LOGGER.error("An error occurred in the @Close callback {}#{} : {}",
-                            close.getController().getClass().getName(), close.getMethod().getName
-                                    (), e.getTargetException().getMessage(), e.getTargetException()
-                    );
-                } catch (Exception e) {
-                    LOGGER.error("An error occurred in the @Close callback {}#{} : {}",
-                            close.getController().getClass().getName(), close.getMethod().getName(), e.getMessage(), e);
-                }
+        connections.remove(key(uri, client));
+        for (DefaultWebSocketCallback close : closeIndex.find(uri)) {
+            try {
+                close.invoke(uri, client, null);
+            } catch (InvocationTargetException e) { //NOSONAR
+                LOGGER.error("An error occurred in the @Close callback {}#{} : {}",
+                        close.getController().getClass().getName(), close.getMethod().getName
+                                (), e.getTargetException().getMessage(), e.getTargetException()
+                );
+            } catch (Exception e) {
+                LOGGER.error("An error occurred in the @Close callback {}#{} : {}",
+                        close.getController().getClass().getName(), close.getMethod().getName(), e.getMessage(), e);
             }
         }
     }
@@ -321,12 +381,15 @@ public class WebSocketRouter implements WebSocketListener, Publisher {
      */
     @Override
     public void publish(String uri, JsonNode message) {
+        // Serialize the message once, whatever the number of dispatchers.
+        String serialized;
+        if (message == null) {
+            serialized = NullNode.getInstance().toString();
+        } else {
+            serialized = message.toString();
+        }
         for (WebSocketDispatcher dispatcher : dispatchers) {
-            if (message == null) {
-                dispatcher.publish(uri, NullNode.getInstance().toString());
-            } else {
-                dispatcher.publish(uri, message.toString());
-            }
+            dispatcher.publish(uri, serialized);
         }
     }
 
@@ -388,4 +451,41 @@ public class WebSocketRouter implements WebSocketListener, Publisher {
             dispatcher.send(uri, client, message);
         }
     }
+
+    private static String key(String uri, String client) {
+        return uri + '#' + client;
+    }
+
+    /**
+     * An opened connection. It caches the callbacks receiving the messages of the client, and, in ordered mode, the
+     * executor delivering them.
+     */
+    private static final class Connection {
+        private final String uri;
+        private final Executor executor;
+        private volatile WebSocketCallbackIndex<OnMessageWebSocketCallback> index;
+        private volatile List<OnMessageWebSocketCallback> listeners;
+
+        private Connection(String uri, Executor executor) {
+            this.uri = uri;
+            this.executor = executor;
+        }
+
+        /**
+         * Gets the callbacks receiving the messages, resolved again if the index has changed.
+         *
+         * @param current the current index
+         * @return the callbacks
+         */
+        private List<OnMessageWebSocketCallback> getListeners(WebSocketCallbackIndex<OnMessageWebSocketCallback>
+                                                                      current) {
+            List<OnMessageWebSocketCallback> result = listeners;
+            if (index != current || result == null) {
+                result = current.find(uri);
+                listeners = result;
+                index = current;
+            }
+            return result;
+        }
+    }
 }
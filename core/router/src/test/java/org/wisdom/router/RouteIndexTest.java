@@ -0,0 +1,81 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.router;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.wisdom.api.http.HttpMethod;
+import org.wisdom.api.router.Route;
+import org.wisdom.api.router.RouteBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the route index used by the router.
+ */
+public class RouteIndexTest {
+
+    FakeController controller = new FakeController();
+
+    @Test
+    public void testLiteralPrefix() {
+        assertThat(RouteIndex.getLiteralPrefix("/foo/bar")).isEqualTo("/foo/bar");
+        assertThat(RouteIndex.getLiteralPrefix("/foo/{id}")).isEqualTo("/foo/");
+        assertThat(RouteIndex.getLiteralPrefix("/assets/*")).isEqualTo("/assets/");
+        assertThat(RouteIndex.getLiteralPrefix("/foo.js")).isEqualTo("/foo");
+        assertThat(RouteIndex.getLiteralPrefix("{path+}")).isEmpty();
+    }
+
+    @Test
+    public void testLookup() {
+        Route foo = new RouteBuilder().route(HttpMethod.GET).on("/foo").to(controller, "foo");
+        Route fooBar = new RouteBuilder().route(HttpMethod.GET).on("/foo/bar").to(controller, "foo");
+        Route fooId = new RouteBuilder().route(HttpMethod.GET).on("/foo/{id}").to(controller, "foo");
+        Route fooBaz = new RouteBuilder().route(HttpMethod.GET).on("/foobaz").to(controller, "bar");
+        Route post = new RouteBuilder().route(HttpMethod.POST).on("/foo").to(controller, "bar");
+        RouteIndex index = new RouteIndex(ImmutableList.of(foo, fooBar, fooId, fooBaz, post));
+
+        assertThat(index.find(HttpMethod.GET, "/foo")).containsExactly(foo);
+        assertThat(index.find(HttpMethod.GET, "/foobaz")).containsExactly(fooBaz);
+        assertThat(index.find(HttpMethod.GET, "/foo/1")).containsExactly(fooId);
+        assertThat(index.find(HttpMethod.GET, "/foo/bar")).containsExactly(fooBar, fooId);
+        assertThat(index.find(HttpMethod.GET, "/fo")).isEmpty();
+        assertThat(index.find(HttpMethod.GET, "/foo/1/2")).isEmpty();
+        assertThat(index.find(HttpMethod.POST, "/foo")).containsExactly(post);
+        assertThat(index.find(HttpMethod.DELETE, "/foo")).isEmpty();
+    }
+
+    @Test
+    public void testRegistrationOrderIsKept() {
+        Route any = new RouteBuilder().route(HttpMethod.GET).on("/{path+}").to(controller, "foo");
+        Route literal = new RouteBuilder().route(HttpMethod.GET).on("/foo/bar").to(controller, "bar");
+        RouteIndex index = new RouteIndex(ImmutableList.of(any, literal));
+        assertThat(index.find(HttpMethod.GET, "/foo/bar")).containsExactly(any, literal);
+
+        index = new RouteIndex(ImmutableList.of(literal, any));
+        assertThat(index.find(HttpMethod.GET, "/foo/bar")).containsExactly(literal, any);
+    }
+
+    @Test
+    public void testEmptyIndex() {
+        assertThat(RouteIndex.EMPTY.find(HttpMethod.GET, "/")).isEmpty();
+        assertThat(RouteIndex.EMPTY.routes()).isEmpty();
+    }
+}
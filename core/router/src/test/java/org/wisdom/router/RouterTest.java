@@ -238,6 +238,39 @@ public class RouterTest {
 
     }
 
+    @Test
+    public void testThatTheChainIsRecomputedWhenFiltersChange() throws Exception {
+        FakeController controller = new FakeController();
+        controller.setRoutes(ImmutableList.of(
+                new RouteBuilder().route(HttpMethod.GET).on("/foo").to(controller, "foo")
+        ));
+        router.bindController(controller);
+        Route route = router.getRouteFor(HttpMethod.GET, "/foo", request);
+        assertThat(route.invoke().getStatusCode()).isEqualTo(Status.CREATED);
+
+        Filter filter = new Filter() {
+            @Override
+            public Result call(Route route, RequestContext context) throws Exception {
+                return Results.ok();
+            }
+
+            @Override
+            public Pattern uri() {
+                return Pattern.compile("/foo");
+            }
+
+            @Override
+            public int priority() {
+                return 0;
+            }
+        };
+        router.bindFilter(filter);
+        assertThat(route.invoke().getStatusCode()).isEqualTo(Status.OK);
+
+        router.unbindFilter(filter);
+        assertThat(route.invoke().getStatusCode()).isEqualTo(Status.CREATED);
+    }
+
     @Test
     public void testBindAndUnbindFilters() {
         Filter filter = new Filter() {
@@ -36,8 +36,10 @@ import org.wisdom.api.http.websockets.WebSocketDispatcher;
 import org.wisdom.content.converters.ParamConverterEngine;
 
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 
@@ -333,5 +335,91 @@ public class WebSocketRouterTest {
         verify(dispatcher, times(1)).publish("/ws", NullNode.getInstance().toString());
     }
 
+    @Test
+    public void testCallbacksAreResolvedFromTheIndex() {
+        WebSocketRouter router = new WebSocketRouter();
+        router.dispatchers = new WebSocketDispatcher[]{mock(WebSocketDispatcher.class)};
+        router.executor = mock(ManagedExecutorService.class);
+        router.converter = new ParamConverterEngine(
+                Collections.<ParameterConverter>emptyList(),
+                Collections.<ParameterFactory>emptyList());
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                ((Callable<Void>) invocation.getArguments()[0]).call();
+                return null;
+            }
+        }).when(router.executor).submit(any(Callable.class));
+
+        final List<String> received = new ArrayList<>();
+        final DefaultController controller = new DefaultController() {
+            @OnMessage("/ws/{name}")
+            public void dynamic(@Parameter("name") String name, @Body String message) {
+                received.add("dynamic-" + name + "-" + message);
+            }
+
+            @OnMessage("/ws/chat")
+            public void literal(@Body String message) {
+                received.add("literal-" + message);
+            }
+        };
+        router.bindController(controller);
+
+        router.opened("/ws/chat", "client");
+        router.received("/ws/chat", "client", "hello".getBytes(Charset.defaultCharset()));
+        assertThat(received).containsOnly("dynamic-chat-hello", "literal-hello");
 
+        received.clear();
+        router.received("/ws/other", "unknown", "hello".getBytes(Charset.defaultCharset()));
+        assertThat(received).containsExactly("dynamic-other-hello");
+
+        // The callbacks cached by the connection are updated when the controller leaves.
+        received.clear();
+        router.unbindController(controller);
+        router.received("/ws/chat", "client", "hello".getBytes(Charset.defaultCharset()));
+        assertThat(received).isEmpty();
+        router.closed("/ws/chat", "client");
+    }
+
+    @Test
+    public void testOrderedDispatch() {
+        WebSocketRouter router = new WebSocketRouter();
+        router.dispatchers = new WebSocketDispatcher[]{mock(WebSocketDispatcher.class)};
+        router.executor = mock(ManagedExecutorService.class);
+        router.converter = new ParamConverterEngine(
+                Collections.<ParameterConverter>emptyList(),
+                Collections.<ParameterFactory>emptyList());
+        final List<Runnable> scheduled = new ArrayList<>();
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                scheduled.add((Runnable) invocation.getArguments()[0]);
+                return null;
+            }
+        }).when(router.executor).execute(any(Runnable.class));
+        router.ordered = true;
+
+        final List<String> received = new ArrayList<>();
+        final DefaultController controller = new DefaultController() {
+            @OnMessage("/ws")
+            public void onMessage(@Parameter("client") String client, @Body String message) {
+                received.add(client + "-" + message);
+            }
+        };
+        router.bindController(controller);
+        router.opened("/ws", "a");
+        router.opened("/ws", "b");
+
+        router.received("/ws", "a", "1".getBytes(Charset.defaultCharset()));
+        router.received("/ws", "a", "2".getBytes(Charset.defaultCharset()));
+        router.received("/ws", "b", "1".getBytes(Charset.defaultCharset()));
+        // One task per client at a time.
+        assertThat(scheduled).hasSize(2);
+        verify(router.executor, never()).submit(any(Callable.class));
+
+        while (!scheduled.isEmpty()) {
+            scheduled.remove(0).run();
+        }
+        assertThat(received).containsExactly("a-1", "b-1", "a-2");
+    }
 }
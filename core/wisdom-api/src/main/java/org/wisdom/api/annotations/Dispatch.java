@@ -0,0 +1,65 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.api.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Selects the thread on which an action method is invoked. By default, actions are invoked on the thread having
+ * read the request (the event loop of the server), so blocking actions (database accesses, file I/O,
+ * remote calls...) stall all the other requests handled by this thread. Annotating these actions (or their
+ * controller) moves them to the worker pool or to a named executor:
+ * <code>
+ *     <pre>
+ *         &#64;Dispatch
+ *         public Result list() { ... } // Invoked on the worker pool (the system executor)
+ *
+ *         &#64;Dispatch("db")
+ *         public Result list() { ... } // Invoked on the executor named 'db'
+ *     </pre>
+ * </code>
+ * The dispatch policy can also be configured from the application configuration, which takes precedence over the
+ * annotation.
+ * <p/>
+ * This annotation is retrieved and analyzed at runtime (by the server).
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Dispatch {
+
+    /**
+     * Invokes the action on the thread having read the request.
+     */
+    String EVENT_LOOP = "event-loop";
+
+    /**
+     * Invokes the action on the worker pool, i.e. the system executor.
+     */
+    String WORKER = "worker";
+
+    /**
+     * The dispatch policy: {@link #EVENT_LOOP}, {@link #WORKER} or the name of a
+     * {@link org.wisdom.api.concurrent.ManagedExecutorService}.
+     */
+    String value() default WORKER;
+}
@@ -0,0 +1,51 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.api.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an action consuming the request body as a stream. By default, the server reads the whole body in memory
+ * (up to {@code request.body.max.size}) before invoking the action. Actions annotated with this annotation are
+ * invoked as soon as the request headers are received, and read the body while it arrives:
+ * <code>
+ *     <pre>
+ *         &#64;Route(method = HttpMethod.POST, uri = "/ingest")
+ *         &#64;StreamingBody
+ *         public Result ingest(&#64;Body InputStream stream) { ... }
+ *     </pre>
+ * </code>
+ * The stream is back-pressured: the server stops reading from the connection when the action does not consume the
+ * data fast enough. Streaming actions are always invoked on the worker pool (or on their
+ * {@link org.wisdom.api.annotations.Dispatch} executor), as reading the stream blocks. The size of a streamed body
+ * is not limited, and form attributes and uploaded files are not available for these actions.
+ * <p/>
+ * Routes created using the {@link org.wisdom.api.router.RouteBuilder} can use
+ * {@link org.wisdom.api.router.Route#withStreamingBody()} instead.
+ * <p/>
+ * This annotation is retrieved and analyzed at runtime (by the server).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StreamingBody {
+}
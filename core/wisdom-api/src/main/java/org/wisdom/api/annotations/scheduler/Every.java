@@ -41,6 +41,15 @@ import java.util.concurrent.TimeUnit;
  * these values are ignored.
  *
  * You need to use one way or the other to configure the period.
+ *
+ * Alternatively, the job can follow a cron expression set using {@code cron}, such as {@code 0 4 * * MON-FRI}. In
+ * this case the period is ignored.
+ *
+ * By default jobs are executed at a fixed rate. {@code fixedDelay} waits for the given period between the end of an
+ * execution and the start of the next one, {@code skipIfRunning} skips the executions becoming due while the job is
+ * still running instead of running them back to back, and {@code jitter} delays each execution by a random amount
+ * of time to avoid having many jobs starting at the same instant. Jobs are executed by the system scheduler,
+ * unless {@code scheduler} names another scheduler configured in {@code pools.schedulers}.
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
@@ -68,6 +77,46 @@ public @interface Every {
      */
     TimeUnit unit() default TimeUnit.MINUTES;
 
+    /**
+     * Sets a cron expression computing the execution times of the job. Both the 5-field (minute, hour, day of
+     * month, month, day of week) and the 6-field (with the seconds first) formats are supported, as well as the
+     * {@code @hourly}, {@code @daily}, {@code @weekly}, {@code @monthly} and {@code @yearly} shortcuts. When set, the
+     * period is ignored.
+     *
+     * @since 0.9.2
+     */
+    String cron() default "";
+
+    /**
+     * Whether the period is a delay between the end of an execution and the start of the next one, instead of a
+     * fixed rate. Ignored for cron jobs.
+     *
+     * @since 0.9.2
+     */
+    boolean fixedDelay() default false;
 
+    /**
+     * Whether the executions becoming due while the job is still running are skipped. By default, late executions
+     * are run as soon as the previous one completes.
+     *
+     * @since 0.9.2
+     */
+    boolean skipIfRunning() default false;
+
+    /**
+     * Sets the maximum random delay added to each execution, using the same DSL as the period (for instance
+     * {@code 30s}). No jitter is applied by default.
+     *
+     * @since 0.9.2
+     */
+    String jitter() default "";
+
+    /**
+     * Sets the name of the scheduler executing the job, as configured in {@code pools.schedulers}. The job is not
+     * executed until this scheduler is available. The system scheduler is used by default.
+     *
+     * @since 0.9.2
+     */
+    String scheduler() default "";
 
 }
@@ -0,0 +1,130 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.api.bodies;
+
+import org.wisdom.api.http.ByteArrayRenderable;
+import org.wisdom.api.http.Context;
+import org.wisdom.api.http.Result;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+/**
+ * A renderable object holding content that is already serialized as bytes (a cached response, a document written
+ * in a buffer...). The array is sent as it is, without being copied, so it must not be modified once given to this
+ * object.
+ */
+public class RenderableBytes implements ByteArrayRenderable<byte[]> {
+
+    /**
+     * The content.
+     */
+    private final byte[] bytes;
+
+    /**
+     * The mime-type of the content.
+     */
+    private final String type;
+
+    /**
+     * Creates a new renderable object.
+     *
+     * @param bytes the content, must not be {@literal null}
+     * @param type  the mime type, may be {@literal null}
+     */
+    public RenderableBytes(byte[] bytes, String type) {
+        this.bytes = bytes;
+        this.type = type;
+    }
+
+    /**
+     * Retrieves the content.
+     *
+     * @param context the HTTP context
+     * @param result  the result having built this renderable object
+     * @return the content, must not be modified
+     */
+    @Override
+    public byte[] renderAsBytes(Context context, Result result) {
+        return bytes;
+    }
+
+    /**
+     * Retrieves the content.
+     *
+     * @param context the HTTP context
+     * @param result  the result having built this renderable object
+     * @return an input stream reading the content
+     */
+    @Override
+    public InputStream render(Context context, Result result) {
+        return new ByteArrayInputStream(bytes);
+    }
+
+    /**
+     * @return the length of the content.
+     */
+    @Override
+    public long length() {
+        return bytes.length;
+    }
+
+    /**
+     * @return the mime type.
+     */
+    @Override
+    public String mimetype() {
+        return type;
+    }
+
+    /**
+     * @return the content, must not be modified.
+     */
+    @Override
+    public byte[] content() {
+        return bytes;
+    }
+
+    /**
+     * @return {@literal false}, the content is already serialized.
+     */
+    @Override
+    public boolean requireSerializer() {
+        return false;
+    }
+
+    /**
+     * Does nothing, the content is already serialized.
+     *
+     * @param serialized the serialized form
+     */
+    @Override
+    public void setSerializedForm(String serialized) {
+        // Nothing to do.
+    }
+
+    /**
+     * @return {@literal false}, the content is sent at once.
+     */
+    @Override
+    public boolean mustBeChunked() {
+        return false;
+    }
+}
@@ -32,7 +32,7 @@ import java.io.InputStream;
 /**
  * A renderable object taking an ObjectNode as parameter.
  */
-public class RenderableJson implements Renderable<JsonNode> {
+public class RenderableJson implements ByteArrayRenderable<JsonNode> {
 
     private static ObjectWriter OBJECT_WRITER = new ObjectMapper().writer().withDefaultPrettyPrinter();
 
@@ -56,6 +56,14 @@ public class RenderableJson implements Renderable<JsonNode> {
         return new ByteArrayInputStream(rendered);
     }
 
+    @Override
+    public byte[] renderAsBytes(Context context, Result result) throws RenderableException {
+        if (rendered == null) {
+            render();
+        }
+        return rendered;
+    }
+
     /**
      * Renders the JSON object as a byte array. Be aware that this method does not use the {@link org.wisdom.api
      * .content.Json} service.
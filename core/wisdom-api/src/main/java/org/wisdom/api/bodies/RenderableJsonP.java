@@ -49,7 +49,7 @@ import java.io.InputStream;
  *   foo({...});
  * </pre>
  */
-public class RenderableJsonP implements Renderable<String> {
+public class RenderableJsonP implements ByteArrayRenderable<String> {
 
     private static final ObjectWriter OBJECT_WRITER = new ObjectMapper().writer().withDefaultPrettyPrinter();
 
@@ -76,6 +76,14 @@ public class RenderableJsonP implements Renderable<String> {
         return new ByteArrayInputStream(rendered);
     }
 
+    @Override
+    public byte[] renderAsBytes(Context context, Result result) throws RenderableException {
+        if (rendered == null) {
+            _render();
+        }
+        return rendered;
+    }
+
     private void _render() throws RenderableException {
         try {
             rendered = (padding + "(" + OBJECT_WRITER.writeValueAsString(node) + ");").getBytes(Charsets.UTF_8);
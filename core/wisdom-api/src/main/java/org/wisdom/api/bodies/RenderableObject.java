@@ -21,7 +21,7 @@ package org.wisdom.api.bodies;
 
 import com.google.common.base.Charsets;
 import org.wisdom.api.http.Context;
-import org.wisdom.api.http.Renderable;
+import org.wisdom.api.http.ByteArrayRenderable;
 import org.wisdom.api.http.RenderableException;
 import org.wisdom.api.http.Result;
 
@@ -31,10 +31,10 @@ import java.io.InputStream;
 /**
  * Render any object, but it requires serialization.
  */
-public class RenderableObject implements Renderable<Object> {
+public class RenderableObject implements ByteArrayRenderable<Object> {
 
     private final Object object;
-    private String serialized;
+    private byte[] serialized;
 
     public RenderableObject(Object o) {
         this.object = o;
@@ -45,11 +45,29 @@ public class RenderableObject implements Renderable<Object> {
         if (serialized == null) {
             throw new RenderableException("Serialization required before rendering");
         }
-        return new ByteArrayInputStream(serialized.getBytes(Charsets.UTF_8));
+        return new ByteArrayInputStream(serialized);
+    }
+
+    @Override
+    public byte[] renderAsBytes(Context context, Result result) throws RenderableException {
+        if (serialized == null) {
+            throw new RenderableException("Serialization required before rendering");
+        }
+        return serialized;
     }
 
     @Override
     public void setSerializedForm(String serialized) {
+        this.serialized = serialized.getBytes(Charsets.UTF_8);
+    }
+
+    /**
+     * Sets the serialized form of the object, already encoded. It lets serializers writing bytes directly avoid
+     * building an intermediate String.
+     *
+     * @param serialized the serialized form
+     */
+    public void setSerializedForm(byte[] serialized) {
         this.serialized = serialized;
     }
 
@@ -31,7 +31,7 @@ import java.io.StringWriter;
  * HTML, plain text... So the mime-type should be specified. Notice that if the mime-type of the content is not
  * specified, {@literal text/html} is used.
  */
-public class RenderableString implements Renderable<String> {
+public class RenderableString implements ByteArrayRenderable<String> {
 
     /**
      * The rendered content.
@@ -126,6 +126,18 @@ public class RenderableString implements Renderable<String> {
      */
     @Override
     public InputStream render(Context context, Result result) throws RenderableException {
+        return new ByteArrayInputStream(renderAsBytes(context, result));
+    }
+
+    /**
+     * Encodes the contained String using the charset of the result (UTF-8 if not set).
+     *
+     * @param context the HTTP context
+     * @param result  the result having built this renderable object
+     * @return the encoded String.
+     */
+    @Override
+    public byte[] renderAsBytes(Context context, Result result) {
         byte[] bytes;
 
         // We have a result, charset have to be provided
@@ -140,7 +152,7 @@ public class RenderableString implements Renderable<String> {
             bytes = rendered.getBytes(Charsets.UTF_8);
         }
 
-        return new ByteArrayInputStream(bytes);
+        return bytes;
     }
 
     /**
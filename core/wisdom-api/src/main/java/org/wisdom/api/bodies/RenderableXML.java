@@ -37,7 +37,7 @@ import java.io.StringWriter;
 /**
  * A renderable object taking an Document as parameter.
  */
-public class RenderableXML implements Renderable<Document> {
+public class RenderableXML implements ByteArrayRenderable<Document> {
 
     private final Document document;
     private byte[] rendered;
@@ -58,6 +58,14 @@ public class RenderableXML implements Renderable<Document> {
         return new ByteArrayInputStream(rendered);
     }
 
+    @Override
+    public byte[] renderAsBytes(Context context, Result result) throws RenderableException {
+        if (rendered == null) {
+            render();
+        }
+        return rendered;
+    }
+
     private void render() throws RenderableException {
         try {
             StringWriter sw = new StringWriter();
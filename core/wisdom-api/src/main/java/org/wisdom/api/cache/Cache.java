@@ -21,8 +21,16 @@ package org.wisdom.api.cache;
 
 import org.joda.time.Duration;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
 /**
  * Interface of the case service.
+ * <p>
+ * Implementations providing several cache regions expose one service per region, with the {@literal name}
+ * service property set to the region name. Use a filter such as {@code (name=sessions)} to select a region.
  */
 public interface Cache {
 
@@ -62,4 +70,37 @@ public interface Cache {
      * @return {@literal true} if the value was effectively removed form the cache, {@literal false} otherwise.
      */
     public boolean remove(String key);
+
+    /**
+     * Retrieves a value from the cache, or computes it using the given loader if it is not cached. The computed
+     * value is stored in the cache, unless it is {@literal null}. While a value is being computed,
+     * other callers requesting the same key wait for this computation instead of starting their own.
+     *
+     * @param key        Item key.
+     * @param loader     the loader computing the value.
+     * @param expiration Expiration time of the computed value, {@literal null} means eternity.
+     * @param <T>        the type of the value.
+     * @return the cached or computed value, {@literal null} if the loader returned {@literal null}.
+     * @throws ExecutionException if the loader has thrown an exception, available as cause.
+     * @since 0.9.2
+     */
+    public <T> T getOrCompute(String key, Callable<T> loader, Duration expiration) throws ExecutionException;
+
+    /**
+     * Retrieves several values from the cache.
+     *
+     * @param keys the item keys.
+     * @param <T>  the expected type of the values.
+     * @return the map of the cached values by key, the keys not cached are not contained in the map.
+     * @since 0.9.2
+     */
+    public <T> Map<String, T> getAll(Collection<String> keys);
+
+    /**
+     * Gets the statistics of the cache (hits, misses and evictions).
+     *
+     * @return a snapshot of the current statistics.
+     * @since 0.9.2
+     */
+    public CacheStatistics statistics();
 }
@@ -0,0 +1,86 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.api.cache;
+
+/**
+ * An immutable snapshot of the statistics of a {@link Cache}.
+ *
+ * @since 0.9.2
+ */
+public final class CacheStatistics {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+
+    /**
+     * Creates a new snapshot.
+     *
+     * @param hitCount      the number of lookups having found a value
+     * @param missCount     the number of lookups having not found a value
+     * @param evictionCount the number of entries evicted because of the size limit or their expiration
+     */
+    public CacheStatistics(long hitCount, long missCount, long evictionCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    /**
+     * @return the number of lookups having found a value.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of lookups having not found a value.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the number of entries evicted because of the size limit or their expiration.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return the number of lookups.
+     */
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * @return the ratio of lookups having found a value, 1.0 if there were no lookups.
+     */
+    public double getHitRate() {
+        long requests = getRequestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics{hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + "}";
+    }
+}
@@ -30,6 +30,12 @@ import java.lang.annotation.Target;
  * Mark an action to be cached on server side using the Cache Service.
  * So the result of the action is stored in the cache service for the specified time. All requests on this action
  * reuse this stored result (until it is invalidated).
+ * <p>
+ * The stored entry is the serialized response (status, headers and body), so the action and the content
+ * serialization are skipped for cached requests. When the compression is enabled, a gzipped copy of the body is
+ * stored too and served to clients accepting it. Responses setting cookies, chunked and asynchronous responses, as
+ * well as error responses, are not cached. When several requests miss the cache at the same time, only one of them
+ * invokes the action, the others reuse its response.
  */
 @Interception
 @Target({ElementType.TYPE, ElementType.METHOD})
@@ -47,4 +53,22 @@ public @interface Cached {
      */
     int duration() default 0;
 
+    /**
+     * The request headers the response depends on. The values of these headers are appended to the cache key, so
+     * each combination gets its own entry. Add {@literal Accept} when the action relies on content negotiation.
+     * Responses declaring a {@literal Vary} header that lists headers not given here are not cached.
+     *
+     * @since 0.9.2
+     */
+    String[] vary() default {};
+
+    /**
+     * The time (in second) during which an expired entry can still be served while it is refreshed in background.
+     * Only the first request hitting the expired entry triggers the refresh. Defaults to 0, meaning that expired
+     * entries are never served.
+     *
+     * @since 0.9.2
+     */
+    int staleWhileRevalidate() default 0;
+
 }
\ No newline at end of file
@@ -26,6 +26,7 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Executor Service exposed as a service to execute tasks. This interface
@@ -52,7 +53,22 @@ public interface ManagedExecutorService extends ListeningExecutorService {
      */
     enum ThreadType {
         POOLED,
-        DAEMON
+        DAEMON,
+        /**
+         * A work-stealing fork-join pool, using {@code coreSize} as parallelism level.
+         * Only supported by executors (not schedulers).
+         */
+        FORK_JOIN,
+        /**
+         * One virtual thread per task. Requires a JVM supporting virtual threads, falls back to
+         * {@link #POOLED} otherwise. Only supported by executors (not schedulers).
+         */
+        VIRTUAL,
+        /**
+         * A pool creating threads up to {@code maxSize} before queuing tasks, and rejecting tasks once its queue is
+         * full. Only supported by executors (not schedulers).
+         */
+        EAGER
     }
 
     /**
@@ -187,14 +203,16 @@ public interface ManagedExecutorService extends ListeningExecutorService {
     public ExecutionStatistics getExecutionTimeStatistics();
 
     /**
-     * Represents execution statistics of a thread pool.
+     * Represents execution statistics of a thread pool. Values are recorded without locking, so recording scales
+     * with the number of threads completing tasks. Reading the statistics while values are recorded may return
+     * a view where the different fields are not exactly consistent.
      */
     public static class ExecutionStatistics {
 
-        private long count;
-        private long sum;
-        private long min = Long.MAX_VALUE;
-        private long max = Long.MIN_VALUE;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
 
         /**
          * Records a new {@code int} value into the statistics.
@@ -210,11 +228,25 @@ public interface ManagedExecutorService extends ListeningExecutorService {
          *
          * @param value the input value
          */
-        public synchronized void accept(long value) {
-            ++count;
-            sum += value;
-            min = Math.min(min, value);
-            max = Math.max(max, value);
+        public void accept(long value) {
+            count.incrementAndGet();
+            sum.addAndGet(value);
+            updateMin(value);
+            updateMax(value);
+        }
+
+        private void updateMin(long value) {
+            long current = min.get();
+            while (value < current && !min.compareAndSet(current, value)) {
+                current = min.get();
+            }
+        }
+
+        private void updateMax(long value) {
+            long current = max.get();
+            while (value > current && !max.compareAndSet(current, value)) {
+                current = max.get();
+            }
         }
 
         /**
@@ -224,11 +256,11 @@ public interface ManagedExecutorService extends ListeningExecutorService {
          * @param other another {@code ExecutionStatistics}
          * @throws NullPointerException if {@code other} is null
          */
-        public synchronized void combine(final ExecutionStatistics other) {
-            count += other.getCount();
-            sum += other.getTotalExecutionTime();
-            min = Math.min(min, other.getMinimumExecutionTime());
-            max = Math.max(max, other.getMaximumExecutionTime());
+        public void combine(final ExecutionStatistics other) {
+            count.addAndGet(other.getCount());
+            sum.addAndGet(other.getTotalExecutionTime());
+            updateMin(other.getMinimumExecutionTime());
+            updateMax(other.getMaximumExecutionTime());
         }
 
         /**
@@ -236,7 +268,7 @@ public interface ManagedExecutorService extends ListeningExecutorService {
          *
          * @return the copied object
          */
-        public synchronized ExecutionStatistics copy() {
+        public ExecutionStatistics copy() {
             ExecutionStatistics statistics = new ExecutionStatistics();
             statistics.combine(this);
             return statistics;
@@ -247,8 +279,8 @@ public interface ManagedExecutorService extends ListeningExecutorService {
          *
          * @return the count of values
          */
-        public final synchronized long getCount() {
-            return count;
+        public final long getCount() {
+            return count.get();
         }
 
         /**
@@ -256,7 +288,7 @@ public interface ManagedExecutorService extends ListeningExecutorService {
          *
          * @return the number of tasks
          */
-        public final synchronized long getNumberOfTasks() {
+        public final long getNumberOfTasks() {
             return getCount();
         }
 
@@ -266,8 +298,8 @@ public interface ManagedExecutorService extends ListeningExecutorService {
          *
          * @return the sum of values, or zero if none
          */
-        public final synchronized long getTotalExecutionTime() {
-            return sum;
+        public final long getTotalExecutionTime() {
+            return sum.get();
         }
 
         /**
@@ -276,8 +308,8 @@ public interface ManagedExecutorService extends ListeningExecutorService {
          *
          * @return the minimum value, or {@code Long.MAX_VALUE} if none
          */
-        public final synchronized long getMinimumExecutionTime() {
-            return min;
+        public final long getMinimumExecutionTime() {
+            return min.get();
         }
 
         /**
@@ -286,8 +318,8 @@ public interface ManagedExecutorService extends ListeningExecutorService {
          *
          * @return the maximum value, or {@code Long.MIN_VALUE} if none
          */
-        public final synchronized long getMaximumExecutionTime() {
-            return max;
+        public final long getMaximumExecutionTime() {
+            return max.get();
         }
 
         /**
@@ -296,8 +328,9 @@ public interface ManagedExecutorService extends ListeningExecutorService {
          *
          * @return The arithmetic mean of values, or zero if none
          */
-        public final synchronized double getAverageExecutionTime() {
-            return getCount() > 0 ? (double) getTotalExecutionTime() / getNumberOfTasks() : 0.0d;
+        public final double getAverageExecutionTime() {
+            long n = getCount();
+            return n > 0 ? (double) getTotalExecutionTime() / n : 0.0d;
         }
 
         @Override
@@ -308,7 +341,7 @@ public interface ManagedExecutorService extends ListeningExecutorService {
          * debugging. The exact presentation format is unspecified and may vary
          * between implementations and versions.
          */
-        public synchronized String toString() {
+        public String toString() {
             return String.format(
                     "%s{count=%d, sum=%d, min=%d, average=%f, max=%d}",
                     this.getClass().getSimpleName(),
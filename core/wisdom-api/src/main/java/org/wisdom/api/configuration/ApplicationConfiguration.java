@@ -152,4 +152,15 @@ public interface ApplicationConfiguration extends Configuration {
      * @return the file object
      */
     File getFileWithDefault(String key, File file);
+
+    /**
+     * Creates a view on this configuration. The mapper is called immediately to build the first snapshot, and
+     * then every time the configuration is reloaded. Views are released when they are not referenced anymore.
+     *
+     * @param mapper the mapper
+     * @param <T>    the type of the snapshot
+     * @return the view
+     * @see ConfigurationViews#bind(Configuration, ConfigurationMapper)
+     */
+    <T> ConfigurationView<T> bind(ConfigurationMapper<T> mapper);
 }
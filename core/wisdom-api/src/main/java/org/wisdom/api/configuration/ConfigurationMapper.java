@@ -0,0 +1,38 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.api.configuration;
+
+/**
+ * Builds the snapshot object of a {@link ConfigurationView} from a configuration.
+ *
+ * @param <T> the type of the snapshot
+ */
+public interface ConfigurationMapper<T> {
+
+    /**
+     * Resolves the properties required by the view and builds the snapshot. This method is called when the view is
+     * created, and every time the configuration is reloaded.
+     *
+     * @param configuration the configuration, {@code null} if no configuration is available (the snapshot is
+     *                      then built from the default values)
+     * @return the snapshot
+     */
+    T map(Configuration configuration);
+}
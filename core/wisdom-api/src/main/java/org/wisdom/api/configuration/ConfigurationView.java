@@ -0,0 +1,40 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.api.configuration;
+
+/**
+ * A pre-resolved, typed view of a set of configuration properties.
+ * <p>
+ * Views are meant for settings read on hot paths (for every request, cookie or chunk). The properties are
+ * resolved and converted once by a {@link ConfigurationMapper}, and the resulting object is returned by
+ * {@link #get()} without any lookup. When the application configuration is reloaded, the mapper is invoked again
+ * and the new snapshot atomically replaces the previous one.
+ * <p>
+ * The snapshot object should be immutable, as it is shared between threads.
+ *
+ * @param <T> the type of the snapshot
+ */
+public interface ConfigurationView<T> {
+
+    /**
+     * @return the current snapshot, never {@code null} unless the mapper returned {@code null}.
+     */
+    T get();
+}
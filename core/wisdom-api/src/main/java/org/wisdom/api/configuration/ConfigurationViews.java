@@ -0,0 +1,65 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.api.configuration;
+
+/**
+ * Utility methods to create {@link ConfigurationView}.
+ */
+public final class ConfigurationViews {
+
+    private ConfigurationViews() {
+        // Avoid direct instantiation.
+    }
+
+    /**
+     * Creates a view on the given configuration. The view is bound to the configuration (and so refreshed on
+     * reload) if the configuration supports it. Otherwise, the snapshot is computed once.
+     *
+     * @param configuration the configuration, may be {@code null}
+     * @param mapper        the mapper
+     * @param <T>           the type of the snapshot
+     * @return the view, never {@code null}
+     */
+    public static <T> ConfigurationView<T> bind(Configuration configuration, ConfigurationMapper<T> mapper) {
+        if (configuration instanceof ApplicationConfiguration) {
+            ConfigurationView<T> view = ((ApplicationConfiguration) configuration).bind(mapper);
+            if (view != null) {
+                return view;
+            }
+        }
+        return constant(mapper.map(configuration));
+    }
+
+    /**
+     * Creates a view always returning the given snapshot.
+     *
+     * @param snapshot the snapshot
+     * @param <T>      the type of the snapshot
+     * @return the view
+     */
+    public static <T> ConfigurationView<T> constant(final T snapshot) {
+        return new ConfigurationView<T>() {
+            @Override
+            public T get() {
+                return snapshot;
+            }
+        };
+    }
+}
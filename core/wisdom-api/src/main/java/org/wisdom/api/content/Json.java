@@ -49,6 +49,16 @@ public interface Json {
      */
     public JsonNode toJson(final Object data);
 
+    /**
+     * Writes the JSON form of the given object as an UTF-8 encoded byte array, without building an intermediate
+     * JsonNode.
+     * In addition to the default Jackson transformation, serializer dynamically added to the Json support are used.
+     *
+     * @param data the data to write, must not be {@literal null}
+     * @return the JSON form of the object
+     */
+    public byte[] toJsonBytes(final Object data);
+
     /**
      * Builds a new instance of the given class <em>clazz</em> from the given Json object.
      *
@@ -0,0 +1,47 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.api.content;
+
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * A {@link BodyParser} able to read the payload from a stream. Engines holding the request body in memory call this
+ * method with a stream reading their buffer directly, avoiding the creation of an intermediate {@code String} or
+ * byte array.
+ */
+public interface StreamBodyParser extends BodyParser {
+
+    /**
+     * Invokes the parser and get back a Java object populated with the content read from the given stream.
+     * This method is only called when the request has a body. The stream is closed by the caller.
+     * <p>
+     * MUST BE THREAD SAFE TO CALL!
+     *
+     * @param stream      the stream reading the request body
+     * @param classOfT    The class we expect
+     * @param genericType the generic type (maybe null)
+     * @param <T>         the type of the object
+     * @return The object instance populated with all values from raw request, {@literal null} if the object cannot
+     * be built
+     * @since 0.9.2
+     */
+    <T> T invoke(InputStream stream, Class<T> classOfT, Type genericType);
+}
@@ -0,0 +1,46 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.api.engine;
+
+import java.util.Map;
+
+/**
+ * A service interface exposed by the Wisdom engine to report the time spent by the actions invoked on the event
+ * loop. These actions must be short, as the event loop thread also handles other connections.
+ */
+public interface DispatchStatistics {
+
+    /**
+     * Gets the total time spent by the actions invoked on the event loop.
+     *
+     * @return the time in nanoseconds
+     */
+    long getEventLoopTime();
+
+    /**
+     * Gets the statistics of the actions invoked on the event loop. Actions from controllers that are no longer
+     * available are not included.
+     *
+     * @return a map action name (class name.method name) -> statistics: {@literal invocations}, {@literal time}
+     * (total time in nanoseconds), {@literal max} (max time in nanoseconds), {@literal slow} (number of invocations
+     * over the blocking threshold) and {@literal policy} (the current dispatch policy of the action).
+     */
+    Map<String, Map<String, Object>> getEventLoopStatistics();
+}
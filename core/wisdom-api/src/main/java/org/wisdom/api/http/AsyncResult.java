@@ -19,20 +19,43 @@
  */
 package org.wisdom.api.http;
 
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ListenableFuture;
+
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An extension of result instructing the engine to render the result asynchronously. That means that the result
  * computation is delegated to another thread (and not the request thread), and is written and sent to the client
  * when the computation is completed.
+ * <p>
+ * The result can also be computed by the application itself, using non-blocking I/O for instance. In this case,
+ * the asynchronous result wraps a {@link ListenableFuture} and no thread is used while waiting for the completion.
+ * Action methods can also directly return a {@link ListenableFuture}, which is wrapped into an asynchronous result.
  */
 public class AsyncResult extends Result {
 
     /**
-     * The callable computing the result.
+     * The callable computing the result, {@literal null} if the result is computed by a future.
      */
     private final Callable<Result> callable;
 
+    /**
+     * The future providing the result, {@literal null} if the result is computed by a callable.
+     */
+    private final ListenableFuture<Result> future;
+
+    /**
+     * The timeout, 0 or negative if none.
+     */
+    private final long timeout;
+
+    /**
+     * The timeout unit.
+     */
+    private final TimeUnit unit;
+
     /**
      * Creates a new asynchronous result.
      *
@@ -40,13 +63,102 @@ public class AsyncResult extends Result {
      *                 callable must not be {@literal null}.
      */
     public AsyncResult(Callable<Result> callable) {
+        this(callable, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a new asynchronous result with a timeout. If the result is not computed before the timeout,
+     * the computation is cancelled and a {@literal 504 - GATEWAY TIMEOUT} result is sent to the client.
+     *
+     * @param callable the callable that computes the result. This wrapped code is executed in another thread. This
+     *                 callable must not be {@literal null}.
+     * @param timeout  the timeout, 0 or negative to disable it
+     * @param unit     the timeout unit
+     */
+    public AsyncResult(Callable<Result> callable, long timeout, TimeUnit unit) {
+        Preconditions.checkNotNull(callable);
         this.callable = callable;
+        this.future = null;
+        this.timeout = timeout;
+        this.unit = unit;
+    }
+
+    /**
+     * Creates a new asynchronous result completed by the given future.
+     *
+     * @param future the future providing the result, must not be {@literal null}.
+     */
+    public AsyncResult(ListenableFuture<Result> future) {
+        this(future, 0, TimeUnit.MILLISECONDS);
     }
 
     /**
-     * @return the callable.
+     * Creates a new asynchronous result completed by the given future, with a timeout. If the future is not
+     * completed before the timeout, it is cancelled and a {@literal 504 - GATEWAY TIMEOUT} result is sent to the
+     * client.
+     *
+     * @param future  the future providing the result, must not be {@literal null}.
+     * @param timeout the timeout, 0 or negative to disable it
+     * @param unit    the timeout unit
+     */
+    public AsyncResult(ListenableFuture<Result> future, long timeout, TimeUnit unit) {
+        Preconditions.checkNotNull(future);
+        this.callable = null;
+        this.future = future;
+        this.timeout = timeout;
+        this.unit = unit;
+    }
+
+    /**
+     * @return the callable, {@literal null} if the result is provided by a future.
      */
     public Callable<Result> callable() {
         return callable;
     }
+
+    /**
+     * @return the future, {@literal null} if the result is computed by a callable.
+     */
+    public ListenableFuture<Result> future() {
+        return future;
+    }
+
+    /**
+     * @return the timeout, 0 or negative if none.
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @return the timeout unit.
+     */
+    public TimeUnit getTimeoutUnit() {
+        return unit;
+    }
+
+    /**
+     * Checks whether the given type can be returned by action methods, i.e. {@link Result} (or a super type) or
+     * {@link ListenableFuture}.
+     *
+     * @param type the return type of the method
+     * @return {@literal true} if the type is supported
+     */
+    public static boolean isSupportedReturnType(Class<?> type) {
+        return type.isAssignableFrom(Result.class) || ListenableFuture.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Converts the object returned by an action method to a result. Futures are wrapped into asynchronous results.
+     *
+     * @param returned the object returned by the action method
+     * @return the result
+     */
+    @SuppressWarnings("unchecked")
+    public static Result from(Object returned) {
+        if (returned instanceof ListenableFuture) {
+            return new AsyncResult((ListenableFuture<Result>) returned);
+        }
+        return (Result) returned;
+    }
 }
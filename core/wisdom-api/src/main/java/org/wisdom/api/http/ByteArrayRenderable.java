@@ -0,0 +1,42 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.api.http;
+
+/**
+ * An extension of {@link Renderable} implemented by renderable objects whose content is available as a byte array.
+ * The server can send this array directly instead of reading the stream returned by
+ * {@link #render(Context, Result)} into a new array.
+ *
+ * @param <T> the type of content.
+ */
+public interface ByteArrayRenderable<T> extends Renderable<T> {
+
+    /**
+     * Retrieves the content as a byte array. The returned array may be the internal array of the renderable object,
+     * so callers must not modify it. This method follows the same contract as {@link #render(Context, Result)},
+     * and so can update the result (to set the charset for instance).
+     *
+     * @param context the HTTP context
+     * @param result  the result having built this renderable object
+     * @return the content, must not be modified
+     * @throws RenderableException if the content cannot be rendered
+     */
+    byte[] renderAsBytes(Context context, Result result) throws RenderableException;
+}
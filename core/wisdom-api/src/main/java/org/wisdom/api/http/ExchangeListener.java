@@ -0,0 +1,43 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.api.http;
+
+/**
+ * Services implementing this interface are notified by the engine once the response to a HTTP request has been
+ * written. It lets monitoring components observe the whole processing of a request, including the stages
+ * happening after the filters and interceptors (serialization and write).
+ * <p>
+ * Listeners are called on the thread writing the response, generally an event loop thread, so they must not block.
+ *
+ * @since 0.9.2
+ */
+public interface ExchangeListener {
+
+    /**
+     * Callback invoked when the response has been written (or when the engine has given up writing it). It is
+     * called exactly once for each request.
+     *
+     * @param context the context of the request, {@link Context#route()} returns {@literal null} if the request has
+     *                been rejected before routing
+     * @param result  the written result, {@literal null} if the request has been rejected before invoking the action
+     * @param timings the status, size and stage timings of the exchange
+     */
+    void onExchangeCompleted(Context context, Result result, ExchangeTimings timings);
+}
@@ -0,0 +1,141 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.api.http;
+
+/**
+ * The status, size and per-stage timings of a completed HTTP exchange, given to the
+ * {@link ExchangeListener} services. All durations are in nanoseconds, {@literal -1} when the stage has not been
+ * executed or measured (for instance, there is no binding and action time for unbound routes).
+ * <p>
+ * The binding and action stages are executed by the router, which stores their durations in the request scope
+ * ({@link Request#data()}) under the {@link #BINDING_TIME} and {@link #ACTION_TIME} keys.
+ *
+ * @since 0.9.2
+ */
+public final class ExchangeTimings {
+
+    /**
+     * The key of the request data storing the time spent creating the action parameters, as a {@link Long}.
+     */
+    public static final String BINDING_TIME = "wisdom.exchange.binding";
+
+    /**
+     * The key of the request data storing the time spent in the action method, as a {@link Long}. For asynchronous
+     * results, the engine adds the time spent until the result is available.
+     */
+    public static final String ACTION_TIME = "wisdom.exchange.action";
+
+    private final int status;
+    private final long bytes;
+    private final long routing;
+    private final long binding;
+    private final long action;
+    private final long serialization;
+    private final long write;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param status        the status code sent to the client
+     * @param bytes         the number of bytes of the response body, {@literal -1} if unknown
+     * @param routing       the time spent finding the route
+     * @param binding       the time spent creating the action parameters
+     * @param action        the time spent in the action method
+     * @param serialization the time spent serializing the result
+     * @param write         the time spent writing the response
+     */
+    public ExchangeTimings(int status, long bytes, long routing, long binding, long action, long serialization,
+                           long write) {
+        this.status = status;
+        this.bytes = bytes;
+        this.routing = routing;
+        this.binding = binding;
+        this.action = action;
+        this.serialization = serialization;
+        this.write = write;
+    }
+
+    /**
+     * Reads a duration stored in the request scope.
+     *
+     * @param request the request, may be {@literal null}
+     * @param key     the key
+     * @return the duration in nanoseconds, {@literal -1} if not set
+     */
+    public static long getTime(Request request, String key) {
+        if (request == null) {
+            return -1;
+        }
+        Object value = request.data().get(key);
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the status code sent to the client.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the number of bytes of the response body, {@literal -1} if unknown.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the time spent finding the route, in nanoseconds.
+     */
+    public long getRoutingTime() {
+        return routing;
+    }
+
+    /**
+     * @return the time spent creating the action parameters, in nanoseconds.
+     */
+    public long getBindingTime() {
+        return binding;
+    }
+
+    /**
+     * @return the time spent in the action method, in nanoseconds.
+     */
+    public long getActionTime() {
+        return action;
+    }
+
+    /**
+     * @return the time spent serializing the result, in nanoseconds.
+     */
+    public long getSerializationTime() {
+        return serialization;
+    }
+
+    /**
+     * @return the time spent writing the response, until the last byte is handed to the connection, in nanoseconds.
+     */
+    public long getWriteTime() {
+        return write;
+    }
+}
@@ -20,6 +20,7 @@
 package org.wisdom.api.http;
 
 import com.google.common.net.MediaType;
+import org.wisdom.api.utils.MediaTypes;
 
 import java.util.Collection;
 import java.util.Map;
@@ -56,7 +57,7 @@ public final class Negotiation {
         for (MediaType media : accepted) {
             // Do we have a matching key.
             for (Map.Entry<String, ? extends Result> entry : results.entrySet()) {
-                MediaType input = MediaType.parse(entry.getKey());
+                MediaType input = MediaTypes.parse(entry.getKey());
                 if (input.is(media)) {
                     return entry.getValue().with(HeaderNames.VARY, HeaderNames.ACCEPT);
                 }
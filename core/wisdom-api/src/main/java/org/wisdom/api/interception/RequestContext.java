@@ -19,6 +19,7 @@
  */
 package org.wisdom.api.interception;
 
+import org.wisdom.api.http.AsyncResult;
 import org.wisdom.api.http.Context;
 import org.wisdom.api.http.Request;
 import org.wisdom.api.http.Result;
@@ -56,9 +57,9 @@ public class RequestContext {
     private Object[] parameters;
 
     /**
-     * The iterator to retrieve the ordered set of filters.
+     * The index of the next filter to call in the chain.
      */
-    private ListIterator<Filter> iterator;
+    private int index;
 
     /**
      * Creates a new Interception Context. Instances should only be created by the router.
@@ -73,7 +74,7 @@ public class RequestContext {
         this.route = route;
         this.interceptors = interceptors;
 
-        this.chain = new LinkedList<>(chain);
+        this.chain = new ArrayList<>(chain);
         if (parameters != null) {
             this.parameters = Arrays.copyOf(parameters, parameters.length);
         }
@@ -85,6 +86,21 @@ public class RequestContext {
         this.chain.add(endOfChainInvoker);
     }
 
+    /**
+     * Creates a new Interception Context from a pre-computed chain. Unlike the other constructor, the chain is not
+     * copied, and so must not be modified. It must end with the filter invoking the action method. Instances should
+     * only be created by the router.
+     *
+     * @param route        the intercepted route
+     * @param chain        the complete and immutable interception chain, ending with the action invocation
+     * @param interceptors the set of interceptors and their configuration
+     */
+    public RequestContext(Route route, List<Filter> chain, Map<Interceptor<?>, Object> interceptors) {
+        this.route = route;
+        this.interceptors = interceptors;
+        this.chain = chain;
+    }
+
     /**
      * Sets or Updates the parameters of the action method. This method must not be called by filters or interceptors.
      * This method is called once the parameter values are computed, this can happen after the creation of the {@link
@@ -114,13 +130,10 @@ public class RequestContext {
      * @throws java.lang.Exception if the invocation fails.
      */
     public Result proceed() throws Exception {
-        if (iterator == null) {
-            iterator = chain.listIterator();
-        }
-        if (!iterator.hasNext()) {
+        if (index >= chain.size()) {
             throw new IllegalStateException("Reached the end of the chain without result.");
         }
-        Filter filter = iterator.next();
+        Filter filter = chain.get(index++);
         return filter.call(route, this);
     }
 
@@ -177,8 +190,8 @@ public class RequestContext {
             if (RequestContext.this.route.isUnbound()) {
                 return Results.notFound();
             } else {
-                return (Result) RequestContext.this.route.getControllerMethod().invoke(
-                        RequestContext.this.route.getControllerObject(), parameters);
+                return AsyncResult.from(RequestContext.this.route.getControllerMethod().invoke(
+                        RequestContext.this.route.getControllerObject(), parameters));
             }
         }
 
@@ -25,8 +25,10 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.common.net.MediaType;
 import org.wisdom.api.Controller;
+import org.wisdom.api.annotations.StreamingBody;
 import org.wisdom.api.http.*;
 import org.wisdom.api.router.parameters.ActionParameter;
+import org.wisdom.api.utils.MediaTypes;
 
 import java.lang.reflect.Method;
 import java.util.Collections;
@@ -95,6 +97,11 @@ public class Route {
      */
     protected int unboundStatus;
 
+    /**
+     * Whether the action consumes the request body as a stream.
+     */
+    protected boolean streamingBody;
+
     /**
      * Constructor used in case of delegation.
      */
@@ -130,6 +137,7 @@ public class Route {
                 controllerMethod.setAccessible(true);
             }
             this.arguments = RouteUtils.buildActionParameterList(this.controllerMethod);
+            this.streamingBody = controllerMethod.isAnnotationPresent(StreamingBody.class);
             parameterNames = ImmutableList.copyOf(RouteUtils.extractParameters(uri));
             regex = Pattern.compile(RouteUtils.convertRawUriToRegex(uri));
         } else {
@@ -219,6 +227,25 @@ public class Route {
         return this;
     }
 
+    /**
+     * Marks the route as consuming the request body as a stream. The action is invoked as soon as the request
+     * headers are received, and reads the body while it arrives.
+     *
+     * @return the current route
+     * @see org.wisdom.api.annotations.StreamingBody
+     */
+    public Route withStreamingBody() {
+        this.streamingBody = true;
+        return this;
+    }
+
+    /**
+     * @return whether the action consumes the request body as a stream.
+     */
+    public boolean hasStreamingBody() {
+        return streamingBody;
+    }
+
     /**
      * Gets the route uri.
      *
@@ -331,7 +358,7 @@ public class Route {
         if (isUnbound()) {
             return new Result().status(unboundStatus).noContentIfNone();
         } else {
-            return (Result) controllerMethod.invoke(controller);
+            return AsyncResult.from(controllerMethod.invoke(controller));
         }
     }
 
@@ -466,7 +493,7 @@ public class Route {
                 return 2;
             } else {
                 // For all consume, check whether we accept it
-                MediaType contentMimeType = MediaType.parse(request.contentMimeType());
+                MediaType contentMimeType = MediaTypes.parse(content);
                 for (MediaType type : acceptedMediaTypes) {
                     if (contentMimeType.is(type)) {
                         if (type.hasWildcard()) {
@@ -21,6 +21,7 @@ package org.wisdom.api.router;
 
 import com.google.common.base.Preconditions;
 import org.wisdom.api.Controller;
+import org.wisdom.api.http.AsyncResult;
 import org.wisdom.api.http.HttpMethod;
 import org.wisdom.api.http.Result;
 
@@ -107,7 +108,7 @@ public class RouteBuilder {
         Preconditions.checkNotNull(method);
         this.controller = controller;
         this.controllerMethod = method;
-        if (!method.getReturnType().isAssignableFrom(Result.class)) {
+        if (!AsyncResult.isSupportedReturnType(method.getReturnType())) {
             throw new IllegalArgumentException(ERROR_CTRL + method + ERROR_IN + controller
                     .getClass() + "`, or the method does not return a " + Result.class.getName() + " object");
         }
@@ -162,7 +163,7 @@ public class RouteBuilder {
 
         // make sure that the return type of that controller method
         // is of type Result.
-        if (methodFromQueryingClass.getReturnType().isAssignableFrom(Result.class)) {
+        if (AsyncResult.isSupportedReturnType(methodFromQueryingClass.getReturnType())) {
             return methodFromQueryingClass;
         } else {
             throw new NoSuchMethodException("The method " + controllerMethod + " is declared in " + controller
@@ -0,0 +1,126 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.api.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.net.MediaType;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Parses media types and {@code ACCEPT} headers, and keeps the parsed values in bounded caches. Clients only send a
+ * handful of distinct values, so parsing (and sorting) them for every request is wasteful.
+ * <p>
+ * The returned objects are immutable, and so can be shared.
+ *
+ * @since 0.9.2
+ */
+public final class MediaTypes {
+
+    /**
+     * The maximum number of entries kept in each cache.
+     */
+    public static final int CACHE_SIZE = 256;
+
+    /**
+     * Orders media types by decreasing quality ({@code q} parameter). Media types with the same quality are
+     * considered equal.
+     */
+    public static final Comparator<MediaType> QUALITY_COMPARATOR = new Comparator<MediaType>() {
+        @Override
+        public int compare(MediaType o1, MediaType o2) {
+            double q1 = 1.0, q2 = 1.0;
+            List<String> ql1 = o1.parameters().get("q");
+            List<String> ql2 = o2.parameters().get("q");
+
+            if (ql1 != null && !ql1.isEmpty()) {
+                q1 = Double.parseDouble(ql1.get(0));
+            }
+
+            if (ql2 != null && !ql2.isEmpty()) {
+                q2 = Double.parseDouble(ql2.get(0));
+            }
+
+            return Double.compare(q2, q1);
+        }
+    };
+
+    private static final List<MediaType> ANY_TEXT = ImmutableList.of(MediaType.ANY_TEXT_TYPE);
+
+    private static final Cache<String, MediaType> MEDIA_TYPES = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_SIZE).build();
+
+    private static final Cache<String, List<MediaType>> ACCEPT_HEADERS = CacheBuilder.newBuilder()
+            .maximumSize(CACHE_SIZE).build();
+
+    private MediaTypes() {
+        // Avoid direct instantiation.
+    }
+
+    /**
+     * Parses the given media type.
+     *
+     * @param type the media type such as {@code text/html; charset=utf-8}, may be {@literal null}
+     * @return the parsed media type, {@code *}{@code /*} if the given type is {@literal null}
+     * @throws IllegalArgumentException if the input cannot be parsed
+     */
+    public static MediaType parse(String type) {
+        if (type == null) {
+            // The cache does not support null keys.
+            return MediaType.ANY_TYPE;
+        }
+        MediaType mediaType = MEDIA_TYPES.getIfPresent(type);
+        if (mediaType == null) {
+            mediaType = MediaType.parse(type);
+            MEDIA_TYPES.put(type, mediaType);
+        }
+        return mediaType;
+    }
+
+    /**
+     * Parses the value of an {@code ACCEPT} header. The media types are sorted by decreasing quality. When several
+     * media types have the same quality, only the first one is kept.
+     *
+     * @param accept the header value, may be {@literal null}
+     * @return the immutable list of media types, {@code text/*} if the header is {@literal null}.
+     * @throws IllegalArgumentException if one of the media types cannot be parsed
+     */
+    public static List<MediaType> parseAcceptHeader(String accept) {
+        if (accept == null) {
+            // Any text by default.
+            return ANY_TEXT;
+        }
+        List<MediaType> types = ACCEPT_HEADERS.getIfPresent(accept);
+        if (types == null) {
+            TreeSet<MediaType> set = new TreeSet<>(QUALITY_COMPARATOR);
+            // Split and sort.
+            for (String segment : accept.split(",")) {
+                set.add(parse(segment.trim()));
+            }
+            types = ImmutableList.copyOf(set);
+            ACCEPT_HEADERS.put(accept, types);
+        }
+        return types;
+    }
+}
@@ -59,6 +59,19 @@ public class RenderableTest {
         assertThat(bytes).isEmpty();
     }
 
+    @Test
+    public void testRenderableBytes() throws Exception {
+        byte[] content = "hello".getBytes(Charsets.UTF_8);
+        RenderableBytes body = new RenderableBytes(content, MimeTypes.TEXT);
+        assertThat(body.length()).isEqualTo(5);
+        assertThat(body.content()).isSameAs(content);
+        assertThat(body.renderAsBytes(null, null)).isSameAs(content);
+        assertThat(body.mimetype()).isEqualTo(MimeTypes.TEXT);
+        assertThat(body.mustBeChunked()).isFalse();
+        assertThat(body.requireSerializer()).isFalse();
+        assertThat(IOUtils.toByteArray(body.render(null, null))).isEqualTo(content);
+    }
+
     @Test
     public void testRenderableString() throws Exception {
         final String hello = "hello";
@@ -252,4 +265,21 @@ public class RenderableTest {
         assertThat(new String(bytes, Charsets.UTF_8)).isEqualTo("a,b,c");
     }
 
+    @Test
+    public void testRenderAsBytes() throws Exception {
+        assertThat(NoHttpBody.INSTANCE.renderAsBytes(null, null)).isEmpty();
+        assertThat(new RenderableString("hello").renderAsBytes(null, null))
+                .isEqualTo("hello".getBytes(Charsets.UTF_8));
+
+        ObjectNode node = new ObjectMapper().createObjectNode().put("hello", "world");
+        RenderableJson json = new RenderableJson(node);
+        // The backing array is returned, no copy is made.
+        assertThat(json.renderAsBytes(null, null)).isSameAs(json.renderAsBytes(null, null));
+        assertThat(json.renderAsBytes(null, null)).isEqualTo(IOUtils.toByteArray(json.render(null, null)));
+
+        RenderableObject object = new RenderableObject(Arrays.asList("a", "b"));
+        object.setSerializedForm("a,b");
+        assertThat(new String(object.renderAsBytes(null, null), Charsets.UTF_8)).isEqualTo("a,b");
+    }
+
 }
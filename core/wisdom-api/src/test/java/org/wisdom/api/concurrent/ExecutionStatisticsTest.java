@@ -68,5 +68,27 @@ public class ExecutionStatisticsTest {
         assertThat(statistics.getTotalExecutionTime()).isEqualTo(20);
     }
 
-
-}
\ No newline at end of file
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        final ManagedExecutorService.ExecutionStatistics statistics = new ManagedExecutorService.ExecutionStatistics();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 1; j <= 1000; j++) {
+                        statistics.accept(j);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(statistics.getCount()).isEqualTo(4000);
+        assertThat(statistics.getTotalExecutionTime()).isEqualTo(4 * 500500);
+        assertThat(statistics.getMinimumExecutionTime()).isEqualTo(1);
+        assertThat(statistics.getMaximumExecutionTime()).isEqualTo(1000);
+    }
+}
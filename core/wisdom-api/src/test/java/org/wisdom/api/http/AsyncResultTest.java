@@ -19,6 +19,8 @@
  */
 package org.wisdom.api.http;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import org.junit.Test;
 
 import java.util.concurrent.Callable;
@@ -42,4 +44,26 @@ public class AsyncResultTest {
         assertThat(async.callable()).isNotNull();
         assertThat(async.callable().call().getStatusCode()).isEqualTo(200);
     }
+
+    @Test
+    public void testAsyncFromFuture() throws Exception {
+        SettableFuture<Result> future = SettableFuture.create();
+        Result result = AsyncResult.from(future);
+        assertThat(result).isInstanceOf(AsyncResult.class);
+        assertThat(((AsyncResult) result).callable()).isNull();
+        assertThat(((AsyncResult) result).future()).isSameAs(future);
+        assertThat(((AsyncResult) result).getTimeout()).isEqualTo(0);
+
+        Result ok = Results.ok();
+        assertThat(AsyncResult.from(ok)).isSameAs(ok);
+    }
+
+    @Test
+    public void testSupportedReturnTypes() {
+        assertThat(AsyncResult.isSupportedReturnType(Result.class)).isTrue();
+        assertThat(AsyncResult.isSupportedReturnType(Object.class)).isTrue();
+        assertThat(AsyncResult.isSupportedReturnType(ListenableFuture.class)).isTrue();
+        assertThat(AsyncResult.isSupportedReturnType(SettableFuture.class)).isTrue();
+        assertThat(AsyncResult.isSupportedReturnType(String.class)).isFalse();
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.api.utils;
+
+import com.google.common.net.MediaType;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the parsing of media types and accept headers.
+ */
+public class MediaTypesTest {
+
+    @Test
+    public void testParse() {
+        MediaType type = MediaTypes.parse("text/html; charset=utf-8");
+        assertThat(type).isEqualTo(MediaType.HTML_UTF_8);
+        assertThat(MediaTypes.parse("text/html; charset=utf-8")).isSameAs(type);
+    }
+
+    @Test
+    public void testParsingNull() {
+        assertThat(MediaTypes.parse(null)).isEqualTo(MediaType.ANY_TYPE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseInvalidType() {
+        MediaTypes.parse("not a media type");
+    }
+
+    @Test
+    public void testParseAcceptHeader() {
+        String accept = "text/*;q=0.3, text/html;q=0.7, text/html;level=1, text/html;level=2;q=0.4, */*;q=0.5";
+        List<MediaType> types = MediaTypes.parseAcceptHeader(accept);
+        assertThat(types).containsExactly(
+                MediaType.parse("text/html").withParameter("level", "1"),
+                MediaType.parse("text/html").withParameter("q", "0.7"),
+                MediaType.parse("*/*").withParameter("q", "0.5"),
+                MediaType.parse("text/html").withParameter("level", "2").withParameter("q", "0.4"),
+                MediaType.parse("text/*").withParameter("q", "0.3")
+        );
+        // The second call returns the cached list.
+        assertThat(MediaTypes.parseAcceptHeader(accept)).isSameAs(types);
+    }
+
+    @Test
+    public void testMissingAcceptHeader() {
+        assertThat(MediaTypes.parseAcceptHeader(null)).containsExactly(MediaType.ANY_TEXT_TYPE);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testThatTheParsedHeaderIsImmutable() {
+        MediaTypes.parseAcceptHeader("application/json").add(MediaType.HTML_UTF_8);
+    }
+}
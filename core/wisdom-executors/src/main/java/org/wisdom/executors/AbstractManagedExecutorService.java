@@ -28,10 +28,16 @@ import org.wisdom.api.concurrent.*;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Common methods used in the different
  * {@link org.wisdom.api.concurrent.ManagedExecutorService} implementations.
+ * <p>
+ * The internal pool is generally a {@link ThreadPoolExecutor}, to which the pool statistics are delegated. Other
+ * kinds of executors (fork-join pool, virtual threads) are supported too: the statistics are then computed from the
+ * tasks executed by this service.
  */
 public abstract class AbstractManagedExecutorService implements ManagedExecutorService {
 
@@ -39,9 +45,22 @@ public abstract class AbstractManagedExecutorService implements ManagedExecutorS
     protected final long hungTime;
 
     protected ListeningExecutorService executor;
-    protected ThreadPoolExecutor internalPool;
+    protected ExecutorService internalPool;
 
-    protected final Set<Task<?>> tasks = new LinkedHashSet<>();
+    /**
+     * The number of started, running and completed tasks, maintained for the pools that are not
+     * {@link ThreadPoolExecutor}.
+     */
+    private final AtomicLong startedTasks = new AtomicLong();
+    private final AtomicInteger runningTasks = new AtomicInteger();
+    private final AtomicInteger largestRunningTasks = new AtomicInteger();
+    private final AtomicLong completedTasks = new AtomicLong();
+
+    /**
+     * The tracked tasks. The set is concurrent as tasks are added by the submitting threads and removed by the
+     * executing threads.
+     */
+    protected final Set<Task<?>> tasks = Collections.newSetFromMap(new ConcurrentHashMap<Task<?>, Boolean>());
     protected final Logger logger;
 
     protected ExecutionStatistics statistics = new ExecutionStatistics();
@@ -56,16 +75,36 @@ public abstract class AbstractManagedExecutorService implements ManagedExecutorS
         this.ecs = ecs;
     }
 
-    protected AbstractManagedExecutorService setInternalPool(ThreadPoolExecutor executor) {
+    protected AbstractManagedExecutorService setInternalPool(ExecutorService executor) {
         this.internalPool = executor;
         this.executor = MoreExecutors.listeningDecorator(this.internalPool);
         return this;
     }
 
-    protected ThreadPoolExecutor getInternalPool() {
+    protected ExecutorService getInternalPool() {
         return internalPool;
     }
 
+    /**
+     * @return the internal pool if it is a {@link ThreadPoolExecutor}, {@code null} otherwise.
+     */
+    private ThreadPoolExecutor threadPool() {
+        if (internalPool instanceof ThreadPoolExecutor) {
+            return (ThreadPoolExecutor) internalPool;
+        }
+        return null;
+    }
+
+    /**
+     * @return the internal pool if it is a {@link ForkJoinPool}, {@code null} otherwise.
+     */
+    private ForkJoinPool forkJoinPool() {
+        if (internalPool instanceof ForkJoinPool) {
+            return (ForkJoinPool) internalPool;
+        }
+        return null;
+    }
+
     protected ListeningExecutorService getExecutor() {
         return executor;
     }
@@ -104,16 +143,42 @@ public abstract class AbstractManagedExecutorService implements ManagedExecutorS
         return executor.shutdownNow();
     }
 
+    /**
+     * Creates the execution context of a task, by preparing the context of each execution context service.
+     * Services not having any context to propagate are skipped, and no composite is created if only one service
+     * returns a context.
+     *
+     * @return the context, {@code null} if there is nothing to apply
+     */
     protected ExecutionContext createExecutionContext() {
-        if (ecs == null) {
+        List<ExecutionContextService> services = ecs;
+        if (services == null || services.isEmpty()) {
             return null;
         }
-        List<ExecutionContextService> copy = new ArrayList<>(ecs);
-        List<ExecutionContext> ec = new ArrayList<>();
-        for (ExecutionContextService svc : copy) {
-            ec.add(svc.prepare());
+        // Copy-on-write lists (such as the one maintained by the Creator) can be iterated without copy.
+        Iterable<ExecutionContextService> snapshot = services instanceof CopyOnWriteArrayList
+                ? services : new ArrayList<>(services);
+        ExecutionContext first = null;
+        List<ExecutionContext> contexts = null;
+        for (ExecutionContextService svc : snapshot) {
+            ExecutionContext context = svc.prepare();
+            if (context == null) {
+                continue;
+            }
+            if (first == null) {
+                first = context;
+            } else {
+                if (contexts == null) {
+                    contexts = new ArrayList<>(4);
+                    contexts.add(first);
+                }
+                contexts.add(context);
+            }
         }
-        return CompositeExecutionContext.create(ec);
+        if (contexts == null) {
+            return first;
+        }
+        return CompositeExecutionContext.create(contexts);
     }
 
     @Override
@@ -201,7 +266,13 @@ public abstract class AbstractManagedExecutorService implements ManagedExecutorS
      */
     @Override
     public int getLargestPoolSize() {
-        return internalPool.getLargestPoolSize();
+        if (threadPool() != null) {
+            return threadPool().getLargestPoolSize();
+        }
+        if (forkJoinPool() != null) {
+            return Math.max(forkJoinPool().getPoolSize(), largestRunningTasks.get());
+        }
+        return largestRunningTasks.get();
     }
 
     /**
@@ -211,7 +282,14 @@ public abstract class AbstractManagedExecutorService implements ManagedExecutorS
      */
     @Override
     public int getMaximumPoolSize() {
-        return internalPool.getMaximumPoolSize();
+        if (threadPool() != null) {
+            return threadPool().getMaximumPoolSize();
+        }
+        if (forkJoinPool() != null) {
+            return forkJoinPool().getParallelism();
+        }
+        // One thread per task.
+        return Integer.MAX_VALUE;
     }
 
     /**
@@ -221,7 +299,13 @@ public abstract class AbstractManagedExecutorService implements ManagedExecutorS
      */
     @Override
     public int getPoolSize() {
-        return internalPool.getPoolSize();
+        if (threadPool() != null) {
+            return threadPool().getPoolSize();
+        }
+        if (forkJoinPool() != null) {
+            return forkJoinPool().getPoolSize();
+        }
+        return runningTasks.get();
     }
 
     /**
@@ -231,7 +315,13 @@ public abstract class AbstractManagedExecutorService implements ManagedExecutorS
      */
     @Override
     public int getCorePoolSize() {
-        return internalPool.getCorePoolSize();
+        if (threadPool() != null) {
+            return threadPool().getCorePoolSize();
+        }
+        if (forkJoinPool() != null) {
+            return forkJoinPool().getParallelism();
+        }
+        return 0;
     }
 
     /**
@@ -245,7 +335,10 @@ public abstract class AbstractManagedExecutorService implements ManagedExecutorS
      */
     @Override
     public long getCompletedTaskCount() {
-        return internalPool.getCompletedTaskCount();
+        if (threadPool() != null) {
+            return threadPool().getCompletedTaskCount();
+        }
+        return completedTasks.get();
     }
 
     /**
@@ -256,7 +349,10 @@ public abstract class AbstractManagedExecutorService implements ManagedExecutorS
      */
     @Override
     public int getActiveCount() {
-        return internalPool.getActiveCount();
+        if (threadPool() != null) {
+            return threadPool().getActiveCount();
+        }
+        return runningTasks.get();
     }
 
     /**
@@ -269,7 +365,11 @@ public abstract class AbstractManagedExecutorService implements ManagedExecutorS
      */
     @Override
     public BlockingQueue<Runnable> getQueue() {
-        return internalPool.getQueue();
+        if (threadPool() != null) {
+            return threadPool().getQueue();
+        }
+        // Fork-join pools do not expose their queues, and virtual threads are not queued.
+        return new LinkedBlockingQueue<>();
     }
 
     /**
@@ -284,7 +384,9 @@ public abstract class AbstractManagedExecutorService implements ManagedExecutorS
      */
     @Override
     public void purge() {
-        internalPool.purge();
+        if (threadPool() != null) {
+            threadPool().purge();
+        }
     }
 
     /**
@@ -305,7 +407,7 @@ public abstract class AbstractManagedExecutorService implements ManagedExecutorS
      */
     @Override
     public boolean remove(Runnable task) {
-        return internalPool.remove(task);
+        return threadPool() != null && threadPool().remove(task);
     }
 
     /**
@@ -318,7 +420,13 @@ public abstract class AbstractManagedExecutorService implements ManagedExecutorS
      */
     @Override
     public long getTaskCount() {
-        return internalPool.getTaskCount();
+        if (threadPool() != null) {
+            return threadPool().getTaskCount();
+        }
+        if (forkJoinPool() != null) {
+            return startedTasks.get() + forkJoinPool().getQueuedSubmissionCount();
+        }
+        return startedTasks.get();
     }
 
     /**
@@ -331,7 +439,10 @@ public abstract class AbstractManagedExecutorService implements ManagedExecutorS
      */
     @Override
     public long getKeepAliveTime(TimeUnit unit) {
-        return internalPool.getKeepAliveTime(unit);
+        if (threadPool() != null) {
+            return threadPool().getKeepAliveTime(unit);
+        }
+        return 0L;
     }
 
     @Override
@@ -371,5 +482,25 @@ public abstract class AbstractManagedExecutorService implements ManagedExecutorS
      */
     protected void addToStatistics(Task task) {
         statistics.accept(task.getTaskCompletionTime() - task.getTaskStartTime());
+        if (threadPool() == null) {
+            runningTasks.decrementAndGet();
+            completedTasks.incrementAndGet();
+        }
+    }
+
+    /**
+     * Notifies that a task is starting its execution.
+     *
+     * @param task the task
+     */
+    protected void taskStarted(Task task) {
+        if (threadPool() == null) {
+            startedTasks.incrementAndGet();
+            int running = runningTasks.incrementAndGet();
+            int largest = largestRunningTasks.get();
+            while (running > largest && !largestRunningTasks.compareAndSet(largest, running)) {
+                largest = largestRunningTasks.get();
+            }
+        }
     }
 }
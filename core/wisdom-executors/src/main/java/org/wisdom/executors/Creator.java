@@ -31,6 +31,7 @@ import org.wisdom.api.configuration.ApplicationConfiguration;
 import org.wisdom.api.configuration.Configuration;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
@@ -59,11 +60,34 @@ public class Creator {
     @Context
     BundleContext context;
 
-    @Requires(specification = ExecutionContextService.class)
-    List<ExecutionContextService> ecs;
+    /**
+     * The execution context services, shared by all the created executors. Executors iterate over it for every
+     * task, so it's a copy-on-write list maintained by the bind and unbind callbacks.
+     */
+    final List<ExecutionContextService> ecs = new CopyOnWriteArrayList<>();
 
     private final Map<ServiceRegistration, ExecutorService> instances = new HashMap<>();
 
+    /**
+     * A new execution context service is available.
+     *
+     * @param service the service
+     */
+    @Bind(specification = ExecutionContextService.class, aggregate = true, optional = true)
+    public void bindExecutionContextService(ExecutionContextService service) {
+        ecs.add(service);
+    }
+
+    /**
+     * An execution context service has left.
+     *
+     * @param service the service
+     */
+    @Unbind
+    public void unbindExecutionContextService(ExecutionContextService service) {
+        ecs.remove(service);
+    }
+
     /**
      * Creates the system executors and the others specified executors.
      */
@@ -0,0 +1,161 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.executors;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thread pool creating threads up to its maximum size before queuing tasks. A regular
+ * {@link ThreadPoolExecutor} only creates threads beyond its core size once its queue is full, so with an unbounded
+ * queue it never grows. This pool does the opposite: tasks are queued only when all threads are busy and the
+ * maximum size is reached. Once the (bounded) queue is full, tasks are rejected with a
+ * {@link RejectedExecutionException}, which the engine translates into a {@literal 503 - Service Unavailable}
+ * response.
+ */
+class EagerThreadPoolExecutor extends ThreadPoolExecutor {
+
+    /**
+     * The number of tasks submitted and not yet completed (queued or running).
+     */
+    private final AtomicInteger submitted = new AtomicInteger();
+
+    /**
+     * Creates the pool.
+     *
+     * @param coreSize      the core size
+     * @param maxSize       the maximum size
+     * @param keepAlive     the keep alive time of threads beyond the core size, in milliseconds
+     * @param queueCapacity the capacity of the queue
+     * @param factory       the thread factory
+     */
+    EagerThreadPoolExecutor(int coreSize, int maxSize, long keepAlive, int queueCapacity, ThreadFactory factory) {
+        super(coreSize, maxSize, keepAlive, TimeUnit.MILLISECONDS, new EagerQueue(queueCapacity), factory,
+                new EagerRejectionPolicy());
+        ((EagerQueue) getQueue()).pool = this;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        submitted.incrementAndGet();
+        try {
+            super.execute(command);
+        } catch (RejectedExecutionException e) {
+            // When the pool is shut down, the task may have been queued and removed (and so already discounted).
+            // The count does not matter anymore in this case, as the pool does not accept tasks anymore.
+            if (!isShutdown()) {
+                submitted.decrementAndGet();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        submitted.decrementAndGet();
+    }
+
+    @Override
+    public boolean remove(Runnable task) {
+        boolean removed = super.remove(task);
+        if (removed) {
+            submitted.decrementAndGet();
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the cancelled tasks from the queue. Unlike {@link ThreadPoolExecutor#purge()}, the tasks are removed
+     * one by one using {@link #remove(Runnable)}, so they are not counted as submitted anymore.
+     */
+    @Override
+    public void purge() {
+        for (Runnable task : getQueue().toArray(new Runnable[0])) {
+            if (task instanceof Future && ((Future<?>) task).isCancelled()) {
+                remove(task);
+            }
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> tasks = super.shutdownNow();
+        submitted.addAndGet(-tasks.size());
+        return tasks;
+    }
+
+    /**
+     * @return the number of tasks submitted and not yet completed.
+     */
+    int getSubmittedCount() {
+        return submitted.get();
+    }
+
+    /**
+     * The queue refusing tasks (so the pool creates a thread) while the pool can grow and no thread is idle.
+     */
+    private static final class EagerQueue extends LinkedBlockingQueue<Runnable> {
+
+        private transient EagerThreadPoolExecutor pool;
+
+        private EagerQueue(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        public boolean offer(Runnable runnable) {
+            if (pool.getSubmittedCount() <= pool.getPoolSize()) {
+                // A thread is idle, it will pick the task.
+                return super.offer(runnable);
+            }
+            if (pool.getPoolSize() < pool.getMaximumPoolSize()) {
+                // Let the pool create a new thread.
+                return false;
+            }
+            return super.offer(runnable);
+        }
+
+        /**
+         * Enqueues the task, bypassing the growing logic.
+         *
+         * @param runnable the task
+         * @return {@code true} if the task was queued, {@code false} if the queue is full
+         */
+        private boolean force(Runnable runnable) {
+            return super.offer(runnable);
+        }
+    }
+
+    /**
+     * The rejection policy: the pool may have reached its maximum size between the offer and the thread creation, so
+     * we try to queue the task before rejecting it.
+     */
+    private static final class EagerRejectionPolicy implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown() || !((EagerQueue) executor.getQueue()).force(r)) {
+                throw new RejectedExecutionException("The pool is saturated, all threads are busy and the queue is " +
+                        "full");
+            }
+        }
+    }
+}
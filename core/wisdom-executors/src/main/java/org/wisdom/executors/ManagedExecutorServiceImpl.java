@@ -20,6 +20,7 @@
 package org.wisdom.executors;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.LoggerFactory;
 import org.wisdom.api.concurrent.ExecutionContextService;
 import org.wisdom.api.concurrent.ManagedExecutorService;
 import org.wisdom.api.configuration.Configuration;
@@ -28,6 +29,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Implementation of the {@link org.wisdom.api.concurrent.ManagedExecutorService}.
@@ -61,22 +63,92 @@ public class ManagedExecutorServiceImpl extends AbstractManagedExecutorService
             List<ExecutionContextService> ecs) {
 
         super(name, hungTime, ecs);
-        ThreadFactoryBuilder builder = new ThreadFactoryBuilder()
+        Thread.UncaughtExceptionHandler handler = new Thread.UncaughtExceptionHandler() {
+            @Override
+            public void uncaughtException(Thread t, Throwable e) {
+                logger.error("Uncaught exception in thread '{}'",
+                        t.getName(), e);
+            }
+        };
+
+        if (tu == ThreadType.FORK_JOIN) {
+            setInternalPool(new ForkJoinPool(coreSize, createForkJoinThreadFactory(name, priority), handler, true));
+            return;
+        }
+
+        if (tu == ThreadType.VIRTUAL) {
+            ExecutorService virtual = createVirtualThreadExecutor(name);
+            if (virtual != null) {
+                setInternalPool(virtual);
+                return;
+            }
+            logger.warn("Virtual threads are not supported by the JVM, the executor {} uses a regular pool", name);
+        }
+
+        ThreadFactory factory = new ThreadFactoryBuilder()
                 .setDaemon(tu == ThreadType.DAEMON)
                 .setNameFormat(name + "-%s")
                 .setPriority(priority)
-                .setUncaughtExceptionHandler(
-                        new Thread.UncaughtExceptionHandler() {
-                            @Override
-                            public void uncaughtException(Thread t, Throwable e) {
-                                logger.error("Uncaught exception in thread '{}'",
-                                        t.getName(), e);
-                            }
-                        });
+                .setUncaughtExceptionHandler(handler)
+                .build();
+
+        if (tu == ThreadType.EAGER) {
+            // An unbounded queue would defeat the purpose of rejecting tasks when saturated.
+            int capacity = workQueueCapacity == Integer.MAX_VALUE ? maxSize : workQueueCapacity;
+            setInternalPool(new EagerThreadPoolExecutor(coreSize, maxSize, keepAlive, Math.max(capacity, 1),
+                    factory));
+            return;
+        }
 
         BlockingQueue<Runnable> queue = createWorkQueue(workQueueCapacity);
         setInternalPool(new ThreadPoolExecutor(coreSize, maxSize, keepAlive,
-                TimeUnit.MILLISECONDS, queue, builder.build()));
+                TimeUnit.MILLISECONDS, queue, factory));
+    }
+
+    /**
+     * Creates the factory of the fork-join pool threads, so they are named after the executor.
+     *
+     * @param name     the executor name
+     * @param priority the thread priority
+     * @return the factory
+     */
+    private static ForkJoinPool.ForkJoinWorkerThreadFactory createForkJoinThreadFactory(final String name,
+                                                                                       final int priority) {
+        final AtomicInteger counter = new AtomicInteger();
+        return new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+            @Override
+            public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                ForkJoinWorkerThread thread = new ForkJoinWorkerThread(pool) {
+                };
+                thread.setName(name + "-" + counter.getAndIncrement());
+                thread.setPriority(priority);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread for each task. Virtual threads are looked up by reflection
+     * as they are not available on all the supported JVMs.
+     *
+     * @param name the executor name, used to name the threads
+     * @return the executor, {@code null} if virtual threads are not supported
+     */
+    static ExecutorService createVirtualThreadExecutor(String name) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, Long.TYPE).invoke(builder, name + "-", 0L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ClassNotFoundException | NoSuchMethodException e) { //NOSONAR
+            return null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LoggerFactory.getLogger(ManagedExecutorServiceImpl.class)
+                    .error("Cannot create the virtual thread executor {}", name, e);
+            return null;
+        }
     }
 
     protected BlockingQueue<Runnable> createWorkQueue(int workQueueCapacity) {
@@ -243,6 +243,7 @@ public class Task<V> extends FutureTask<V> implements ListenableFuture<V>, Manag
 
         @Override
         public V call() throws Exception {
+            parent.taskStarted(Task.this);
             try {
                 if (executionContext != null) {
                     executionContext.apply();
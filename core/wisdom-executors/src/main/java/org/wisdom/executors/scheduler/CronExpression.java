@@ -0,0 +1,234 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.executors.scheduler;
+
+import com.google.common.base.Strings;
+import org.joda.time.DateTime;
+
+import java.util.BitSet;
+
+/**
+ * A parsed cron expression.
+ * <p>
+ * The expression contains either 5 fields (minute, hour, day of month, month and day of week) or 6 fields (the
+ * seconds followed by the 5 others). Each field accepts {@code *} (or {@code ?}), single values, ranges
+ * ({@code 1-5}), lists ({@code 1,15}) and steps ({@code *}{@code /10}, {@code 0-30/5}). Months and days of week can
+ * also be given by their 3-letter English names ({@code JAN}, {@code MON}...). Sunday is either 0 or 7. As in the
+ * Unix cron, when both the day of month and the day of week are restricted, a day matching either of them is
+ * accepted.
+ * <p>
+ * The {@code @yearly} (or {@code @annually}), {@code @monthly}, {@code @weekly}, {@code @daily} (or
+ * {@code @midnight}) and {@code @hourly} shortcuts are also supported.
+ * <p>
+ * Instances are immutable.
+ */
+public final class CronExpression {
+
+    private static final String[] MONTHS = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT",
+            "NOV", "DEC"};
+
+    private static final String[] DAYS = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+    /**
+     * The number of years looked ahead before considering that the expression never matches (such as for the 30th
+     * of February).
+     */
+    private static final int MAX_YEARS = 5;
+
+    private final String expression;
+    private final BitSet seconds;
+    private final BitSet minutes;
+    private final BitSet hours;
+    private final BitSet daysOfMonth;
+    private final BitSet months;
+    private final BitSet daysOfWeek;
+    private final boolean daysOfMonthRestricted;
+    private final boolean daysOfWeekRestricted;
+
+    private CronExpression(String expression) {
+        this.expression = expression;
+        String[] fields = expand(expression.trim()).split("\\s+");
+        if (fields.length == 5) {
+            String[] withSeconds = new String[6];
+            withSeconds[0] = "0";
+            System.arraycopy(fields, 0, withSeconds, 1, 5);
+            fields = withSeconds;
+        } else if (fields.length != 6) {
+            throw new IllegalArgumentException("Invalid cron expression '" + expression + "', 5 or 6 fields " +
+                    "expected");
+        }
+        seconds = parseField(fields[0], 0, 59, null, 0);
+        minutes = parseField(fields[1], 0, 59, null, 0);
+        hours = parseField(fields[2], 0, 23, null, 0);
+        daysOfMonth = parseField(fields[3], 1, 31, null, 0);
+        months = parseField(fields[4], 1, 12, MONTHS, 1);
+        daysOfWeek = parseField(fields[5], 0, 7, DAYS, 0);
+        if (daysOfWeek.get(7)) {
+            daysOfWeek.set(0);
+            daysOfWeek.clear(7);
+        }
+        daysOfMonthRestricted = !isWildcard(fields[3]);
+        daysOfWeekRestricted = !isWildcard(fields[5]);
+    }
+
+    /**
+     * Parses the given cron expression.
+     *
+     * @param expression the expression, must not be {@literal null} or empty
+     * @return the parsed expression
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    public static CronExpression parse(String expression) {
+        if (Strings.isNullOrEmpty(expression) || expression.trim().isEmpty()) {
+            throw new IllegalArgumentException("The cron expression must not be empty");
+        }
+        return new CronExpression(expression);
+    }
+
+    /**
+     * Computes the next time matching the expression, strictly after the given time. The time zone of the given
+     * time is used.
+     *
+     * @param after the time
+     * @return the next matching time (with a second precision), {@literal null} if the expression does not match
+     * any time in the next years
+     */
+    public DateTime next(DateTime after) {
+        DateTime time = after.withMillisOfSecond(0).plusSeconds(1);
+        DateTime limit = after.plusYears(MAX_YEARS);
+        while (time.isBefore(limit)) {
+            if (!months.get(time.getMonthOfYear())) {
+                time = time.withDayOfMonth(1).withTimeAtStartOfDay().plusMonths(1);
+            } else if (!matchesDay(time)) {
+                time = time.withTimeAtStartOfDay().plusDays(1);
+            } else if (!hours.get(time.getHourOfDay())) {
+                time = time.withMinuteOfHour(0).withSecondOfMinute(0).plusHours(1);
+            } else if (!minutes.get(time.getMinuteOfHour())) {
+                time = time.withSecondOfMinute(0).plusMinutes(1);
+            } else if (!seconds.get(time.getSecondOfMinute())) {
+                time = time.plusSeconds(1);
+            } else {
+                return time;
+            }
+        }
+        return null;
+    }
+
+    private boolean matchesDay(DateTime time) {
+        boolean dayOfMonth = daysOfMonth.get(time.getDayOfMonth());
+        // Joda uses 1 for Monday and 7 for Sunday.
+        boolean dayOfWeek = daysOfWeek.get(time.getDayOfWeek() % 7);
+        if (daysOfMonthRestricted && daysOfWeekRestricted) {
+            return dayOfMonth || dayOfWeek;
+        }
+        return dayOfMonth && dayOfWeek;
+    }
+
+    /**
+     * @return the expression as given to {@link #parse(String)}.
+     */
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private static String expand(String expression) {
+        switch (expression.toLowerCase()) {
+            case "@yearly":
+            case "@annually":
+                return "0 0 1 1 *";
+            case "@monthly":
+                return "0 0 1 * *";
+            case "@weekly":
+                return "0 0 * * 0";
+            case "@daily":
+            case "@midnight":
+                return "0 0 * * *";
+            case "@hourly":
+                return "0 * * * *";
+            default:
+                return expression;
+        }
+    }
+
+    private static boolean isWildcard(String field) {
+        return "*".equals(field) || "?".equals(field);
+    }
+
+    private static BitSet parseField(String field, int min, int max, String[] names, int offset) {
+        BitSet bits = new BitSet(max + 1);
+        for (String part : field.split(",")) {
+            int step = 1;
+            String range = part;
+            int slash = part.indexOf('/');
+            if (slash != -1) {
+                range = part.substring(0, slash);
+                step = parseNumber(part.substring(slash + 1), field);
+                if (step <= 0) {
+                    throw new IllegalArgumentException("Invalid step in cron field '" + field + "'");
+                }
+            }
+
+            int from;
+            int to;
+            if (isWildcard(range)) {
+                from = min;
+                to = max;
+            } else {
+                int dash = range.indexOf('-');
+                if (dash != -1) {
+                    from = parseValue(range.substring(0, dash), field, names, offset);
+                    to = parseValue(range.substring(dash + 1), field, names, offset);
+                } else {
+                    from = parseValue(range, field, names, offset);
+                    // 'a/n' means from 'a' to the maximum every 'n'.
+                    to = slash != -1 ? max : from;
+                }
+            }
+            if (from < min || to > max || from > to) {
+                throw new IllegalArgumentException("Invalid range in cron field '" + field + "', values must be " +
+                        "between " + min + " and " + max);
+            }
+            for (int i = from; i <= to; i += step) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private static int parseValue(String value, String field, String[] names, int offset) {
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equalsIgnoreCase(value)) {
+                    return i + offset;
+                }
+            }
+        }
+        return parseNumber(value, field);
+    }
+
+    private static int parseNumber(String value, String field) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value '" + value + "' in cron field '" + field + "'", e);
+        }
+    }
+}
@@ -20,19 +20,27 @@
 package org.wisdom.executors.scheduler;
 
 import com.google.common.base.Strings;
+import org.joda.time.DateTime;
 import org.joda.time.Period;
 import org.joda.time.format.PeriodFormatter;
 import org.joda.time.format.PeriodFormatterBuilder;
 import org.wisdom.api.annotations.scheduler.Every;
+import org.wisdom.api.concurrent.ManagedScheduledExecutorService;
 import org.wisdom.api.concurrent.ManagedScheduledFutureTask;
 import org.wisdom.api.scheduler.Scheduled;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Structure holding a job.
+ * <p>
+ * Plain periodic jobs are submitted to the scheduler as fixed-rate (or fixed-delay) tasks. Cron jobs, as well as
+ * jobs using jitter or skipping late executions, are submitted as one-shot tasks rescheduling themselves once
+ * completed, as the delay before the next execution is computed after each run.
  */
 public class Job {
 
@@ -53,12 +61,31 @@ public class Job {
             .appendSeconds()
             .appendSuffix("s", "s")
             .toFormatter();
+
+    private static final Random RANDOM = new Random();
+
     private final Method method;
     private final Scheduled scheduled;
     private final TimeUnit unit;
-    private ManagedScheduledFutureTask task;
+    private final CronExpression cron;
+    private final boolean fixedDelay;
+    private final boolean skipIfRunning;
+    private final long jitter;
+    private final String schedulerName;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ManagedScheduledFutureTask task;
     private long period;
 
+    /**
+     * Whether the job has been cancelled, stopping the rescheduling of the self-scheduled jobs.
+     */
+    private boolean cancelled;
+
+    /**
+     * The time (in milliseconds, jitter excluded) of the next execution of the self-scheduled fixed-rate jobs.
+     */
+    private long nextExecution;
+
     /**
      * Creates a new instance of Job.
      *
@@ -69,6 +96,18 @@ public class Job {
     public Job(Scheduled scheduled, Method method, Every every) {
         this.method = method;
         this.scheduled = scheduled;
+        this.fixedDelay = every.fixedDelay();
+        this.skipIfRunning = every.skipIfRunning();
+        this.jitter = Strings.isNullOrEmpty(every.jitter()) ? 0L :
+                TimeUnit.SECONDS.toMillis(toDuration(PERIOD_FORMATTER.parsePeriod(every.jitter())));
+        this.schedulerName = Strings.emptyToNull(every.scheduler());
+        if (!Strings.isNullOrEmpty(every.cron())) {
+            this.cron = CronExpression.parse(every.cron());
+            this.period = -1;
+            this.unit = TimeUnit.SECONDS;
+            return;
+        }
+        this.cron = null;
         if (every.period() > 0) {
             this.period = every.period();
             this.unit = every.unit();
@@ -77,7 +116,7 @@ public class Job {
             this.unit = TimeUnit.SECONDS;
             if (this.period == -1) {
                 throw new IllegalArgumentException("Cannot retrieve the period of the @Every annotation of " + method
-                        .getName() + ", neither the period as String nor as long was given");
+                        .getName() + ", neither the period as String nor as long nor a cron expression was given");
             }
         }
     }
@@ -119,6 +158,13 @@ public class Job {
         return new Runnable() {
             @Override
             public void run() {
+                // Overlapping only happens when the job has been resubmitted while still running.
+                boolean acquired = running.compareAndSet(false, true);
+                if (!acquired && skipIfRunning) {
+                    WisdomTaskScheduler.getLogger().debug("Skipping the execution of {}.{}, the previous one is " +
+                            "still running", scheduled.getClass().getName(), method.getName());
+                    return;
+                }
                 try {
                     method.invoke(scheduled);
                 } catch (IllegalAccessException e) {
@@ -127,11 +173,95 @@ public class Job {
                 } catch (InvocationTargetException e) {
                     WisdomTaskScheduler.getLogger().error("Error in scheduled method {}.{}",
                             scheduled.getClass().getName(), method.getName(), e);
+                } finally {
+                    if (acquired) {
+                        running.set(false);
+                    }
                 }
             }
         };
     }
 
+    /**
+     * Submits the job to the given scheduler.
+     *
+     * @param scheduler the scheduler
+     */
+    public synchronized void submit(ManagedScheduledExecutorService scheduler) {
+        cancelled = false;
+        if (cron == null && jitter == 0 && !skipIfRunning) {
+            if (fixedDelay) {
+                submitted(scheduler.scheduleWithFixedDelay(function(), period, period, unit));
+            } else {
+                submitted(scheduler.scheduleAtFixedRate(function(), period, period, unit));
+            }
+            return;
+        }
+        long now = System.currentTimeMillis();
+        nextExecution = now + unit.toMillis(period);
+        scheduleNext(scheduler, now);
+    }
+
+    /**
+     * Cancels the job. Self-scheduled jobs are not rescheduled anymore.
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        if (task != null) {
+            task.cancel(true);
+        }
+        task = null;
+    }
+
+    /**
+     * Schedules the next execution of a self-scheduled job.
+     *
+     * @param scheduler the scheduler
+     * @param now       the current time
+     */
+    private synchronized void scheduleNext(final ManagedScheduledExecutorService scheduler, long now) {
+        if (cancelled || scheduler.isShutdown()) {
+            return;
+        }
+        long delay;
+        if (cron != null) {
+            DateTime next = cron.next(new DateTime(now));
+            if (next == null) {
+                WisdomTaskScheduler.getLogger().warn("The cron expression '{}' of the scheduled method {}.{} does " +
+                        "not match any date, the job is not rescheduled", cron, scheduled.getClass().getName(),
+                        method.getName());
+                task = null;
+                return;
+            }
+            delay = next.getMillis() - now;
+        } else if (fixedDelay) {
+            delay = unit.toMillis(period);
+        } else {
+            if (skipIfRunning && nextExecution <= now) {
+                // Skip the executions that became due while the job was running.
+                long periodInMs = Math.max(1L, unit.toMillis(period));
+                nextExecution += ((now - nextExecution) / periodInMs + 1) * periodInMs;
+            }
+            delay = Math.max(0L, nextExecution - now);
+            nextExecution += unit.toMillis(period);
+        }
+        if (jitter > 0) {
+            delay += (long) (RANDOM.nextDouble() * jitter);
+        }
+
+        final Runnable function = function();
+        submitted(scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    function.run();
+                } finally {
+                    scheduleNext(scheduler, System.currentTimeMillis());
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS));
+    }
+
     /**
      * Method called when the job is submitted. It provides a reference to the task object.
      *
@@ -168,4 +298,25 @@ public class Job {
     public TimeUnit unit() {
         return unit;
     }
+
+    /**
+     * @return the cron expression, {@literal null} if the job is periodic.
+     */
+    public CronExpression cron() {
+        return cron;
+    }
+
+    /**
+     * @return the maximum jitter in milliseconds, 0 if none.
+     */
+    public long jitter() {
+        return jitter;
+    }
+
+    /**
+     * @return the name of the scheduler executing the job, {@literal null} to use the system scheduler.
+     */
+    public String schedulerName() {
+        return schedulerName;
+    }
 }
@@ -24,15 +24,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wisdom.api.annotations.scheduler.Every;
 import org.wisdom.api.concurrent.ManagedScheduledExecutorService;
-import org.wisdom.api.concurrent.ManagedScheduledFutureTask;
 import org.wisdom.api.scheduler.Scheduled;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Manage scheduled job using the system scheduler.
+ * Manage scheduled job using the system scheduler, or the scheduler named by the job.
+ * Jobs targeting a named scheduler are submitted when this scheduler becomes available, and cancelled when it
+ * leaves.
  */
 @Component(immediate = true)
 @Instantiate
@@ -45,6 +48,11 @@ public class WisdomTaskScheduler {
 
     List<Job> jobs = new ArrayList<>();
 
+    /**
+     * The available schedulers by name.
+     */
+    final Map<String, ManagedScheduledExecutorService> schedulers = new ConcurrentHashMap<>();
+
     /**
      * @return the logger.
      */
@@ -63,13 +71,62 @@ public class WisdomTaskScheduler {
         List<Job> extracted = extractJobsFromScheduled(scheduled);
         for (Job job : extracted) {
             LOGGER.info("Job extracted from {} : {}", scheduled, job.method().getName());
-            ManagedScheduledFutureTask task = scheduler.scheduleAtFixedRate(job.function(),
-                    job.period(), job.period(), job.unit());
-            job.submitted(task);
+            submit(job);
         }
         jobs.addAll(extracted);
     }
 
+    /**
+     * Binds a scheduler. The jobs targeting this scheduler are submitted.
+     *
+     * @param service the scheduler
+     */
+    @Bind(id = "schedulers", specification = ManagedScheduledExecutorService.class, aggregate = true,
+            optional = true)
+    public synchronized void bindScheduler(ManagedScheduledExecutorService service) {
+        schedulers.put(service.name(), service);
+        for (Job job : jobs) {
+            if (job.task() == null && service.name().equals(job.schedulerName())) {
+                submit(job);
+            }
+        }
+    }
+
+    /**
+     * Unbinds a scheduler. The jobs targeting this scheduler are cancelled, and are submitted again if the
+     * scheduler comes back.
+     *
+     * @param service the scheduler
+     */
+    @Unbind(id = "schedulers")
+    public synchronized void unbindScheduler(ManagedScheduledExecutorService service) {
+        schedulers.remove(service.name());
+        for (Job job : jobs) {
+            if (service.name().equals(job.schedulerName())) {
+                job.cancel();
+            }
+        }
+    }
+
+    /**
+     * Submits the job to its scheduler, if available.
+     *
+     * @param job the job
+     */
+    private void submit(Job job) {
+        ManagedScheduledExecutorService service = scheduler;
+        if (job.schedulerName() != null && !job.schedulerName().equals(ManagedScheduledExecutorService.SYSTEM)) {
+            service = schedulers.get(job.schedulerName());
+            if (service == null) {
+                LOGGER.warn("The scheduler '{}' used by {}#{} is not available, the job is submitted when the " +
+                        "scheduler becomes available", job.schedulerName(), job.scheduled().getClass().getName(),
+                        job.method().getName());
+                return;
+            }
+        }
+        job.submit(service);
+    }
+
     /**
      * Invalidate method.
      * The system dispatcher has been shutdown, cancelling all submitted tasks.
@@ -79,8 +136,7 @@ public class WisdomTaskScheduler {
         for (Job job : jobs) {
             LOGGER.info("Cancelling periodic task {}#{} on invalidation", job.scheduled().getClass().getName(),
                     job.method().getName());
-            job.task().cancel(true);
-            job.submitted(null);
+            job.cancel();
         }
     }
 
@@ -92,9 +148,7 @@ public class WisdomTaskScheduler {
     public synchronized void validate() {
         for (Job job : jobs) {
             if (job.task() == null) {
-                ManagedScheduledFutureTask task = scheduler.scheduleAtFixedRate(job.function(),
-                        job.period(), job.period(), job.unit());
-                job.submitted(task);
+                submit(job);
             }
         }
     }
@@ -110,7 +164,7 @@ public class WisdomTaskScheduler {
             if (job.scheduled().equals(scheduled)) {
                 LOGGER.info("Cancelling periodic task {}#{}", job.scheduled().getClass().getName(),
                         job.method().getName());
-                job.task().cancel(true);
+                job.cancel();
                 jobs.remove(job);
             }
         }
@@ -132,7 +186,7 @@ public class WisdomTaskScheduler {
                 try {
                     listOfJobs.add(new Job(scheduled, method, every));
                 } catch (IllegalArgumentException e) {
-                    LOGGER.error("Cannot parse the period '{}' from scheduled method {}.{}", every.value(),
+                    LOGGER.error("Cannot parse the period or cron expression of the scheduled method {}.{}",
                             scheduled.getClass().getName(), method.getName(), e);
                 }
             }
@@ -29,10 +29,8 @@ import org.osgi.framework.BundleContext;
 import org.wisdom.api.annotations.scheduler.Async;
 import org.wisdom.api.concurrent.ManagedExecutorService;
 import org.wisdom.api.concurrent.ManagedFutureTask;
-import org.wisdom.api.exceptions.HttpException;
 import org.wisdom.api.http.AsyncResult;
 import org.wisdom.api.http.Result;
-import org.wisdom.api.http.Results;
 import org.wisdom.api.http.Status;
 import org.wisdom.api.interception.RequestContext;
 import org.wisdom.api.router.Route;
@@ -66,7 +64,6 @@ public class AsyncInterceptorTest {
                     }
                 }
         ).when(bundle).loadClass(anyString());
-        interceptor.executor = executor;
     }
 
     @After
@@ -157,56 +154,27 @@ public class AsyncInterceptorTest {
                 });
 
         Thread.sleep(100);
-        assertThat(errors[0]).isNotNull().isInstanceOf(HttpException.class);
-        assertThat(errors[0].getCause().getMessage())
+        // The exception is not wrapped, so the engine can find the exception mapper handling it.
+        assertThat(errors[0]).isNotNull().isInstanceOf(IllegalAccessException.class);
+        assertThat(errors[0].getMessage())
                 .contains("Bad, but expected");
     }
 
     @Test
-    public void testWithTimeoutReached() throws Exception {
+    public void testThatTheTimeoutIsPassedToTheEngine() throws Exception {
         RequestContext rc = mock(RequestContext.class);
-        doAnswer(new Answer<Result>() {
-
-            @Override
-            public Result answer(InvocationOnMock invocation) throws Throwable {
-                Thread.sleep(1000);
-                return Results.ok("Done");
-            }
-        }).when(rc).proceed();
-        Route route = mock(Route.class);
-        when(route.getUrl()).thenReturn("/");
-        when(rc.route()).thenReturn(route);
+        when(rc.proceed()).thenReturn(new Result(Status.OK));
 
         Async async = mock(Async.class);
-        // Must be below the thread.sleep from the action.
         when(async.timeout()).thenReturn(10l);
         when(async.unit()).thenReturn(TimeUnit.MILLISECONDS);
 
         Result result = interceptor.call(async, rc);
         assertThat(result).isInstanceOf(AsyncResult.class);
-
-        final Result[] retrieved = {null};
-        final Throwable[] errors = {null};
-
-        ManagedFutureTask<Result> r = executor.submit(((AsyncResult) result).callable())
-                .onSuccess(new ManagedFutureTask.SuccessCallback<Result>() {
-                    @Override
-                    public void onSuccess(ManagedFutureTask<Result> future, Result result) {
-                        retrieved[0] = result;
-                    }
-                })
-                .onFailure(new ManagedFutureTask.FailureCallback() {
-                    @Override
-                    public void onFailure(ManagedFutureTask future, Throwable throwable) {
-                        errors[0] = throwable;
-                    }
-                });
-        Thread.sleep(100);
-        assertThat(retrieved[0]).isNull();
-        assertThat(errors[0]).isNotNull().isInstanceOf(HttpException.class);
-        assertThat(errors[0].getMessage())
-                .contains("Request timeout");
+        // The timeout is enforced by the engine, the callable just computes the result.
+        assertThat(((AsyncResult) result).getTimeout()).isEqualTo(10l);
+        assertThat(((AsyncResult) result).getTimeoutUnit()).isEqualTo(TimeUnit.MILLISECONDS);
+        assertThat(((AsyncResult) result).callable().call().getStatusCode()).isEqualTo(Status.OK);
     }
 
-
 }
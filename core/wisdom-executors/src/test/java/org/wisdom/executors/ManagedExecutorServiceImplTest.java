@@ -36,6 +36,7 @@ import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
 
 public class ManagedExecutorServiceImplTest {
 
@@ -353,6 +354,121 @@ public class ManagedExecutorServiceImplTest {
         assertThat(service.getQueue()).isInstanceOf(LinkedBlockingQueue.class);
     }
 
+    @Test
+    public void testEagerPoolGrowsBeforeQueuingAndRejects() throws InterruptedException {
+        ManagedExecutorServiceImpl service = new ManagedExecutorServiceImpl("eager",
+                ManagedExecutorService.ThreadType.EAGER, 60000, 1, 3, 1000,
+                1, Thread.NORM_PRIORITY, null);
+        final CountDownLatch release = new CountDownLatch(1);
+        Runnable blocking = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        try {
+            for (int i = 0; i < 3; i++) {
+                service.execute(blocking);
+            }
+            // The pool has grown to its maximum size instead of queuing.
+            assertThat(service.getPoolSize()).isEqualTo(3);
+            assertThat(service.getQueue()).isEmpty();
+
+            // Then the tasks are queued, and rejected once the queue is full.
+            service.execute(blocking);
+            assertThat(service.getQueue()).hasSize(1);
+            try {
+                service.execute(blocking);
+                fail("The task should have been rejected");
+            } catch (RejectedExecutionException e) {
+                // Expected.
+            }
+        } finally {
+            release.countDown();
+            service.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEagerPoolDoesNotCountRemovedTasks() throws InterruptedException {
+        EagerThreadPoolExecutor pool = new EagerThreadPoolExecutor(1, 1, 1000, 5,
+                Executors.defaultThreadFactory());
+        final CountDownLatch release = new CountDownLatch(1);
+        Runnable blocking = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        try {
+            pool.execute(blocking);
+            Future<?> cancelled = pool.submit(blocking);
+            Future<?> removed = pool.submit(blocking);
+            pool.submit(blocking);
+            assertThat(pool.getSubmittedCount()).isEqualTo(4);
+
+            cancelled.cancel(false);
+            pool.purge();
+            assertThat(pool.getQueue()).hasSize(2);
+            assertThat(pool.getSubmittedCount()).isEqualTo(3);
+
+            assertThat(pool.remove((Runnable) removed)).isTrue();
+            assertThat(pool.getSubmittedCount()).isEqualTo(2);
+
+            release.countDown();
+            pool.shutdown();
+            assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(pool.getSubmittedCount()).isEqualTo(0);
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testForkJoinPool() throws ExecutionException, InterruptedException {
+        ManagedExecutorServiceImpl service = new ManagedExecutorServiceImpl("fj",
+                ManagedExecutorService.ThreadType.FORK_JOIN, 60000, 4, 25, 1000,
+                Integer.MAX_VALUE, Thread.NORM_PRIORITY, null);
+        try {
+            assertThat(service.getInternalPool()).isInstanceOf(ForkJoinPool.class);
+            assertThat(service.submit(new MyCallable()).get()).isEqualTo("hello");
+            assertThat(service.getMaximumPoolSize()).isEqualTo(4);
+            assertThat(service.getExecutionTimeStatistics().getNumberOfTasks()).isEqualTo(1);
+            assertThat(service.getCompletedTaskCount()).isEqualTo(1);
+            assertThat(service.getActiveCount()).isEqualTo(0);
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testVirtualThreadsOrFallback() throws ExecutionException, InterruptedException {
+        ManagedExecutorServiceImpl service = new ManagedExecutorServiceImpl("virtual",
+                ManagedExecutorService.ThreadType.VIRTUAL, 60000, 4, 25, 1000,
+                Integer.MAX_VALUE, Thread.NORM_PRIORITY, null);
+        try {
+            assertThat(service.submit(new MyCallable()).get()).isEqualTo("hello");
+            if (ManagedExecutorServiceImpl.createVirtualThreadExecutor("check") == null) {
+                // Not supported, we get a regular pool.
+                assertThat(service.getInternalPool()).isInstanceOf(ThreadPoolExecutor.class);
+            } else {
+                assertThat(service.getInternalPool()).isNotInstanceOf(ThreadPoolExecutor.class);
+                assertThat(service.getCompletedTaskCount()).isEqualTo(1);
+            }
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
     private class MyCallable implements Callable<String> {
 
         @Override
@@ -0,0 +1,104 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.executors.scheduler;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Checks the cron expression parsing and the computation of the next execution time.
+ */
+public class CronExpressionTest {
+
+    // Monday, 2015-01-05 10:15:30
+    DateTime now = new DateTime(2015, 1, 5, 10, 15, 30, DateTimeZone.UTC);
+
+    @Test
+    public void testEveryMinute() {
+        CronExpression cron = CronExpression.parse("* * * * *");
+        assertThat(cron.next(now)).isEqualTo(new DateTime(2015, 1, 5, 10, 16, 0, DateTimeZone.UTC));
+    }
+
+    @Test
+    public void testWithSeconds() {
+        CronExpression cron = CronExpression.parse("*/10 * * * * *");
+        assertThat(cron.next(now)).isEqualTo(new DateTime(2015, 1, 5, 10, 15, 40, DateTimeZone.UTC));
+    }
+
+    @Test
+    public void testRangesAndLists() {
+        CronExpression cron = CronExpression.parse("0 4,16 * * MON-FRI");
+        assertThat(cron.next(now)).isEqualTo(new DateTime(2015, 1, 5, 16, 0, 0, DateTimeZone.UTC));
+
+        // Friday evening -> Monday morning
+        DateTime friday = new DateTime(2015, 1, 9, 17, 0, 0, DateTimeZone.UTC);
+        assertThat(cron.next(friday)).isEqualTo(new DateTime(2015, 1, 12, 4, 0, 0, DateTimeZone.UTC));
+    }
+
+    @Test
+    public void testDayOfMonthAndMonth() {
+        CronExpression cron = CronExpression.parse("30 2 1 MAR *");
+        assertThat(cron.next(now)).isEqualTo(new DateTime(2015, 3, 1, 2, 30, 0, DateTimeZone.UTC));
+    }
+
+    @Test
+    public void testDayOfMonthOrDayOfWeek() {
+        // Either the 15th, or a Sunday.
+        CronExpression cron = CronExpression.parse("0 0 15 * 7");
+        assertThat(cron.next(now)).isEqualTo(new DateTime(2015, 1, 11, 0, 0, 0, DateTimeZone.UTC));
+        assertThat(cron.next(new DateTime(2015, 1, 11, 0, 0, 0, DateTimeZone.UTC)))
+                .isEqualTo(new DateTime(2015, 1, 15, 0, 0, 0, DateTimeZone.UTC));
+    }
+
+    @Test
+    public void testShortcuts() {
+        assertThat(CronExpression.parse("@hourly").next(now))
+                .isEqualTo(new DateTime(2015, 1, 5, 11, 0, 0, DateTimeZone.UTC));
+        assertThat(CronExpression.parse("@daily").next(now))
+                .isEqualTo(new DateTime(2015, 1, 6, 0, 0, 0, DateTimeZone.UTC));
+        assertThat(CronExpression.parse("@weekly").next(now))
+                .isEqualTo(new DateTime(2015, 1, 11, 0, 0, 0, DateTimeZone.UTC));
+        assertThat(CronExpression.parse("@yearly").next(now))
+                .isEqualTo(new DateTime(2016, 1, 1, 0, 0, 0, DateTimeZone.UTC));
+    }
+
+    @Test
+    public void testNeverMatching() {
+        assertThat(CronExpression.parse("0 0 30 FEB *").next(now)).isNull();
+    }
+
+    @Test
+    public void testInvalidExpressions() {
+        String[] invalid = {"", "* * *", "60 * * * *", "* * * * * * *", "*/0 * * * *", "5-1 * * * *",
+                "* * * FOO *"};
+        for (String expression : invalid) {
+            try {
+                CronExpression.parse(expression);
+                fail("Expected failure for '" + expression + "'");
+            } catch (IllegalArgumentException e) {
+                // Expected.
+            }
+        }
+    }
+}
@@ -85,6 +85,31 @@ public class JobTest {
         assertThat(job.unit()).isEqualTo(TimeUnit.HOURS);
     }
 
+    @Test
+    public void testCronAndJitter() throws Exception {
+        Every every = create("");
+        when(every.cron()).thenReturn("0 4 * * *");
+        when(every.jitter()).thenReturn("30s");
+        when(every.scheduler()).thenReturn("my-scheduler");
+        Job job = new Job(null, null, every);
+        assertThat(job.cron()).isNotNull();
+        assertThat(job.cron().toString()).isEqualTo("0 4 * * *");
+        assertThat(job.jitter()).isEqualTo(30000);
+        assertThat(job.schedulerName()).isEqualTo("my-scheduler");
+
+        job = new Job(null, null, create("1m"));
+        assertThat(job.cron()).isNull();
+        assertThat(job.jitter()).isEqualTo(0);
+        assertThat(job.schedulerName()).isNull();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCron() throws Exception {
+        Every every = create("");
+        when(every.cron()).thenReturn("not a cron");
+        new Job(null, null, every);
+    }
+
     @Test
     public void testGetFunction() throws NoSuchMethodException {
         MyScheduled scheduled = new MyScheduled();
@@ -91,6 +91,42 @@ public class WisdomSchedulerTest {
         assertThat(scheduler.jobs).hasSize(0);
     }
 
+    @Test
+    public void testSkipIfRunningWithJitter() throws InterruptedException {
+        MySlowScheduled scheduled = new MySlowScheduled();
+        scheduler.bindScheduled(scheduled);
+        assertThat(scheduler.jobs).hasSize(1);
+        Thread.sleep(2500);
+        // The job takes 1.2s and runs every 200ms, late executions are skipped, not run back to back.
+        assertThat(scheduled.counter.get()).isBetween(1, 2);
+        scheduler.unbindScheduled(scheduled);
+        assertThat(scheduler.jobs).hasSize(0);
+    }
+
+    @Test
+    public void testNamedScheduler() throws InterruptedException {
+        MyNamedScheduled scheduled = new MyNamedScheduled();
+        scheduler.bindScheduled(scheduled);
+        assertThat(scheduler.jobs).hasSize(1);
+        // The scheduler is not there yet.
+        assertThat(scheduler.jobs.get(0).task()).isNull();
+
+        ManagedScheduledExecutorServiceImpl other = new ManagedScheduledExecutorServiceImpl("other",
+                new FakeConfiguration(Collections.<String, Object>emptyMap()), null);
+        try {
+            scheduler.bindScheduler(other);
+            assertThat(scheduler.jobs.get(0).task()).isNotNull();
+            Thread.sleep(1500);
+            assertThat(scheduled.counter.get()).isGreaterThan(0);
+            assertThat(scheduled.thread).contains("other");
+
+            scheduler.unbindScheduler(other);
+            assertThat(scheduler.jobs.get(0).task()).isNull();
+        } finally {
+            other.shutdownNow();
+        }
+    }
+
     private class MyScheduled implements Scheduled {
 
         AtomicInteger counter = new AtomicInteger();
@@ -115,4 +151,29 @@ public class WisdomSchedulerTest {
         }
     }
 
+    private class MySlowScheduled implements Scheduled {
+
+        AtomicInteger counter = new AtomicInteger();
+
+
+        @Every(period = 200, unit = TimeUnit.MILLISECONDS, skipIfRunning = true, jitter = "0s")
+        public void operation() throws InterruptedException {
+            counter.incrementAndGet();
+            Thread.sleep(1200);
+        }
+    }
+
+    private class MyNamedScheduled implements Scheduled {
+
+        AtomicInteger counter = new AtomicInteger();
+        volatile String thread;
+
+
+        @Every(period = 100, unit = TimeUnit.MILLISECONDS, fixedDelay = true, scheduler = "other")
+        public void operation() {
+            counter.incrementAndGet();
+            thread = Thread.currentThread().getName();
+        }
+    }
+
 }
@@ -25,6 +25,7 @@ import org.apache.commons.io.IOUtils;
 import org.vertx.java.core.Vertx;
 import org.vertx.java.core.http.HttpServerRequest;
 import org.wisdom.api.content.BodyParser;
+import org.wisdom.api.content.StreamBodyParser;
 import org.wisdom.api.cookies.Cookie;
 import org.wisdom.api.cookies.Cookies;
 import org.wisdom.api.cookies.FlashCookie;
@@ -37,14 +38,16 @@ import org.wisdom.framework.vertx.cookies.SessionCookieImpl;
 import org.wisdom.framework.vertx.file.VertxFileUpload;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.lang.reflect.Type;
 import java.net.URI;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -61,12 +64,33 @@ public class ContextFromVertx implements Context {
 
 
     private /*not final*/ Route route;
+
+    /**
+     * The path parameters extracted from the path, encoded and decoded. They are computed once, on first access.
+     */
+    private Map<String, String> pathParametersEncoded;
+    private Map<String, String> pathParameters;
     /**
      * the request object, created lazily.
      */
     private RequestFromVertx request;
     private org.vertx.java.core.Context vertxContext;
 
+    /**
+     * The durations of the stages executed by the engine, in nanoseconds, {@literal -1} if not measured. They are
+     * reported to the {@link org.wisdom.api.http.ExchangeListener} services once the response is written.
+     */
+    private long routingTime = -1;
+    private long serializationTime = -1;
+    /**
+     * The time (from {@link System#nanoTime()}) at which the engine has started writing the response.
+     */
+    private long writeStart;
+    /**
+     * Whether the exchange is completed, i.e. the response has been written or the engine has given up writing it.
+     */
+    private final AtomicBoolean completed = new AtomicBoolean();
+
 
     /**
      * Creates a new context.
@@ -77,11 +101,12 @@ public class ContextFromVertx implements Context {
     public ContextFromVertx(Vertx vertx, ServiceAccessor accessor, HttpServerRequest req) {
         id = ids.getAndIncrement();
         services = accessor;
-        request = new RequestFromVertx(this, req, accessor.getConfiguration());
+        EngineSettings settings = accessor.getSettings();
+        request = new RequestFromVertx(this, req, settings);
         this.vertx = vertx;
 
-        flash = new FlashCookieImpl(accessor.getConfiguration());
-        session = new SessionCookieImpl(accessor.getCrypto(), accessor.getConfiguration());
+        flash = new FlashCookieImpl(settings);
+        session = new SessionCookieImpl(accessor.getCrypto(), settings, accessor.getSessionCookieCache());
         flash.init(this);
         session.init(this);
     }
@@ -334,18 +359,40 @@ public class ContextFromVertx implements Context {
      */
     @Override
     public String parameterFromPath(String name) {
-        String encodedParameter = route.getPathParametersEncoded(
-                path()).get(name);
+        if (pathParameters == null) {
+            Map<String, String> encoded = getPathParametersEncoded();
+            Map<String, String> decoded = new HashMap<>(encoded.size());
+            for (Map.Entry<String, String> entry : encoded.entrySet()) {
+                decoded.put(entry.getKey(), decodePathParameter(entry.getValue()));
+            }
+            pathParameters = decoded;
+        }
+        return pathParameters.get(name);
+    }
+
+    private static String decodePathParameter(String encodedParameter) {
         if (encodedParameter == null) {
             return null;
-        } else {
-            // #514 - If the encoded parameter contains : it should be encoded manually.
-            // Some library don't meaning that the URI creation fails as : is not allowed.
-            if (encodedParameter.contains(":")) {
-                encodedParameter = encodedParameter.replace(":", "%3A");
-            }
-            return URI.create(encodedParameter).getPath();
         }
+        // #514 - If the encoded parameter contains : it should be encoded manually.
+        // Some library don't meaning that the URI creation fails as : is not allowed.
+        String parameter = encodedParameter;
+        if (parameter.contains(":")) {
+            parameter = parameter.replace(":", "%3A");
+        }
+        return URI.create(parameter).getPath();
+    }
+
+    /**
+     * Gets the path parameters from the route. The route regex is evaluated only once per request.
+     *
+     * @return the encoded path parameters
+     */
+    private Map<String, String> getPathParametersEncoded() {
+        if (pathParametersEncoded == null) {
+            pathParametersEncoded = route.getPathParametersEncoded(path());
+        }
+        return pathParametersEncoded;
     }
 
     /**
@@ -361,7 +408,7 @@ public class ContextFromVertx implements Context {
      */
     @Override
     public String parameterFromPathEncoded(String name) {
-        return route.getPathParametersEncoded(path()).get(name);
+        return getPathParametersEncoded().get(name);
     }
 
     /**
@@ -465,6 +512,11 @@ public class ContextFromVertx implements Context {
      */
     @Override
     public <T> T body(Class<T> classOfT, Type genericType) {
+        if (InputStream.class.equals(classOfT)) {
+            // Gives access to the raw body, for streaming actions the body is read while it arrives.
+            return classOfT.cast(request.getRawBodyAsStream());
+        }
+
         String rawContentType = request().contentType();
 
         // If the Content-type: xxx header is not set we return null.
@@ -484,6 +536,19 @@ public class ContextFromVertx implements Context {
             return null;
         }
 
+        if (parser instanceof StreamBodyParser) {
+            // Let the parser read the accumulated buffer directly.
+            if (request.getRawBodyLength() == 0) {
+                return null;
+            }
+            InputStream stream = request.getRawBodyAsStream();
+            try {
+                return ((StreamBodyParser) parser).invoke(stream, classOfT, genericType);
+            } finally {
+                IOUtils.closeQuietly(stream);
+            }
+        }
+
         return parser.invoke(this, classOfT, genericType);
     }
 
@@ -513,9 +578,9 @@ public class ContextFromVertx implements Context {
      */
     @Override
     public BufferedReader reader() throws IOException {
-        byte[] raw = request.getRawBody();
-        if (raw != null) {
-            return IOUtils.toBufferedReader(new InputStreamReader(new ByteArrayInputStream(raw)));
+        InputStream stream = request.getRawBodyAsStream();
+        if (stream != null) {
+            return IOUtils.toBufferedReader(new InputStreamReader(stream));
         }
         return null;
     }
@@ -542,6 +607,54 @@ public class ContextFromVertx implements Context {
         this.route = route;
     }
 
+    /**
+     * @return the time spent finding the route, in nanoseconds, {@literal -1} if not measured.
+     */
+    public long getRoutingTime() {
+        return routingTime;
+    }
+
+    /**
+     * Sets the time spent finding the route.
+     *
+     * @param time the time in nanoseconds
+     */
+    public void setRoutingTime(long time) {
+        this.routingTime = time;
+    }
+
+    /**
+     * @return the time spent serializing the result, in nanoseconds, {@literal -1} if not measured.
+     */
+    public long getSerializationTime() {
+        return serializationTime;
+    }
+
+    /**
+     * Sets the time spent serializing the result.
+     *
+     * @param time the time in nanoseconds
+     */
+    public void setSerializationTime(long time) {
+        this.serializationTime = time;
+    }
+
+    /**
+     * @return the time (from {@link System#nanoTime()}) at which the engine has started writing the response.
+     */
+    public long getWriteStart() {
+        return writeStart;
+    }
+
+    /**
+     * Sets the time at which the engine starts writing the response.
+     *
+     * @param time the time, from {@link System#nanoTime()}
+     */
+    public void setWriteStart(long time) {
+        this.writeStart = time;
+    }
+
     /**
      * Check if request is of type multipart. Important when you want to process
      * uploads for instance.
@@ -583,12 +696,27 @@ public class ContextFromVertx implements Context {
     }
 
     /**
-     * Releases uploaded files.
+     * Marks the exchange as completed.
+     *
+     * @return {@literal true} if the exchange was not already completed, {@literal false} otherwise
+     */
+    public boolean complete() {
+        return completed.compareAndSet(false, true);
+    }
+
+    /**
+     * Releases uploaded files, and closes the body stream of streaming actions. If the action has not read the
+     * whole body, closing the stream resumes the request (that may have been paused) and drops the remaining
+     * content, so the connection can be reused.
      */
     public void cleanup() {
         for (VertxFileUpload item : request.getFiles()) {
             item.cleanup();
         }
+        RequestBodyStream body = request.getBodyStream();
+        if (body != null) {
+            body.close();
+        }
     }
 
     /**
@@ -0,0 +1,252 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.framework.vertx;
+
+import com.google.common.collect.MapMaker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wisdom.api.annotations.Dispatch;
+import org.wisdom.api.configuration.ApplicationConfiguration;
+import org.wisdom.api.engine.DispatchStatistics;
+import org.wisdom.api.router.Route;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides on which thread the action methods are invoked, and measures the time spent by the actions invoked on
+ * the event loop.
+ * <p>
+ * The policy of an action is, in this order:
+ * <ol>
+ * <li>the rule configured for the action or its controller in {@literal vertx.dispatch.rules}. This list contains
+ * entries such as {@code "org.acme.MyController.index: worker"} or {@code "org.acme.MyController: db"}</li>
+ * <li>the {@link Dispatch} annotation on the action method, and then on the controller class</li>
+ * <li>the default policy ({@literal vertx.dispatch.default}), {@link Dispatch#EVENT_LOOP} if not set</li>
+ * </ol>
+ * Policies are either {@link Dispatch#EVENT_LOOP}, {@link Dispatch#WORKER} or the name of a managed executor.
+ * <p>
+ * Actions invoked on the event loop taking more than {@literal vertx.dispatch.blocked-threshold} (100 ms by
+ * default) are reported. When {@literal vertx.dispatch.auto-offload} is set to a positive number,
+ * actions exceeding the threshold this number of times are moved to the worker pool.
+ * <p>
+ * The statistics are exposed by the engine as a {@link DispatchStatistics} service. Actions are tracked using weak
+ * references on their methods, so the classes of controllers that are no longer available can be collected.
+ */
+public class DispatchPolicy implements DispatchStatistics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DispatchPolicy.class);
+
+    private static final long DEFAULT_THRESHOLD = 100L;
+
+    private final String defaultPolicy;
+
+    private final Map<String, String> rules;
+
+    private final long threshold;
+
+    private final int offloadAfter;
+
+    /**
+     * The actions, keyed by method. Keys are compared by identity, as a redeployed controller has new methods.
+     */
+    private final ConcurrentMap<Method, ActionDispatch> actions = new MapMaker().weakKeys().makeMap();
+
+    private final AtomicLong eventLoopTime = new AtomicLong();
+
+    /**
+     * Creates the policy from the application configuration.
+     *
+     * @param configuration the configuration, may be {@literal null}, in this case the default values are used.
+     */
+    public DispatchPolicy(ApplicationConfiguration configuration) {
+        String policy = null;
+        Map<String, String> map = new HashMap<>();
+        long limit = TimeUnit.MILLISECONDS.toNanos(DEFAULT_THRESHOLD);
+        int offload = 0;
+        if (configuration != null) {
+            policy = configuration.get("vertx.dispatch.default");
+            List<String> list = configuration.getList("vertx.dispatch.rules");
+            if (list != null) {
+                for (String rule : list) {
+                    parseRule(rule, map);
+                }
+            }
+            Long duration = configuration.getDuration("vertx.dispatch.blocked-threshold", TimeUnit.NANOSECONDS,
+                    limit);
+            limit = duration != null ? duration : limit;
+            Integer count = configuration.getIntegerWithDefault("vertx.dispatch.auto-offload", 0);
+            offload = count != null ? count : 0;
+        }
+        this.defaultPolicy = policy == null || policy.trim().isEmpty() ? Dispatch.EVENT_LOOP : policy.trim();
+        this.rules = map;
+        this.threshold = limit;
+        this.offloadAfter = offload;
+    }
+
+    private static void parseRule(String rule, Map<String, String> map) {
+        int index = rule.lastIndexOf(':');
+        if (index <= 0 || index == rule.length() - 1) {
+            LOGGER.error("Invalid dispatch rule '{}', the format is 'class[.method]: policy'", rule);
+            return;
+        }
+        map.put(rule.substring(0, index).trim(), rule.substring(index + 1).trim());
+    }
+
+    /**
+     * Gets the policy of the action invoked by the given route.
+     *
+     * @param route the route
+     * @return the policy: {@link Dispatch#EVENT_LOOP}, {@link Dispatch#WORKER} or an executor name
+     */
+    public String getPolicy(Route route) {
+        ActionDispatch action = getAction(route);
+        if (action == null) {
+            return Dispatch.EVENT_LOOP;
+        }
+        return action.policy;
+    }
+
+    /**
+     * Records the time spent by the action of the given route on the event loop.
+     *
+     * @param route    the route
+     * @param duration the duration in nanoseconds
+     */
+    public void recordEventLoopTime(Route route, long duration) {
+        eventLoopTime.addAndGet(duration);
+        ActionDispatch action = getAction(route);
+        if (action == null) {
+            return;
+        }
+        action.invocations.incrementAndGet();
+        action.time.addAndGet(duration);
+        long max = action.max.get();
+        while (duration > max && !action.max.compareAndSet(max, duration)) {
+            max = action.max.get();
+        }
+
+        if (threshold <= 0 || duration < threshold) {
+            return;
+        }
+        long slow = action.slowInvocations.incrementAndGet();
+        if (slow == 1) {
+            LOGGER.warn("The action {} has blocked the event loop for {} ms, consider using @Dispatch or " +
+                            "the 'vertx.dispatch.rules' configuration to invoke it on another thread", action.name,
+                    TimeUnit.NANOSECONDS.toMillis(duration));
+        }
+        if (offloadAfter > 0 && slow == offloadAfter && Dispatch.EVENT_LOOP.equals(action.policy)) {
+            LOGGER.warn("The action {} has blocked the event loop {} times, it is now invoked on the worker pool",
+                    action.name, slow);
+            action.policy = Dispatch.WORKER;
+        }
+    }
+
+    /**
+     * @return the total time spent by actions on the event loop, in nanoseconds.
+     */
+    @Override
+    public long getEventLoopTime() {
+        return eventLoopTime.get();
+    }
+
+    /**
+     * Gets the statistics of the actions invoked on the event loop.
+     *
+     * @return a map action name -> statistics (invocations, total time (ns), max time (ns), slow invocations
+     * and current policy).
+     */
+    @Override
+    public Map<String, Map<String, Object>> getEventLoopStatistics() {
+        Map<String, Map<String, Object>> stats = new TreeMap<>();
+        for (ActionDispatch action : actions.values()) {
+            if (action.invocations.get() == 0) {
+                continue;
+            }
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("invocations", action.invocations.get());
+            map.put("time", action.time.get());
+            map.put("max", action.max.get());
+            map.put("slow", action.slowInvocations.get());
+            map.put("policy", action.policy);
+            stats.put(action.name, map);
+        }
+        return stats;
+    }
+
+    private ActionDispatch getAction(Route route) {
+        Method method = route.getControllerMethod();
+        if (method == null) {
+            // Unbound route.
+            return null;
+        }
+        ActionDispatch action = actions.get(method);
+        if (action == null) {
+            action = new ActionDispatch(method.getDeclaringClass().getName() + "." + method.getName(),
+                    resolve(route.getControllerClass(), method));
+            ActionDispatch previous = actions.putIfAbsent(method, action);
+            if (previous != null) {
+                action = previous;
+            }
+        }
+        return action;
+    }
+
+    private String resolve(Class<?> controller, Method method) {
+        Class<?> clazz = controller != null ? controller : method.getDeclaringClass();
+        String policy = rules.get(clazz.getName() + "." + method.getName());
+        if (policy == null) {
+            policy = rules.get(clazz.getName());
+        }
+        if (policy == null) {
+            Dispatch annotation = method.getAnnotation(Dispatch.class);
+            if (annotation == null) {
+                annotation = clazz.getAnnotation(Dispatch.class);
+            }
+            if (annotation != null) {
+                policy = annotation.value();
+            }
+        }
+        if (policy == null) {
+            policy = defaultPolicy;
+        }
+        return policy;
+    }
+
+    /**
+     * The dispatch data of an action.
+     */
+    private static final class ActionDispatch {
+        private final String name;
+        private volatile String policy;
+        private final AtomicLong invocations = new AtomicLong();
+        private final AtomicLong time = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+        private final AtomicLong slowInvocations = new AtomicLong();
+
+        private ActionDispatch(String name, String policy) {
+            this.name = name;
+            this.policy = policy;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.framework.vertx;
+
+import org.wisdom.api.configuration.ApplicationConfiguration;
+import org.wisdom.api.configuration.Configuration;
+import org.wisdom.api.configuration.ConfigurationMapper;
+import org.wisdom.api.cookies.Cookie;
+import org.wisdom.api.cookies.SessionCookie;
+import org.wisdom.framework.vertx.file.DiskFileUpload;
+
+/**
+ * An immutable snapshot of the settings read by the engine for every request (cookies, uploads, body size,
+ * encoding...). The snapshot is resolved once from the application configuration and recomputed when the
+ * configuration is reloaded (see {@link ServiceAccessor#getSettings()}).
+ */
+public final class EngineSettings {
+
+    /**
+     * The mapper building the settings from the configuration.
+     */
+    public static final ConfigurationMapper<EngineSettings> MAPPER = new ConfigurationMapper<EngineSettings>() {
+        @Override
+        public EngineSettings map(Configuration configuration) {
+            return from(configuration);
+        }
+    };
+
+    /**
+     * The settings used when there is no configuration.
+     */
+    public static final EngineSettings DEFAULT = new EngineSettings(null);
+
+    private final String cookiePrefix;
+    private final int sessionExpireTimeInMs;
+    private final boolean sessionSendOnlyIfChanged;
+    private final boolean sessionOverHttpsOnly;
+    private final boolean sessionHttpOnly;
+    private final long uploadDiskThreshold;
+    private final long uploadMaxSize;
+    private final int bodyMaxSize;
+    private final boolean compression;
+    private final boolean sendFile;
+    private final long encodingMinBound;
+    private final long encodingMaxBound;
+    private final SlowConsumerPolicy slowConsumerPolicy;
+    private final int webSocketWriteQueueMaxSize;
+
+    private EngineSettings(Configuration configuration) {
+        if (configuration == null) {
+            cookiePrefix = "wisdom";
+            sessionExpireTimeInMs = 3600 * 1000;
+            sessionSendOnlyIfChanged = true;
+            sessionOverHttpsOnly = false;
+            sessionHttpOnly = true;
+            uploadDiskThreshold = DiskFileUpload.MINSIZE;
+            uploadMaxSize = -1L;
+            bodyMaxSize = 100 * 1024;
+            compression = true;
+            sendFile = true;
+            encodingMinBound = ApplicationConfiguration.DEFAULT_ENCODING_MIN_SIZE;
+            encodingMaxBound = ApplicationConfiguration.DEFAULT_ENCODING_MAX_SIZE;
+            slowConsumerPolicy = SlowConsumerPolicy.DROP;
+            webSocketWriteQueueMaxSize = -1;
+        } else {
+            cookiePrefix = configuration.getWithDefault(Cookie.APPLICATION_COOKIE_PREFIX, "wisdom");
+            sessionExpireTimeInMs =
+                    configuration.getIntegerWithDefault(SessionCookie.SESSION_EXPIRE_TIME_SECOND, 3600) * 1000;
+            sessionSendOnlyIfChanged = configuration.getBooleanWithDefault(
+                    SessionCookie.SESSION_SEND_ONLY_IF_CHANGED, true);
+            sessionOverHttpsOnly = configuration.getBooleanWithDefault(SessionCookie.SESSION_OVER_HTTPS_ONLY, false);
+            sessionHttpOnly = configuration.getBooleanWithDefault(SessionCookie.SESSION_HTTP_ONLY, true);
+            uploadDiskThreshold = configuration.getLongWithDefault("http.upload.disk.threshold",
+                    DiskFileUpload.MINSIZE);
+            uploadMaxSize = configuration.getLongWithDefault("http.upload.max", -1l);
+            bodyMaxSize = configuration.getIntegerWithDefault("request.body.max.size", 100 * 1024);
+            compression = configuration.getBooleanWithDefault("vertx.compression", true);
+            sendFile = configuration.getBooleanWithDefault("vertx.sendfile", true);
+            encodingMinBound = configuration.getBytes(ApplicationConfiguration.ENCODING_MIN_SIZE,
+                    ApplicationConfiguration.DEFAULT_ENCODING_MIN_SIZE);
+            encodingMaxBound = configuration.getBytes(ApplicationConfiguration.ENCODING_MAX_SIZE,
+                    ApplicationConfiguration.DEFAULT_ENCODING_MAX_SIZE);
+            slowConsumerPolicy = SlowConsumerPolicy.from(configuration.get(SlowConsumerPolicy.CONFIGURATION_KEY));
+            webSocketWriteQueueMaxSize = (int) configuration.getBytes("vertx.websocket.write-queue-max-size", -1);
+        }
+    }
+
+    /**
+     * Creates the settings from the given configuration.
+     *
+     * @param configuration the configuration, may be {@code null}
+     * @return the settings
+     */
+    public static EngineSettings from(Configuration configuration) {
+        if (configuration == null) {
+            return DEFAULT;
+        }
+        return new EngineSettings(configuration);
+    }
+
+    /**
+     * @return the prefix of the session and flash cookie names.
+     */
+    public String getCookiePrefix() {
+        return cookiePrefix;
+    }
+
+    /**
+     * @return the session expiration time in milliseconds.
+     */
+    public int getSessionExpireTimeInMs() {
+        return sessionExpireTimeInMs;
+    }
+
+    /**
+     * @return whether the session cookie is only sent when modified.
+     */
+    public boolean isSessionSendOnlyIfChanged() {
+        return sessionSendOnlyIfChanged;
+    }
+
+    /**
+     * @return whether the session cookie is only transferred over HTTPS.
+     */
+    public boolean isSessionOverHttpsOnly() {
+        return sessionOverHttpsOnly;
+    }
+
+    /**
+     * @return whether the session cookie is marked as HTTP only.
+     */
+    public boolean isSessionHttpOnly() {
+        return sessionHttpOnly;
+    }
+
+    /**
+     * @return the size above which uploaded files are stored on disk.
+     */
+    public long getUploadDiskThreshold() {
+        return uploadDiskThreshold;
+    }
+
+    /**
+     * @return the maximum size of uploaded files, -1 for no limit.
+     */
+    public long getUploadMaxSize() {
+        return uploadMaxSize;
+    }
+
+    /**
+     * @return the maximum size of the request body kept in memory.
+     */
+    public int getBodyMaxSize() {
+        return bodyMaxSize;
+    }
+
+    /**
+     * @return whether the compression is enabled.
+     */
+    public boolean isCompressionEnabled() {
+        return compression;
+    }
+
+    /**
+     * @return whether files are sent using the {@literal sendfile} support.
+     */
+    public boolean isSendFileEnabled() {
+        return sendFile;
+    }
+
+    /**
+     * @return the threshold below which the content is not encoded.
+     */
+    public long getEncodingMinBound() {
+        return encodingMinBound;
+    }
+
+    /**
+     * @return the threshold above which the content is not encoded.
+     */
+    public long getEncodingMaxBound() {
+        return encodingMaxBound;
+    }
+
+    /**
+     * @return the policy applied to web socket clients not consuming the messages fast enough.
+     */
+    public SlowConsumerPolicy getSlowConsumerPolicy() {
+        return slowConsumerPolicy;
+    }
+
+    /**
+     * @return the size of the web socket write queue above which the client is considered as slow, a negative or
+     * zero value to use the Vert.x default.
+     */
+    public int getWebSocketWriteQueueMaxSize() {
+        return webSocketWriteQueueMaxSize;
+    }
+}
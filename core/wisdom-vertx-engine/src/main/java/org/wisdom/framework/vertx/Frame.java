@@ -0,0 +1,94 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.framework.vertx;
+
+import org.vertx.java.core.buffer.Buffer;
+
+/**
+ * A message written to web sockets. When a message is published to several clients, the frame is created once and
+ * shared by all the sockets: the encoded payload is computed only once, whatever the number of clients.
+ */
+final class Frame {
+
+    private final String text;
+    private Buffer payload;
+
+    private Frame(String text, Buffer payload) {
+        this.text = text;
+        this.payload = payload;
+    }
+
+    /**
+     * Creates a text frame.
+     *
+     * @param text the text
+     * @return the frame
+     */
+    static Frame text(String text) {
+        return new Frame(text, null);
+    }
+
+    /**
+     * Creates a binary frame.
+     *
+     * @param data the data
+     * @return the frame
+     */
+    static Frame binary(byte[] data) {
+        return new Frame(null, new Buffer(data));
+    }
+
+    /**
+     * @return whether the frame is a binary frame.
+     */
+    boolean isBinary() {
+        return text == null;
+    }
+
+    /**
+     * @return the text of a text frame.
+     */
+    String text() {
+        return text;
+    }
+
+    /**
+     * Gets the encoded payload. For text frames, it is the UTF-8 representation of the text, computed on the first
+     * call.
+     *
+     * @return the payload, must not be modified.
+     */
+    synchronized Buffer payload() {
+        if (payload == null) {
+            payload = new Buffer(text);
+        }
+        return payload;
+    }
+
+    /**
+     * Gets a buffer sharing the content of the payload, but having its own indexes. The buffer is retained as the
+     * transport releases it once written.
+     *
+     * @return the buffer
+     */
+    Buffer share() {
+        return new Buffer(payload().getByteBuf().duplicate().retain());
+    }
+}
@@ -21,6 +21,9 @@ package org.wisdom.framework.vertx;
 
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.ServerCookieEncoder;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
@@ -32,8 +35,9 @@ import org.vertx.java.core.buffer.Buffer;
 import org.vertx.java.core.http.HttpServerRequest;
 import org.vertx.java.core.http.HttpServerResponse;
 import org.vertx.java.core.streams.Pump;
+import org.wisdom.api.annotations.Dispatch;
 import org.wisdom.api.bodies.NoHttpBody;
-import org.wisdom.api.concurrent.ManagedFutureTask;
+import org.wisdom.api.bodies.RenderableFile;
 import org.wisdom.api.exceptions.ExceptionMapper;
 import org.wisdom.api.exceptions.HttpException;
 import org.wisdom.api.http.*;
@@ -41,9 +45,14 @@ import org.wisdom.api.router.Route;
 import org.wisdom.framework.vertx.cookies.CookieHelper;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Handles HTTP Request. Don't forget that request may arrive as chunk.
@@ -97,42 +106,131 @@ public class HttpHandler implements Handler<HttpServerRequest> {
                 }
             });
         } else {
+            final RequestFromVertx req = (RequestFromVertx) context.request();
+            // Streamed bodies are not limited, as they are not kept in memory.
+            final boolean streaming = HttpUtils.isPostOrPut(request) && streamIfRequired(context, req);
+            if (!streaming) {
+                req.bodyTooLargeHandler(new VoidHandler() {
+                    public void handle() {
+                        rejectTooLargeBody(context, request);
+                    }
+                });
+                if (req.isBodyTooLarge()) {
+                    // Rejected from the Content-Length header.
+                    return;
+                }
+            }
             request.endHandler(new VoidHandler() {
                 public void handle() {
+                    if (req.isBodyTooLarge()) {
+                        // Already answered.
+                        return;
+                    }
+                    if (streaming) {
+                        // The action is already running, it just reaches the end of the body.
+                        req.getBodyStream().end();
+                        return;
+                    }
                     // Notifies the context that the request has been read, we start the dispatching.
                     if (context.ready()) {
                         // Dispatch.
-                        dispatch(context, (RequestFromVertx) context.request());
+                        dispatch(context, req);
                     } else {
                         // Error.
-                        writeResponse(context, (RequestFromVertx) context.request(), Results.badRequest("Request " +
+                        writeResponse(context, req, Results.badRequest("Request " +
                                 "processing failed"), false);
                     }
                 }
             });
+            if (streaming) {
+                // The action does not wait for the body.
+                context.ready();
+                dispatch(context, req);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the request targets an action consuming its body as a stream. In this case, the request is
+     * switched to the streaming mode, so the action can be dispatched immediately and receives the body while it
+     * arrives.
+     *
+     * @param context the context
+     * @param request the request
+     * @return {@literal true} if the request is streamed, {@literal false} if the body is read in memory.
+     */
+    private boolean streamIfRequired(final ContextFromVertx context, final RequestFromVertx request) {
+        // The route is computed from the headers, and kept for the dispatch.
+        Route route = findRoute(context, request);
+        if (route == null) {
+            // Handled by the dispatch.
+            return false;
         }
+        context.route(route);
+        if (route.isUnbound() || !route.hasStreamingBody()) {
+            return false;
+        }
+        final RequestBodyStream stream = request.streamBody(vertx.currentContext());
+        request.addExceptionHandler(new Handler<Throwable>() {
+            @Override
+            public void handle(Throwable event) {
+                stream.fail(event);
+            }
+        });
+        request.addCloseHandler(new VoidHandler() {
+            public void handle() {
+                stream.fail(new IOException("Connection closed before the end of the request body"));
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Rejects a request because its body exceeds the maximum size. A {@literal 413 - REQUEST ENTITY TOO LARGE}
+     * response is sent, and the connection is closed, so the remaining content is not read.
+     *
+     * @param context the context
+     * @param request the request
+     */
+    private void rejectTooLargeBody(ContextFromVertx context, HttpServerRequest request) {
+        LOGGER.warn("Request {} {} rejected, the body exceeds the maximum size", request.method(), request.path());
+        HttpServerResponse response = request.response();
+        response.setStatusCode(Status.REQUEST_ENTITY_TOO_LARGE);
+        response.putHeader(HeaderNames.CONNECTION, "close");
+        response.putHeader(HeaderNames.CONTENT_LENGTH, "0");
+        response.end();
+        response.close();
+        cleanup(context, null, 0);
     }
 
     /**
-     * The request is now completed, clean everything.
+     * The request is now completed, notifies the {@link ExchangeListener} services and cleans everything. Only the
+     * first call has an effect, so every exchange is notified once, whether the response has been written or not.
      *
      * @param context the context
+     * @param result  the written result, {@literal null} if the action has not been invoked
+     * @param bytes   the number of bytes of the response body
      */
-    private static void cleanup(ContextFromVertx context) {
-        // Release all resources, especially uploaded file.
-        if (context != null) {
+    private void cleanup(ContextFromVertx context, Result result, long bytes) {
+        if (!context.complete()) {
+            return;
+        }
+        try {
+            completed(context, result, bytes);
+        } finally {
+            // Release all resources, especially uploaded file.
             context.cleanup();
+            Context.CONTEXT.remove();
         }
-        Context.CONTEXT.remove();
     }
 
 
-    private void dispatch(ContextFromVertx context, RequestFromVertx request) {
+    private void dispatch(final ContextFromVertx context, final RequestFromVertx request) {
         LOGGER.debug("Dispatching {} {}", context.request().method(), context.path());
         // 2 Register context
         Context.CONTEXT.set(context);
-        // 3 Get route for context
-        Route route = accessor.getRouter().getRouteFor(context.request().method(), context.path(), request);
+        // 3 Get route for context (it may have already been computed when the request has arrived)
+        final Route route = context.route() != null ? context.route() : findRoute(context, request);
         Result result;
 
         if (route == null) {
@@ -142,14 +240,107 @@ public class HttpHandler implements Handler<HttpServerRequest> {
             result = Results.notFound();
         } else {
             // 3.2 : route found
-            context.route(route);
+            if (context.route() == null) {
+                context.route(route);
+            }
+            final DispatchPolicy policy = accessor.getDispatchPolicy();
+            Executor executor = getExecutor(policy.getPolicy(route));
+            if (executor == null && route.hasStreamingBody()) {
+                // Reading the body blocks, so it must not happen on the event loop.
+                executor = accessor.getExecutor();
+            }
+            if (executor != null) {
+                // 3.2.1 : the action is invoked on another thread, to not block the event loop.
+                try {
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            final Result result;
+                            Context.CONTEXT.set(context);
+                            try {
+                                result = invoke(route);
+                            } finally {
+                                Context.CONTEXT.remove();
+                            }
+                            // The response is written by the event loop owning the connection.
+                            context.vertxContext().runOnContext(new Handler<Void>() {
+                                @Override
+                                public void handle(Void event) {
+                                    Context.CONTEXT.set(context);
+                                    try {
+                                        complete(context, request, result);
+                                    } finally {
+                                        Context.CONTEXT.remove();
+                                    }
+                                }
+                            });
+                        }
+                    });
+                    return;
+                } catch (RejectedExecutionException e) {
+                    LOGGER.error("Cannot dispatch the request {} {}, the executor rejected the action",
+                            context.request().method(), context.path(), e);
+                    complete(context, request, Results.status(Status.SERVICE_UNAVAILABLE));
+                    return;
+                }
+            }
+
+            // 3.2.2 : the action is invoked on the event loop, measure how long it blocks it.
+            long begin = System.nanoTime();
             result = invoke(route);
+            policy.recordEventLoopTime(route, System.nanoTime() - begin);
+        }
 
-            if (result instanceof AsyncResult) {
-                // Asynchronous operation in progress.
-                handleAsyncResult(context, request, (AsyncResult) result);
-                return;
-            }
+        complete(context, request, result);
+    }
+
+    /**
+     * Finds the route handling the request, and measures the time spent by the router.
+     *
+     * @param context the context
+     * @param request the request
+     * @return the route, an unbound route if none matches
+     */
+    private Route findRoute(ContextFromVertx context, RequestFromVertx request) {
+        long begin = System.nanoTime();
+        Route route = accessor.getRouter().getRouteFor(request.method(), context.path(), request);
+        context.setRoutingTime(System.nanoTime() - begin);
+        return route;
+    }
+
+    /**
+     * Gets the executor on which the action must be invoked.
+     *
+     * @param policy the dispatch policy of the action
+     * @return the executor, {@literal null} if the action is invoked on the event loop
+     */
+    private Executor getExecutor(String policy) {
+        if (Dispatch.EVENT_LOOP.equals(policy)) {
+            return null;
+        }
+        if (Dispatch.WORKER.equals(policy)) {
+            return accessor.getExecutor();
+        }
+        Executor executor = accessor.getExecutor(policy);
+        if (executor == null) {
+            LOGGER.warn("Cannot find the executor '{}', using the worker pool", policy);
+            return accessor.getExecutor();
+        }
+        return executor;
+    }
+
+    /**
+     * Writes the result of the action.
+     *
+     * @param context the context
+     * @param request the request
+     * @param result  the result
+     */
+    private void complete(ContextFromVertx context, RequestFromVertx request, Result result) {
+        if (result instanceof AsyncResult) {
+            // Asynchronous operation in progress.
+            handleAsyncResult(context, request, (AsyncResult) result);
+            return;
         }
 
         // Synchronous processing or not found.
@@ -162,7 +353,7 @@ public class HttpHandler implements Handler<HttpServerRequest> {
                 writeResponse(context, request, result, false);
             } catch (Exception e1) {
                 LOGGER.error("Cannot even write the error response...", e1);
-                // Ignore.
+                cleanup(context, result, 0);
             }
         }
         // If we reach this point, it means we did not write anything... Annoying.
@@ -183,15 +374,73 @@ public class HttpHandler implements Handler<HttpServerRequest> {
         }
     }
 
+    /**
+     * Waits for the completion of an asynchronous result. No thread is blocked while waiting: the result is either
+     * computed by the callable on the executor or provided by the future, and a callback writes it on the Vert.x
+     * context of the request. If the result has a timeout, a Vert.x timer cancels the computation and sends a
+     * {@literal 504 - GATEWAY TIMEOUT} response.
+     *
+     * @param context     the context
+     * @param request     the request
+     * @param asyncResult the asynchronous result
+     */
     private void handleAsyncResult(
             final ContextFromVertx context,
             final RequestFromVertx request,
             final AsyncResult asyncResult) {
 
-        ManagedFutureTask<Result> future = accessor.getExecutor().submit(asyncResult.callable());
+        final ListenableFuture<Result> future;
+        if (asyncResult.future() != null) {
+            future = asyncResult.future();
+        } else {
+            try {
+                future = accessor.getExecutor().submit(asyncResult.callable());
+            } catch (RejectedExecutionException e) {
+                LOGGER.error("Cannot compute the asynchronous result of {}, the executor rejected the task",
+                        context.path(), e);
+                writeOnContext(context, request, Results.status(Status.SERVICE_UNAVAILABLE), false);
+                return;
+            }
+        }
+
+        // Only the first of the completion and the timeout writes the response.
+        final AtomicBoolean completed = new AtomicBoolean();
+        final long begin = System.nanoTime();
+        final long timer;
+        if (asyncResult.getTimeout() > 0) {
+            timer = vertx.setTimer(Math.max(1, asyncResult.getTimeoutUnit().toMillis(asyncResult.getTimeout())),
+                    new Handler<Long>() {
+                        @Override
+                        public void handle(Long event) {
+                            if (completed.compareAndSet(false, true)) {
+                                addActionTime(request, System.nanoTime() - begin);
+                                LOGGER.debug("Call on {} was cancelled because it took more than {} {}",
+                                        context.path(), asyncResult.getTimeout(), asyncResult.getTimeoutUnit());
+                                // Interrupt the computation if supported.
+                                future.cancel(true);
+                                writeOnContext(context, request,
+                                        new HttpException(Result.GATEWAY_TIMEOUT, "Request timeout").toResult(),
+                                        false);
+                            }
+                        }
+                    });
+        } else {
+            timer = -1;
+        }
+
         Futures.addCallback(future, new FutureCallback<Result>() {
             @Override
             public void onSuccess(Result result) {
+                if (!completed.compareAndSet(false, true)) {
+                    // Timeout already reached.
+                    return;
+                }
+                cancelTimer(timer);
+                addActionTime(request, System.nanoTime() - begin);
+                if (result == null) {
+                    writeOnContext(context, request, Results.internalServerError(), false);
+                    return;
+                }
                 // We got a result, write it here.
                 // Merge the headers of the initial result and the async results.
                 final Map<String, String> headers = result.getHeaders();
@@ -200,16 +449,23 @@ public class HttpHandler implements Handler<HttpServerRequest> {
                         headers.put(header.getKey(), header.getValue());
                     }
                 }
-                writeResponse(context, request, result, true);
+                writeOnContext(context, request, result, true);
             }
 
             @Override
             public void onFailure(Throwable t) {
+                if (!completed.compareAndSet(false, true)) {
+                    // Timeout already reached.
+                    return;
+                }
+                cancelTimer(timer);
+                addActionTime(request, System.nanoTime() - begin);
+
                 //We got a failure, handle it here
 
                 // Check whether it's a HTTPException
                 if (t instanceof HttpException) {
-                    writeResponse(context, request, ((HttpException) t).toResult(), false);
+                    writeOnContext(context, request, ((HttpException) t).toResult(), false);
                     return;
                 }
 
@@ -217,15 +473,65 @@ public class HttpHandler implements Handler<HttpServerRequest> {
                 if (t instanceof Exception) {
                     ExceptionMapper mapper = accessor.getExceptionMapper((Exception) t);
                     if (mapper != null) {
-                        writeResponse(context, request, mapper.toResult((Exception) t), false);
+                        writeOnContext(context, request, mapper.toResult((Exception) t), false);
                         return;
                     }
                 }
 
-                writeResponse(context, request, Results.internalServerError(t), false);
+                writeOnContext(context, request, Results.internalServerError(t), false);
+            }
+        }, MoreExecutors.sameThreadExecutor());
+    }
+
+    /**
+     * Adds the time spent computing an asynchronous result to the action time reported to the
+     * {@link ExchangeListener} services, as the action method only creates the asynchronous result.
+     *
+     * @param request the request
+     * @param time    the time in nanoseconds
+     */
+    private static void addActionTime(RequestFromVertx request, long time) {
+        long action = ExchangeTimings.getTime(request, ExchangeTimings.ACTION_TIME);
+        request.data().put(ExchangeTimings.ACTION_TIME, Math.max(action, 0) + time);
+    }
+
+    private void cancelTimer(long timer) {
+        if (timer != -1) {
+            vertx.cancelTimer(timer);
+        }
+    }
+
+    /**
+     * Writes the response on the Vert.x context of the request, so completion threads (executor, I/O or timer
+     * threads) are released immediately and the response is written by the thread owning the connection.
+     *
+     * @param context                     the context
+     * @param request                     the request
+     * @param result                      the result
+     * @param handleFlashAndSessionCookie if the flash and session cookie need to be send with the response
+     */
+    private void writeOnContext(final ContextFromVertx context, final RequestFromVertx request, final Result result,
+                                final boolean handleFlashAndSessionCookie) {
+        context.vertxContext().runOnContext(new Handler<Void>() {
+            @Override
+            public void handle(Void event) {
+                Context.CONTEXT.set(context);
+                try {
+                    writeResponse(context, request, result, handleFlashAndSessionCookie);
+                } catch (Exception e) {
+                    LOGGER.error("Cannot write response", e);
+                    Result error = Results.internalServerError(e);
+                    try {
+                        writeResponse(context, request, error, false);
+                    } catch (Exception e1) {
+                        LOGGER.error("Cannot even write the error response...", e1);
+                        cleanup(context, error, 0);
+                    }
+                } finally {
+                    Context.CONTEXT.remove();
+                }
             }
-        }/*, MoreExecutors.directExecutor()*/);
-        //TODO Which executor should we use here ?
+        });
     }
 
     private void writeResponse(
@@ -240,15 +546,28 @@ public class HttpHandler implements Handler<HttpServerRequest> {
             renderable = NoHttpBody.INSTANCE;
         }
 
-        InputStream stream;
+        InputStream stream = null;
+        byte[] bytes = null;
         boolean success = true;
-        try {
-            // Process the result, and apply serialization if required.
-            stream = HttpUtils.processResult(accessor, context, renderable, result);
-        } catch (Exception e) {
-            LOGGER.error("Cannot render the response to " + request.uri(), e);
-            stream = new ByteArrayInputStream(NoHttpBody.empty());
-            success = false;
+        // Files are sent directly by the engine, so we do not open them.
+        final File file = getFileToSend(request.getVertxRequest(), renderable);
+        if (file == null) {
+            long begin = System.nanoTime();
+            try {
+                // Process the result, and apply serialization if required.
+                Renderable<?> serialized = HttpUtils.serialize(accessor, context, renderable, result);
+                if (!renderable.mustBeChunked() && serialized instanceof ByteArrayRenderable) {
+                    // The content is already available as bytes, avoid copying it from a stream.
+                    bytes = ((ByteArrayRenderable<?>) serialized).renderAsBytes(context, result);
+                } else {
+                    stream = serialized.render(context, result);
+                }
+            } catch (Exception e) {
+                LOGGER.error("Cannot render the response to " + request.uri(), e);
+                stream = new ByteArrayInputStream(NoHttpBody.empty());
+                success = false;
+            }
+            context.setSerializationTime(System.nanoTime() - begin);
         }
 
         // If the content is too big or too small, disable encoding.
@@ -266,7 +585,28 @@ public class HttpHandler implements Handler<HttpServerRequest> {
         }
 
         finalizeWriteReponse(context, request.getVertxRequest(),
-                result, stream, success, handleFlashAndSessionCookie);
+                result, stream, bytes, file, success, handleFlashAndSessionCookie);
+    }
+
+    /**
+     * Checks whether the response body is a file that can be sent using the {@literal sendfile} support of the
+     * engine.
+     *
+     * @param request    the request
+     * @param renderable the renderable object
+     * @return the file to send, {@literal null} if the response must be sent from the renderable stream.
+     */
+    private File getFileToSend(HttpServerRequest request, Renderable<?> renderable) {
+        if (!(renderable instanceof RenderableFile) || !configuration.hasSendFileEnabled()
+                || HttpMethod.HEAD.name().equalsIgnoreCase(request.method())) {
+            return null;
+        }
+        File file = ((RenderableFile) renderable).content();
+        if (file == null || !file.isFile()) {
+            // Let the renderable report the error.
+            return null;
+        }
+        return file;
     }
 
     /**
@@ -275,24 +615,32 @@ public class HttpHandler implements Handler<HttpServerRequest> {
      * @param context                     the HTTP context
      * @param request                     the Vert.x request
      * @param result                      the computed result
-     * @param stream                      the stream of the result
+     * @param stream                      the stream of the result, {@literal null} if the bytes or the file
+     *                                    are sent
+     * @param bytes                       the content of the result when already available as bytes,
+     *                                    {@literal null} otherwise
+     * @param file                        the file to send using {@literal sendfile}, {@literal null} if the
+     *                                    stream is sent
      * @param success                     a flag indicating whether or not the request was successfully handled
      * @param handleFlashAndSessionCookie if the flash and session cookie need to be send with the response
      */
     private void finalizeWriteReponse(
             final ContextFromVertx context,
             final HttpServerRequest request,
-            Result result,
+            final Result result,
             InputStream stream,
+            byte[] bytes,
+            final File file,
             boolean success,
             boolean handleFlashAndSessionCookie) {
 
+        context.setWriteStart(System.nanoTime());
         Renderable<?> renderable = result.getRenderable();
         if (renderable == null) {
             renderable = NoHttpBody.INSTANCE;
         }
         // Decide whether to close the connection or not.
-        boolean keepAlive = HttpUtils.isKeepAlive(request);
+        final boolean keepAlive = HttpUtils.isKeepAlive(request);
 
         // Build the response object.
         final HttpServerResponse response = request.response();
@@ -326,26 +674,54 @@ public class HttpHandler implements Handler<HttpServerRequest> {
             response.headers().add(HeaderNames.SET_COOKIE, encoded);
         }
         response.setStatusCode(HttpUtils.getStatusFromResult(result, success));
-        if (renderable.mustBeChunked()) {
-            LOGGER.debug("Building the chunked response for {} {} ({})", request.method(), request.uri(), context);
-            if (renderable.length() > 0 && !response.headers().contains(HeaderNames.CONTENT_LENGTH)) {
-                response.putHeader(HeaderNames.CONTENT_LENGTH, Long.toString(renderable.length()));
-            }
+        if (keepAlive) {
+            // Add keep alive header as per:
+            // - http://www.w3.org/Protocols/HTTP/1.1/draft-ietf-http-v11-spec-01.html#Connection
+            response.putHeader(HeaderNames.CONNECTION, "keep-alive");
+        }
 
+        if (file != null) {
+            LOGGER.debug("Sending file {} for {} {} ({})", file.getAbsolutePath(), request.method(), request.uri(),
+                    context);
+            // The engine sets the Content-Length header, transfers the file without copying it in the heap and
+            // closes the connection if it must not be kept alive.
+            response.sendFile(file.getAbsolutePath(), new Handler<org.vertx.java.core.AsyncResult<Void>>() {
+                @Override
+                public void handle(org.vertx.java.core.AsyncResult<Void> event) {
+                    if (event.failed()) {
+                        LOGGER.error("Cannot send the file {} to {}", file.getAbsolutePath(), request.uri(),
+                                event.cause());
+                        response.close();
+                    }
+                    cleanup(context, result, file.length());
+                }
+            });
+        } else if (renderable.mustBeChunked()) {
+            LOGGER.debug("Building the chunked response for {} {} ({})", request.method(), request.uri(), context);
             if (!response.headers().contains(HeaderNames.CONTENT_TYPE)) {
                 // No content is not legal, set default to binary.
                 response.putHeader(HeaderNames.CONTENT_TYPE, MimeTypes.BINARY);
             }
 
-            // Can't determine the size, so switch to chunked.
-            response.setChunked(true);
-            response.putHeader(HeaderNames.TRANSFER_ENCODING, "chunked");
-            // In addition, we can't keep the connection open.
-            response.putHeader(HeaderNames.CONNECTION, "close");
+            if (renderable.length() > 0 && !response.headers().contains(HeaderNames.CONTENT_LENGTH)) {
+                // The size is known, the stream is written progressively without the chunked encoding.
+                response.putHeader(HeaderNames.CONTENT_LENGTH, Long.toString(renderable.length()));
+            } else if (!response.headers().contains(HeaderNames.CONTENT_LENGTH)) {
+                // Can't determine the size, so switch to chunked. The connection can be kept alive,
+                // as the last chunk delimits the response.
+                response.setChunked(true);
+                response.putHeader(HeaderNames.TRANSFER_ENCODING, "chunked");
+            }
 
             final AsyncInputStream s = new AsyncInputStream(vertx, accessor.getExecutor(), stream);
             s.setContext(context.vertxContext());
             final Pump pump = Pump.createPump(s, response);
+            ((RequestFromVertx) context.request()).addCloseHandler(new VoidHandler() {
+                public void handle() {
+                    LOGGER.debug("Connection closed while sending the chunked response for {}", request.uri());
+                    cleanup(context, result, pump.bytesPumped());
+                }
+            });
             s.endHandler(new Handler<Void>() {
                              @Override
                              public void handle(Void event) {
@@ -355,8 +731,10 @@ public class HttpHandler implements Handler<HttpServerRequest> {
                                          LOGGER.debug("Ending chunked response for {} - {} bytes",
                                                  request.uri(), pump.bytesPumped());
                                          response.end();
-                                         response.close();
-                                         cleanup(context);
+                                         if (!keepAlive) {
+                                             response.close();
+                                         }
+                                         cleanup(context, result, pump.bytesPumped());
                                      }
                                  });
                              }
@@ -370,7 +748,7 @@ public class HttpHandler implements Handler<HttpServerRequest> {
                                            public void handle(Void event) {
                                                LOGGER.error("Cannot read the result stream", event);
                                                response.close();
-                                               cleanup(context);
+                                               cleanup(context, result, pump.bytesPumped());
                                            }
                                        });
                                    }
@@ -384,11 +762,14 @@ public class HttpHandler implements Handler<HttpServerRequest> {
             });
 
         } else {
-            byte[] cont = new byte[0];
-            try {
-                cont = IOUtils.toByteArray(stream);
-            } catch (IOException e) {
-                LOGGER.error("Cannot copy the response to {}", request.uri(), e);
+            byte[] cont = bytes;
+            if (cont == null) {
+                cont = NoHttpBody.empty();
+                try {
+                    cont = IOUtils.toByteArray(stream);
+                } catch (IOException e) {
+                    LOGGER.error("Cannot copy the response to {}", request.uri(), e);
+                }
             }
 
             if (!response.headers().contains(HeaderNames.CONTENT_LENGTH)) {
@@ -397,19 +778,44 @@ public class HttpHandler implements Handler<HttpServerRequest> {
                 response.putHeader(HeaderNames.CONTENT_LENGTH, Long.toString(cont.length));
             }
 
-            if (keepAlive) {
-                // Add keep alive header as per:
-                // - http://www.w3.org/Protocols/HTTP/1.1/draft-ietf-http-v11-spec-01.html#Connection
-                response.putHeader(HeaderNames.CONNECTION, "keep-alive");
-            }
-            response.write(new Buffer(cont));
+            // Wrap the array instead of copying it, it is not modified once rendered.
+            response.write(new Buffer(Unpooled.wrappedBuffer(cont)));
             if (HttpUtils.isKeepAlive(request)) {
                 response.end();
             } else {
                 response.end();
                 response.close();
             }
-            cleanup(context);
+            cleanup(context, result, cont.length);
+        }
+    }
+
+    /**
+     * Notifies the {@link ExchangeListener} services that the response has been written, or that the engine has
+     * given up writing it.
+     *
+     * @param context the context
+     * @param result  the written result, {@literal null} if the action has not been invoked
+     * @param bytes   the number of bytes of the response body
+     */
+    private void completed(ContextFromVertx context, Result result, long bytes) {
+        Collection<ExchangeListener> listeners = accessor.getExchangeListeners();
+        if (listeners == null || listeners.isEmpty()) {
+            return;
+        }
+        RequestFromVertx request = (RequestFromVertx) context.request();
+        long writeStart = context.getWriteStart();
+        ExchangeTimings timings = new ExchangeTimings(request.getVertxRequest().response().getStatusCode(), bytes,
+                context.getRoutingTime(),
+                ExchangeTimings.getTime(request, ExchangeTimings.BINDING_TIME),
+                ExchangeTimings.getTime(request, ExchangeTimings.ACTION_TIME),
+                context.getSerializationTime(), writeStart == 0 ? -1 : System.nanoTime() - writeStart);
+        for (ExchangeListener listener : listeners) {
+            try {
+                listener.onExchangeCompleted(context, result, timings);
+            } catch (RuntimeException e) {
+                LOGGER.error("The exchange listener {} has thrown an exception", listener, e);
+            }
         }
     }
 
@@ -0,0 +1,216 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.framework.vertx;
+
+import io.netty.buffer.ByteBuf;
+import org.vertx.java.core.Handler;
+import org.vertx.java.core.buffer.Buffer;
+import org.vertx.java.core.streams.ReadStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * An input stream reading the request body while it arrives. The chunks are pushed by the event loop and consumed
+ * by the thread invoking the action (blocking when no data is available).
+ * <p>
+ * The stream is back-pressured: when more than {@link #HIGH_WATERMARK} bytes are waiting to be consumed, the
+ * request is paused (so the server stops reading from the connection). It is resumed once the consumer has read
+ * enough data to go below {@link #LOW_WATERMARK}.
+ */
+public class RequestBodyStream extends InputStream {
+
+    /**
+     * The amount of pending bytes pausing the request.
+     */
+    public static final int HIGH_WATERMARK = 256 * 1024;
+
+    /**
+     * The amount of pending bytes resuming the request.
+     */
+    public static final int LOW_WATERMARK = 64 * 1024;
+
+    private final ReadStream<?> request;
+    private final org.vertx.java.core.Context context;
+
+    /**
+     * The chunks not yet consumed. All the fields below are guarded by the monitor of this object.
+     */
+    private final Deque<ByteBuf> chunks = new ArrayDeque<>();
+    private int pending;
+    private boolean paused;
+    private boolean ended;
+    private boolean closed;
+    private IOException failure;
+
+    /**
+     * Creates the stream.
+     *
+     * @param request the request from which the body is read
+     * @param context the Vert.x context of the request, used to resume the request
+     */
+    public RequestBodyStream(ReadStream<?> request, org.vertx.java.core.Context context) {
+        this.request = request;
+        this.context = context;
+    }
+
+    /**
+     * Appends a chunk of the body. This method is called from the event loop.
+     *
+     * @param buffer the chunk
+     */
+    public synchronized void append(Buffer buffer) {
+        if (closed) {
+            // The consumer is not interested anymore, drop the data.
+            return;
+        }
+        ByteBuf buf = buffer.getByteBuf();
+        if (!buf.isReadable()) {
+            return;
+        }
+        chunks.add(buf);
+        pending += buf.readableBytes();
+        if (!paused && pending >= HIGH_WATERMARK) {
+            paused = true;
+            request.pause();
+        }
+        notifyAll();
+    }
+
+    /**
+     * Notifies the end of the body. This method is called from the event loop.
+     */
+    public synchronized void end() {
+        ended = true;
+        notifyAll();
+    }
+
+    /**
+     * Notifies that the body cannot be read completely (connection closed or error). This method is called from the
+     * event loop.
+     *
+     * @param cause the cause
+     */
+    public synchronized void fail(Throwable cause) {
+        if (ended || failure != null) {
+            return;
+        }
+        if (cause instanceof IOException) {
+            failure = (IOException) cause;
+        } else {
+            failure = new IOException("Cannot read the request body", cause);
+        }
+        notifyAll();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int read = read(b, 0, 1);
+        if (read == -1) {
+            return -1;
+        }
+        return b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int read;
+        boolean resume = false;
+        synchronized (this) {
+            ByteBuf head = chunks.peek();
+            while (head == null) {
+                if (closed) {
+                    throw new IOException("Stream closed");
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+                if (ended) {
+                    return -1;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the request body");
+                }
+                head = chunks.peek();
+            }
+            read = Math.min(len, head.readableBytes());
+            head.readBytes(b, off, read);
+            if (!head.isReadable()) {
+                chunks.poll();
+            }
+            pending -= read;
+            if (paused && pending <= LOW_WATERMARK) {
+                paused = false;
+                resume = true;
+            }
+        }
+        if (resume) {
+            resume();
+        }
+        return read;
+    }
+
+    @Override
+    public synchronized int available() {
+        return pending;
+    }
+
+    /**
+     * Closes the stream. The remaining data is discarded.
+     */
+    @Override
+    public void close() {
+        boolean resume;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            chunks.clear();
+            pending = 0;
+            resume = paused;
+            paused = false;
+            notifyAll();
+        }
+        if (resume) {
+            // Let the remaining data flow (and be dropped), so the request completes.
+            resume();
+        }
+    }
+
+    private void resume() {
+        context.runOnContext(new Handler<Void>() {
+            @Override
+            public void handle(Void event) {
+                request.resume();
+            }
+        });
+    }
+}
@@ -20,9 +20,9 @@
 package org.wisdom.framework.vertx;
 
 import com.google.common.base.Charsets;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.net.MediaType;
+import io.netty.buffer.ByteBufInputStream;
 import org.vertx.java.core.Handler;
 import org.vertx.java.core.MultiMap;
 import org.vertx.java.core.buffer.Buffer;
@@ -34,11 +34,12 @@ import org.wisdom.api.cookies.Cookies;
 import org.wisdom.api.http.HeaderNames;
 import org.wisdom.api.http.MimeTypes;
 import org.wisdom.api.http.Request;
+import org.wisdom.api.utils.MediaTypes;
 import org.wisdom.framework.vertx.cookies.CookiesImpl;
-import org.wisdom.framework.vertx.file.DiskFileUpload;
 import org.wisdom.framework.vertx.file.MixedFileUpload;
 import org.wisdom.framework.vertx.file.VertxFileUpload;
 
+import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -71,6 +72,38 @@ public class RequestFromVertx extends Request {
     private Map<String, List<String>> formData;
     private Map<String, List<String>> headers;
 
+    /**
+     * The raw path, computed on first access.
+     */
+    private String path;
+
+    /**
+     * The maximum size of the body kept in memory.
+     */
+    private final int bodyMaxSize;
+
+    /**
+     * The stream receiving the body, {@code null} if the body is read in memory.
+     */
+    private RequestBodyStream bodyStream;
+
+    /**
+     * Whether the body has been rejected because it exceeds the maximum size.
+     */
+    private boolean bodyTooLarge;
+
+    /**
+     * The handler notified when the body exceeds the maximum size.
+     */
+    private Handler<Void> bodyTooLargeHandler;
+
+    /**
+     * The handlers notified when the request fails, and when the connection is closed. Vert.x supports a single
+     * handler, so they are registered here and called in sequence.
+     */
+    private final List<Handler<Throwable>> exceptionHandlers = new ArrayList<>(1);
+    private final List<Handler<Void>> closeHandlers = new ArrayList<>(1);
+
     /**
      * Creates a {@link org.wisdom.framework.vertx.RequestFromVertx} object
      *
@@ -80,14 +113,26 @@ public class RequestFromVertx extends Request {
      */
     public RequestFromVertx(final ContextFromVertx context, final HttpServerRequest request,
                             final ApplicationConfiguration configuration) {
+        this(context, request, EngineSettings.from(configuration));
+    }
+
+    /**
+     * Creates a {@link org.wisdom.framework.vertx.RequestFromVertx} object
+     *
+     * @param context  the HTTP content
+     * @param request  the Vertx Request
+     * @param settings the engine settings
+     */
+    public RequestFromVertx(final ContextFromVertx context, final HttpServerRequest request,
+                            final EngineSettings settings) {
         this.request = request;
+        this.bodyMaxSize = settings.getBodyMaxSize();
         if (HttpUtils.isPostOrPut(request)) {
             this.request.expectMultiPart(true);
             this.request.uploadHandler(new Handler<HttpServerFileUpload>() {
                 public void handle(HttpServerFileUpload upload) {
                     files.add(new MixedFileUpload(context.vertx(), upload,
-                            configuration.getLongWithDefault("http.upload.disk.threshold", DiskFileUpload.MINSIZE),
-                            configuration.getLongWithDefault("http.upload.max", -1l)));
+                            settings.getUploadDiskThreshold(), settings.getUploadMaxSize()));
                 }
             });
         }
@@ -98,19 +143,30 @@ public class RequestFromVertx extends Request {
         this.request.dataHandler(new Handler<Buffer>() {
             @Override
             public void handle(Buffer event) {
-                if (event == null) {
+                if (event == null || bodyTooLarge) {
+                    return;
+                }
+                if (bodyStream != null) {
+                    bodyStream.append(event);
                     return;
                 }
 
                 // We may have the content in different HTTP message, check if we already have a content.
                 // Issue #257.
-                // To avoid we run out of memory we cut the read body to 100Kb. This can be configured using the
-                // "request.body.max.size" property.
-                boolean exceeded = raw.length() >=
-                        configuration.getIntegerWithDefault("request.body.max.size", 100 * 1024);
-                if (!exceeded) {
-                    raw.appendBuffer(event);
+                // To avoid we run out of memory the body kept in memory is limited to 100Kb. This can be configured
+                // using the "request.body.max.size" property.
+                if (raw.length() + event.length() > bodyMaxSize) {
+                    if (isFormOrMultipart()) {
+                        // Forms and uploads are decoded by Vert.x, we just stop accumulating the raw content.
+                        if (raw.length() < bodyMaxSize) {
+                            raw.appendBuffer(event);
+                        }
+                    } else {
+                        rejectBody();
+                    }
+                    return;
                 }
+                raw.appendBuffer(event);
             }
         });
     }
@@ -235,12 +291,16 @@ public class RequestFromVertx extends Request {
      */
     @Override
     public String path() {
+        if (path != null) {
+            return path;
+        }
         try {
-            return new URI(request.uri()).getRawPath();
+            path = new URI(request.uri()).getRawPath();
         } catch (URISyntaxException e) { //NOSONAR
             // Should never be the case.
-            return uri();
+            path = uri();
         }
+        return path;
     }
 
     /**
@@ -285,40 +345,8 @@ public class RequestFromVertx extends Request {
      */
     @Override
     public Collection<MediaType> mediaTypes() {
-        String contentType = request.headers().get(HeaderNames.ACCEPT);
-
-        if (contentType == null) {
-            // Any text by default.
-            return ImmutableList.of(MediaType.ANY_TEXT_TYPE);
-        }
-
-        TreeSet<MediaType> set = new TreeSet<>(new Comparator<MediaType>() {
-            @Override
-            public int compare(MediaType o1, MediaType o2) {
-                double q1 = 1.0, q2 = 1.0;
-                List<String> ql1 = o1.parameters().get("q");
-                List<String> ql2 = o2.parameters().get("q");
-
-                if (ql1 != null && !ql1.isEmpty()) {
-                    q1 = Double.parseDouble(ql1.get(0));
-                }
-
-                if (ql2 != null && !ql2.isEmpty()) {
-                    q2 = Double.parseDouble(ql2.get(0));
-                }
-
-                return new Double(q2).compareTo(q1);
-            }
-        });
-
-        // Split and sort.
-        String[] segments = contentType.split(",");
-        for (String segment : segments) {
-            MediaType type = MediaType.parse(segment.trim());
-            set.add(type);
-        }
-
-        return set;
+        // Parsed headers are cached, as clients send a small set of distinct values.
+        return MediaTypes.parseAcceptHeader(request.headers().get(HeaderNames.ACCEPT));
     }
 
     /**
@@ -337,7 +365,7 @@ public class RequestFromVertx extends Request {
                 return true;
         }
         // Else check the media types:
-        MediaType input = MediaType.parse(mimeType);
+        MediaType input = MediaTypes.parse(mimeType);
         for (MediaType type : mediaTypes()) {
             if (input.is(type)) {
                 return true;
@@ -592,6 +620,139 @@ public class RequestFromVertx extends Request {
         return raw.getBytes();
     }
 
+    /**
+     * @return the size of the 'raw' body in bytes.
+     */
+    public int getRawBodyLength() {
+        if (raw == null) {
+            return 0;
+        }
+        return raw.length();
+    }
+
+    /**
+     * Gets a stream reading the 'raw' body. The stream reads the buffer accumulating the body directly, without
+     * copying it.
+     *
+     * @return the stream, {@code null} if there is no body.
+     */
+    public InputStream getRawBodyAsStream() {
+        if (bodyStream != null) {
+            return bodyStream;
+        }
+        if (raw == null) {
+            return null;
+        }
+        return new ByteBufInputStream(raw.getByteBuf().duplicate());
+    }
+
+    /**
+     * Switches the request to the streaming mode: the body is not kept in memory anymore, but pushed to a
+     * {@link RequestBodyStream} as it arrives. This method must be called from the event loop, before the body is
+     * read.
+     *
+     * @param context the Vert.x context of the request
+     * @return the stream
+     */
+    public RequestBodyStream streamBody(org.vertx.java.core.Context context) {
+        bodyStream = new RequestBodyStream(request, context);
+        return bodyStream;
+    }
+
+    /**
+     * @return the stream receiving the body, {@code null} if the body is read in memory.
+     */
+    public RequestBodyStream getBodyStream() {
+        return bodyStream;
+    }
+
+    /**
+     * Adds a handler notified when an error occurs while reading the request. Unlike
+     * {@link HttpServerRequest#exceptionHandler(Handler)}, the handlers already registered are kept. This method must
+     * be called from the event loop.
+     *
+     * @param handler the handler
+     */
+    public void addExceptionHandler(Handler<Throwable> handler) {
+        if (exceptionHandlers.isEmpty()) {
+            request.exceptionHandler(new Handler<Throwable>() {
+                @Override
+                public void handle(Throwable event) {
+                    for (Handler<Throwable> h : exceptionHandlers) {
+                        h.handle(event);
+                    }
+                }
+            });
+        }
+        exceptionHandlers.add(handler);
+    }
+
+    /**
+     * Adds a handler notified when the connection is closed before the response has been sent. Unlike
+     * {@link org.vertx.java.core.http.HttpServerResponse#closeHandler(Handler)}, the handlers already registered are
+     * kept. This method must be called from the event loop.
+     *
+     * @param handler the handler
+     */
+    public void addCloseHandler(Handler<Void> handler) {
+        if (closeHandlers.isEmpty()) {
+            request.response().closeHandler(new Handler<Void>() {
+                @Override
+                public void handle(Void event) {
+                    for (Handler<Void> h : closeHandlers) {
+                        h.handle(event);
+                    }
+                }
+            });
+        }
+        closeHandlers.add(handler);
+    }
+
+    /**
+     * Sets the handler notified when the body exceeds the maximum size ({@code request.body.max.size}). If the
+     * {@code Content-Length} header already announces a too large body, the handler is called immediately.
+     * Forms and multipart requests are never rejected, the raw content is just not accumulated beyond the limit.
+     *
+     * @param handler the handler
+     */
+    public void bodyTooLargeHandler(Handler<Void> handler) {
+        this.bodyTooLargeHandler = handler;
+        String length = request.headers().get(HeaderNames.CONTENT_LENGTH);
+        if (length != null && !isFormOrMultipart()) {
+            try {
+                if (Long.parseLong(length.trim()) > bodyMaxSize) {
+                    rejectBody();
+                }
+            } catch (NumberFormatException e) { //NOSONAR
+                // Invalid header, the size is checked while reading.
+            }
+        }
+    }
+
+    /**
+     * @return whether the body has been rejected because it exceeds the maximum size.
+     */
+    public boolean isBodyTooLarge() {
+        return bodyTooLarge;
+    }
+
+    private void rejectBody() {
+        bodyTooLarge = true;
+        raw = new Buffer(0);
+        if (bodyTooLargeHandler != null) {
+            bodyTooLargeHandler.handle(null);
+        }
+    }
+
+    private boolean isFormOrMultipart() {
+        String contentType = request.headers().get(HeaderNames.CONTENT_TYPE);
+        if (contentType == null) {
+            return false;
+        }
+        contentType = HttpUtils.getContentTypeFromContentTypeAndCharacterSetting(contentType);
+        return contentType.equalsIgnoreCase(MimeTypes.FORM) || contentType.equalsIgnoreCase(MimeTypes.MULTIPART);
+    }
+
     /**
      * Gets the uploaded files.
      *
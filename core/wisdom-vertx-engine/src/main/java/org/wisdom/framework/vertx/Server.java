@@ -328,7 +328,7 @@ public class Server {
                 .putString("library_url",
                         configuration.getWithDefault("vertx.sockjs.library",
                                 "http://cdn.jsdelivr.net/sockjs/0.3.4/sockjs.min.js"));
-        sockJSServer.installApp(config, new SockJsHandler(accessor, prefix));
+        sockJSServer.installApp(config, new SockJsHandler(accessor, vertx, prefix));
         sockjs.add(sockJSServer);
     }
 
@@ -377,6 +377,13 @@ public class Server {
     }
 
 
+    /**
+     * @return the Vert.x instance used by the server.
+     */
+    public Vertx vertx() {
+        return vertx;
+    }
+
     /**
      * Gets the server's name.
      *
@@ -433,7 +440,15 @@ public class Server {
      * @return whether or not the compression is enabled.
      */
     public boolean hasCompressionEnabled() {
-        return configuration.getBooleanWithDefault("vertx.compression", true);
+        return accessor.getSettings().isCompressionEnabled();
+    }
+
+    /**
+     * @return whether or not files are sent using the {@literal sendfile} support of the engine. When enabled (the
+     * default), files are transferred without being copied into the Java heap (unless SSL or compression is used).
+     */
+    public boolean hasSendFileEnabled() {
+        return accessor.getSettings().isSendFileEnabled();
     }
 
     /**
@@ -441,8 +456,7 @@ public class Server {
      * it's {@link ApplicationConfiguration#DEFAULT_ENCODING_MIN_SIZE} bytes.
      */
     public long getEncodingMinBound() {
-        return configuration.getBytes(ApplicationConfiguration.ENCODING_MIN_SIZE,
-                ApplicationConfiguration.DEFAULT_ENCODING_MIN_SIZE);
+        return accessor.getSettings().getEncodingMinBound();
     }
 
     /**
@@ -450,7 +464,6 @@ public class Server {
      * it's {@link ApplicationConfiguration#DEFAULT_ENCODING_MAX_SIZE} bytes.
      */
     public long getEncodingMaxBound() {
-        return configuration.getBytes(ApplicationConfiguration.ENCODING_MAX_SIZE,
-                ApplicationConfiguration.DEFAULT_ENCODING_MAX_SIZE);
+        return accessor.getSettings().getEncodingMaxBound();
     }
 }
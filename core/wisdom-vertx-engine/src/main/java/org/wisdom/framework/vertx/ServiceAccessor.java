@@ -21,12 +21,17 @@ package org.wisdom.framework.vertx;
 
 import org.wisdom.api.concurrent.ManagedExecutorService;
 import org.wisdom.api.configuration.ApplicationConfiguration;
+import org.wisdom.api.configuration.ConfigurationView;
+import org.wisdom.api.configuration.ConfigurationViews;
 import org.wisdom.api.content.ContentEngine;
 import org.wisdom.api.crypto.Crypto;
 import org.wisdom.api.exceptions.ExceptionMapper;
+import org.wisdom.api.http.ExchangeListener;
 import org.wisdom.api.router.Router;
+import org.wisdom.framework.vertx.cookies.SessionCookieCache;
 
 import java.util.Collection;
+import java.util.Collections;
 
 /**
  * A structure to access services.
@@ -40,10 +45,32 @@ public class ServiceAccessor {
     private final ManagedExecutorService executor;
     private final WisdomVertxServer dispatcher;
     private final Collection<ExceptionMapper> mappers;
+    private final Collection<ManagedExecutorService> executors;
+    private final Collection<ExchangeListener> exchangeListeners;
+    private volatile DispatchPolicy dispatchPolicy;
+    private volatile ConfigurationView<EngineSettings> settings;
+    private final SessionCookieCache sessionCookieCache = new SessionCookieCache();
 
     public ServiceAccessor(Crypto crypto, ApplicationConfiguration configuration, Router router,
                            ContentEngine engine, ManagedExecutorService executor, WisdomVertxServer dispatcher,
                            Collection<ExceptionMapper> mappers) {
+        this(crypto, configuration, router, engine, executor, dispatcher, mappers,
+                Collections.<ManagedExecutorService>emptyList());
+    }
+
+    public ServiceAccessor(Crypto crypto, ApplicationConfiguration configuration, Router router,
+                           ContentEngine engine, ManagedExecutorService executor, WisdomVertxServer dispatcher,
+                           Collection<ExceptionMapper> mappers, Collection<ManagedExecutorService> executors) {
+        this(crypto, configuration, router, engine, executor, dispatcher, mappers, executors,
+                Collections.<ExchangeListener>emptyList());
+    }
+
+    public ServiceAccessor(Crypto crypto, ApplicationConfiguration configuration, Router router,
+                           ContentEngine engine, ManagedExecutorService executor, WisdomVertxServer dispatcher,
+                           Collection<ExceptionMapper> mappers, Collection<ManagedExecutorService> executors,
+                           Collection<ExchangeListener> exchangeListeners) {
+        this.executors = executors;
+        this.exchangeListeners = exchangeListeners;
         this.crypto = crypto;
         this.configuration = configuration;
         this.router = router;
@@ -73,6 +100,74 @@ public class ServiceAccessor {
         return executor;
     }
 
+    /**
+     * Gets the managed executor having the given name.
+     *
+     * @param name the name
+     * @return the executor, {@literal null} if not found
+     */
+    public ManagedExecutorService getExecutor(String name) {
+        if (executor != null && name.equals(executor.name())) {
+            return executor;
+        }
+        for (ManagedExecutorService service : executors) {
+            if (name.equals(service.name())) {
+                return service;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the policy deciding on which thread actions are invoked, created from the configuration on first
+     * access.
+     */
+    public DispatchPolicy getDispatchPolicy() {
+        DispatchPolicy policy = dispatchPolicy;
+        if (policy == null) {
+            synchronized (this) {
+                policy = dispatchPolicy;
+                if (policy == null) {
+                    policy = new DispatchPolicy(configuration);
+                    dispatchPolicy = policy;
+                }
+            }
+        }
+        return policy;
+    }
+
+    /**
+     * @return the settings read by the engine on every request. The view is bound to the configuration on first
+     * access, and so reflects the reloaded configuration.
+     */
+    public EngineSettings getSettings() {
+        ConfigurationView<EngineSettings> view = settings;
+        if (view == null) {
+            synchronized (this) {
+                view = settings;
+                if (view == null) {
+                    view = ConfigurationViews.bind(configuration, EngineSettings.MAPPER);
+                    settings = view;
+                }
+            }
+        }
+        return view.get();
+    }
+
+    /**
+     * @return the cache of the session cookies already verified.
+     */
+    public SessionCookieCache getSessionCookieCache() {
+        return sessionCookieCache;
+    }
+
+    /**
+     * @return the services notified when a response has been written.
+     */
+    public Collection<ExchangeListener> getExchangeListeners() {
+        return exchangeListeners;
+    }
+
     public WisdomVertxServer getDispatcher() {
         return dispatcher;
     }
@@ -0,0 +1,71 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.framework.vertx;
+
+/**
+ * The policy applied when a message is written to a web socket (or SockJS socket) whose write queue is full, i.e.
+ * when the client does not consume the messages as fast as they are published. The policy is configured using the
+ * {@code vertx.websocket.slow-consumer} property.
+ */
+public enum SlowConsumerPolicy {
+
+    /**
+     * The message is not sent to the slow client.
+     */
+    DROP,
+
+    /**
+     * Only the latest message is kept, and sent once the write queue is drained. Intermediate messages are lost.
+     */
+    COALESCE,
+
+    /**
+     * The slow client is disconnected.
+     */
+    DISCONNECT;
+
+    /**
+     * The configuration key.
+     */
+    public static final String CONFIGURATION_KEY = "vertx.websocket.slow-consumer";
+
+    /**
+     * Gets the policy from its name. The name is case insensitive and {@code coalesce-latest} is accepted as
+     * {@link #COALESCE}.
+     *
+     * @param name the name, may be {@code null}
+     * @return the policy, {@link #DROP} if the name is {@code null} or unknown
+     */
+    public static SlowConsumerPolicy from(String name) {
+        if (name == null) {
+            return DROP;
+        }
+        String value = name.trim().toUpperCase();
+        if ("COALESCE-LATEST".equals(value)) {
+            return COALESCE;
+        }
+        for (SlowConsumerPolicy policy : values()) {
+            if (policy.name().equals(value)) {
+                return policy;
+            }
+        }
+        return DROP;
+    }
+}
@@ -22,6 +22,7 @@ package org.wisdom.framework.vertx;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.vertx.java.core.Handler;
+import org.vertx.java.core.Vertx;
 import org.vertx.java.core.buffer.Buffer;
 import org.vertx.java.core.http.ServerWebSocket;
 import org.vertx.java.core.sockjs.SockJSSocket;
@@ -41,6 +42,11 @@ public class SockJsHandler implements Handler<SockJSSocket> {
      */
     private final ServiceAccessor accessor;
 
+    /**
+     * The Vert.x instance.
+     */
+    private final Vertx vertx;
+
     /**
      * The prefix handled by this SockJs server.
      */
@@ -50,10 +56,12 @@ public class SockJsHandler implements Handler<SockJSSocket> {
      * Creates an instance of {@link org.wisdom.framework.vertx.SockJsHandler}
      *
      * @param accessor the service accessor
+     * @param vertx the Vert.x instance
      * @param prefix the prefix
      */
-    public SockJsHandler(ServiceAccessor accessor, String prefix) {
+    public SockJsHandler(ServiceAccessor accessor, Vertx vertx, String prefix) {
         this.accessor = accessor;
+        this.vertx = vertx;
         this.prefix = prefix;
     }
 
@@ -65,9 +73,13 @@ public class SockJsHandler implements Handler<SockJSSocket> {
     @Override
     public void handle(final SockJSSocket socket) {
         LOGGER.info("New sockJS connection {}, {}", socket, socket.uri());
-        final Socket sock = new Socket(socket);
+        EngineSettings settings = accessor.getSettings();
+        if (settings.getWebSocketWriteQueueMaxSize() > 0) {
+            socket.setWriteQueueMaxSize(settings.getWebSocketWriteQueueMaxSize());
+        }
+        final Socket sock = new Socket(socket, vertx.currentContext(), settings.getSlowConsumerPolicy());
         accessor.getDispatcher().addSocket(prefix, sock);
-        socket.endHandler(new Handler<Void>() {
+        sock.closeHandler(new Handler<Void>() {
             /**
              * Handles the closing of an open socket.
              * @param event irrelevant
@@ -78,6 +90,12 @@ public class SockJsHandler implements Handler<SockJSSocket> {
                 accessor.getDispatcher().removeSocket(prefix, sock);
             }
         });
+        socket.endHandler(new Handler<Void>() {
+            @Override
+            public void handle(Void event) {
+                sock.closed();
+            }
+        });
 
         socket.dataHandler(new Handler<Buffer>() {
             /**
@@ -19,22 +19,61 @@
  */
 package org.wisdom.framework.vertx;
 
-import org.vertx.java.core.buffer.Buffer;
-import org.vertx.java.core.eventbus.EventBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.vertx.java.core.Context;
+import org.vertx.java.core.Handler;
 import org.vertx.java.core.http.ServerWebSocket;
 import org.vertx.java.core.sockjs.SockJSSocket;
+import org.vertx.java.core.streams.WriteStream;
+
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A class abstracting the differences between the WebSocket API and the SockJs API.
+ * <p>
+ * Messages are written directly on the socket, from the Vert.x context having accepted the connection. When the
+ * write queue of the socket is full (the client is slower than the publisher), the configured
+ * {@link SlowConsumerPolicy} is applied instead of queuing the message. Once the socket is closed, the messages are
+ * dropped.
  */
 public class Socket {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(Socket.class);
+
     /**
      * The underlying socket, either a {@link org.vertx.java.core.http.ServerWebSocket} or
      * a {@link org.wisdom.framework.vertx.SockJsHandler}.
      */
     private final Object delegate;
 
+    /**
+     * The context on which the socket has been opened, {@code null} to write from the caller thread.
+     */
+    private final Context context;
+
+    /**
+     * The policy applied when the write queue is full.
+     */
+    private final SlowConsumerPolicy policy;
+
+    /**
+     * The latest message waiting for the write queue to be drained (coalesce policy). Only accessed from the
+     * socket context.
+     */
+    private Frame pending;
+    private boolean drainHandlerSet;
+
+    /**
+     * Whether the underlying socket has been closed.
+     */
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * The handler notified once when the socket is closed, {@code null} if none.
+     */
+    private volatile Handler<Void> closeHandler;
+
     /**
      * Creates an instance of {@link org.wisdom.framework.vertx.Socket} delegating to
      * a {@link org.vertx.java.core.http.ServerWebSocket} instance.
@@ -42,35 +81,45 @@ public class Socket {
      * @param delegate the delegate
      */
     public Socket(ServerWebSocket delegate) {
-        this.delegate = delegate;
+        this(delegate, null, SlowConsumerPolicy.DROP);
     }
 
     /**
      * Creates an instance of {@link org.wisdom.framework.vertx.Socket} delegating to
-     * a {@link org.vertx.java.core.sockjs.SockJSSocket} instance.
+     * a {@link org.vertx.java.core.http.ServerWebSocket} instance.
      *
      * @param delegate the delegate
+     * @param context  the context on which the socket has been opened
+     * @param policy   the policy applied to slow clients
      */
-    public Socket(SockJSSocket delegate) {
+    public Socket(ServerWebSocket delegate, Context context, SlowConsumerPolicy policy) {
         this.delegate = delegate;
+        this.context = context;
+        this.policy = policy;
     }
 
-    private String getWriteHandlerId() {
-        if (delegate instanceof ServerWebSocket) {
-            return ((ServerWebSocket) delegate).textHandlerID();
-        } else if (delegate instanceof SockJSSocket) {
-            return ((SockJSSocket) delegate).writeHandlerID();
-        }
-        throw new IllegalArgumentException("Unsupported socket type " + delegate);
+    /**
+     * Creates an instance of {@link org.wisdom.framework.vertx.Socket} delegating to
+     * a {@link org.vertx.java.core.sockjs.SockJSSocket} instance.
+     *
+     * @param delegate the delegate
+     */
+    public Socket(SockJSSocket delegate) {
+        this(delegate, null, SlowConsumerPolicy.DROP);
     }
 
-    private String getBinaryWriteHandlerId() {
-        if (delegate instanceof ServerWebSocket) {
-            return ((ServerWebSocket) delegate).binaryHandlerID();
-        } else if (delegate instanceof SockJSSocket) {
-            return ((SockJSSocket) delegate).writeHandlerID();
-        }
-        throw new IllegalArgumentException("Unsupported socket type " + delegate);
+    /**
+     * Creates an instance of {@link org.wisdom.framework.vertx.Socket} delegating to
+     * a {@link org.vertx.java.core.sockjs.SockJSSocket} instance.
+     *
+     * @param delegate the delegate
+     * @param context  the context on which the socket has been opened
+     * @param policy   the policy applied to slow clients
+     */
+    public Socket(SockJSSocket delegate, Context context, SlowConsumerPolicy policy) {
+        this.delegate = delegate;
+        this.context = context;
+        this.policy = policy;
     }
 
     @Override
@@ -100,31 +149,133 @@ public class Socket {
         throw new IllegalArgumentException("Unsupported socket type " + delegate);
     }
 
+    /**
+     * Sets the handler notified when the socket is closed, either because the client has disconnected or because a
+     * write has failed on a socket already closed. The handler is called only once.
+     *
+     * @param handler the handler
+     */
+    public void closeHandler(Handler<Void> handler) {
+        this.closeHandler = handler;
+    }
+
+    /**
+     * Notifies that the underlying socket has been closed. The pending message is dropped, and the next ones are
+     * not written.
+     */
+    public void closed() {
+        if (closed.compareAndSet(false, true)) {
+            Handler<Void> handler = closeHandler;
+            if (handler != null) {
+                handler.handle(null);
+            }
+        }
+    }
+
     /**
      * Sends a text frame on the socket.
      *
      * @param message the message
-     * @param bus     the Vert.x event bus.
      */
-    public void publish(String message, EventBus bus) {
-        if (delegate instanceof ServerWebSocket) {
-            bus.publish(getWriteHandlerId(), message);
-        } else if (delegate instanceof SockJSSocket) {
-            bus.publish(getWriteHandlerId(), new Buffer().appendString(message));
-        }
+    public void publish(String message) {
+        write(Frame.text(message));
     }
 
     /**
      * Sends a binary frame on the socket.
      *
      * @param message the message
-     * @param bus     the Vert.x event bus.
      */
-    public void publish(byte[] message, EventBus bus) {
+    public void publish(byte[] message) {
+        write(Frame.binary(message));
+    }
+
+    /**
+     * Sends a frame on the socket. The frame may be shared with other sockets.
+     *
+     * @param frame the frame
+     */
+    void write(final Frame frame) {
+        if (context == null) {
+            doWrite(frame);
+            return;
+        }
+        context.runOnContext(new Handler<Void>() {
+            @Override
+            public void handle(Void event) {
+                doWrite(frame);
+            }
+        });
+    }
+
+    private void doWrite(Frame frame) {
+        if (closed.get()) {
+            pending = null;
+            return;
+        }
+        try {
+            writeOrApplyPolicy(frame);
+        } catch (IllegalStateException e) { //NOSONAR
+            // Vert.x rejects the writes on closed sockets. The close notification may not have been received yet.
+            LOGGER.debug("Cannot write on {}, the socket is closed", delegate);
+            pending = null;
+            closed();
+        }
+    }
+
+    private void writeOrApplyPolicy(Frame frame) {
+        WriteStream<?> stream = (WriteStream<?>) delegate;
+        if (pending == null && !stream.writeQueueFull()) {
+            send(frame);
+            return;
+        }
+        switch (policy) {
+            case COALESCE:
+                // Keep only the latest message, sent when the queue is drained.
+                pending = frame;
+                if (!drainHandlerSet) {
+                    drainHandlerSet = true;
+                    stream.drainHandler(new Handler<Void>() {
+                        @Override
+                        public void handle(Void event) {
+                            Frame latest = pending;
+                            pending = null;
+                            if (latest != null) {
+                                doWrite(latest);
+                            }
+                        }
+                    });
+                }
+                break;
+            case DISCONNECT:
+                LOGGER.warn("Closing the socket {}, the client does not consume the messages fast enough", path());
+                close();
+                break;
+            default:
+                LOGGER.debug("Message dropped on {}, the client does not consume the messages fast enough", path());
+                break;
+        }
+    }
+
+    private void send(Frame frame) {
+        if (delegate instanceof ServerWebSocket) {
+            ServerWebSocket socket = (ServerWebSocket) delegate;
+            if (frame.isBinary()) {
+                socket.writeBinaryFrame(frame.share());
+            } else {
+                socket.writeTextFrame(frame.text());
+            }
+        } else if (delegate instanceof SockJSSocket) {
+            // SockJS copies the content in its own frames, so the payload can be given as it is.
+            ((SockJSSocket) delegate).write(frame.payload());
+        }
+    }
+
+    private void close() {
         if (delegate instanceof ServerWebSocket) {
-            bus.publish(getBinaryWriteHandlerId(), new Buffer().appendBytes(message));
+            ((ServerWebSocket) delegate).close();
         } else if (delegate instanceof SockJSSocket) {
-            bus.publish(getBinaryWriteHandlerId(), new Buffer().appendBytes(message));
+            ((SockJSSocket) delegate).close();
         }
     }
 }
@@ -71,18 +71,30 @@ public class WebSocketHandler implements Handler<ServerWebSocket> {
             return;
         }
 
-        final Socket sock = new Socket(socket);
-        accessor.getDispatcher().addSocket(socket.path(), sock);
+        EngineSettings settings = accessor.getSettings();
+        if (settings.getWebSocketWriteQueueMaxSize() > 0) {
+            socket.setWriteQueueMaxSize(settings.getWebSocketWriteQueueMaxSize());
+        }
+        final Socket sock = new Socket(socket, configuration.vertx().currentContext(),
+                settings.getSlowConsumerPolicy());
+        final String path = socket.path();
+        accessor.getDispatcher().addSocket(path, sock);
 
-        socket.closeHandler(new Handler<Void>() {
+        sock.closeHandler(new Handler<Void>() {
             /**
              * Handles the closing of an open socket.
              * @param event irrelevant
              */
             @Override
             public void handle(Void event) {
-                LOGGER.info("Web Socket closed {}, {}", socket, socket.uri());
-                accessor.getDispatcher().removeSocket(socket.path(), sock);
+                LOGGER.info("Web Socket closed {}, {}", socket, path);
+                accessor.getDispatcher().removeSocket(path, sock);
+            }
+        });
+        socket.closeHandler(new Handler<Void>() {
+            @Override
+            public void handle(Void event) {
+                sock.closed();
             }
         });
 
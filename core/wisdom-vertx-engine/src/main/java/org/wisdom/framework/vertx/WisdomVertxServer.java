@@ -28,25 +28,30 @@ import org.wisdom.api.configuration.ApplicationConfiguration;
 import org.wisdom.api.configuration.Configuration;
 import org.wisdom.api.content.ContentEngine;
 import org.wisdom.api.crypto.Crypto;
+import org.wisdom.api.engine.DispatchStatistics;
 import org.wisdom.api.engine.WisdomEngine;
 import org.wisdom.api.exceptions.ExceptionMapper;
+import org.wisdom.api.http.ExchangeListener;
 import org.wisdom.api.http.websockets.WebSocketDispatcher;
 import org.wisdom.api.http.websockets.WebSocketListener;
 import org.wisdom.api.router.Router;
 
 import java.net.InetAddress;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 
 /**
  * The main entry point of the Vert.x engine for Wisdom. This component is responsible for the creation of the
- * different server and their configuration. It also exposed the {@link org.wisdom.api.engine.WisdomEngine} and
- * {@link org.wisdom.api.http.websockets.WebSocketDispatcher} services.
+ * different server and their configuration. It also exposed the {@link org.wisdom.api.engine.WisdomEngine},
+ * {@link org.wisdom.api.engine.DispatchStatistics} and {@link org.wisdom.api.http.websockets.WebSocketDispatcher}
+ * services.
  */
 @Component
 @Provides
 @Instantiate
-public class WisdomVertxServer implements WebSocketDispatcher, WisdomEngine {
+public class WisdomVertxServer implements WebSocketDispatcher, WisdomEngine, DispatchStatistics {
 
 
     private static final Logger LOGGER = LoggerFactory.getLogger(WisdomVertxServer.class);
@@ -57,9 +62,10 @@ public class WisdomVertxServer implements WebSocketDispatcher, WisdomEngine {
     private List<WebSocketListener> listeners = new ArrayList<>();
 
     /**
-     * The map of uri / list of channel context keeping a reference on all opened web sockets.
+     * The map of uri / list of channel context keeping a reference on all opened web sockets. The lists are
+     * copy-on-write lists, modified while holding the lock on this object, so publishing does not need to copy them.
      */
-    private Map<String, List<Socket>> socketsByUri = new HashMap<>();
+    private Map<String, List<Socket>> socketsByUri = new ConcurrentHashMap<>();
 
     /**
      * The vertx singleton.
@@ -103,11 +109,23 @@ public class WisdomVertxServer implements WebSocketDispatcher, WisdomEngine {
     @Requires(specification = ExceptionMapper.class, optional = true)
     private Collection<ExceptionMapper> mappers;
 
+    /**
+     * The managed executors, used to dispatch actions on named executors.
+     */
+    @Requires(id = "executors", specification = ManagedExecutorService.class, optional = true)
+    private Collection<ManagedExecutorService> executors;
+
+    /**
+     * The services notified when a response has been written.
+     */
+    @Requires(id = "exchange-listeners", specification = ExchangeListener.class, optional = true)
+    private Collection<ExchangeListener> exchangeListeners;
+
     /**
      * The accessor to get all the services.
      */
     ServiceAccessor accessor = new ServiceAccessor(crypto, configuration, router,
-            engine, executor, this, mappers); //NOSONAR
+            engine, executor, this, mappers, executors, exchangeListeners); //NOSONAR
 
     private InetAddress address;
 
@@ -221,6 +239,22 @@ public class WisdomVertxServer implements WebSocketDispatcher, WisdomEngine {
         return -1;
     }
 
+    /**
+     * @return the total time spent by actions on the event loop, in nanoseconds.
+     */
+    @Override
+    public long getEventLoopTime() {
+        return accessor.getDispatchPolicy().getEventLoopTime();
+    }
+
+    /**
+     * @return the statistics of the actions invoked on the event loop.
+     */
+    @Override
+    public Map<String, Map<String, Object>> getEventLoopStatistics() {
+        return accessor.getDispatchPolicy().getEventLoopStatistics();
+    }
+
     /**
      * Publishes the given message to all clients subscribed to the socket (either a web socket of a SockJS socket)
      * specified using its url. For SockJS, it must match one of the configured prefix.
@@ -230,18 +264,7 @@ public class WisdomVertxServer implements WebSocketDispatcher, WisdomEngine {
      */
     @Override
     public void publish(String url, String data) {
-        List<Socket> sockets;
-        synchronized (this) {
-            List<Socket> ch = this.socketsByUri.get(url);
-            if (ch != null) {
-                sockets = new ArrayList<>(ch);
-            } else {
-                sockets = Collections.emptyList();
-            }
-        }
-        for (Socket socket : sockets) {
-            socket.publish(data, vertx.eventBus());
-        }
+        broadcast(url, Frame.text(data));
     }
 
     /**
@@ -252,19 +275,35 @@ public class WisdomVertxServer implements WebSocketDispatcher, WisdomEngine {
      * @param data the data, must not be {@literal null}
      */
     @Override
-    public synchronized void publish(String url, byte[] data) {
-        List<Socket> sockets;
-        synchronized (this) {
-            List<Socket> ch = this.socketsByUri.get(url);
-            if (ch != null) {
-                sockets = new ArrayList<>(ch);
-            } else {
-                sockets = Collections.emptyList();
-            }
+    public void publish(String url, byte[] data) {
+        broadcast(url, Frame.binary(data));
+    }
+
+    /**
+     * Writes the given frame to all the clients connected to the given url. The frame is shared by all the sockets,
+     * so the message is encoded only once. Each socket writes it from its own context.
+     *
+     * @param url   the url
+     * @param frame the frame
+     */
+    private void broadcast(String url, Frame frame) {
+        for (Socket socket : getSockets(url)) {
+            socket.write(frame);
         }
-        for (Socket socket : sockets) {
-            socket.publish(data, vertx.eventBus());
+    }
+
+    /**
+     * Gets the sockets connected to the given url.
+     *
+     * @param url the url
+     * @return the sockets, empty if none. The returned list is a snapshot of the connected sockets.
+     */
+    private List<Socket> getSockets(String url) {
+        List<Socket> sockets = socketsByUri.get(url);
+        if (sockets == null) {
+            return Collections.emptyList();
         }
+        return sockets;
     }
 
     /**
@@ -279,7 +318,7 @@ public class WisdomVertxServer implements WebSocketDispatcher, WisdomEngine {
         synchronized (this) {
             List<Socket> channels = socketsByUri.get(url);
             if (channels == null) {
-                channels = new ArrayList<>();
+                channels = new CopyOnWriteArrayList<>();
             }
             channels.add(socket);
             socketsByUri.put(url, channels);
@@ -360,18 +399,9 @@ public class WisdomVertxServer implements WebSocketDispatcher, WisdomEngine {
      */
     @Override
     public void send(String uri, String client, String message) {
-        List<Socket> sockets;
-        synchronized (this) {
-            List<Socket> ch = this.socketsByUri.get(uri);
-            if (ch != null) {
-                sockets = new ArrayList<>(ch);
-            } else {
-                sockets = Collections.emptyList();
-            }
-        }
-        for (Socket socket : sockets) {
+        for (Socket socket : getSockets(uri)) {
             if (client.equals(id(socket))) {
-                socket.publish(message, vertx.eventBus());
+                socket.publish(message);
             }
         }
     }
@@ -396,18 +426,9 @@ public class WisdomVertxServer implements WebSocketDispatcher, WisdomEngine {
      */
     @Override
     public void send(String uri, String client, byte[] message) {
-        List<Socket> sockets;
-        synchronized (this) {
-            List<Socket> ch = this.socketsByUri.get(uri);
-            if (ch != null) {
-                sockets = new ArrayList<>(ch);
-            } else {
-                sockets = Collections.emptyList();
-            }
-        }
-        for (Socket socket : sockets) {
+        for (Socket socket : getSockets(uri)) {
             if (client.equals(id(socket))) {
-                socket.publish(message, vertx.eventBus());
+                socket.publish(message);
             }
         }
     }
@@ -27,6 +27,7 @@ import org.wisdom.api.cookies.FlashCookie;
 import org.wisdom.api.http.Context;
 import org.wisdom.api.http.Result;
 import org.wisdom.api.utils.CookieDataCodec;
+import org.wisdom.framework.vertx.EngineSettings;
 
 import java.io.UnsupportedEncodingException;
 import java.util.HashMap;
@@ -48,15 +49,46 @@ public class FlashCookieImpl implements FlashCookie {
     private Map<String, String> currentFlashCookieData = new HashMap<>();
     private Map<String, String> outgoingFlashCookieData = new HashMap<>();
     private final String applicationCookiePrefix;
+    /**
+     * The context from which the cookie is read. Set by {@link #init(Context)} and released once the cookie has been
+     * decoded.
+     */
+    private Context context;
 
     public FlashCookieImpl(ApplicationConfiguration configuration) {
-        applicationCookiePrefix = configuration.getWithDefault(Cookie.APPLICATION_COOKIE_PREFIX, "wisdom");
+        this(EngineSettings.from(configuration));
     }
 
+    /**
+     * Creates the flash cookie using pre-resolved settings, avoiding the configuration lookups.
+     *
+     * @param settings the engine settings
+     */
+    public FlashCookieImpl(EngineSettings settings) {
+        applicationCookiePrefix = settings.getCookiePrefix();
+    }
+
+    /**
+     * Initializes the flash scope. The cookie is decoded the first time the current flash data is accessed.
+     *
+     * @param context the current http context
+     */
     @Override
     public void init(Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Reads the flash cookie if not already done.
+     */
+    private void load() {
+        if (context == null) {
+            return;
+        }
+        Context ctx = context;
+        context = null;
         // get flash cookie:
-        Cookie flashCookie = context.request().cookie(applicationCookiePrefix
+        Cookie flashCookie = ctx.request().cookie(applicationCookiePrefix
                 + FLASH_SUFFIX);
         if (flashCookie != null) {
             try {
@@ -103,6 +135,7 @@ public class FlashCookieImpl implements FlashCookie {
 
     @Override
     public void put(String key, String value) {
+        load();
         if (key.contains(":")) {
             throw new IllegalArgumentException(
                     "Character ':' is invalid in a flash key.");
@@ -142,6 +175,7 @@ public class FlashCookieImpl implements FlashCookie {
 
     @Override
     public void keep(String key) {
+        load();
         if (currentFlashCookieData.containsKey(key)) {
             outgoingFlashCookieData.put(key, currentFlashCookieData.get(key));
         }
@@ -149,11 +183,13 @@ public class FlashCookieImpl implements FlashCookie {
 
     @Override
     public void keep() {
+        load();
         outgoingFlashCookieData.putAll(currentFlashCookieData);
     }
 
     @Override
     public String get(String key) {
+        load();
         String value = currentFlashCookieData.get(key);
         if (value == null) {
             value = outgoingFlashCookieData.get(key);
@@ -163,21 +199,25 @@ public class FlashCookieImpl implements FlashCookie {
 
     @Override
     public boolean remove(String key) {
+        load();
         return currentFlashCookieData.remove(key) != null;
     }
 
     @Override
     public void clearCurrentFlashCookieData() {
+        load();
         currentFlashCookieData.clear();
     }
 
     @Override
     public boolean contains(String key) {
+        load();
         return currentFlashCookieData.containsKey(key);
     }
 
     @Override
     public Map<String, String> getCurrentFlashCookieData() {
+        load();
         return currentFlashCookieData;
     }
 
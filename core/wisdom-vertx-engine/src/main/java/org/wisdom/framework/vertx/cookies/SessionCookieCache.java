@@ -0,0 +1,80 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.framework.vertx.cookies;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the session cookies whose signature has already been verified. Entries are keyed by the raw
+ * cookie value (signature and payload), so a hit means that the exact same value has already been checked and
+ * decoded. Browsers send the same session cookie until the session changes, so most requests skip the HMAC
+ * computation and the payload decoding.
+ * <p>
+ * The cached data is the decoded payload, the expiration of the session is still checked on every request.
+ */
+public class SessionCookieCache {
+
+    /**
+     * The default number of cookies kept in the cache.
+     */
+    public static final int DEFAULT_SIZE = 1000;
+
+    private final Cache<String, Map<String, String>> cache;
+
+    /**
+     * Creates a cache of {@link #DEFAULT_SIZE} entries.
+     */
+    public SessionCookieCache() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param size the maximum number of entries
+     */
+    public SessionCookieCache(int size) {
+        cache = CacheBuilder.newBuilder().maximumSize(size).build();
+    }
+
+    /**
+     * Gets the decoded data of a verified cookie.
+     *
+     * @param value the raw cookie value
+     * @return the decoded data, {@literal null} if the cookie has not been verified yet.
+     */
+    public Map<String, String> get(String value) {
+        return cache.getIfPresent(value);
+    }
+
+    /**
+     * Stores the decoded data of a cookie whose signature has been verified.
+     *
+     * @param value the raw cookie value
+     * @param data  the decoded data
+     */
+    public void put(String value, Map<String, String> data) {
+        cache.put(value, Collections.unmodifiableMap(new HashMap<>(data)));
+    }
+}
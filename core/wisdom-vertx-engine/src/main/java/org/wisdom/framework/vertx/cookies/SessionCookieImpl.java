@@ -30,6 +30,7 @@ import org.wisdom.api.crypto.Crypto;
 import org.wisdom.api.http.Context;
 import org.wisdom.api.http.Result;
 import org.wisdom.api.utils.CookieDataCodec;
+import org.wisdom.framework.vertx.EngineSettings;
 
 import java.io.UnsupportedEncodingException;
 import java.util.HashMap;
@@ -61,34 +62,70 @@ public class SessionCookieImpl implements SessionCookie {
      * Has cookie been changed => only send new cookie stuff has been changed.
      */
     private boolean sessionDataHasBeenChanged = false;
+    /**
+     * The cache of verified cookies, {@literal null} if not used.
+     */
+    private final SessionCookieCache cache;
+    /**
+     * The context from which the cookie is read. Set by {@link #init(Context)} and released once the cookie has been
+     * decoded.
+     */
+    private Context context;
 
     public SessionCookieImpl(Crypto crypto, ApplicationConfiguration configuration) {
-        applicationCookiePrefix = configuration.getWithDefault(Cookie.APPLICATION_COOKIE_PREFIX, "wisdom");
-        this.crypto = crypto;
+        this(crypto, EngineSettings.from(configuration));
+    }
+
+    /**
+     * Creates the session cookie using pre-resolved settings, avoiding the configuration lookups.
+     *
+     * @param crypto   the crypto service
+     * @param settings the engine settings
+     */
+    public SessionCookieImpl(Crypto crypto, EngineSettings settings) {
+        this(crypto, settings, null);
+    }
 
-        // read configuration stuff:
-        sessionExpireTimeInMs =
-                configuration.getIntegerWithDefault(SessionCookie.SESSION_EXPIRE_TIME_SECOND, 3600) * 1000;
-
-        this.sessionSendOnlyIfChanged = configuration.getBooleanWithDefault(
-                SessionCookie.SESSION_SEND_ONLY_IF_CHANGED, true);
-        this.sessionTransferredOverHttpsOnly = configuration
-                .getBooleanWithDefault(
-                        SessionCookie.SESSION_OVER_HTTPS_ONLY, false);
-        this.sessionHttpOnly = configuration.getBooleanWithDefault(
-                SessionCookie.SESSION_HTTP_ONLY, true);
+    /**
+     * Creates the session cookie using pre-resolved settings and a cache of verified cookies.
+     *
+     * @param crypto   the crypto service
+     * @param settings the engine settings
+     * @param cache    the cache of verified cookies, may be {@literal null}
+     */
+    public SessionCookieImpl(Crypto crypto, EngineSettings settings, SessionCookieCache cache) {
+        this.crypto = crypto;
+        this.cache = cache;
+        this.applicationCookiePrefix = settings.getCookiePrefix();
+        this.sessionExpireTimeInMs = settings.getSessionExpireTimeInMs();
+        this.sessionSendOnlyIfChanged = settings.isSessionSendOnlyIfChanged();
+        this.sessionTransferredOverHttpsOnly = settings.isSessionOverHttpsOnly();
+        this.sessionHttpOnly = settings.isSessionHttpOnly();
     }
 
     /**
-     * Has to be called initially.
+     * Has to be called initially. The cookie is not read immediately, it is decoded (and its signature checked) the
+     * first time the session is accessed.
      *
      * @param context the current http context.
      */
     @Override
     public void init(Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Reads the session cookie if not already done.
+     */
+    private void load() {
+        if (context == null) {
+            return;
+        }
+        Context ctx = context;
+        context = null;
         try {
             // get the cookie that contains session information:
-            Cookie cookie = context.request().cookie(applicationCookiePrefix
+            Cookie cookie = ctx.request().cookie(applicationCookiePrefix
                     + SESSION_SUFFIX);
 
             // check that the cookie is not empty:
@@ -96,17 +133,25 @@ public class SessionCookieImpl implements SessionCookie {
                     && !"".equals(cookie.value().trim())
                     && cookie.value().contains("-")) {
                 String value = cookie.value();
-                // the first substring until "-" is the sign
-                String sign = value.substring(0, value.indexOf('-'));
-
-                // rest from "-" until the end is the payload of the cookie
-                String payload = value.substring(value.indexOf('-') + 1);
-
-                if (CookieDataCodec.safeEquals(sign,
-                        crypto.sign(payload))) {
-                    CookieDataCodec.decode(data, payload);
+                Map<String, String> verified = cache == null ? null : cache.get(value);
+                if (verified != null) {
+                    data.putAll(verified);
                 } else {
-                    LOGGER.warn("Invalid session cookie - signature check failed");
+                    // the first substring until "-" is the sign
+                    String sign = value.substring(0, value.indexOf('-'));
+
+                    // rest from "-" until the end is the payload of the cookie
+                    String payload = value.substring(value.indexOf('-') + 1);
+
+                    if (CookieDataCodec.safeEquals(sign,
+                            crypto.sign(payload))) {
+                        CookieDataCodec.decode(data, payload);
+                        if (cache != null) {
+                            cache.put(value, data);
+                        }
+                    } else {
+                        LOGGER.warn("Invalid session cookie - signature check failed");
+                    }
                 }
 
                 // Make sure session contains valid timestamp
@@ -136,6 +181,7 @@ public class SessionCookieImpl implements SessionCookie {
      */
     @Override
     public String getId() {
+        load();
         if (!data.containsKey(ID_KEY)) {
             data.put(ID_KEY, UUID.randomUUID().toString());
         }
@@ -148,19 +194,57 @@ public class SessionCookieImpl implements SessionCookie {
      */
     @Override
     public Map<String, String> getData() {
+        load();
         return data;
     }
 
+    /**
+     * Checks whether the session cookie received with the request has expired. The signature is not checked, as the
+     * result is only used to decide whether the session must be decoded to be cleared.
+     *
+     * @return {@code true} if the session has not been decoded yet and the cookie has expired.
+     */
+    private boolean hasExpired() {
+        if (context == null) {
+            return false;
+        }
+        Cookie cookie = context.request().cookie(applicationCookiePrefix + SESSION_SUFFIX);
+        if (cookie == null || cookie.value() == null || !cookie.value().contains("-")) {
+            return false;
+        }
+        String value = cookie.value();
+        Map<String, String> decoded = cache == null ? null : cache.get(value);
+        try {
+            if (decoded == null) {
+                decoded = new HashMap<>();
+                CookieDataCodec.decode(decoded, value.substring(value.indexOf('-') + 1));
+            }
+            String timestamp = decoded.get(TIMESTAMP_KEY);
+            return timestamp != null
+                    && Long.parseLong(timestamp) + sessionExpireTimeInMs < System.currentTimeMillis();
+        } catch (UnsupportedEncodingException | NumberFormatException e) { //NOSONAR
+            // Not a valid session, load() ignores it.
+            return false;
+        }
+    }
+
     @Override
     public void save(Context context, Result result) {
+        if (hasExpired()) {
+            // The session has not been accessed, but it has expired and must be cleared.
+            load();
+        }
+
         // Don't save the cookie nothing has changed, and if we're not expiring
-        // or we are expiring but we're only updating if the session changes
+        // or we are expiring but we're only updating if the session changes.
+        // A session that has not been accessed has not been changed, so it does not need to be decoded.
         if (!sessionDataHasBeenChanged && sessionSendOnlyIfChanged) {
             // Nothing changed and no cookie-expire, consequently send nothing
             // back.
             return;
         }
 
+        load();
         if (isEmpty()) {
             // It is empty, but there was a session coming in, therefore clear
             // it
@@ -218,6 +302,7 @@ public class SessionCookieImpl implements SessionCookie {
      */
     @Override
     public void put(String key, String value) {
+        load();
 
         // make sure key is valid:
         if (key.contains(":")) {
@@ -243,11 +328,13 @@ public class SessionCookieImpl implements SessionCookie {
      */
     @Override
     public String get(String key) {
+        load();
         return data.get(key);
     }
 
     @Override
     public String remove(String key) {
+        load();
 
         sessionDataHasBeenChanged = true;
         String result = get(key);
@@ -257,6 +344,7 @@ public class SessionCookieImpl implements SessionCookie {
 
     @Override
     public void clear() {
+        load();
         sessionDataHasBeenChanged = true;
         data.clear();
     }
@@ -267,6 +355,7 @@ public class SessionCookieImpl implements SessionCookie {
      */
     @Override
     public boolean isEmpty() {
+        load();
         return data.isEmpty() || data.size() == 1 && data.containsKey(TIMESTAMP_KEY);
     }
 
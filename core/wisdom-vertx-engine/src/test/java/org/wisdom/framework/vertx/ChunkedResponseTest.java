@@ -342,6 +342,75 @@ public class ChunkedResponseTest extends VertxBaseTest {
         assertThat(success).hasSize(NUMBER_OF_CLIENTS);
     }
 
+    @Test
+    public void testFileDownloadUsingSendFile() throws InterruptedException, IOException {
+
+        // Prepare the configuration
+        ApplicationConfiguration configuration = mock(ApplicationConfiguration.class);
+        when(configuration.getIntegerWithDefault(eq("vertx.http.port"), anyInt())).thenReturn(0);
+        when(configuration.getIntegerWithDefault(eq("vertx.https.port"), anyInt())).thenReturn(-1);
+        when(configuration.getIntegerWithDefault("vertx.acceptBacklog", -1)).thenReturn(-1);
+        when(configuration.getIntegerWithDefault("vertx.receiveBufferSize", -1)).thenReturn(-1);
+        when(configuration.getIntegerWithDefault("vertx.sendBufferSize", -1)).thenReturn(-1);
+        when(configuration.getStringArray("wisdom.websocket.subprotocols")).thenReturn(new String[0]);
+        when(configuration.getStringArray("vertx.websocket-subprotocols")).thenReturn(new String[0]);
+        when(configuration.getBooleanWithDefault("vertx.sendfile", true)).thenReturn(true);
+
+        // Prepare the router with a controller
+        Controller controller = new DefaultController() {
+            @SuppressWarnings("unused")
+            public Result index() throws IOException {
+                File file = new File("src/test/resources/owl.png");
+                return ok(file);
+            }
+        };
+
+        Router router = mock(Router.class);
+        final Route route = new RouteBuilder().route(HttpMethod.GET)
+                .on("/")
+                .to(controller, "index");
+        doAnswer(new Answer<Route>() {
+            @Override
+            public Route answer(InvocationOnMock invocationOnMock) throws Throwable {
+                return route;
+            }
+        }).when(router).getRouteFor(anyString(), anyString(), any(Request.class));
+
+
+        // Configure the server.
+        server = new WisdomVertxServer();
+        server.configuration = configuration;
+        server.accessor = new ServiceAccessor(
+                null,
+                configuration,
+                router,
+                getMockContentEngine(),
+                executor,
+                null,
+                Collections.<ExceptionMapper>emptyList()
+        );
+        server.vertx = vertx;
+
+        server.start();
+
+        VertxHttpServerTest.waitForStart(server);
+
+        // Now start bunch of clients
+        CountDownLatch startSignal = new CountDownLatch(1);
+        CountDownLatch doneSignal = new CountDownLatch(NUMBER_OF_CLIENTS);
+
+        int port = server.httpPort();
+
+        for (int i = 0; i < NUMBER_OF_CLIENTS; ++i) // create and start threads
+            clients.submit(new DownloadClient(startSignal, doneSignal, port, i));
+
+        startSignal.countDown();      // let all threads proceed
+        assertThat(doneSignal.await(60, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(failure).isEmpty();
+        assertThat(success).hasSize(NUMBER_OF_CLIENTS);
+    }
+
     @Test
     public void testFileAsUrlDownload() throws InterruptedException, IOException {
 
@@ -37,8 +37,8 @@ import org.wisdom.api.http.Result;
 import org.wisdom.api.router.Route;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
 
 public class ContextFromVertxTest {
 
@@ -189,6 +189,22 @@ public class ContextFromVertxTest {
 
     }
 
+    @Test
+    public void testThatPathParametersAreExtractedOnce() throws NoSuchMethodException {
+        HttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET,
+            "/foo/hello%20world/x/1");
+        ContextFromVertx context = new ContextFromVertx(vertx, accessor, RequestFromVertXTest.create(request));
+        Route route = spy(new Route(org.wisdom.api.http.HttpMethod.GET, "/foo/{p}/x/{id}",
+            new MyController(), MyController.class.getMethod("action")));
+        context.route(route);
+
+        assertThat(context.parameterFromPath("p")).isEqualTo("hello world");
+        assertThat(context.parameterFromPathEncoded("p")).isEqualTo("hello%20world");
+        assertThat(context.parameterFromPathAsInteger("id")).isEqualTo(1);
+        assertThat(context.parameterFromPath("missing")).isNull();
+        verify(route, times(1)).getPathParametersEncoded(anyString());
+    }
+
     private class MyController extends DefaultController {
 
         public Result action() {
@@ -0,0 +1,133 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.framework.vertx;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.wisdom.api.DefaultController;
+import org.wisdom.api.annotations.Dispatch;
+import org.wisdom.api.configuration.ApplicationConfiguration;
+import org.wisdom.api.http.HttpMethod;
+import org.wisdom.api.http.Result;
+import org.wisdom.api.router.Route;
+import org.wisdom.api.router.RouteBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the dispatch policy of actions.
+ */
+public class DispatchPolicyTest {
+
+    @Test
+    public void testDefaultPolicy() {
+        DispatchPolicy policy = new DispatchPolicy(null);
+        assertThat(policy.getPolicy(route(new PlainController(), "index"))).isEqualTo(Dispatch.EVENT_LOOP);
+        assertThat(policy.getPolicy(route(new AnnotatedController(), "index"))).isEqualTo(Dispatch.WORKER);
+        assertThat(policy.getPolicy(route(new AnnotatedController(), "query"))).isEqualTo("db");
+    }
+
+    @Test
+    public void testConfiguredPolicy() {
+        ApplicationConfiguration configuration = mock(ApplicationConfiguration.class);
+        when(configuration.get("vertx.dispatch.default")).thenReturn("worker");
+        when(configuration.getList("vertx.dispatch.rules")).thenReturn(ImmutableList.of(
+                PlainController.class.getName() + ".other: event-loop",
+                AnnotatedController.class.getName() + ": remote"
+        ));
+        DispatchPolicy policy = new DispatchPolicy(configuration);
+
+        assertThat(policy.getPolicy(route(new PlainController(), "index"))).isEqualTo(Dispatch.WORKER);
+        assertThat(policy.getPolicy(route(new PlainController(), "other"))).isEqualTo(Dispatch.EVENT_LOOP);
+        // The configuration takes precedence over the annotations.
+        assertThat(policy.getPolicy(route(new AnnotatedController(), "query"))).isEqualTo("remote");
+    }
+
+    @Test
+    public void testEventLoopMeasurementAndOffload() {
+        ApplicationConfiguration configuration = mock(ApplicationConfiguration.class);
+        when(configuration.getDuration("vertx.dispatch.blocked-threshold", TimeUnit.NANOSECONDS,
+                TimeUnit.MILLISECONDS.toNanos(100))).thenReturn(TimeUnit.MILLISECONDS.toNanos(10));
+        when(configuration.getIntegerWithDefault("vertx.dispatch.auto-offload", 0)).thenReturn(2);
+        DispatchPolicy policy = new DispatchPolicy(configuration);
+        Route route = route(new PlainController(), "index");
+
+        policy.recordEventLoopTime(route, TimeUnit.MILLISECONDS.toNanos(1));
+        policy.recordEventLoopTime(route, TimeUnit.MILLISECONDS.toNanos(20));
+        assertThat(policy.getPolicy(route)).isEqualTo(Dispatch.EVENT_LOOP);
+        policy.recordEventLoopTime(route, TimeUnit.MILLISECONDS.toNanos(30));
+        assertThat(policy.getPolicy(route)).isEqualTo(Dispatch.WORKER);
+
+        assertThat(policy.getEventLoopTime()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(51));
+        String name = PlainController.class.getName() + ".index";
+        assertThat(policy.getEventLoopStatistics()).containsKey(name);
+        assertThat(policy.getEventLoopStatistics().get(name).get("invocations")).isEqualTo(3L);
+        assertThat(policy.getEventLoopStatistics().get(name).get("max"))
+                .isEqualTo(TimeUnit.MILLISECONDS.toNanos(30));
+        assertThat(policy.getEventLoopStatistics().get(name).get("slow")).isEqualTo(2L);
+    }
+
+    @Test
+    public void testStatisticsOfUnavailableControllersAreDropped() throws InterruptedException {
+        DispatchPolicy policy = new DispatchPolicy(null);
+        Route route = route(new PlainController(), "other");
+        policy.recordEventLoopTime(route, 1000L);
+        assertThat(policy.getEventLoopStatistics()).hasSize(1);
+
+        // The controller is gone, its method must not be retained.
+        route = null; //NOSONAR
+        for (int i = 0; i < 50 && !policy.getEventLoopStatistics().isEmpty(); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(policy.getEventLoopStatistics()).isEmpty();
+        assertThat(policy.getEventLoopTime()).isEqualTo(1000L);
+    }
+
+    private static Route route(DefaultController controller, String method) {
+        return new RouteBuilder().route(HttpMethod.GET).on("/" + method).to(controller, method);
+    }
+
+    public static class PlainController extends DefaultController {
+        public Result index() {
+            return ok();
+        }
+
+        public Result other() {
+            return ok();
+        }
+    }
+
+    @Dispatch
+    public static class AnnotatedController extends DefaultController {
+        public Result index() {
+            return ok();
+        }
+
+        @Dispatch("db")
+        public Result query() {
+            return ok();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.framework.vertx;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.vertx.java.core.Context;
+import org.vertx.java.core.Handler;
+import org.vertx.java.core.buffer.Buffer;
+import org.vertx.java.core.streams.ReadStream;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks the stream reading the request body while it arrives.
+ */
+public class RequestBodyStreamTest {
+
+    private ReadStream request;
+    private Context context;
+    private RequestBodyStream stream;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        request = mock(ReadStream.class);
+        context = mock(Context.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                ((Handler<Void>) invocation.getArguments()[0]).handle(null);
+                return null;
+            }
+        }).when(context).runOnContext(any(Handler.class));
+        stream = new RequestBodyStream(request, context);
+    }
+
+    @Test
+    public void testReadingChunks() throws IOException {
+        stream.append(new Buffer("hello "));
+        stream.append(new Buffer("wisdom"));
+        stream.end();
+
+        assertThat(stream.available()).isEqualTo(12);
+        byte[] content = new byte[32];
+        int length = 0;
+        int read;
+        while ((read = stream.read(content, length, content.length - length)) != -1) {
+            length += read;
+        }
+        assertThat(new String(content, 0, length)).isEqualTo("hello wisdom");
+        assertThat(stream.read()).isEqualTo(-1);
+        verify(request, never()).pause();
+    }
+
+    @Test
+    public void testBackPressure() throws IOException {
+        byte[] chunk = new byte[64 * 1024];
+        for (int i = 0; i < 4; i++) {
+            stream.append(new Buffer(chunk));
+        }
+        verify(request).pause();
+
+        // Still above the low watermark.
+        assertThat(stream.read(new byte[chunk.length], 0, chunk.length)).isEqualTo(chunk.length);
+        assertThat(stream.read(new byte[chunk.length], 0, chunk.length)).isEqualTo(chunk.length);
+        verify(request, never()).resume();
+
+        assertThat(stream.read(new byte[chunk.length], 0, chunk.length)).isEqualTo(chunk.length);
+        verify(request).resume();
+    }
+
+    @Test
+    public void testBlockingRead() throws Exception {
+        final AtomicInteger result = new AtomicInteger(-2);
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    result.set(stream.read());
+                } catch (IOException e) {
+                    result.set(-3);
+                }
+            }
+        });
+        reader.start();
+        Thread.sleep(50);
+        assertThat(result.get()).isEqualTo(-2);
+        stream.append(new Buffer("a"));
+        reader.join(TimeUnit.SECONDS.toMillis(5));
+        assertThat(result.get()).isEqualTo('a');
+    }
+
+    @Test
+    public void testFailure() {
+        stream.append(new Buffer("a"));
+        stream.fail(new IOException("Connection closed"));
+        try {
+            assertThat(stream.read()).isEqualTo('a');
+            stream.read();
+            fail("The failure should have been reported");
+        } catch (IOException e) {
+            assertThat(e).hasMessage("Connection closed");
+        }
+    }
+
+    @Test
+    public void testFailureAfterTheEndIsIgnored() throws IOException {
+        stream.end();
+        stream.fail(new IOException("Connection closed"));
+        assertThat(stream.read()).isEqualTo(-1);
+    }
+
+    @Test
+    public void testCloseDropsTheContentAndResumes() {
+        for (int i = 0; i < 5; i++) {
+            stream.append(new Buffer(new byte[64 * 1024]));
+        }
+        verify(request).pause();
+        stream.close();
+        verify(request).resume();
+        assertThat(stream.available()).isEqualTo(0);
+
+        stream.append(new Buffer("ignored"));
+        assertThat(stream.available()).isEqualTo(0);
+        try {
+            stream.read();
+            fail("The stream is closed");
+        } catch (IOException e) {
+            // Expected.
+        }
+    }
+}
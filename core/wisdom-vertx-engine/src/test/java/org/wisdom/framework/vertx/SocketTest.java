@@ -0,0 +1,152 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.framework.vertx;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.vertx.java.core.Handler;
+import org.vertx.java.core.buffer.Buffer;
+import org.vertx.java.core.http.ServerWebSocket;
+import org.vertx.java.core.sockjs.SockJSSocket;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks how messages are written on sockets, and the slow consumer policies.
+ */
+public class SocketTest {
+
+    @Test
+    public void testPolicyNames() {
+        assertThat(SlowConsumerPolicy.from(null)).isEqualTo(SlowConsumerPolicy.DROP);
+        assertThat(SlowConsumerPolicy.from("drop")).isEqualTo(SlowConsumerPolicy.DROP);
+        assertThat(SlowConsumerPolicy.from("coalesce-latest")).isEqualTo(SlowConsumerPolicy.COALESCE);
+        assertThat(SlowConsumerPolicy.from("Coalesce")).isEqualTo(SlowConsumerPolicy.COALESCE);
+        assertThat(SlowConsumerPolicy.from(" disconnect ")).isEqualTo(SlowConsumerPolicy.DISCONNECT);
+        assertThat(SlowConsumerPolicy.from("unknown")).isEqualTo(SlowConsumerPolicy.DROP);
+    }
+
+    @Test
+    public void testSharedFrame() {
+        ServerWebSocket ws1 = mock(ServerWebSocket.class);
+        ServerWebSocket ws2 = mock(ServerWebSocket.class);
+        SockJSSocket sockjs = mock(SockJSSocket.class);
+        Frame frame = Frame.binary("hello".getBytes());
+
+        new Socket(ws1).write(frame);
+        new Socket(ws2).write(frame);
+        new Socket(sockjs).write(frame);
+
+        ArgumentCaptor<Buffer> captor = ArgumentCaptor.forClass(Buffer.class);
+        verify(ws1).writeBinaryFrame(captor.capture());
+        assertThat(captor.getValue().toString()).isEqualTo("hello");
+        verify(ws2).writeBinaryFrame(captor.capture());
+        assertThat(captor.getValue().toString()).isEqualTo("hello");
+        verify(sockjs).write(frame.payload());
+
+        Frame text = Frame.text("hello");
+        new Socket(ws1).write(text);
+        verify(ws1).writeTextFrame("hello");
+        // The encoded payload is computed once.
+        assertThat(text.payload()).isSameAs(text.payload());
+    }
+
+    @Test
+    public void testDropPolicy() {
+        ServerWebSocket ws = mock(ServerWebSocket.class);
+        when(ws.writeQueueFull()).thenReturn(true);
+        Socket socket = new Socket(ws, null, SlowConsumerPolicy.DROP);
+        socket.publish("hello");
+        verify(ws, never()).writeTextFrame(anyString());
+        verify(ws, never()).close();
+    }
+
+    @Test
+    public void testDisconnectPolicy() {
+        SockJSSocket sockjs = mock(SockJSSocket.class);
+        when(sockjs.writeQueueFull()).thenReturn(true);
+        Socket socket = new Socket(sockjs, null, SlowConsumerPolicy.DISCONNECT);
+        socket.publish("hello");
+        verify(sockjs, never()).write(any(Buffer.class));
+        verify(sockjs).close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCoalescePolicy() {
+        ServerWebSocket ws = mock(ServerWebSocket.class);
+        when(ws.writeQueueFull()).thenReturn(true);
+        Socket socket = new Socket(ws, null, SlowConsumerPolicy.COALESCE);
+        socket.publish("1");
+        socket.publish("2");
+        socket.publish("3");
+        verify(ws, never()).writeTextFrame(anyString());
+
+        ArgumentCaptor<Handler> captor = ArgumentCaptor.forClass(Handler.class);
+        verify(ws, times(1)).drainHandler(captor.capture());
+
+        // Drain the queue, only the latest message is sent.
+        when(ws.writeQueueFull()).thenReturn(false);
+        captor.getValue().handle(null);
+        verify(ws).writeTextFrame("3");
+        verify(ws, never()).writeTextFrame("1");
+        verify(ws, never()).writeTextFrame("2");
+
+        // Nothing pending anymore.
+        captor.getValue().handle(null);
+        verify(ws, times(1)).writeTextFrame(anyString());
+
+        socket.publish("4");
+        verify(ws).writeTextFrame("4");
+    }
+
+    @Test
+    public void testWriteOnClosedSocket() {
+        ServerWebSocket ws = mock(ServerWebSocket.class);
+        doThrow(new IllegalStateException("WebSocket is closed")).when(ws).writeTextFrame(anyString());
+        Socket socket = new Socket(ws, null, SlowConsumerPolicy.DROP);
+        final AtomicInteger closed = new AtomicInteger();
+        socket.closeHandler(new Handler<Void>() {
+            @Override
+            public void handle(Void event) {
+                closed.incrementAndGet();
+            }
+        });
+
+        // The failure is not propagated to the publisher, and the socket is unregistered.
+        socket.publish("hello");
+        assertThat(closed.get()).isEqualTo(1);
+
+        // The next messages are dropped.
+        socket.publish("hello");
+        socket.publish("hello".getBytes());
+        verify(ws, times(1)).writeTextFrame(anyString());
+        verify(ws, never()).writeBinaryFrame(any(Buffer.class));
+
+        // The close notification does not unregister the socket again.
+        socket.closed();
+        assertThat(closed.get()).isEqualTo(1);
+    }
+}
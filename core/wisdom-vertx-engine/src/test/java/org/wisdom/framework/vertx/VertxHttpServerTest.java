@@ -19,6 +19,7 @@
  */
 package org.wisdom.framework.vertx;
 
+import com.google.common.base.Charsets;
 import org.apache.commons.io.IOUtils;
 import org.junit.After;
 import org.junit.Test;
@@ -27,7 +28,9 @@ import org.vertx.java.core.buffer.Buffer;
 import org.vertx.java.core.http.HttpClientResponse;
 import org.wisdom.api.Controller;
 import org.wisdom.api.DefaultController;
+import org.wisdom.api.annotations.Dispatch;
 import org.wisdom.api.configuration.ApplicationConfiguration;
+import org.wisdom.api.concurrent.ManagedExecutorService;
 import org.wisdom.api.exceptions.ExceptionMapper;
 import org.wisdom.api.http.*;
 import org.wisdom.api.router.Route;
@@ -36,11 +39,19 @@ import org.wisdom.api.router.Router;
 import org.wisdom.framework.vertx.ssl.SSLServerContext;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
+import java.net.Socket;
 import java.net.URL;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.*;
@@ -136,7 +147,403 @@ public class VertxHttpServerTest extends VertxBaseTest {
         assertThat(connection.getResponseCode()).isEqualTo(500);
     }
 
+    @Test
+    public void testAsyncResultTimeout() throws Exception {
+        Router router = prepareServer();
+        final CountDownLatch interrupted = new CountDownLatch(1);
+
+        Controller controller = new DefaultController() {
+            @SuppressWarnings("unused")
+            public Result index() {
+                return new AsyncResult(new Callable<Result>() {
+                    @Override
+                    public Result call() throws Exception {
+                        try {
+                            Thread.sleep(10000);
+                        } catch (InterruptedException e) {
+                            interrupted.countDown();
+                            throw e;
+                        }
+                        return ok("Too late");
+                    }
+                }, 100, TimeUnit.MILLISECONDS);
+            }
+        };
+        Route route = new RouteBuilder().route(HttpMethod.GET)
+                .on("/")
+                .to(controller, "index");
+        when(router.getRouteFor(anyString(), anyString(), any(Request.class))).thenReturn(route);
+
+        server.start();
+        waitForStart(server);
+
+        long begin = System.currentTimeMillis();
+        URL url = new URL("http://localhost:" + server.httpPort() + "/");
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        assertThat(connection.getResponseCode()).isEqualTo(504);
+        // The engine timer answers without waiting for the computation, and cancels it.
+        assertThat(System.currentTimeMillis() - begin).isLessThan(5000);
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void testExchangeListenersAreNotifiedWithTheTimings() throws Exception {
+        final CountDownLatch notified = new CountDownLatch(1);
+        final AtomicReference<ExchangeTimings> timings = new AtomicReference<>();
+        ExchangeListener listener = new ExchangeListener() {
+            @Override
+            public void onExchangeCompleted(Context context, Result result, ExchangeTimings t) {
+                timings.set(t);
+                notified.countDown();
+            }
+        };
+        Router router = prepareServer(Collections.<ExceptionMapper>emptyList(),
+                Collections.singletonList(listener));
+
+        Controller controller = new DefaultController() {
+            @SuppressWarnings("unused")
+            public Result index() {
+                return new AsyncResult(new Callable<Result>() {
+                    @Override
+                    public Result call() throws Exception {
+                        Thread.sleep(100);
+                        return ok("Alright");
+                    }
+                });
+            }
+        };
+        Route route = new RouteBuilder().route(HttpMethod.GET)
+                .on("/")
+                .to(controller, "index");
+        when(router.getRouteFor(anyString(), anyString(), any(Request.class))).thenReturn(route);
+
+        server.start();
+        waitForStart(server);
+
+        URL url = new URL("http://localhost:" + server.httpPort() + "/");
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        assertThat(IOUtils.toString(connection.getInputStream(), "UTF-8")).isEqualTo("Alright");
+
+        assertThat(notified.await(5, TimeUnit.SECONDS)).isTrue();
+        ExchangeTimings measured = timings.get();
+        assertThat(measured.getStatus()).isEqualTo(200);
+        assertThat(measured.getBytes()).isEqualTo(7);
+        assertThat(measured.getRoutingTime()).isGreaterThanOrEqualTo(0);
+        // The action time includes the computation of the asynchronous result.
+        assertThat(measured.getActionTime()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(measured.getSerializationTime()).isGreaterThanOrEqualTo(0);
+        assertThat(measured.getWriteTime()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    public void testWorkerActionsAreWrittenByTheEventLoop() throws Exception {
+        final AtomicReference<Thread> invoker = new AtomicReference<>();
+        final AtomicReference<Thread> writer = new AtomicReference<>();
+        final CountDownLatch notified = new CountDownLatch(1);
+        ExchangeListener listener = new ExchangeListener() {
+            @Override
+            public void onExchangeCompleted(Context context, Result result, ExchangeTimings t) {
+                // Listeners are called by the thread writing the response.
+                writer.set(Thread.currentThread());
+                notified.countDown();
+            }
+        };
+        Router router = prepareServer(Collections.<ExceptionMapper>emptyList(),
+                Collections.singletonList(listener));
+
+        Controller controller = new DefaultController() {
+            @SuppressWarnings("unused")
+            @Dispatch(Dispatch.WORKER)
+            public Result index() {
+                invoker.set(Thread.currentThread());
+                return ok("Alright");
+            }
+        };
+        Route route = new RouteBuilder().route(HttpMethod.GET)
+                .on("/")
+                .to(controller, "index");
+        when(router.getRouteFor(anyString(), anyString(), any(Request.class))).thenReturn(route);
+
+        server.start();
+        waitForStart(server);
+
+        URL url = new URL("http://localhost:" + server.httpPort() + "/");
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        assertThat(IOUtils.toString(connection.getInputStream(), "UTF-8")).isEqualTo("Alright");
+
+        assertThat(notified.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(invoker.get()).isNotSameAs(writer.get());
+        assertThat(writer.get().getName()).contains("eventloop");
+    }
+
+    @Test
+    public void testAsyncResultFailureUsesTheExceptionMapper() throws Exception {
+        ExceptionMapper<IllegalArgumentException> mapper = new ExceptionMapper<IllegalArgumentException>() {
+            @Override
+            public Class<IllegalArgumentException> getExceptionClass() {
+                return IllegalArgumentException.class;
+            }
+
+            @Override
+            public Result toResult(IllegalArgumentException exception) {
+                return Results.status(Status.CONFLICT).render(exception.getMessage());
+            }
+        };
+        Router router = prepareServer(Collections.<ExceptionMapper>singletonList(mapper));
+
+        Controller controller = new DefaultController() {
+            @SuppressWarnings("unused")
+            public Result index() {
+                return new AsyncResult(new Callable<Result>() {
+                    @Override
+                    public Result call() throws Exception {
+                        throw new IllegalArgumentException("Already there");
+                    }
+                }, 10, TimeUnit.SECONDS);
+            }
+        };
+        Route route = new RouteBuilder().route(HttpMethod.GET)
+                .on("/")
+                .to(controller, "index");
+        when(router.getRouteFor(anyString(), anyString(), any(Request.class))).thenReturn(route);
+
+        server.start();
+        waitForStart(server);
+
+        URL url = new URL("http://localhost:" + server.httpPort() + "/");
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        assertThat(connection.getResponseCode()).isEqualTo(Status.CONFLICT);
+    }
+
+    @Test
+    public void testStreamingBody() throws Exception {
+        Router router = prepareServer();
+
+        Controller controller = new DefaultController() {
+            @SuppressWarnings("unused")
+            public Result index() throws IOException {
+                InputStream body = context().body(InputStream.class);
+                long count = 0;
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    count += read;
+                }
+                return ok(Long.toString(count));
+            }
+        };
+        Route route = new RouteBuilder().route(HttpMethod.POST)
+                .on("/")
+                .to(controller, "index")
+                .withStreamingBody();
+        when(router.getRouteFor(anyString(), anyString(), any(Request.class))).thenReturn(route);
+
+        server.start();
+        waitForStart(server);
+
+        // The body is larger than 'request.body.max.size', but streamed bodies are not limited.
+        byte[] content = new byte[1024 * 1024];
+        URL url = new URL("http://localhost:" + server.httpPort() + "/");
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setDoOutput(true);
+        connection.setRequestMethod("POST");
+        connection.setFixedLengthStreamingMode(content.length);
+        connection.getOutputStream().write(content);
+        connection.getOutputStream().close();
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        assertThat(IOUtils.toString(connection.getInputStream())).isEqualTo(Integer.toString(content.length));
+    }
+
+    @Test
+    public void testPostWithoutStreaming() throws Exception {
+        Router router = prepareServer();
+
+        Controller controller = new DefaultController() {
+            @SuppressWarnings("unused")
+            public Result index() {
+                return ok(context().body());
+            }
+        };
+        Route route = new RouteBuilder().route(HttpMethod.POST)
+                .on("/")
+                .to(controller, "index");
+        when(router.getRouteFor(anyString(), anyString(), any(Request.class))).thenReturn(route);
+
+        server.start();
+        waitForStart(server);
+
+        URL url = new URL("http://localhost:" + server.httpPort() + "/");
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setDoOutput(true);
+        connection.setRequestMethod("POST");
+        connection.getOutputStream().write("hello".getBytes(Charsets.UTF_8));
+        connection.getOutputStream().close();
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        assertThat(IOUtils.toString(connection.getInputStream())).isEqualTo("hello");
+    }
+
+    @Test
+    public void testPostWithoutRoute() throws Exception {
+        prepareServer();
+        // The router returns null instead of an unbound route.
+
+        server.start();
+        waitForStart(server);
+
+        URL url = new URL("http://localhost:" + server.httpPort() + "/");
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setDoOutput(true);
+        connection.setRequestMethod("POST");
+        connection.getOutputStream().write("hello".getBytes(Charsets.UTF_8));
+        connection.getOutputStream().close();
+        assertThat(connection.getResponseCode()).isEqualTo(404);
+    }
+
+    @Test(timeout = 30000)
+    public void testTooLargeBodyIsRejectedFromTheContentLength() throws Exception {
+        Router router = prepareServer();
+        final AtomicBoolean invoked = new AtomicBoolean();
+
+        Controller controller = new DefaultController() {
+            @SuppressWarnings("unused")
+            public Result index() {
+                invoked.set(true);
+                return ok();
+            }
+        };
+        Route route = new RouteBuilder().route(HttpMethod.POST)
+                .on("/")
+                .to(controller, "index");
+        when(router.getRouteFor(anyString(), anyString(), any(Request.class))).thenReturn(route);
+
+        server.start();
+        waitForStart(server);
+
+        // Only the headers are sent, the response does not wait for the body.
+        try (Socket socket = new Socket("localhost", server.httpPort())) {
+            socket.setSoTimeout(10000);
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST / HTTP/1.1\r\n"
+                    + "Host: localhost\r\n"
+                    + "Content-Type: application/octet-stream\r\n"
+                    + "Content-Length: " + (200 * 1024) + "\r\n"
+                    + "\r\n").getBytes(Charsets.UTF_8));
+            out.flush();
+            String response = IOUtils.toString(socket.getInputStream(), "UTF-8");
+            assertThat(response).startsWith("HTTP/1.1 413");
+        }
+        assertThat(invoked.get()).isFalse();
+    }
+
+    @Test(timeout = 30000)
+    public void testExchangeListenersAreNotifiedOfRejectedRequests() throws Exception {
+        final AtomicInteger notifications = new AtomicInteger();
+        final AtomicReference<ExchangeTimings> timings = new AtomicReference<>();
+        final AtomicReference<Result> written = new AtomicReference<>();
+        ExchangeListener listener = new ExchangeListener() {
+            @Override
+            public void onExchangeCompleted(Context context, Result result, ExchangeTimings t) {
+                written.set(result);
+                timings.set(t);
+                notifications.incrementAndGet();
+            }
+        };
+        Router router = prepareServer(Collections.<ExceptionMapper>emptyList(),
+                Collections.singletonList(listener));
+
+        Controller controller = new DefaultController() {
+            @SuppressWarnings("unused")
+            public Result index() {
+                return ok();
+            }
+        };
+        Route route = new RouteBuilder().route(HttpMethod.POST)
+                .on("/")
+                .to(controller, "index");
+        when(router.getRouteFor(anyString(), anyString(), any(Request.class))).thenReturn(route);
+
+        server.start();
+        waitForStart(server);
+
+        try (Socket socket = new Socket("localhost", server.httpPort())) {
+            socket.setSoTimeout(10000);
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST / HTTP/1.1\r\n"
+                    + "Host: localhost\r\n"
+                    + "Content-Type: application/octet-stream\r\n"
+                    + "Content-Length: " + (200 * 1024) + "\r\n"
+                    + "\r\n").getBytes(Charsets.UTF_8));
+            out.flush();
+            String response = IOUtils.toString(socket.getInputStream(), "UTF-8");
+            assertThat(response).startsWith("HTTP/1.1 413");
+        }
+
+        // The action has not been invoked, but the listeners are notified once.
+        long deadline = System.currentTimeMillis() + 5000;
+        while (notifications.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        assertThat(notifications.get()).isEqualTo(1);
+        assertThat(written.get()).isNull();
+        assertThat(timings.get().getStatus()).isEqualTo(413);
+        assertThat(timings.get().getWriteTime()).isEqualTo(-1);
+    }
+
+    @Test(timeout = 30000)
+    public void testStreamingActionIgnoringTheBody() throws Exception {
+        Router router = prepareServer();
+
+        Controller controller = new DefaultController() {
+            @SuppressWarnings("unused")
+            public Result index() {
+                // The body is never read.
+                return ok("ignored");
+            }
+        };
+        Route route = new RouteBuilder().route(HttpMethod.POST)
+                .on("/")
+                .to(controller, "index")
+                .withStreamingBody();
+        when(router.getRouteFor(anyString(), anyString(), any(Request.class))).thenReturn(route);
+
+        server.start();
+        waitForStart(server);
+
+        // The body is large enough to pause the request. Once the response is sent, the rest of the body must be
+        // consumed, and the connection reused for the next request.
+        byte[] content = new byte[4 * RequestBodyStream.HIGH_WATERMARK];
+        try (Socket socket = new Socket("localhost", server.httpPort())) {
+            socket.setSoTimeout(10000);
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST / HTTP/1.1\r\n"
+                    + "Host: localhost\r\n"
+                    + "Content-Type: application/octet-stream\r\n"
+                    + "Content-Length: " + content.length + "\r\n"
+                    + "\r\n").getBytes(Charsets.UTF_8));
+            out.write(content);
+            out.write(("POST / HTTP/1.1\r\n"
+                    + "Host: localhost\r\n"
+                    + "Content-Length: 0\r\n"
+                    + "Connection: close\r\n"
+                    + "\r\n").getBytes(Charsets.UTF_8));
+            out.flush();
+            String response = IOUtils.toString(socket.getInputStream(), "UTF-8");
+            assertThat(response.split("HTTP/1.1 200")).hasSize(3);
+        }
+    }
+
     private Router prepareServer() {
+        return prepareServer(Collections.<ExceptionMapper>emptyList());
+    }
+
+    private Router prepareServer(Collection<ExceptionMapper> mappers) {
+        return prepareServer(mappers, Collections.<ExchangeListener>emptyList());
+    }
+
+    private Router prepareServer(Collection<ExceptionMapper> mappers, Collection<ExchangeListener> listeners) {
         // Prepare the configuration
         ApplicationConfiguration configuration = mock(ApplicationConfiguration.class);
         when(configuration.getIntegerWithDefault(eq("vertx.http.port"), anyInt())).thenReturn(0);
@@ -159,9 +566,11 @@ public class VertxHttpServerTest extends VertxBaseTest {
                 configuration,
                 router,
                 getMockContentEngine(),
+                executor,
                 null,
-                null,
-                Collections.<ExceptionMapper>emptyList()
+                mappers,
+                Collections.<ManagedExecutorService>emptyList(),
+                listeners
         );
         server.vertx = vertx;
         return router;
@@ -0,0 +1,124 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.framework.vertx.cookies;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Before;
+import org.junit.Test;
+import org.wisdom.api.cookies.Cookie;
+import org.wisdom.api.crypto.Crypto;
+import org.wisdom.api.http.Context;
+import org.wisdom.api.http.Request;
+import org.wisdom.api.http.Result;
+import org.wisdom.api.http.Status;
+import org.wisdom.api.utils.CookieDataCodec;
+import org.wisdom.framework.vertx.EngineSettings;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks the lazy decoding of the session cookie and the cache of verified cookies.
+ */
+public class SessionCookieImplTest {
+
+    private Crypto crypto;
+    private Context context;
+    private String payload;
+
+    @Before
+    public void setUp() throws Exception {
+        payload = CookieDataCodec.encode(ImmutableMap.of("user", "wisdom",
+                "___TS", Long.toString(System.currentTimeMillis())));
+        crypto = mock(Crypto.class);
+        when(crypto.sign(payload)).thenReturn("signature");
+
+        Request request = mock(Request.class);
+        when(request.cookie("wisdom" + SessionCookieImpl.SESSION_SUFFIX)).thenReturn(
+                Cookie.builder("wisdom" + SessionCookieImpl.SESSION_SUFFIX, "signature-" + payload).build());
+        context = mock(Context.class);
+        when(context.request()).thenReturn(request);
+    }
+
+    @Test
+    public void testThatTheCookieIsDecodedOnFirstAccess() {
+        SessionCookieImpl session = new SessionCookieImpl(crypto, EngineSettings.DEFAULT);
+        session.init(context);
+        verify(crypto, never()).sign(anyString());
+        verify(context, never()).request();
+
+        assertThat(session.get("user")).isEqualTo("wisdom");
+        assertThat(session.getData()).containsKey("user");
+        verify(crypto, times(1)).sign(payload);
+    }
+
+    @Test
+    public void testThatVerifiedCookiesAreNotCheckedAgain() {
+        SessionCookieCache cache = new SessionCookieCache();
+        SessionCookieImpl session = new SessionCookieImpl(crypto, EngineSettings.DEFAULT, cache);
+        session.init(context);
+        assertThat(session.get("user")).isEqualTo("wisdom");
+
+        session = new SessionCookieImpl(crypto, EngineSettings.DEFAULT, cache);
+        session.init(context);
+        assertThat(session.get("user")).isEqualTo("wisdom");
+        verify(crypto, times(1)).sign(payload);
+    }
+
+    @Test
+    public void testThatAnExpiredSessionIsClearedEvenIfNotAccessed() throws Exception {
+        String expired = CookieDataCodec.encode(ImmutableMap.of("user", "wisdom", "___TS", "1000"));
+        when(crypto.sign(expired)).thenReturn("signature");
+        when(context.request().cookie("wisdom" + SessionCookieImpl.SESSION_SUFFIX)).thenReturn(
+                Cookie.builder("wisdom" + SessionCookieImpl.SESSION_SUFFIX, "signature-" + expired).build());
+        when(context.hasCookie("wisdom" + SessionCookieImpl.SESSION_SUFFIX)).thenReturn(true);
+
+        SessionCookieImpl session = new SessionCookieImpl(crypto, EngineSettings.DEFAULT);
+        session.init(context);
+        Result result = new Result(Status.OK);
+        session.save(context, result);
+
+        assertThat(result.getCookies()).hasSize(1);
+        assertThat(result.getCookies().get(0).value()).isEmpty();
+        assertThat(result.getCookies().get(0).maxAge()).isEqualTo(0);
+    }
+
+    @Test
+    public void testThatAValidSessionIsNotDecodedOnSaveIfNotAccessed() {
+        SessionCookieImpl session = new SessionCookieImpl(crypto, EngineSettings.DEFAULT);
+        session.init(context);
+        Result result = new Result(Status.OK);
+        session.save(context, result);
+
+        assertThat(result.getCookies()).isEmpty();
+        verify(crypto, never()).sign(anyString());
+    }
+
+    @Test
+    public void testThatInvalidCookiesAreNotCached() {
+        when(crypto.sign(payload)).thenReturn("another");
+        SessionCookieCache cache = new SessionCookieCache();
+        SessionCookieImpl session = new SessionCookieImpl(crypto, EngineSettings.DEFAULT, cache);
+        session.init(context);
+        assertThat(session.get("user")).isNull();
+        assertThat(cache.get("signature-" + payload)).isNull();
+    }
+}
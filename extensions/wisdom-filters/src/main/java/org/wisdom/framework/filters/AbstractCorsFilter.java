@@ -43,6 +43,8 @@ import static org.wisdom.api.http.HeaderNames.*;
  */
 public abstract class AbstractCorsFilter implements Filter {
 
+    private static final Pattern ALL = Pattern.compile(".*");
+
     private final Router router;
 
     /**
@@ -164,7 +166,7 @@ public abstract class AbstractCorsFilter implements Filter {
      * @return {@code .*}
      */
     public Pattern uri() {
-        return Pattern.compile(".*");
+        return ALL;
     }
 
     /**
@@ -62,6 +62,11 @@ public class RedirectFilter implements Filter {
     private String redirectTo;
     private String prefix;
 
+    /**
+     * The pattern returned by {@link #uri()}, compiled on first access.
+     */
+    private Pattern uriPattern;
+
     /**
      * Default constructor, not configuration.
      */
@@ -170,7 +175,10 @@ public class RedirectFilter implements Filter {
      */
     @Override
     public Pattern uri() {
-        return Pattern.compile(getPrefix() + ".*");
+        if (uriPattern == null) {
+            uriPattern = Pattern.compile(getPrefix() + ".*");
+        }
+        return uriPattern;
     }
 
     /**
@@ -43,6 +43,7 @@ import org.wisdom.api.annotations.View;
 import org.wisdom.api.concurrent.ManagedScheduledExecutorService;
 import org.wisdom.api.configuration.ApplicationConfiguration;
 import org.wisdom.api.content.Json;
+import org.wisdom.api.engine.DispatchStatistics;
 import org.wisdom.api.http.HttpMethod;
 import org.wisdom.api.http.Result;
 import org.wisdom.api.http.websockets.Publisher;
@@ -55,7 +56,11 @@ import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.ScheduledExecutorService;
@@ -87,12 +92,28 @@ public class DashboardExtension extends DefaultController implements MonitorExte
     @Requires(specification = HealthCheck.class, optional = true)
     List<HealthCheck> healthChecks;
 
+    @Requires(optional = true, proxy = false, nullable = false)
+    DispatchStatistics dispatch;
+
     @View("monitor/dashboard")
     Template monitor;
 
     @Context
     BundleContext bc;
 
+    /**
+     * Excludes the per-route and per-stage metrics from the raw metrics sent to the dashboard, they are sent as
+     * compact summaries.
+     */
+    private static final MetricFilter GLOBAL_METRICS = new MetricFilter() {
+        @Override
+        public boolean matches(String name, Metric metric) {
+            return !name.startsWith(RouteMetrics.PREFIX + ".") && !name.startsWith("http.stages.");
+        }
+    };
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
     final MetricRegistry registry;
 
     private ScheduledFuture task;
@@ -125,6 +146,25 @@ public class DashboardExtension extends DefaultController implements MonitorExte
             httpMetricFilter.start();
         }
 
+        logger().info("Registering event loop metrics");
+        registry.register("dispatch.eventLoopTime", new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                DispatchStatistics statistics = dispatch;
+                return statistics == null ? 0L : statistics.getEventLoopTime();
+            }
+        });
+        registry.register("dispatch.slowInvocations", new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                long slow = 0;
+                for (Map<String, Object> action : getEventLoopStatistics().values()) {
+                    slow += ((Number) action.get("slow")).longValue();
+                }
+                return slow;
+            }
+        });
+
         if (configuration.getBooleanWithDefault("monitor.jmx.enabled", true)) {
             logger().info("Initializing Metrics JMX reporting");
             final JmxReporter jmxReporter = JmxReporter.forRegistry(registry).build();
@@ -181,14 +221,106 @@ public class DashboardExtension extends DefaultController implements MonitorExte
         return ImmutableMap.<String, Object>builder()
                 .put("gauges", registry.getGauges())
                 .put("activeRequests", active)
-                .put("timers", registry.getTimers())
-                .put("counters", registry.getCounters())
-                .put("meters", registry.getMeters())
-                .put("histograms", registry.getHistograms())
+                .put("timers", registry.getTimers(GLOBAL_METRICS))
+                .put("counters", registry.getCounters(GLOBAL_METRICS))
+                .put("meters", registry.getMeters(GLOBAL_METRICS))
+                .put("histograms", registry.getHistograms(GLOBAL_METRICS))
+                .put("stages", getStages())
+                .put("routes", getRoutes())
+                .put("dispatch", getDispatch())
                 .put("health", getHealth())
                 .build();
     }
 
+    /**
+     * @return the latency summary of each stage of the request processing.
+     */
+    private Map<String, Map<String, Object>> getStages() {
+        Map<String, Map<String, Object>> stages = new LinkedHashMap<>();
+        if (httpMetricFilter != null) {
+            for (Map.Entry<String, Timer> entry : httpMetricFilter.getStageTimers().entrySet()) {
+                stages.put(entry.getKey(), summary(entry.getValue()).build());
+            }
+        }
+        return stages;
+    }
+
+    /**
+     * @return the summary of the routes having received requests.
+     */
+    private List<Map<String, Object>> getRoutes() {
+        List<Map<String, Object>> routes = new ArrayList<>();
+        if (httpMetricFilter == null) {
+            return routes;
+        }
+        for (RouteMetrics metrics : httpMetricFilter.getRouteMetrics()) {
+            if (metrics.getLatency().getCount() == 0 && metrics.getInFlight().getCount() == 0) {
+                continue;
+            }
+            ImmutableMap.Builder<String, Object> builder = summary(metrics.getLatency());
+            if (metrics.getMethod() != null) {
+                builder.put("method", metrics.getMethod());
+            }
+            routes.add(builder
+                    .put("url", metrics.getUrl())
+                    .put("rate", metrics.getLatency().getOneMinuteRate())
+                    .put("inFlight", metrics.getInFlight().getCount())
+                    .put("errors", metrics.getErrors().getCount())
+                    .put("errorRate", metrics.getErrors().getOneMinuteRate())
+                    .put("requestBytes", metrics.getRequestBytes().getCount())
+                    .put("responseBytes", metrics.getResponseBytes().getCount())
+                    .build());
+        }
+        return routes;
+    }
+
+    /**
+     * @return the statistics of the actions invoked on the event loop, durations are in milliseconds.
+     */
+    private List<Map<String, Object>> getDispatch() {
+        List<Map<String, Object>> actions = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> entry : getEventLoopStatistics().entrySet()) {
+            Map<String, Object> stats = entry.getValue();
+            long invocations = ((Number) stats.get("invocations")).longValue();
+            double time = ((Number) stats.get("time")).longValue() / NANOS_PER_MILLI;
+            actions.add(ImmutableMap.<String, Object>builder()
+                    .put("action", entry.getKey())
+                    .put("policy", String.valueOf(stats.get("policy")))
+                    .put("invocations", invocations)
+                    .put("time", time)
+                    .put("mean", invocations == 0 ? 0.0 : time / invocations)
+                    .put("max", ((Number) stats.get("max")).longValue() / NANOS_PER_MILLI)
+                    .put("slow", stats.get("slow"))
+                    .build());
+        }
+        return actions;
+    }
+
+    private Map<String, Map<String, Object>> getEventLoopStatistics() {
+        DispatchStatistics statistics = dispatch;
+        if (statistics == null) {
+            return Collections.emptyMap();
+        }
+        return statistics.getEventLoopStatistics();
+    }
+
+    /**
+     * Computes the latency summary of a timer, durations are in milliseconds.
+     *
+     * @param timer the timer
+     * @return the builder containing the summary, so more entries can be added
+     */
+    private static ImmutableMap.Builder<String, Object> summary(Timer timer) {
+        Snapshot snapshot = timer.getSnapshot();
+        return ImmutableMap.<String, Object>builder()
+                .put("count", timer.getCount())
+                .put("mean", snapshot.getMean() / NANOS_PER_MILLI)
+                .put("p50", snapshot.getMedian() / NANOS_PER_MILLI)
+                .put("p99", snapshot.get99thPercentile() / NANOS_PER_MILLI)
+                .put("p999", snapshot.get999thPercentile() / NANOS_PER_MILLI)
+                .put("max", snapshot.getMax() / NANOS_PER_MILLI);
+    }
+
     /**
      * @return the map name - heath check of all health sensors.
      */
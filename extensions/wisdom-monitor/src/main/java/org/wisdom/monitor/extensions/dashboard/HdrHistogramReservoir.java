@@ -0,0 +1,244 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.monitor.extensions.dashboard;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Reservoir} backed by HdrHistogram. Unlike the sampling reservoirs of Metrics, every value is recorded,
+ * so high percentiles (99.9%) remain accurate, with a constant memory footprint and no lock on the recording path.
+ * <p>
+ * The reservoir is meant to record durations in nanoseconds (as done by {@link com.codahale.metrics.Timer}). Values
+ * are stored with a microsecond resolution and two significant digits (1% precision). The snapshots cover the values
+ * recorded during the last one to two windows: two histograms are kept, the current one and the one of the
+ * previous window, and they are swapped when the window elapses.
+ */
+public final class HdrHistogramReservoir implements Reservoir {
+
+    /**
+     * The number of significant digits kept by the histograms.
+     */
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    /**
+     * The default window, 1 minute.
+     */
+    public static final long DEFAULT_WINDOW = TimeUnit.MINUTES.toNanos(1);
+
+    private static final long NANOS_PER_UNIT = TimeUnit.MICROSECONDS.toNanos(1);
+
+    private final Clock clock;
+    private final long window;
+
+    /**
+     * The histogram receiving the values, swapped when the window elapses.
+     */
+    private volatile ConcurrentHistogram current = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    /**
+     * The histogram of the previous window, guarded by {@code this}.
+     */
+    private ConcurrentHistogram previous = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private volatile long nextRotation;
+
+    /**
+     * Creates a reservoir using the default window.
+     */
+    public HdrHistogramReservoir() {
+        this(DEFAULT_WINDOW, Clock.defaultClock());
+    }
+
+    /**
+     * Creates a reservoir.
+     *
+     * @param window the window in nanoseconds
+     * @param clock  the clock
+     */
+    public HdrHistogramReservoir(long window, Clock clock) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("The window must be strictly positive");
+        }
+        this.window = window;
+        this.clock = clock;
+        this.nextRotation = clock.getTick() + window;
+    }
+
+    /**
+     * @return the number of values recorded during the last one to two windows.
+     */
+    @Override
+    public int size() {
+        return getSnapshot().size();
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value the value, a duration in nanoseconds
+     */
+    @Override
+    public void update(long value) {
+        if (clock.getTick() - nextRotation >= 0) {
+            rotate();
+        }
+        current.recordValue(Math.max(0, value / NANOS_PER_UNIT));
+    }
+
+    /**
+     * Gets a snapshot of the values recorded during the last one to two windows.
+     *
+     * @return the snapshot
+     */
+    @Override
+    public synchronized Snapshot getSnapshot() {
+        rotate();
+        Histogram merged = previous.copy();
+        merged.add(current.copy());
+        return new HdrSnapshot(merged);
+    }
+
+    /**
+     * Swaps the histograms if the window has elapsed. The histogram of the previous window is recycled, it is not
+     * written anymore.
+     */
+    private synchronized void rotate() {
+        long now = clock.getTick();
+        if (now - nextRotation < 0) {
+            return;
+        }
+        if (now - nextRotation >= window) {
+            // Nothing has been recorded for more than a window, all the values are outdated.
+            previous.reset();
+            current = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        } else {
+            ConcurrentHistogram recycled = previous;
+            recycled.reset();
+            previous = current;
+            current = recycled;
+        }
+        nextRotation = now + window;
+    }
+
+    /**
+     * A snapshot computed from a histogram. The values are converted back to nanoseconds.
+     */
+    private static final class HdrSnapshot extends Snapshot {
+
+        private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+        private final Histogram histogram;
+
+        private HdrSnapshot(Histogram histogram) {
+            super(new long[0]);
+            this.histogram = histogram;
+        }
+
+        @Override
+        public double getValue(double quantile) {
+            if (quantile < 0.0 || quantile > 1.0 || Double.isNaN(quantile)) {
+                throw new IllegalArgumentException(quantile + " is not in [0..1]");
+            }
+            if (histogram.getTotalCount() == 0) {
+                return 0.0;
+            }
+            return histogram.getValueAtPercentile(quantile * 100.0) * NANOS_PER_UNIT;
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(histogram.getTotalCount(), Integer.MAX_VALUE);
+        }
+
+        /**
+         * The histogram does not keep the individual values. This method returns the distinct recorded values, at
+         * the resolution of the histogram.
+         *
+         * @return the distinct values, in ascending order
+         */
+        @Override
+        public long[] getValues() {
+            List<Long> values = new ArrayList<>();
+            for (HistogramIterationValue value : histogram.recordedValues()) {
+                values.add(histogram.highestEquivalentValue(value.getValueIteratedTo()) * NANOS_PER_UNIT);
+            }
+            long[] array = new long[values.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = values.get(i);
+            }
+            return array;
+        }
+
+        @Override
+        public long getMax() {
+            if (histogram.getTotalCount() == 0) {
+                return 0;
+            }
+            return histogram.getMaxValue() * NANOS_PER_UNIT;
+        }
+
+        @Override
+        public double getMean() {
+            if (histogram.getTotalCount() == 0) {
+                return 0.0;
+            }
+            return histogram.getMean() * NANOS_PER_UNIT;
+        }
+
+        @Override
+        public long getMin() {
+            if (histogram.getTotalCount() == 0) {
+                return 0;
+            }
+            return histogram.getMinValue() * NANOS_PER_UNIT;
+        }
+
+        @Override
+        public double getStdDev() {
+            if (histogram.getTotalCount() <= 1) {
+                return 0.0;
+            }
+            return histogram.getStdDeviation() * NANOS_PER_UNIT;
+        }
+
+        @Override
+        public void dump(OutputStream output) {
+            final PrintWriter out = new PrintWriter(new OutputStreamWriter(output, UTF_8));
+            try {
+                for (long value : getValues()) {
+                    out.printf("%d%n", value);
+                }
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
@@ -19,34 +19,69 @@
  */
 package org.wisdom.monitor.extensions.dashboard;
 
+import com.codahale.metrics.Clock;
 import com.codahale.metrics.Counter;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceRegistration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.wisdom.api.configuration.ApplicationConfiguration;
+import org.wisdom.api.http.Context;
+import org.wisdom.api.http.ExchangeListener;
+import org.wisdom.api.http.ExchangeTimings;
+import org.wisdom.api.http.HeaderNames;
+import org.wisdom.api.http.Request;
 import org.wisdom.api.http.Result;
 import org.wisdom.api.http.Status;
 import org.wisdom.api.interception.Filter;
 import org.wisdom.api.interception.RequestContext;
 import org.wisdom.api.router.Route;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 /**
  * A class exposing a HTTP Request filter to compute HTTP metrics.
+ * <p>
+ * In addition to the global metrics, it computes per-route metrics (see {@link RouteMetrics}). Routes are
+ * identified by their HTTP method and url template, so the number of metrics does not depend on the requested urls:
+ * the requests not matching any route are gathered in the {@code unmatched} bucket, and once
+ * {@code monitor.http.routes.max} routes are monitored, the other routes are gathered in the {@code others} bucket.
+ * <p>
+ * The filter is also notified by the engine once the responses are written, to record the latency, the response
+ * size, the errors, and the time spent in each stage of the request processing (routing, parameter binding, action,
+ * serialization and write) under {@code http.stages.*}. The latency is measured from the filter invocation to the
+ * end of the write, so asynchronous results are measured until they are sent. Requests not matching any route do
+ * not go through the filters, they are only recorded (in the {@code unmatched} bucket) once written, their latency
+ * being the time spent in the stages executed by the engine.
  */
-public class HttpMetricFilter implements Filter, Status {
+public class HttpMetricFilter implements Filter, Status, ExchangeListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpMetricFilter.class);
+
+    /**
+     * The key under which the metrics of the route are stored in the request scope, so they are updated once the
+     * response is written.
+     */
+    private static final String ROUTE_METRICS = RouteMetrics.class.getName();
+
+    /**
+     * The key under which the time (from {@link System#nanoTime()}) at which the filter has been invoked is stored
+     * in the request scope.
+     */
+    private static final String REQUEST_START = HttpMetricFilter.class.getName() + ".start";
 
     private final BundleContext context;
+    private final MetricRegistry registry;
     private final Pattern interceptionPattern;
     private final Integer interceptionPriority;
-    private ServiceRegistration<Filter> reg;
+    private ServiceRegistration<?> reg;
 
     // initialized after call of init method
     private ConcurrentMap<Integer, Meter> metersByStatusCode;
@@ -54,6 +89,27 @@ public class HttpMetricFilter implements Filter, Status {
     private Counter activeRequests;
     private Timer requestTimer;
 
+    private final Timer routingTimer;
+    private final Timer bindingTimer;
+    private final Timer actionTimer;
+    private final Timer serializationTimer;
+    private final Timer writeTimer;
+
+    private final boolean perRoute;
+    private final int maxRoutes;
+    private final long window;
+    /**
+     * The metrics of the routes, keyed by {@literal METHOD url}. The routes exceeding the maximum are mapped to the
+     * {@link #others} bucket.
+     */
+    private final ConcurrentMap<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+    private final RouteMetrics unmatched;
+    private final RouteMetrics others;
+    /**
+     * The number of routes having their own metrics, guarded by {@code this}.
+     */
+    private int monitoredRoutes;
+
 
     /**
      * Creates a new instance of the filter.
@@ -65,6 +121,7 @@ public class HttpMetricFilter implements Filter, Status {
     public HttpMetricFilter(BundleContext context, ApplicationConfiguration configuration,
                             MetricRegistry registry) {
         this.context = context;
+        this.registry = registry;
         Map<Integer, String> meterNamesByStatusCode = createMeterNamesByStatusCode();
         this.interceptionPattern = Pattern.compile(configuration.getWithDefault("monitor.http.interception", ".*"));
         this.interceptionPriority = configuration.getIntegerWithDefault("monitor.http.priority", 10000);
@@ -77,6 +134,24 @@ public class HttpMetricFilter implements Filter, Status {
         this.otherMeter = registry.meter("http.responseCodes.others");
         this.activeRequests = registry.counter("http.activeRequests");
         this.requestTimer = registry.timer("http.requests");
+
+        this.window = configuration.getDuration("monitor.http.histogram.window", TimeUnit.NANOSECONDS,
+                HdrHistogramReservoir.DEFAULT_WINDOW);
+        this.routingTimer = createStageTimer("routing");
+        this.bindingTimer = createStageTimer("binding");
+        this.actionTimer = createStageTimer("action");
+        this.serializationTimer = createStageTimer("serialization");
+        this.writeTimer = createStageTimer("write");
+
+        this.perRoute = configuration.getBooleanWithDefault("monitor.http.routes.enabled", true);
+        this.maxRoutes = configuration.getIntegerWithDefault("monitor.http.routes.max", 1000);
+        if (perRoute) {
+            this.unmatched = new RouteMetrics(registry, null, "unmatched", window);
+            this.others = new RouteMetrics(registry, null, "others", window);
+        } else {
+            this.unmatched = null;
+            this.others = null;
+        }
     }
 
     private static Map<Integer, String> createMeterNamesByStatusCode() {
@@ -89,11 +164,17 @@ public class HttpMetricFilter implements Filter, Status {
         return meterNamesByStatusCode;
     }
 
+    private Timer createStageTimer(String stage) {
+        return registry.register(MetricRegistry.name("http.stages", stage),
+                new Timer(new HdrHistogramReservoir(window, Clock.defaultClock())));
+    }
+
     /**
-     * Starts the filter.
+     * Starts the filter. It is registered as {@link Filter} and {@link ExchangeListener}.
      */
     public void start() {
-        reg = context.registerService(Filter.class, this, null);
+        reg = context.registerService(new String[]{Filter.class.getName(), ExchangeListener.class.getName()},
+                this, null);
     }
 
 
@@ -119,25 +200,53 @@ public class HttpMetricFilter implements Filter, Status {
      */
     @Override
     public Result call(Route route, RequestContext context) throws Exception {
+        final RouteMetrics metrics = getRouteMetrics(route);
+        final long start = System.nanoTime();
         activeRequests.inc();
-        final Timer.Context ctxt = requestTimer.time();
+        if (metrics != null) {
+            metrics.getInFlight().inc();
+        }
+        Request request = context.request();
+        if (request != null) {
+            // The request is completed once the response is written, see onExchangeCompleted.
+            if (metrics != null) {
+                markRequestBytes(metrics, request);
+                request.data().put(ROUTE_METRICS, metrics);
+            }
+            request.data().put(REQUEST_START, start);
+            return context.proceed();
+        }
+
+        // Without request, the engine cannot notify the completion, so only the invocation is measured.
         Result result = null;
         try {
             result = context.proceed();
             return result;
         } finally {
-            ctxt.stop();
-            activeRequests.dec();
-            markMeterForStatusCode(result);
+            completed(metrics, start, result == null ? -1 : result.getStatusCode());
         }
     }
 
-    private void markMeterForStatusCode(Result result) {
-        if (result == null) {
-            otherMeter.mark();
-            return;
+    /**
+     * Records the latency and the status of a request that has been through the filter.
+     *
+     * @param metrics the metrics of the route, {@literal null} if the per-route metrics are disabled
+     * @param start   the time at which the filter has been invoked
+     * @param status  the status code, {@literal -1} if unknown
+     */
+    private void completed(RouteMetrics metrics, long start, int status) {
+        long elapsed = System.nanoTime() - start;
+        requestTimer.update(elapsed, TimeUnit.NANOSECONDS);
+        activeRequests.dec();
+        if (metrics != null) {
+            metrics.getLatency().update(elapsed, TimeUnit.NANOSECONDS);
+            metrics.getInFlight().dec();
         }
-        final Meter metric = metersByStatusCode.get(result.getStatusCode());
+        markMeterForStatusCode(status);
+    }
+
+    private void markMeterForStatusCode(int status) {
+        final Meter metric = metersByStatusCode.get(status);
         if (metric != null) {
             metric.mark();
         } else {
@@ -145,6 +254,145 @@ public class HttpMetricFilter implements Filter, Status {
         }
     }
 
+    private static void markRequestBytes(RouteMetrics metrics, Request request) {
+        String length = request.getHeader(HeaderNames.CONTENT_LENGTH);
+        if (length != null) {
+            try {
+                metrics.getRequestBytes().mark(Long.parseLong(length.trim()));
+            } catch (NumberFormatException e) { //NOSONAR
+                // Ignore invalid lengths.
+            }
+        }
+    }
+
+    /**
+     * Gets the metrics of the given route, creating them on the first request.
+     *
+     * @param route the route
+     * @return the metrics, {@literal null} if the per-route metrics are disabled
+     */
+    RouteMetrics getRouteMetrics(Route route) {
+        if (!perRoute) {
+            return null;
+        }
+        if (route == null || route.isUnbound() || route.getHttpMethod() == null) {
+            return unmatched;
+        }
+        String key = route.getHttpMethod().name() + " " + route.getUrl();
+        RouteMetrics metrics = routes.get(key);
+        if (metrics == null) {
+            metrics = createRouteMetrics(route, key);
+        }
+        return metrics;
+    }
+
+    private synchronized RouteMetrics createRouteMetrics(Route route, String key) {
+        RouteMetrics metrics = routes.get(key);
+        if (metrics != null) {
+            return metrics;
+        }
+        if (monitoredRoutes >= maxRoutes) {
+            if (monitoredRoutes == maxRoutes) {
+                LOGGER.warn("More than {} routes are monitored, the metrics of the other routes are gathered in " +
+                        "'{}'", maxRoutes, others.getName());
+                monitoredRoutes++;
+            }
+            metrics = others;
+        } else {
+            metrics = new RouteMetrics(registry, route.getHttpMethod().name(), route.getUrl(), window);
+            monitoredRoutes++;
+        }
+        routes.put(key, metrics);
+        return metrics;
+    }
+
+    /**
+     * @return the metrics of the monitored routes, including the {@code unmatched} and {@code others} buckets.
+     * The returned collection is empty if the per-route metrics are disabled.
+     */
+    public Collection<RouteMetrics> getRouteMetrics() {
+        if (!perRoute) {
+            return Collections.emptyList();
+        }
+        Set<RouteMetrics> set = Collections.newSetFromMap(new IdentityHashMap<RouteMetrics, Boolean>());
+        set.addAll(routes.values());
+        set.add(unmatched);
+        set.add(others);
+        return set;
+    }
+
+    /**
+     * @return the timers measuring the stages of the request processing, keyed by stage name.
+     */
+    public Map<String, Timer> getStageTimers() {
+        Map<String, Timer> map = new LinkedHashMap<>();
+        map.put("routing", routingTimer);
+        map.put("binding", bindingTimer);
+        map.put("action", actionTimer);
+        map.put("serialization", serializationTimer);
+        map.put("write", writeTimer);
+        return map;
+    }
+
+    /**
+     * Records the latency, the stage timings, the response size and the errors once the response is written.
+     *
+     * @param context the context of the request
+     * @param result  the written result
+     * @param timings the status, size and stage timings of the exchange
+     */
+    @Override
+    public void onExchangeCompleted(Context context, Result result, ExchangeTimings timings) {
+        record(routingTimer, timings.getRoutingTime());
+        record(bindingTimer, timings.getBindingTime());
+        record(actionTimer, timings.getActionTime());
+        record(serializationTimer, timings.getSerializationTime());
+        record(writeTimer, timings.getWriteTime());
+
+        Request request = context.request();
+        Map<String, Object> data = request == null ? null : request.data();
+        Object start = data == null ? null : data.remove(REQUEST_START);
+        RouteMetrics route = null;
+        if (start instanceof Long) {
+            Object metrics = data.get(ROUTE_METRICS);
+            route = metrics instanceof RouteMetrics ? (RouteMetrics) metrics : null;
+            completed(route, (Long) start, timings.getStatus());
+        } else if (perRoute && (context.route() == null || context.route().isUnbound())) {
+            // Unbound routes are answered without going through the filters.
+            route = unmatched;
+            route.getLatency().update(getEngineTime(timings), TimeUnit.NANOSECONDS);
+        }
+
+        if (route != null) {
+            if (timings.getBytes() > 0) {
+                route.getResponseBytes().mark(timings.getBytes());
+            }
+            if (timings.getStatus() >= INTERNAL_SERVER_ERROR) {
+                route.getErrors().mark();
+            }
+        }
+    }
+
+    /**
+     * @return the sum of the measured stages.
+     */
+    private static long getEngineTime(ExchangeTimings timings) {
+        long time = 0;
+        for (long stage : new long[]{timings.getRoutingTime(), timings.getBindingTime(), timings.getActionTime(),
+                timings.getSerializationTime(), timings.getWriteTime()}) {
+            if (stage > 0) {
+                time += stage;
+            }
+        }
+        return time;
+    }
+
+    private static void record(Timer timer, long time) {
+        if (time >= 0) {
+            timer.update(time, TimeUnit.NANOSECONDS);
+        }
+    }
+
     /**
      * Gets the Regex Pattern used to determine whether the route is handled by the filter or not.
      * Notice that the router are caching these patterns and so cannot changed.
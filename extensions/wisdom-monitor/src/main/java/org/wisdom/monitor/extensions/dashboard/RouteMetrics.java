@@ -0,0 +1,131 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.monitor.extensions.dashboard;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+/**
+ * The metrics of a route, identified by its HTTP method and url template. Two additional buckets gather the
+ * requests that do not match any route and the routes exceeding the maximum number of monitored routes.
+ * <p>
+ * The metrics are registered in the registry under {@code http.routes.<method>.<url>}:
+ * <ul>
+ * <li>{@code latency}: the time spent in the filters, interceptors and action (HdrHistogram-backed timer)</li>
+ * <li>{@code inFlight}: the number of requests being processed</li>
+ * <li>{@code requestBytes} and {@code responseBytes}: the size of the request and response bodies</li>
+ * <li>{@code errors}: the responses with a 5xx status</li>
+ * </ul>
+ */
+public final class RouteMetrics {
+
+    /**
+     * The prefix of the name of the route metrics.
+     */
+    public static final String PREFIX = "http.routes";
+
+    private final String method;
+    private final String url;
+    private final String name;
+    private final Timer latency;
+    private final Counter inFlight;
+    private final Meter requestBytes;
+    private final Meter responseBytes;
+    private final Meter errors;
+
+    /**
+     * Creates the metrics of a route and registers them.
+     *
+     * @param registry the registry
+     * @param method   the HTTP method, {@literal null} for the buckets
+     * @param url      the url template, or the name of the bucket
+     * @param window   the window of the latency histogram, in nanoseconds
+     */
+    RouteMetrics(MetricRegistry registry, String method, String url, long window) {
+        this.method = method;
+        this.url = url;
+        this.name = method == null ? MetricRegistry.name(PREFIX, url) : MetricRegistry.name(PREFIX, method, url);
+        this.latency = registry.register(MetricRegistry.name(name, "latency"),
+                new Timer(new HdrHistogramReservoir(window, Clock.defaultClock())));
+        this.inFlight = registry.counter(MetricRegistry.name(name, "inFlight"));
+        this.requestBytes = registry.meter(MetricRegistry.name(name, "requestBytes"));
+        this.responseBytes = registry.meter(MetricRegistry.name(name, "responseBytes"));
+        this.errors = registry.meter(MetricRegistry.name(name, "errors"));
+    }
+
+    /**
+     * @return the HTTP method, {@literal null} for the buckets.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the url template of the route, or the name of the bucket.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return the prefix of the name of the metrics of the route.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the timer measuring the latency of the route.
+     */
+    public Timer getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return the number of requests being processed.
+     */
+    public Counter getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return the meter counting the bytes of the request bodies.
+     */
+    public Meter getRequestBytes() {
+        return requestBytes;
+    }
+
+    /**
+     * @return the meter counting the bytes of the response bodies.
+     */
+    public Meter getResponseBytes() {
+        return responseBytes;
+    }
+
+    /**
+     * @return the meter counting the responses with a 5xx status.
+     */
+    public Meter getErrors() {
+        return errors;
+    }
+}
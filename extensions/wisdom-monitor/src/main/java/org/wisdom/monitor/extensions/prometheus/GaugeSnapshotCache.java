@@ -0,0 +1,121 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.monitor.extensions.prometheus;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Caches the values of the gauges of a registry. Many gauges are costly to compute (the JVM thread gauges dump all
+ * the threads, the buffer pool gauges query the MBean server...), so when several collectors scrape the registry
+ * every few seconds, they share the same snapshot as long as it is not older than the time-to-live. A single
+ * thread refreshes an outdated snapshot, the others wait for it.
+ */
+public final class GaugeSnapshotCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GaugeSnapshotCache.class);
+
+    private final MetricRegistry registry;
+    private final long ttl;
+    private final Clock clock;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param registry the registry
+     * @param ttl      the time-to-live of the snapshots in nanoseconds, {@literal 0} to disable the cache
+     * @param clock    the clock
+     */
+    public GaugeSnapshotCache(MetricRegistry registry, long ttl, Clock clock) {
+        this.registry = registry;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Gets the gauge values, computing a new snapshot if the current one is outdated. Only numeric and boolean
+     * (converted to {@literal 0} or {@literal 1}) values are kept, the gauges failing to compute their value are
+     * ignored.
+     *
+     * @return the immutable map name - value, sorted by name
+     */
+    public SortedMap<String, Number> get() {
+        Snapshot current = snapshot;
+        if (current != null && clock.getTick() - current.tick < ttl) {
+            return current.values;
+        }
+        synchronized (this) {
+            current = snapshot;
+            long now = clock.getTick();
+            if (current == null || now - current.tick >= ttl) {
+                current = new Snapshot(now, read());
+                snapshot = current;
+            }
+            return current.values;
+        }
+    }
+
+    /**
+     * Drops the current snapshot.
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private SortedMap<String, Number> read() {
+        SortedMap<String, Number> values = new TreeMap<>();
+        for (Map.Entry<String, Gauge> entry : registry.getGauges().entrySet()) {
+            Object value;
+            try {
+                value = entry.getValue().getValue();
+            } catch (RuntimeException e) { //NOSONAR
+                LOGGER.debug("Cannot compute the value of the gauge {}", entry.getKey(), e);
+                continue;
+            }
+            if (value instanceof Number) {
+                values.put(entry.getKey(), (Number) value);
+            } else if (value instanceof Boolean) {
+                values.put(entry.getKey(), (Boolean) value ? 1 : 0);
+            }
+        }
+        return Collections.unmodifiableSortedMap(values);
+    }
+
+    private static final class Snapshot {
+        private final long tick;
+        private final SortedMap<String, Number> values;
+
+        private Snapshot(long tick, SortedMap<String, Number> values) {
+            this.tick = tick;
+            this.values = values;
+        }
+    }
+}
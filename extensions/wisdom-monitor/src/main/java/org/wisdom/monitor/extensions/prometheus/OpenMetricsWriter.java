@@ -0,0 +1,438 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.monitor.extensions.prometheus;
+
+import com.codahale.metrics.*;
+import org.wisdom.api.http.HttpMethod;
+import org.wisdom.monitor.extensions.dashboard.RouteMetrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes metrics in the OpenMetrics text format, or in the Prometheus text format (version 0.0.4), which only
+ * differs in the naming of the counters and the final {@literal # EOF} line. The metrics are written directly to
+ * the given writer.
+ * <p>
+ * Metric names are converted to valid OpenMetrics names (dots and other characters are replaced by underscores).
+ * The per-route and per-stage HTTP metrics are exported as labelled families ({@code http_route_*{method, route}}
+ * and {@code http_stage_duration_seconds{stage}}) instead of one family per route. The Metrics types are mapped as
+ * follows:
+ * <ul>
+ * <li>gauges and counters (which can be decremented) are exported as gauges</li>
+ * <li>meters are exported as counters ({@code _total})</li>
+ * <li>timers are exported as summaries in seconds ({@code _seconds}), histograms as summaries. Metrics does not
+ * keep the total of the recorded values, so the {@code _sum} sample is estimated from the count and the mean of
+ * the current snapshot</li>
+ * </ul>
+ * A name can only be used by one family: when several metrics are converted to the same name (such as
+ * {@code a.b} and {@code a_b}), or when a name collides with the samples of another family (such as a gauge named
+ * {@code x_count} and a summary named {@code x}), only the first one is written, in the order gauges, counters,
+ * meters, timers and histograms.
+ */
+public final class OpenMetricsWriter {
+
+    /**
+     * The content type of the OpenMetrics text format.
+     */
+    public static final String OPENMETRICS_CONTENT_TYPE =
+            "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    /**
+     * The content type of the Prometheus text format.
+     */
+    public static final String TEXT_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.75, 0.95, 0.98, 0.99, 0.999};
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private static final String ROUTE_PREFIX = RouteMetrics.PREFIX + ".";
+    private static final String STAGE_PREFIX = "http.stages.";
+
+    private final Writer out;
+    private final boolean openMetrics;
+
+    /**
+     * The names of the families and samples already written.
+     */
+    private final Set<String> names = new HashSet<>();
+
+    /**
+     * Creates a new writer.
+     *
+     * @param out         the output
+     * @param openMetrics {@literal true} to use the OpenMetrics format, {@literal false} to use the Prometheus
+     *                    text format
+     */
+    public OpenMetricsWriter(Writer out, boolean openMetrics) {
+        this.out = out;
+        this.openMetrics = openMetrics;
+    }
+
+    /**
+     * Writes all the metrics of the registry. The gauge values are given separately, so they can be cached.
+     *
+     * @param registry the registry
+     * @param gauges   the gauge values
+     * @throws IOException if the metrics cannot be written
+     */
+    public void write(MetricRegistry registry, Map<String, Number> gauges) throws IOException {
+        writeGauges(gauges);
+        writeCounters(registry.getCounters());
+        writeMeters(registry.getMeters());
+        writeTimers(registry.getTimers());
+        writeHistograms(registry.getHistograms());
+        end();
+    }
+
+    /**
+     * Writes gauge values.
+     *
+     * @param gauges the values
+     * @throws IOException if the metrics cannot be written
+     */
+    public void writeGauges(Map<String, Number> gauges) throws IOException {
+        for (Map.Entry<String, List<Sample<Number>>> family : group(gauges, "").entrySet()) {
+            if (!reserve(family.getKey())) {
+                continue;
+            }
+            type(family.getKey(), "gauge");
+            for (Sample<Number> sample : family.getValue()) {
+                sample(family.getKey(), sample.labels, null, sample.metric);
+            }
+        }
+    }
+
+    /**
+     * Writes counters. As they can be decremented, they are exported as gauges.
+     *
+     * @param counters the counters
+     * @throws IOException if the metrics cannot be written
+     */
+    public void writeCounters(Map<String, Counter> counters) throws IOException {
+        for (Map.Entry<String, List<Sample<Counter>>> family : group(counters, "").entrySet()) {
+            if (!reserve(family.getKey())) {
+                continue;
+            }
+            type(family.getKey(), "gauge");
+            for (Sample<Counter> sample : family.getValue()) {
+                sample(family.getKey(), sample.labels, null, sample.metric.getCount());
+            }
+        }
+    }
+
+    /**
+     * Writes meters, as counters.
+     *
+     * @param meters the meters
+     * @throws IOException if the metrics cannot be written
+     */
+    public void writeMeters(Map<String, Meter> meters) throws IOException {
+        for (Map.Entry<String, List<Sample<Meter>>> family : group(meters, "").entrySet()) {
+            String name = family.getKey();
+            if (name.endsWith("_total")) {
+                name = name.substring(0, name.length() - "_total".length());
+            }
+            if (!reserve(name, "_total")) {
+                continue;
+            }
+            type(openMetrics ? name : name + "_total", "counter");
+            for (Sample<Meter> sample : family.getValue()) {
+                sample(name + "_total", sample.labels, null, sample.metric.getCount());
+            }
+        }
+    }
+
+    /**
+     * Writes timers, as summaries in seconds.
+     *
+     * @param timers the timers
+     * @throws IOException if the metrics cannot be written
+     */
+    public void writeTimers(Map<String, Timer> timers) throws IOException {
+        for (Map.Entry<String, List<Sample<Timer>>> family : group(timers, "_seconds").entrySet()) {
+            if (!reserve(family.getKey(), "_count", "_sum")) {
+                continue;
+            }
+            type(family.getKey(), "summary");
+            for (Sample<Timer> sample : family.getValue()) {
+                summary(family.getKey(), sample.labels, sample.metric.getSnapshot(), sample.metric.getCount(),
+                        NANOS_PER_SECOND);
+            }
+        }
+    }
+
+    /**
+     * Writes histograms, as summaries.
+     *
+     * @param histograms the histograms
+     * @throws IOException if the metrics cannot be written
+     */
+    public void writeHistograms(Map<String, Histogram> histograms) throws IOException {
+        for (Map.Entry<String, List<Sample<Histogram>>> family : group(histograms, "").entrySet()) {
+            if (!reserve(family.getKey(), "_count", "_sum")) {
+                continue;
+            }
+            type(family.getKey(), "summary");
+            for (Sample<Histogram> sample : family.getValue()) {
+                summary(family.getKey(), sample.labels, sample.metric.getSnapshot(), sample.metric.getCount(), 1.0);
+            }
+        }
+    }
+
+    /**
+     * Ends the exposition, and flushes the writer.
+     *
+     * @throws IOException if the writer cannot be flushed
+     */
+    public void end() throws IOException {
+        if (openMetrics) {
+            out.write("# EOF\n");
+        }
+        out.flush();
+    }
+
+    private void summary(String name, String labels, Snapshot snapshot, long count, double scale)
+            throws IOException {
+        for (double quantile : QUANTILES) {
+            sample(name, labels, "quantile=\"" + quantile + "\"", snapshot.getValue(quantile) / scale);
+        }
+        sample(name + "_count", labels, null, count);
+        sample(name + "_sum", labels, null, snapshot.getMean() * count / scale);
+    }
+
+    /**
+     * Reserves the name of a family, and the names of its samples.
+     *
+     * @param family   the family name
+     * @param suffixes the suffixes of the sample names
+     * @return {@literal true} if the names were free, {@literal false} if one of them is already used, in which case
+     * the family must not be written
+     */
+    private boolean reserve(String family, String... suffixes) {
+        if (names.contains(family)) {
+            return false;
+        }
+        for (String suffix : suffixes) {
+            if (names.contains(family + suffix)) {
+                return false;
+            }
+        }
+        names.add(family);
+        for (String suffix : suffixes) {
+            names.add(family + suffix);
+        }
+        return true;
+    }
+
+    private void type(String name, String type) throws IOException {
+        out.write("# TYPE ");
+        out.write(name);
+        out.write(' ');
+        out.write(type);
+        out.write('\n');
+    }
+
+    private void sample(String name, String labels, String extra, Number value) throws IOException {
+        out.write(name);
+        if (!labels.isEmpty() || extra != null) {
+            out.write('{');
+            out.write(labels);
+            if (extra != null) {
+                if (!labels.isEmpty()) {
+                    out.write(',');
+                }
+                out.write(extra);
+            }
+            out.write('}');
+        }
+        out.write(' ');
+        out.write(format(value));
+        out.write('\n');
+    }
+
+    /**
+     * Formats a value.
+     *
+     * @param value the value
+     * @return the formatted value
+     */
+    static String format(Number value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return Long.toString(value.longValue());
+        }
+        double d = value.doubleValue();
+        if (Double.isNaN(d)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(d)) {
+            return d > 0 ? "+Inf" : "-Inf";
+        }
+        return Double.toString(d);
+    }
+
+    /**
+     * Groups the metrics by family, as the samples of a family must be contiguous.
+     *
+     * @param metrics the metrics sorted by name
+     * @param unit    the unit suffix of the family names
+     * @param <T>     the type of metric
+     * @return the samples per family name, in the order of the first occurrence of each family
+     */
+    private static <T> Map<String, List<Sample<T>>> group(Map<String, T> metrics, String unit) {
+        Map<String, List<Sample<T>>> families = new LinkedHashMap<>();
+        for (Map.Entry<String, T> entry : metrics.entrySet()) {
+            String key = entry.getKey();
+            String family;
+            String labels;
+            if (key.startsWith(ROUTE_PREFIX) && key.lastIndexOf('.') > ROUTE_PREFIX.length()) {
+                // http.routes.<method>.<url>.<metric> or http.routes.<bucket>.<metric>
+                int last = key.lastIndexOf('.');
+                String route = key.substring(ROUTE_PREFIX.length(), last);
+                String method = getMethod(route);
+                if (method != null) {
+                    route = route.substring(method.length() + 1);
+                    labels = "method=\"" + method + "\",route=\"" + escape(route) + "\"";
+                } else {
+                    labels = "route=\"" + escape(route) + "\"";
+                }
+                family = "http_route_" + toSnakeCase(key.substring(last + 1));
+            } else if (key.startsWith(STAGE_PREFIX)) {
+                family = "http_stage_duration";
+                labels = "stage=\"" + escape(key.substring(STAGE_PREFIX.length())) + "\"";
+            } else {
+                family = sanitize(key);
+                labels = "";
+            }
+            family = family + unit;
+            List<Sample<T>> samples = families.get(family);
+            if (samples == null) {
+                samples = new ArrayList<>();
+                families.put(family, samples);
+            } else if (labels.isEmpty()) {
+                // Another metric has been converted to the same name, the sample would be duplicated.
+                continue;
+            }
+            samples.add(new Sample<>(labels, entry.getValue()));
+        }
+        return families;
+    }
+
+    private static String getMethod(String route) {
+        int index = route.indexOf('.');
+        if (index == -1) {
+            return null;
+        }
+        String method = route.substring(0, index);
+        for (HttpMethod m : HttpMethod.values()) {
+            if (m.name().equals(method)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Converts a Metrics name to a valid OpenMetrics name: characters other than letters, digits, underscores and
+     * colons are replaced by an underscore (consecutive underscores are merged), and names starting with a digit
+     * are prefixed by an underscore.
+     *
+     * @param name the name
+     * @return the converted name
+     */
+    static String sanitize(String name) {
+        StringBuilder builder = new StringBuilder(name.length() + 1);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == ':') {
+                builder.append(c);
+            } else if (builder.length() == 0 || builder.charAt(builder.length() - 1) != '_') {
+                builder.append('_');
+            }
+        }
+        if (builder.length() == 0 || builder.charAt(0) >= '0' && builder.charAt(0) <= '9') {
+            builder.insert(0, '_');
+        }
+        return builder.toString();
+    }
+
+    private static String toSnakeCase(String name) {
+        StringBuilder builder = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                builder.append('_').append(Character.toLowerCase(c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return sanitize(builder.toString());
+    }
+
+    /**
+     * Escapes a label value.
+     *
+     * @param value the value
+     * @return the escaped value
+     */
+    static String escape(String value) {
+        StringBuilder builder = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = null;
+            if (c == '\\') {
+                replacement = "\\\\";
+            } else if (c == '"') {
+                replacement = "\\\"";
+            } else if (c == '\n') {
+                replacement = "\\n";
+            }
+            if (replacement != null && builder == null) {
+                builder = new StringBuilder(value.length() + 8).append(value, 0, i);
+            }
+            if (builder != null) {
+                if (replacement != null) {
+                    builder.append(replacement);
+                } else {
+                    builder.append(c);
+                }
+            }
+        }
+        return builder == null ? value : builder.toString();
+    }
+
+    private static final class Sample<T> {
+        private final String labels;
+        private final T metric;
+
+        private Sample(String labels, T metric) {
+            this.labels = labels;
+            this.metric = metric;
+        }
+    }
+}
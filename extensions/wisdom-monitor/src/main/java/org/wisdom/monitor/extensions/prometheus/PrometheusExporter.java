@@ -0,0 +1,139 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.monitor.extensions.prometheus;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Charsets;
+import com.google.common.io.BaseEncoding;
+import org.apache.felix.ipojo.annotations.Requires;
+import org.apache.felix.ipojo.annotations.Validate;
+import org.wisdom.api.DefaultController;
+import org.wisdom.api.annotations.Controller;
+import org.wisdom.api.annotations.Dispatch;
+import org.wisdom.api.annotations.Route;
+import org.wisdom.api.bodies.RenderableBytes;
+import org.wisdom.api.configuration.ApplicationConfiguration;
+import org.wisdom.api.http.*;
+
+import java.io.*;
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exposes the metric registry to Prometheus-compatible collectors on {@literal /monitor/metrics}, in the
+ * OpenMetrics text format when the collector accepts it, and in the Prometheus text format otherwise.
+ * <p>
+ * The metrics are written directly in the response buffer, without intermediate JSON trees. The gauge values are
+ * cached for {@code monitor.prometheus.gauge-cache} (5 seconds by default), so several collectors scraping every
+ * few seconds do not recompute them on each scrape.
+ * <p>
+ * Collectors cannot use the login form of the monitor, so when {@code monitor.auth.enabled} is {@literal true}, the
+ * endpoint requires the monitor credentials using the HTTP Basic authentication. The endpoint can be disabled
+ * with {@code monitor.prometheus.enabled=false}.
+ */
+@Controller
+public class PrometheusExporter extends DefaultController {
+
+    private static final String OPENMETRICS_MIME_TYPE = "application/openmetrics-text";
+
+    @Requires
+    MetricRegistry registry;
+
+    @Requires
+    ApplicationConfiguration configuration;
+
+    private GaugeSnapshotCache gauges;
+    private boolean enabled;
+    private boolean authentication;
+    private byte[] credentials;
+
+    /**
+     * The size of the last response, used to size the buffer of the next one.
+     */
+    private volatile int lastSize = 8192;
+
+    /**
+     * Reads the configuration.
+     */
+    @Validate
+    public void start() {
+        enabled = configuration.getBooleanWithDefault("monitor.prometheus.enabled", true);
+        authentication = configuration.getBooleanWithDefault("monitor.auth.enabled", true);
+        if (authentication) {
+            credentials = (configuration.getOrDie("monitor.auth.username") + ":"
+                    + configuration.getOrDie("monitor.auth.password")).getBytes(Charsets.UTF_8);
+        }
+        gauges = new GaugeSnapshotCache(registry,
+                configuration.getDuration("monitor.prometheus.gauge-cache", TimeUnit.NANOSECONDS,
+                        TimeUnit.SECONDS.toNanos(5)),
+                Clock.defaultClock());
+    }
+
+    /**
+     * Writes the metrics.
+     *
+     * @return the metrics in the OpenMetrics or Prometheus text format
+     * @throws IOException if the metrics cannot be written
+     */
+    @Route(method = HttpMethod.GET, uri = "/monitor/metrics")
+    @Dispatch
+    public Result metrics() throws IOException {
+        if (!enabled) {
+            return notFound();
+        }
+        if (!isAuthorized(request().getHeader(HeaderNames.AUTHORIZATION))) {
+            return unauthorized().with(HeaderNames.WWW_AUTHENTICATE, "Basic realm=\"Wisdom Monitor\"");
+        }
+
+        String accept = request().getHeader(HeaderNames.ACCEPT);
+        boolean openMetrics = accept != null && accept.contains(OPENMETRICS_MIME_TYPE);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(lastSize);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(buffer, Charsets.UTF_8));
+        new OpenMetricsWriter(writer, openMetrics).write(registry, gauges.get());
+        lastSize = buffer.size();
+
+        String type = openMetrics ? OpenMetricsWriter.OPENMETRICS_CONTENT_TYPE : OpenMetricsWriter.TEXT_CONTENT_TYPE;
+        return ok(new RenderableBytes(buffer.toByteArray(), type)).with(HeaderNames.CACHE_CONTROL, "no-cache");
+    }
+
+    /**
+     * Checks the credentials sent by the collector.
+     *
+     * @param authorization the value of the {@literal Authorization} header
+     * @return {@literal true} if the authentication is disabled or the credentials are the monitor credentials.
+     */
+    boolean isAuthorized(String authorization) {
+        if (!authentication) {
+            return true;
+        }
+        if (authorization == null || !authorization.regionMatches(true, 0, "Basic ", 0, 6)) {
+            return false;
+        }
+        byte[] decoded;
+        try {
+            decoded = BaseEncoding.base64().decode(authorization.substring(6).trim());
+        } catch (IllegalArgumentException e) { //NOSONAR
+            return false;
+        }
+        // Constant time comparison.
+        return MessageDigest.isEqual(credentials, decoded);
+    }
+}
@@ -19,11 +19,20 @@
  */
 package org.wisdom.monitor.extensions.dashboard;
 
+import com.google.common.collect.ImmutableMap;
 import org.junit.Test;
 import org.osgi.framework.BundleContext;
 import org.wisdom.api.configuration.ApplicationConfiguration;
+import org.wisdom.api.engine.DispatchStatistics;
+import org.wisdom.monitor.service.HealthCheck;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -46,6 +55,10 @@ public class DashboardExtensionTest {
         // HTTP
         when(configuration.getWithDefault("monitor.http.interception", ".*")).thenReturn(".*");
         when(configuration.getIntegerWithDefault("monitor.http.priority", 10000)).thenReturn(10000);
+        when(configuration.getBooleanWithDefault("monitor.http.routes.enabled", true)).thenReturn(true);
+        when(configuration.getIntegerWithDefault("monitor.http.routes.max", 1000)).thenReturn(1000);
+        when(configuration.getDuration("monitor.http.histogram.window", TimeUnit.NANOSECONDS,
+                HdrHistogramReservoir.DEFAULT_WINDOW)).thenReturn(HdrHistogramReservoir.DEFAULT_WINDOW);
 
         BundleContext context = mock(BundleContext.class);
 
@@ -68,10 +81,57 @@ public class DashboardExtensionTest {
         assertThat(extension.registry.counter("http.activeRequests")).isNotNull();
         assertThat(extension.registry.meter("http.responseCodes.others")).isNotNull();
         assertThat(extension.registry.timer("http.requests")).isNotNull();
+        assertThat(extension.registry.getTimers()).containsKeys("http.stages.routing", "http.stages.write",
+                "http.routes.unmatched.latency", "http.routes.others.latency");
 
         extension.stop();
     }
 
+    @Test
+    public void testEventLoopStatistics() throws Exception {
+        Map<String, Object> action = new LinkedHashMap<>();
+        action.put("invocations", 2L);
+        action.put("time", 4000000L);
+        action.put("max", 3000000L);
+        action.put("slow", 1L);
+        action.put("policy", "event-loop");
+        DispatchStatistics statistics = mock(DispatchStatistics.class);
+        when(statistics.getEventLoopTime()).thenReturn(5000000L);
+        when(statistics.getEventLoopStatistics()).thenReturn(
+                ImmutableMap.<String, Map<String, Object>>of("org.acme.MyController.index", action));
+
+        DashboardExtension extension = new DashboardExtension();
+        extension.configuration = mock(ApplicationConfiguration.class);
+        extension.bc = mock(BundleContext.class);
+        extension.scheduler = mock(ScheduledExecutorService.class);
+        extension.healthChecks = Collections.<HealthCheck>emptyList();
+        extension.dispatch = statistics;
+        extension.start();
+        try {
+            assertThat(extension.registry.getGauges().get("dispatch.eventLoopTime").getValue()).isEqualTo(5000000L);
+            assertThat(extension.registry.getGauges().get("dispatch.slowInvocations").getValue()).isEqualTo(1L);
+
+            Map<?, ?> data = (Map<?, ?>) extension.metrics().getRenderable().content();
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> dispatch = (List<Map<String, Object>>) data.get("dispatch");
+            assertThat(dispatch).hasSize(1);
+            assertThat(dispatch.get(0))
+                    .containsEntry("action", "org.acme.MyController.index")
+                    .containsEntry("policy", "event-loop")
+                    .containsEntry("invocations", 2L)
+                    .containsEntry("time", 4.0)
+                    .containsEntry("mean", 2.0)
+                    .containsEntry("max", 3.0)
+                    .containsEntry("slow", 1L);
+
+            // The engine is gone.
+            extension.dispatch = null;
+            assertThat(extension.registry.getGauges().get("dispatch.eventLoopTime").getValue()).isEqualTo(0L);
+        } finally {
+            extension.stop();
+        }
+    }
+
     @Test
     public void testLabel() throws Exception {
         DashboardExtension extension = new DashboardExtension();
@@ -0,0 +1,94 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.monitor.extensions.dashboard;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Snapshot;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+public class HdrHistogramReservoirTest {
+
+    private long now;
+
+    private final Clock clock = new Clock() {
+        @Override
+        public long getTick() {
+            return now;
+        }
+    };
+
+    @Test
+    public void testPercentiles() {
+        HdrHistogramReservoir reservoir = new HdrHistogramReservoir(TimeUnit.SECONDS.toNanos(10), clock);
+        for (int i = 1; i <= 1000; i++) {
+            reservoir.update(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertThat(snapshot.size()).isEqualTo(1000);
+        // Two significant digits, so 1% precision.
+        assertThat(snapshot.getMedian()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500), offset(5e6));
+        assertThat(snapshot.get99thPercentile()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(990), offset(1e7));
+        assertThat(snapshot.get999thPercentile()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(999), offset(1e7));
+        assertThat((double) snapshot.getMax()).isEqualTo(TimeUnit.SECONDS.toNanos(1), offset(1e7));
+        assertThat((double) snapshot.getMin()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(1), offset(1e5));
+        assertThat(snapshot.getMean()).isEqualTo(TimeUnit.MICROSECONDS.toNanos(500500), offset(5e6));
+    }
+
+    @Test
+    public void testEmptySnapshot() {
+        Snapshot snapshot = new HdrHistogramReservoir(TimeUnit.SECONDS.toNanos(10), clock).getSnapshot();
+        assertThat(snapshot.size()).isEqualTo(0);
+        assertThat(snapshot.getMedian()).isEqualTo(0.0);
+        assertThat(snapshot.getMax()).isEqualTo(0);
+        assertThat(snapshot.getMean()).isEqualTo(0.0);
+        assertThat(snapshot.getValues()).isEmpty();
+    }
+
+    @Test
+    public void testWindows() {
+        HdrHistogramReservoir reservoir = new HdrHistogramReservoir(TimeUnit.SECONDS.toNanos(10), clock);
+        reservoir.update(1000);
+        reservoir.update(2000);
+        assertThat(reservoir.size()).isEqualTo(2);
+
+        // The values of the previous window are kept.
+        now = TimeUnit.SECONDS.toNanos(11);
+        reservoir.update(3000);
+        assertThat(reservoir.size()).isEqualTo(3);
+
+        // Only the values of the last window remain.
+        now = TimeUnit.SECONDS.toNanos(22);
+        assertThat(reservoir.size()).isEqualTo(1);
+
+        now = TimeUnit.SECONDS.toNanos(33);
+        assertThat(reservoir.size()).isEqualTo(0);
+
+        // After a long period of inactivity, the outdated values are dropped.
+        reservoir.update(4000);
+        now = TimeUnit.SECONDS.toNanos(100);
+        assertThat(reservoir.size()).isEqualTo(0);
+    }
+}
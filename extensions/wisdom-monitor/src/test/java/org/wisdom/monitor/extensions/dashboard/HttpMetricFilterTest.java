@@ -0,0 +1,207 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.monitor.extensions.dashboard;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.BundleContext;
+import org.wisdom.api.configuration.ApplicationConfiguration;
+import org.wisdom.api.http.*;
+import org.wisdom.api.interception.RequestContext;
+import org.wisdom.api.router.Route;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HttpMetricFilterTest {
+
+    private MetricRegistry registry;
+    private HttpMetricFilter filter;
+
+    @Before
+    public void setUp() {
+        ApplicationConfiguration configuration = mock(ApplicationConfiguration.class);
+        when(configuration.getWithDefault("monitor.http.interception", ".*")).thenReturn(".*");
+        when(configuration.getIntegerWithDefault("monitor.http.priority", 10000)).thenReturn(10000);
+        when(configuration.getBooleanWithDefault("monitor.http.routes.enabled", true)).thenReturn(true);
+        when(configuration.getIntegerWithDefault("monitor.http.routes.max", 1000)).thenReturn(2);
+        when(configuration.getDuration(anyString(), eq(TimeUnit.NANOSECONDS), anyLong()))
+                .thenReturn(HdrHistogramReservoir.DEFAULT_WINDOW);
+        registry = new MetricRegistry();
+        filter = new HttpMetricFilter(mock(BundleContext.class), configuration, registry);
+    }
+
+    @Test
+    public void testPerRouteMetrics() throws Exception {
+        Route route = route(HttpMethod.GET, "/items/{id}");
+        Context first = context(route, new HashMap<String, Object>(), "12");
+        Context second = context(route, new HashMap<String, Object>(), "12");
+
+        filter.call(route, requestContext(route, first, Results.ok()));
+        filter.call(route, requestContext(route, second, Results.internalServerError()));
+
+        RouteMetrics metrics = filter.getRouteMetrics(route);
+        assertThat(metrics.getName()).isEqualTo("http.routes.GET./items/{id}");
+        assertThat(metrics.getRequestBytes().getCount()).isEqualTo(24);
+        assertThat(registry.getTimers()).containsKey("http.routes.GET./items/{id}.latency");
+        // Not written yet.
+        assertThat(metrics.getLatency().getCount()).isEqualTo(0);
+        assertThat(metrics.getInFlight().getCount()).isEqualTo(2);
+
+        // Once written.
+        filter.onExchangeCompleted(first, Results.ok(),
+                new ExchangeTimings(Status.OK, 100, 1000, 2000, 3000, 4000, 5000));
+        filter.onExchangeCompleted(second, Results.internalServerError(),
+                new ExchangeTimings(Status.INTERNAL_SERVER_ERROR, 50, 1000, -1, -1, 4000, 5000));
+        assertThat(metrics.getLatency().getCount()).isEqualTo(2);
+        assertThat(metrics.getInFlight().getCount()).isEqualTo(0);
+        assertThat(registry.timer("http.requests").getCount()).isEqualTo(2);
+        assertThat(registry.meter("http.responseCodes.ok").getCount()).isEqualTo(1);
+        assertThat(registry.meter("http.responseCodes.serverError").getCount()).isEqualTo(1);
+        assertThat(metrics.getResponseBytes().getCount()).isEqualTo(150);
+        assertThat(metrics.getErrors().getCount()).isEqualTo(1);
+        assertThat(filter.getStageTimers().get("routing").getCount()).isEqualTo(2);
+        assertThat(filter.getStageTimers().get("binding").getCount()).isEqualTo(1);
+        assertThat(filter.getStageTimers().get("write").getCount()).isEqualTo(2);
+        assertThat(registry.getTimers()).containsKeys("http.stages.routing", "http.stages.binding",
+                "http.stages.action", "http.stages.serialization", "http.stages.write");
+
+        // A second notification for the same exchange is ignored.
+        filter.onExchangeCompleted(first, Results.ok(),
+                new ExchangeTimings(Status.OK, 100, 1000, 2000, 3000, 4000, 5000));
+        assertThat(metrics.getLatency().getCount()).isEqualTo(2);
+        assertThat(metrics.getInFlight().getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testAsyncLatencyRecordedOnCompletion() throws Exception {
+        Route route = route(HttpMethod.GET, "/async");
+        Context context = context(route, new HashMap<String, Object>(), null);
+        RequestContext rc = requestContext(route, context,
+                new AsyncResult(new Callable<Result>() {
+                    @Override
+                    public Result call() throws Exception {
+                        return Results.ok();
+                    }
+                }));
+
+        filter.call(route, rc);
+        RouteMetrics metrics = filter.getRouteMetrics(route);
+        // The action has returned, but the result is not computed yet.
+        assertThat(metrics.getLatency().getCount()).isEqualTo(0);
+        assertThat(metrics.getInFlight().getCount()).isEqualTo(1);
+        assertThat(registry.timer("http.requests").getCount()).isEqualTo(0);
+
+        Thread.sleep(10);
+        filter.onExchangeCompleted(context, Results.ok(),
+                new ExchangeTimings(Status.OK, 10, 1000, 2000, 3000, 4000, 5000));
+        assertThat(metrics.getLatency().getCount()).isEqualTo(1);
+        assertThat(metrics.getLatency().getSnapshot().getMax()).isGreaterThanOrEqualTo(
+                TimeUnit.MILLISECONDS.toNanos(10));
+        assertThat(metrics.getInFlight().getCount()).isEqualTo(0);
+        assertThat(registry.timer("http.requests").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testUnmatchedRequestsAreRecordedOnCompletion() throws Exception {
+        Route unbound = route(HttpMethod.GET, "/missing");
+        when(unbound.isUnbound()).thenReturn(true);
+        RouteMetrics unmatched = filter.getRouteMetrics(unbound);
+
+        // Unbound routes do not go through the filters.
+        filter.onExchangeCompleted(context(unbound, new HashMap<String, Object>(), null), Results.notFound(),
+                new ExchangeTimings(Status.NOT_FOUND, 200, 1000, -1, -1, 4000, 5000));
+        assertThat(unmatched.getLatency().getCount()).isEqualTo(1);
+        assertThat(unmatched.getLatency().getSnapshot().getMax()).isGreaterThanOrEqualTo(10000);
+        assertThat(unmatched.getResponseBytes().getCount()).isEqualTo(200);
+        assertThat(unmatched.getErrors().getCount()).isEqualTo(0);
+
+        // Errors raised before the routing.
+        filter.onExchangeCompleted(context(null, new HashMap<String, Object>(), null),
+                Results.internalServerError(),
+                new ExchangeTimings(Status.INTERNAL_SERVER_ERROR, 0, -1, -1, -1, 4000, 5000));
+        assertThat(unmatched.getLatency().getCount()).isEqualTo(2);
+        assertThat(unmatched.getResponseBytes().getCount()).isEqualTo(200);
+        assertThat(unmatched.getErrors().getCount()).isEqualTo(1);
+        // Not counted as served requests.
+        assertThat(registry.timer("http.requests").getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testCardinalityIsBounded() throws Exception {
+        Route unbound = route(HttpMethod.GET, "/missing/page");
+        when(unbound.isUnbound()).thenReturn(true);
+        Route a = route(HttpMethod.GET, "/a");
+        Route b = route(HttpMethod.POST, "/b");
+        Route c = route(HttpMethod.GET, "/c");
+        Route d = route(HttpMethod.GET, "/d");
+
+        assertThat(filter.getRouteMetrics(unbound).getName()).isEqualTo("http.routes.unmatched");
+        assertThat(filter.getRouteMetrics(route(HttpMethod.GET, "/other")).getName())
+                .isEqualTo("http.routes.GET./other");
+        assertThat(filter.getRouteMetrics(a).getName()).isEqualTo("http.routes.GET./a");
+        // The maximum is reached.
+        assertThat(filter.getRouteMetrics(b).getName()).isEqualTo("http.routes.others");
+        assertThat(filter.getRouteMetrics(c).getName()).isEqualTo("http.routes.others");
+        assertThat(filter.getRouteMetrics(d).getName()).isEqualTo("http.routes.others");
+        assertThat(filter.getRouteMetrics(a).getName()).isEqualTo("http.routes.GET./a");
+
+        // 2 routes + the unmatched and others buckets.
+        assertThat(filter.getRouteMetrics()).hasSize(4);
+        assertThat(registry.getTimers().keySet()).hasSize(4 + 5 + 1);
+    }
+
+    private Route route(HttpMethod method, String url) {
+        Route route = mock(Route.class);
+        when(route.getHttpMethod()).thenReturn(method);
+        when(route.getUrl()).thenReturn(url);
+        return route;
+    }
+
+    private Context context(Route route, Map<String, Object> data, String length) {
+        Request request = mock(Request.class);
+        when(request.data()).thenReturn(data);
+        when(request.getHeader(HeaderNames.CONTENT_LENGTH)).thenReturn(length);
+        Context context = mock(Context.class);
+        when(context.request()).thenReturn(request);
+        when(context.route()).thenReturn(route);
+        return context;
+    }
+
+    private RequestContext requestContext(Route route, Context context, Result result) throws Exception {
+        RequestContext rc = mock(RequestContext.class);
+        when(rc.route()).thenReturn(route);
+        when(rc.context()).thenReturn(context);
+        Request request = context.request();
+        when(rc.request()).thenReturn(request);
+        when(rc.proceed()).thenReturn(result);
+        return rc;
+    }
+}
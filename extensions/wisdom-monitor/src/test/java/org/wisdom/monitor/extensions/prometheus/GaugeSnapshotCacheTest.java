@@ -0,0 +1,96 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.monitor.extensions.prometheus;
+
+import com.codahale.metrics.Clock;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GaugeSnapshotCacheTest {
+
+    private long now;
+
+    private final Clock clock = new Clock() {
+        @Override
+        public long getTick() {
+            return now;
+        }
+    };
+
+    @Test
+    public void testSnapshotsAreCached() {
+        final AtomicInteger calls = new AtomicInteger();
+        MetricRegistry registry = new MetricRegistry();
+        registry.register("calls", new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return calls.incrementAndGet();
+            }
+        });
+        registry.register("up", new Gauge<Boolean>() {
+            @Override
+            public Boolean getValue() {
+                return true;
+            }
+        });
+        registry.register("failing", new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                throw new IllegalStateException("Bad gauge");
+            }
+        });
+
+        GaugeSnapshotCache cache = new GaugeSnapshotCache(registry, TimeUnit.SECONDS.toNanos(5), clock);
+        assertThat(cache.get()).containsEntry("calls", 1).containsEntry("up", 1).doesNotContainKey("failing");
+
+        now = TimeUnit.SECONDS.toNanos(4);
+        assertThat(cache.get()).containsEntry("calls", 1);
+        assertThat(calls.get()).isEqualTo(1);
+
+        now = TimeUnit.SECONDS.toNanos(5);
+        assertThat(cache.get()).containsEntry("calls", 2);
+
+        cache.invalidate();
+        assertThat(cache.get()).containsEntry("calls", 3);
+    }
+
+    @Test
+    public void testCacheCanBeDisabled() {
+        final AtomicInteger calls = new AtomicInteger();
+        MetricRegistry registry = new MetricRegistry();
+        registry.register("calls", new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return calls.incrementAndGet();
+            }
+        });
+
+        GaugeSnapshotCache cache = new GaugeSnapshotCache(registry, 0, clock);
+        cache.get();
+        cache.get();
+        assertThat(calls.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.monitor.extensions.prometheus;
+
+import com.codahale.metrics.*;
+import org.junit.Test;
+import org.wisdom.monitor.extensions.dashboard.HdrHistogramReservoir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OpenMetricsWriterTest {
+
+    @Test
+    public void testSanitize() {
+        assertThat(OpenMetricsWriter.sanitize("jvm.memory.heap.used")).isEqualTo("jvm_memory_heap_used");
+        assertThat(OpenMetricsWriter.sanitize("jvm.garbage.PS-MarkSweep.count"))
+                .isEqualTo("jvm_garbage_PS_MarkSweep_count");
+        assertThat(OpenMetricsWriter.sanitize("1.foo--bar")).isEqualTo("_1_foo_bar");
+    }
+
+    @Test
+    public void testEscape() {
+        assertThat(OpenMetricsWriter.escape("/foo/{id}")).isEqualTo("/foo/{id}");
+        assertThat(OpenMetricsWriter.escape("a\"b\\c\nd")).isEqualTo("a\\\"b\\\\c\\nd");
+    }
+
+    @Test
+    public void testFormat() {
+        assertThat(OpenMetricsWriter.format(42)).isEqualTo("42");
+        assertThat(OpenMetricsWriter.format(42L)).isEqualTo("42");
+        assertThat(OpenMetricsWriter.format(0.5)).isEqualTo("0.5");
+        assertThat(OpenMetricsWriter.format(Double.NaN)).isEqualTo("NaN");
+        assertThat(OpenMetricsWriter.format(Double.POSITIVE_INFINITY)).isEqualTo("+Inf");
+    }
+
+    @Test
+    public void testOpenMetricsFormat() throws IOException {
+        MetricRegistry registry = registry();
+        StringWriter writer = new StringWriter();
+        new OpenMetricsWriter(writer, true).write(registry,
+                new GaugeSnapshotCache(registry, 0, Clock.defaultClock()).get());
+        String text = writer.toString();
+
+        assertThat(text).contains("# TYPE jvm_memory_heap_used gauge\njvm_memory_heap_used 42\n");
+        assertThat(text).contains("# TYPE http_activeRequests gauge\nhttp_activeRequests 1\n");
+        assertThat(text).contains("# TYPE http_route_errors counter\n"
+                + "http_route_errors_total{method=\"GET\",route=\"/items/{id}.json\"} 3\n"
+                + "http_route_errors_total{route=\"unmatched\"} 1\n");
+        assertThat(text).contains("# TYPE http_route_latency_seconds summary\n");
+        assertThat(text).contains("http_route_latency_seconds{method=\"GET\",route=\"/items/{id}.json\","
+                + "quantile=\"0.999\"} 0.005");
+        assertThat(text).contains("http_route_latency_seconds_count{method=\"GET\",route=\"/items/{id}.json\"} 1\n");
+        assertThat(text).contains("http_route_latency_seconds_sum{method=\"GET\",route=\"/items/{id}.json\"} 0.005");
+        assertThat(text).contains("http_stage_duration_seconds_count{stage=\"routing\"} 1\n");
+        // Non numeric gauges are ignored.
+        assertThat(text).doesNotContain("version");
+        assertThat(text).endsWith("# EOF\n");
+    }
+
+    @Test
+    public void testPrometheusFormat() throws IOException {
+        MetricRegistry registry = registry();
+        StringWriter writer = new StringWriter();
+        new OpenMetricsWriter(writer, false).write(registry,
+                new GaugeSnapshotCache(registry, 0, Clock.defaultClock()).get());
+        String text = writer.toString();
+
+        assertThat(text).contains("# TYPE http_route_errors_total counter\n");
+        assertThat(text).doesNotContain("# EOF");
+    }
+
+    @Test
+    public void testSummariesHaveASum() throws IOException {
+        MetricRegistry registry = new MetricRegistry();
+        Histogram histogram = registry.register("sizes", new Histogram(new UniformReservoir()));
+        histogram.update(10);
+        histogram.update(30);
+        StringWriter writer = new StringWriter();
+        new OpenMetricsWriter(writer, true).write(registry,
+                new GaugeSnapshotCache(registry, 0, Clock.defaultClock()).get());
+        String text = writer.toString();
+
+        assertThat(text).contains("sizes_count 2\nsizes_sum 40.0\n");
+    }
+
+    @Test
+    public void testFamilyNamesAreNotDuplicated() throws IOException {
+        MetricRegistry registry = new MetricRegistry();
+        registry.register("a.b", new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return 1;
+            }
+        });
+        registry.register("a_b", new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return 2;
+            }
+        });
+        registry.counter("a-b").inc(3);
+        registry.counter("c.count").inc();
+        registry.histogram("c").update(1);
+        registry.counter("d.total").inc(7);
+        registry.meter("d").mark();
+        StringWriter writer = new StringWriter();
+        new OpenMetricsWriter(writer, true).write(registry,
+                new GaugeSnapshotCache(registry, 0, Clock.defaultClock()).get());
+        String text = writer.toString();
+
+        assertThat(text).contains("# TYPE a_b gauge\na_b 1\n");
+        assertThat(occurrences(text, "# TYPE a_b ")).isEqualTo(1);
+        assertThat(occurrences(text, "\na_b ")).isEqualTo(1);
+        // The summary c would write c_count, already used by a gauge.
+        assertThat(text).contains("# TYPE c_count gauge\nc_count 1\n");
+        assertThat(text).doesNotContain("# TYPE c summary");
+        // The counter d would write d_total, already used by a gauge.
+        assertThat(text).contains("# TYPE d_total gauge\nd_total 7\n");
+        assertThat(text).doesNotContain("# TYPE d counter");
+    }
+
+    private static int occurrences(String text, String part) {
+        int count = 0;
+        int index = text.indexOf(part);
+        while (index != -1) {
+            count++;
+            index = text.indexOf(part, index + 1);
+        }
+        return count;
+    }
+
+    private MetricRegistry registry() {
+        MetricRegistry registry = new MetricRegistry();
+        registry.register("jvm.memory.heap.used", new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return 42L;
+            }
+        });
+        registry.register("jvm.runtime.version", new Gauge<String>() {
+            @Override
+            public String getValue() {
+                return "1.7";
+            }
+        });
+        registry.counter("http.activeRequests").inc();
+        registry.meter("http.routes.GET./items/{id}.json.errors").mark(3);
+        registry.meter("http.routes.unmatched.errors").mark();
+        registry.register("http.routes.GET./items/{id}.json.latency", new Timer(new HdrHistogramReservoir()))
+                .update(5, TimeUnit.MILLISECONDS);
+        registry.register("http.stages.routing", new Timer(new HdrHistogramReservoir()))
+                .update(10, TimeUnit.MICROSECONDS);
+        return registry;
+    }
+}
@@ -20,6 +20,8 @@
 package org.wisdom.cache.ehcache;
 
 import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.SettableFuture;
 import org.apache.felix.ipojo.annotations.Component;
 import org.apache.felix.ipojo.annotations.Instantiate;
 import org.apache.felix.ipojo.annotations.Provides;
@@ -27,15 +29,46 @@ import org.apache.felix.ipojo.annotations.Requires;
 import org.joda.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wisdom.api.bodies.NoHttpBody;
 import org.wisdom.api.cache.Cache;
 import org.wisdom.api.cache.Cached;
+import org.wisdom.api.concurrent.ManagedExecutorService;
+import org.wisdom.api.configuration.ApplicationConfiguration;
+import org.wisdom.api.content.ContentEngine;
+import org.wisdom.api.content.ContentSerializer;
+import org.wisdom.api.http.AsyncResult;
+import org.wisdom.api.http.ByteArrayRenderable;
+import org.wisdom.api.http.Context;
 import org.wisdom.api.http.HeaderNames;
+import org.wisdom.api.http.Renderable;
 import org.wisdom.api.http.Result;
+import org.wisdom.api.http.Status;
 import org.wisdom.api.interception.Interceptor;
 import org.wisdom.api.interception.RequestContext;
+import org.wisdom.api.utils.KnownMimeTypes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * An action interceptor caching the result of an action and returning the cached result if it was cached already.
+ * <p>
+ * The cached entry is the serialized response (see {@link CachedResponse}), so cache hits skip both the action and
+ * the content serialization. Concurrent misses on the same key are coalesced: only one request invokes the action,
+ * the others wait for its response (at most {@literal cache.loading.timeout}, 10 seconds by default, before invoking
+ * the action themselves). Expired entries can be served during the
+ * {@link org.wisdom.api.cache.Cached#staleWhileRevalidate()} period while a single refresh runs on the system
+ * executor.
+ * <p>
+ * When the serializer is negotiated from the {@literal Accept} header (the result does not set its content type), the
+ * response is sent with {@literal Vary: Accept}, and each {@literal Accept} value gets its own entry.
  */
 @Component
 @Provides(specifications = Interceptor.class)
@@ -45,6 +78,34 @@ public class CachedActionInterceptor extends Interceptor<Cached> {
     @Requires
     protected Cache cache;
 
+    @Requires(optional = true, nullable = false)
+    protected ContentEngine engine;
+
+    @Requires(optional = true, nullable = false)
+    protected ApplicationConfiguration configuration;
+
+    /**
+     * The executor used to refresh the stale entries.
+     */
+    @Requires(filter = "(name=" + ManagedExecutorService.SYSTEM + ")", proxy = false, optional = true,
+            nullable = false)
+    protected ManagedExecutorService executor;
+
+    /**
+     * The responses being computed, by key. It is used to coalesce concurrent misses and to avoid refreshing the
+     * same entry several times. A future completed with {@code null} means that the response was not cacheable.
+     */
+    private final ConcurrentMap<String, SettableFuture<CachedResponse>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * The configuration key of the maximum time a request waits for the response computed by another request.
+     */
+    public static final String LOADING_TIMEOUT = "cache.loading.timeout";
+
+    /**
+     * The default maximum time a request waits for the response computed by another request, in milliseconds.
+     */
+    public static final long DEFAULT_LOADING_TIMEOUT = 10000L;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CachedActionInterceptor.class);
 
@@ -66,7 +127,43 @@ public class CachedActionInterceptor extends Interceptor<Cached> {
         // Can we use the Cached version ?
         boolean nocache =
                 HeaderNames.NOCACHE_VALUE.equalsIgnoreCase(context.context().header(HeaderNames.CACHE_CONTROL));
+        boolean gzip = acceptsGzip(context.context().header(HeaderNames.ACCEPT_ENCODING));
+        String accept = Strings.nullToEmpty(context.context().header(HeaderNames.ACCEPT));
+        String key = getKey(configuration, context);
 
+        if (nocache) {
+            Result result = context.proceed();
+            CachedResponse response = store(configuration, context, key, result);
+            return response == null ? result : response.toResult(gzip);
+        }
+
+        String entry = key;
+        Object cached = cache.get(key);
+        if (cached instanceof CachedResponse && !((CachedResponse) cached).matches(accept)) {
+            // Negotiated for another Accept header, look for the entry of this one.
+            entry = getNegotiatedKey(key, accept);
+            cached = cache.get(entry);
+        }
+        if (cached instanceof CachedResponse) {
+            CachedResponse response = (CachedResponse) cached;
+            if (response.isFresh(System.currentTimeMillis()) || revalidate(configuration, context, key, entry)) {
+                LOGGER.debug("Returning cached result for {} (key:{})", context.request().uri(), entry);
+                return response.toResult(gzip);
+            }
+        }
+
+        return load(configuration, context, key, entry, accept, gzip);
+    }
+
+    /**
+     * Computes the cache key: the configured key (or the request uri) followed by the values of the headers listed
+     * in {@link Cached#vary()}.
+     *
+     * @param configuration the interception configuration
+     * @param context       the interception context
+     * @return the key
+     */
+    private static String getKey(Cached configuration, RequestContext context) {
         String key;
         if (Strings.isNullOrEmpty(configuration.key())) {
             key = context.request().uri();
@@ -74,17 +171,192 @@ public class CachedActionInterceptor extends Interceptor<Cached> {
             key = configuration.key();
         }
 
-        Result result = null;
-        if (!nocache) {
-            result = (Result) cache.get(key);
+        String[] vary = configuration.vary();
+        if (vary == null || vary.length == 0) {
+            return key;
+        }
+        StringBuilder builder = new StringBuilder(key);
+        for (String header : vary) {
+            builder.append('\n').append(header.toLowerCase()).append(':')
+                    .append(Strings.nullToEmpty(context.context().header(header)));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Computes the key of the entry storing a response whose serializer has been negotiated.
+     *
+     * @param key    the key computed by {@link #getKey(Cached, RequestContext)}
+     * @param accept the {@literal Accept} header, empty if not set
+     * @return the key
+     */
+    private static String getNegotiatedKey(String key, String accept) {
+        return key + "\n" + HeaderNames.ACCEPT.toLowerCase() + ':' + accept;
+    }
+
+    /**
+     * Invokes the action on a miss. If another request is already computing the response for the same entry, waits
+     * for it instead. If it takes too long, the action is invoked for this request too.
+     *
+     * @param key    the key of the action
+     * @param entry  the key of the entry looked up, differs from {@code key} for negotiated responses
+     * @param accept the {@literal Accept} header, empty if not set
+     */
+    private Result load(Cached configuration, RequestContext context, String key, String entry, String accept,
+                        boolean gzip) throws Exception {
+        SettableFuture<CachedResponse> future = SettableFuture.create();
+        SettableFuture<CachedResponse> pending = loading.putIfAbsent(entry, future);
+        if (pending != null) {
+            CachedResponse response;
+            try {
+                response = pending.get(getLoadingTimeout(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) { //NOSONAR
+                LOGGER.warn("The result of {} (key:{}) is still being computed, invoking the action",
+                        context.request().uri(), entry);
+                return context.proceed();
+            }
+            if (response != null && response.matches(accept)) {
+                return response.toResult(gzip);
+            }
+            if (response != null && entry.equals(key)) {
+                // Negotiated for another Accept header, load the entry of this one.
+                return load(configuration, context, key, getNegotiatedKey(key, accept), accept, gzip);
+            }
+            // Not cacheable (or failed), the action must be invoked for this request too.
+            return context.proceed();
+        }
+
+        try {
+            Result result = context.proceed();
+            CachedResponse response = store(configuration, context, key, result);
+            future.set(response);
+            return response == null ? result : response.toResult(gzip);
+        } finally {
+            loading.remove(entry, future);
+            // Release the waiting requests if the action has thrown an exception.
+            future.set(null);
+        }
+    }
+
+    private long getLoadingTimeout() {
+        if (configuration == null) {
+            return DEFAULT_LOADING_TIMEOUT;
+        }
+        return configuration.getDuration(LOADING_TIMEOUT, TimeUnit.MILLISECONDS, DEFAULT_LOADING_TIMEOUT);
+    }
+
+    /**
+     * Submits the refresh of a stale entry.
+     * <p>
+     * The refresh continues the interception chain of the request serving the stale entry, once this request has
+     * been answered. The action is invoked with the HTTP context of this request, set by the refresh task itself, so
+     * it does not depend on the HTTP execution context being propagated by the executor. Headers, parameters and
+     * request data are still available, but the uploaded files and the request body have been released. Actions
+     * reading them should not use {@link Cached#staleWhileRevalidate()}.
+     *
+     * @param key   the key of the action
+     * @param entry the key of the stale entry
+     * @return {@code true} if the stale entry can be served, {@code false} if the entry cannot be served anymore
+     * or the refresh cannot run in background.
+     */
+    private boolean revalidate(final Cached configuration, final RequestContext context, final String key,
+                               final String entry) {
+        if (configuration.staleWhileRevalidate() <= 0 || executor == null) {
+            return false;
+        }
+        final Context http = context.context();
+        if (http == null) {
+            // Not invoked from a request, the action cannot be invoked later.
+            return false;
+        }
+        final SettableFuture<CachedResponse> future = SettableFuture.create();
+        if (loading.putIfAbsent(entry, future) != null) {
+            // Already refreshed.
+            return true;
+        }
+        try {
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    Context previous = Context.CONTEXT.get();
+                    Context.CONTEXT.set(http);
+                    try {
+                        future.set(store(configuration, context, key, context.proceed()));
+                    } catch (Exception e) {
+                        LOGGER.error("Cannot refresh the cached result of {} (key:{})",
+                                http.request().uri(), entry, e);
+                    } finally {
+                        loading.remove(entry, future);
+                        future.set(null);
+                        if (previous == null) {
+                            Context.CONTEXT.remove();
+                        } else {
+                            Context.CONTEXT.set(previous);
+                        }
+                    }
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Cannot refresh the cached result of {} (key:{}) in background", context.request().uri(),
+                    entry, e);
+            loading.remove(entry, future);
+            future.set(null);
+            return false;
+        }
+    }
+
+    /**
+     * Serializes the result and stores it in the cache. A response whose serializer has been negotiated is stored
+     * under the key of the action and under the key of the {@literal Accept} header, so the other values of this
+     * header find their own entry.
+     *
+     * @param key the key of the action
+     * @return the stored response, {@code null} if the result cannot be cached.
+     */
+    private CachedResponse store(Cached configuration, RequestContext context, String key, Result result)
+            throws IOException {
+        if (!isCacheable(configuration, result)) {
+            LOGGER.debug("The result of {} cannot be cached (key:{})", context.request().uri(), key);
+            return null;
+        }
+
+        Renderable<?> renderable = result.getRenderable();
+        if (renderable == null) {
+            renderable = NoHttpBody.INSTANCE;
+        }
+        String accept = null;
+        if (renderable.requireSerializer()) {
+            ContentSerializer serializer = getDeclaredSerializer(result);
+            if (serializer == null) {
+                // Negotiated from the Accept header, the response varies on it.
+                serializer = engine == null ? null : engine.getBestSerializer(context.request().mediaTypes());
+                if (serializer == null) {
+                    // Unlike the server, the content is not rendered as a String, the result is not cached.
+                    return null;
+                }
+                accept = Strings.nullToEmpty(context.context().header(HeaderNames.ACCEPT));
+                result.with(HeaderNames.CONTENT_TYPE, serializer.getContentType());
+                addVary(result, HeaderNames.ACCEPT);
+            }
+            serializer.serialize(renderable);
         }
 
-        if (result == null) {
-            result = context.proceed();
+        byte[] body;
+        if (renderable instanceof ByteArrayRenderable) {
+            body = ((ByteArrayRenderable<?>) renderable).renderAsBytes(context.context(), result);
         } else {
-            LOGGER.info("Returning cached result for {} (key:{})",
-                    context.request().uri(), key);
-            return result;
+            InputStream stream = renderable.render(context.context(), result);
+            try {
+                body = ByteStreams.toByteArray(stream);
+            } finally {
+                stream.close();
+            }
+        }
+
+        String contentType = result.getFullContentType();
+        if (contentType == null) {
+            contentType = renderable.mimetype();
         }
 
         Duration duration;
@@ -94,13 +366,169 @@ public class CachedActionInterceptor extends Interceptor<Cached> {
         } else {
             duration = Duration.standardSeconds(configuration.duration());
         }
+        long now = System.currentTimeMillis();
+        CachedResponse response = new CachedResponse(result.getStatusCode(), result.getHeaders(), contentType, body,
+                gzip(result, contentType, body), now + duration.getMillis(), accept);
+        if (configuration.staleWhileRevalidate() > 0) {
+            duration = duration.plus(Duration.standardSeconds(configuration.staleWhileRevalidate()));
+        }
+
+        cache.set(key, response, duration);
+        if (accept != null) {
+            cache.set(getNegotiatedKey(key, accept), response, duration);
+        }
+        LOGGER.info("Caching result of {} for {} seconds (key:{})", context.request().uri(),
+                configuration.duration(), key);
+        return response;
+    }
+
+    /**
+     * Checks whether the result can be stored. Results setting cookies, asynchronous or chunked results, results
+     * that are not successful or redirections, and results varying on headers not listed in {@link Cached#vary()}
+     * are not cached.
+     */
+    private static boolean isCacheable(Cached configuration, Result result) {
+        if (result == null || result instanceof AsyncResult) {
+            return false;
+        }
+        int status = result.getStatusCode();
+        if (status < Status.OK || status >= Status.BAD_REQUEST
+                || status == Status.PARTIAL_CONTENT || status == Status.NOT_MODIFIED) {
+            return false;
+        }
+        if (!result.getCookies().isEmpty() || result.getHeaders().containsKey(HeaderNames.SET_COOKIE)) {
+            return false;
+        }
+        if (result.getRenderable() != null && result.getRenderable().mustBeChunked()) {
+            return false;
+        }
+
+        String vary = result.getHeaders().get(HeaderNames.VARY);
+        if (vary == null) {
+            return true;
+        }
+        for (String header : vary.split(",")) {
+            header = header.trim();
+            if (header.isEmpty() || header.equalsIgnoreCase(HeaderNames.ACCEPT_ENCODING)) {
+                continue;
+            }
+            if (!contains(configuration.vary(), header)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(String[] headers, String header) {
+        if (headers != null) {
+            for (String h : headers) {
+                if (h.equalsIgnoreCase(header)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the serializer handling the content type set by the result, as the server would do.
+     *
+     * @return the serializer, {@code null} if the result does not set its content type or if no serializer handles
+     * it.
+     */
+    private ContentSerializer getDeclaredSerializer(Result result) {
+        if (engine == null || result.getContentType() == null) {
+            return null;
+        }
+        return engine.getContentSerializerForContentType(result.getContentType());
+    }
+
+    /**
+     * Adds a header to the {@literal Vary} header of the result.
+     */
+    private static void addVary(Result result, String header) {
+        String vary = result.getHeaders().get(HeaderNames.VARY);
+        if (vary == null) {
+            result.with(HeaderNames.VARY, header);
+        } else if (!contains(vary.split("\\s*,\\s*"), header)) {
+            result.with(HeaderNames.VARY, vary + ", " + header);
+        }
+    }
+
+    /**
+     * Compresses the body if the server would have compressed it.
+     *
+     * @return the gzipped body, {@code null} if the body must not be compressed.
+     */
+    private byte[] gzip(Result result, String contentType, byte[] body) throws IOException {
+        boolean enabled = true;
+        long min = ApplicationConfiguration.DEFAULT_ENCODING_MIN_SIZE;
+        long max = ApplicationConfiguration.DEFAULT_ENCODING_MAX_SIZE;
+        if (configuration != null) {
+            enabled = configuration.getBooleanWithDefault("vertx.compression", true);
+            min = configuration.getBytes(ApplicationConfiguration.ENCODING_MIN_SIZE, min);
+            max = configuration.getBytes(ApplicationConfiguration.ENCODING_MAX_SIZE, max);
+        }
+        if (!enabled || body.length < min || body.length > max
+                || result.getHeaders().containsKey(HeaderNames.CONTENT_ENCODING)
+                || result.getHeaders().containsKey(HeaderNames.X_WISDOM_DISABLED_ENCODING_HEADER)
+                || !isCompressible(contentType)) {
+            return null;
+        }
 
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 2);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body);
+        }
+        if (bytes.size() >= body.length) {
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    private static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return true;
+        }
+        String mime = contentType;
+        if (mime.contains(";")) {
+            mime = mime.substring(0, mime.indexOf(';'));
+        }
+        mime = mime.trim().toLowerCase();
+        return !KnownMimeTypes.COMPRESSED_MIME.contains(mime)
+                && !mime.startsWith("image/") && !mime.startsWith("audio/") && !mime.startsWith("video/");
+    }
 
-        cache.set(key, result, duration);
-        LoggerFactory.getLogger(this.getClass()).info("Caching result of {} for {} seconds (key:{})",
-                context.request().uri(), configuration.duration(), key);
+    /**
+     * Checks whether the {@literal Accept-Encoding} header value accepts gzip.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String encoding : acceptEncoding.split(",")) {
+            String[] segments = encoding.split(";");
+            String name = segments[0].trim();
+            if (!"gzip".equalsIgnoreCase(name) && !"*".equals(name)) {
+                continue;
+            }
+            for (int i = 1; i < segments.length; i++) {
+                String parameter = segments[i].trim();
+                if (parameter.startsWith("q=") && isZero(parameter.substring(2))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
 
-        return result;
+    private static boolean isZero(String quality) {
+        try {
+            return Double.parseDouble(quality.trim()) == 0;
+        } catch (NumberFormatException e) { //NOSONAR
+            return false;
+        }
     }
 
     /**
@@ -0,0 +1,149 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.cache.ehcache;
+
+import org.wisdom.api.bodies.RenderableBytes;
+import org.wisdom.api.http.HeaderNames;
+import org.wisdom.api.http.Result;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A serialized response stored in the cache by the {@link CachedActionInterceptor}. It contains everything required
+ * to replay the response without invoking the action: the status, the headers, the content type and the body. It
+ * can also contain a gzipped copy of the body.
+ * <p>
+ * Instances are immutable, and so can be shared by concurrent requests.
+ */
+final class CachedResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+    private final Map<String, String> headers;
+    private final String contentType;
+    private final byte[] body;
+    private final byte[] gzipped;
+    private final long freshUntil;
+    private final String accept;
+
+    /**
+     * Creates a new cached response whose format does not depend on the {@literal Accept} header.
+     *
+     * @param status      the status code
+     * @param headers     the headers, copied
+     * @param contentType the full content type (including the charset), may be {@code null}
+     * @param body        the body
+     * @param gzipped     the gzipped body, {@code null} if the body is not compressed
+     * @param freshUntil  the time (in milliseconds) until which the response is considered fresh
+     */
+    CachedResponse(int status, Map<String, String> headers, String contentType, byte[] body, byte[] gzipped,
+                   long freshUntil) {
+        this(status, headers, contentType, body, gzipped, freshUntil, null);
+    }
+
+    /**
+     * Creates a new cached response.
+     *
+     * @param status      the status code
+     * @param headers     the headers, copied
+     * @param contentType the full content type (including the charset), may be {@code null}
+     * @param body        the body
+     * @param gzipped     the gzipped body, {@code null} if the body is not compressed
+     * @param freshUntil  the time (in milliseconds) until which the response is considered fresh
+     * @param accept      the {@literal Accept} header from which the serializer has been negotiated, {@code null}
+     *                    if the format does not depend on it
+     */
+    CachedResponse(int status, Map<String, String> headers, String contentType, byte[] body, byte[] gzipped,
+                   long freshUntil, String accept) {
+        this.status = status;
+        this.headers = new LinkedHashMap<>(headers);
+        this.contentType = contentType;
+        this.body = body;
+        this.gzipped = gzipped;
+        this.freshUntil = freshUntil;
+        this.accept = accept;
+    }
+
+    /**
+     * @param accept the {@literal Accept} header of the request, empty if not set
+     * @return whether the response can be served to a request with the given {@literal Accept} header.
+     */
+    boolean matches(String accept) {
+        return this.accept == null || this.accept.equals(accept);
+    }
+
+    /**
+     * @param now the current time in milliseconds
+     * @return whether the response is still fresh, or needs to be revalidated.
+     */
+    boolean isFresh(long now) {
+        return now < freshUntil;
+    }
+
+    /**
+     * @return the body, must not be modified.
+     */
+    byte[] body() {
+        return body;
+    }
+
+    /**
+     * @return the gzipped body, {@code null} if none, must not be modified.
+     */
+    byte[] gzipped() {
+        return gzipped;
+    }
+
+    /**
+     * Creates a new result replaying this response. A new result is created for each call, as results are mutable.
+     *
+     * @param gzip whether the client accepts the gzip encoding
+     * @return the result
+     */
+    Result toResult(boolean gzip) {
+        Result result = new Result(status);
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            result.with(header.getKey(), header.getValue());
+        }
+        if (contentType != null) {
+            result.as(contentType);
+        }
+        if (gzipped == null) {
+            return result.render(new RenderableBytes(body, contentType));
+        }
+
+        String vary = headers.get(HeaderNames.VARY);
+        if (vary == null) {
+            result.with(HeaderNames.VARY, HeaderNames.ACCEPT_ENCODING);
+        } else if (!vary.toLowerCase().contains(HeaderNames.ACCEPT_ENCODING.toLowerCase())) {
+            result.with(HeaderNames.VARY, vary + ", " + HeaderNames.ACCEPT_ENCODING);
+        }
+        if (gzip) {
+            // The body is already encoded, the server must not compress it again.
+            result.with(HeaderNames.CONTENT_ENCODING, "gzip");
+            result.with(HeaderNames.X_WISDOM_DISABLED_ENCODING_HEADER, "true");
+            return result.render(new RenderableBytes(gzipped, contentType));
+        }
+        return result.render(new RenderableBytes(body, contentType));
+    }
+}
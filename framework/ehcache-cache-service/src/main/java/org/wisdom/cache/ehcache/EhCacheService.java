@@ -20,14 +20,23 @@
 package org.wisdom.cache.ehcache;
 
 import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
 import net.sf.ehcache.Element;
+import net.sf.ehcache.event.CacheEventListenerAdapter;
 import org.apache.felix.ipojo.annotations.*;
 import org.joda.time.Duration;
 import org.wisdom.api.cache.Cache;
+import org.wisdom.api.cache.CacheStatistics;
 import org.wisdom.api.configuration.ApplicationConfiguration;
 
 import java.io.File;
 import java.net.URL;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * An implementation of the cache service based on EhCache.
@@ -54,6 +63,10 @@ public class EhCacheService implements Cache {
     private net.sf.ehcache.Cache cache;
     private CacheManager manager;
 
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
     @Requires ApplicationConfiguration configuration;
 
     /**
@@ -78,6 +91,17 @@ public class EhCacheService implements Cache {
             }
             manager.addCache(WISDOM_KEY);
             cache = manager.getCache(WISDOM_KEY);
+            cache.getCacheEventNotificationService().registerListener(new CacheEventListenerAdapter() {
+                @Override
+                public void notifyElementExpired(Ehcache ehcache, Element element) {
+                    evictions.incrementAndGet();
+                }
+
+                @Override
+                public void notifyElementEvicted(Ehcache ehcache, Element element) {
+                    evictions.incrementAndGet();
+                }
+            });
         } finally {
             Thread.currentThread().setContextClassLoader(original);
         }
@@ -118,13 +142,17 @@ public class EhCacheService implements Cache {
      */
     @Override
     public void set(String key, Object value, Duration expiration) {
+        cache.put(createElement(key, value, expiration));
+    }
+
+    private Element createElement(String key, Object value, Duration expiration) {
         Element element = new Element(key, value);
         if (expiration == null) {
             element.setEternal(true);
         } else {
             element.setTimeToLive((int) expiration.getStandardSeconds());
         }
-        cache.put(element);
+        return element;
     }
 
     /**
@@ -137,11 +165,78 @@ public class EhCacheService implements Cache {
     public Object get(String key) {
         Element element = cache.get(key);
         if (element != null) {
+            hits.incrementAndGet();
             return element.getObjectValue();
         }
+        misses.incrementAndGet();
         return null;
     }
 
+    /**
+     * Gets an entry from the cache, or computes it. Concurrent computations of the same key are serialized
+     * using the EhCache key lock.
+     *
+     * @param key        Item key.
+     * @param loader     the loader
+     * @param expiration the expiration time of the computed value, {@literal null} for eternity.
+     * @return the stored or computed object.
+     * @throws ExecutionException if the loader has thrown an exception
+     */
+    @Override
+    public Object getOrCompute(String key, Callable loader, Duration expiration) throws ExecutionException {
+        Object value = get(key);
+        if (value != null) {
+            return value;
+        }
+        cache.acquireWriteLockOnKey(key);
+        try {
+            // Check again, another thread may have computed the value while we were waiting for the lock.
+            Element element = cache.get(key);
+            if (element != null) {
+                return element.getObjectValue();
+            }
+            try {
+                value = loader.call();
+            } catch (Exception e) {
+                throw new ExecutionException(e);
+            }
+            if (value != null) {
+                cache.put(createElement(key, value, expiration));
+            }
+            return value;
+        } finally {
+            cache.releaseWriteLockOnKey(key);
+        }
+    }
+
+    /**
+     * Gets several entries from the cache.
+     *
+     * @param keys the keys
+     * @return the map of the stored objects
+     */
+    @Override
+    public Map getAll(Collection keys) {
+        Map<String, Object> result = new HashMap<>();
+        for (Object element : cache.getAll(keys).values()) {
+            if (element != null) {
+                Element e = (Element) element;
+                result.put((String) e.getObjectKey(), e.getObjectValue());
+            }
+        }
+        hits.addAndGet(result.size());
+        misses.addAndGet(keys.size() - result.size());
+        return result;
+    }
+
+    /**
+     * @return the cache statistics.
+     */
+    @Override
+    public CacheStatistics statistics() {
+        return new CacheStatistics(hits.get(), misses.get(), evictions.get());
+    }
+
     /**
      * Removes an object from the cache.
      *
@@ -19,21 +19,47 @@
  */
 package org.wisdom.cache.ehcache;
 
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import com.google.common.net.MediaType;
 import org.joda.time.Duration;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.wisdom.api.cache.Cache;
+import org.wisdom.api.cache.CacheStatistics;
 import org.wisdom.api.cache.Cached;
+import org.wisdom.api.concurrent.ManagedExecutorService;
 import org.wisdom.api.configuration.ApplicationConfiguration;
+import org.wisdom.api.content.ContentEngine;
+import org.wisdom.api.content.ContentSerializer;
+import org.wisdom.api.cookies.Cookie;
 import org.wisdom.api.http.*;
+import org.wisdom.api.interception.Filter;
+import org.wisdom.api.interception.Interceptor;
 import org.wisdom.api.interception.RequestContext;
-
-import java.util.TreeMap;
+import org.wisdom.api.router.Route;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -60,23 +86,27 @@ public class CachedActionInterceptorTest {
         when(context.proceed()).thenReturn(r);
 
         Result result = interceptor.call(cached, context);
-        assertThat(result.getRenderable().<String>content()).isEqualTo("Result");
-        assertThat(result).isEqualTo(r);
-        // Check that the result was put in cache.
+        assertThat(content(result)).isEqualTo("Result");
+        assertThat(result.getStatusCode()).isEqualTo(Status.OK);
+        // Check that the serialized result was put in cache.
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
         verify(interceptor.cache, times(1)).get("key");
-        verify(interceptor.cache, times(1)).set("key", r, Duration.standardSeconds(10));
+        verify(interceptor.cache, times(1)).set(eq("key"), captor.capture(), eq(Duration.standardSeconds(10)));
+        assertThat(captor.getValue()).isInstanceOf(CachedResponse.class);
 
-        when(interceptor.cache.get("key")).thenReturn(r);
+        when(interceptor.cache.get("key")).thenReturn(captor.getValue());
         result = interceptor.call(cached, context);
-        assertThat(result).isEqualTo(r);
+        assertThat(content(result)).isEqualTo("Result");
+        assertThat(result.getFullContentType()).isEqualTo("text/plain; charset=UTF-8");
 
         verify(interceptor.cache, times(2)).get("key");
+        verify(context, times(1)).proceed();
     }
 
     @Test
     public void testCachingWithoutKey() throws Exception {
         CachedActionInterceptor interceptor = new CachedActionInterceptor();
-        interceptor.cache = mock(Cache.class);
+        interceptor.cache = new DummyCache();
         Cached cached = mock(Cached.class);
         when(cached.duration()).thenReturn(10);
         when(cached.key()).thenReturn("");
@@ -92,17 +122,13 @@ public class CachedActionInterceptorTest {
         when(context.proceed()).thenReturn(r);
 
         Result result = interceptor.call(cached, context);
-        assertThat(result.getRenderable().<String>content()).isEqualTo("Result");
-        assertThat(result).isEqualTo(r);
+        assertThat(content(result)).isEqualTo("Result");
         // Check that the result was put in cache.
-        verify(interceptor.cache, times(1)).get("/my/url?withquery");
-        verify(interceptor.cache, times(1)).set("/my/url?withquery", r, Duration.standardSeconds(10));
+        assertThat(interceptor.cache.get("/my/url?withquery")).isInstanceOf(CachedResponse.class);
 
-        when(interceptor.cache.get("key")).thenReturn(r);
         result = interceptor.call(cached, context);
-        assertThat(result).isEqualTo(r);
-
-        verify(interceptor.cache, times(2)).get("/my/url?withquery");
+        assertThat(content(result)).isEqualTo("Result");
+        verify(context, times(1)).proceed();
     }
 
     @Test
@@ -122,22 +148,20 @@ public class CachedActionInterceptorTest {
         when(context.proceed()).thenReturn(r);
 
         Result result = interceptor.call(cached, context);
-
-        assertThat(result.getRenderable().<String>content()).isEqualTo("Result");
-        assertThat(result).isEqualTo(r);
+        assertThat(content(result)).isEqualTo("Result");
 
         final Result r2 = Results.ok("Result2");
         when(context.proceed()).thenReturn(r2);
 
         result = interceptor.call(cached, context);
         // r is cached return r even is r2 is the new result.
-        assertThat(result).isEqualTo(r);
+        assertThat(content(result)).isEqualTo("Result");
 
         // The object is cached, let's use NO CACHE
         when(context.context().header(HeaderNames.CACHE_CONTROL)).thenReturn(HeaderNames.NOCACHE_VALUE);
 
         result = interceptor.call(cached, context);
-        assertThat(result).isNotEqualTo(r).isEqualTo(r2);
+        assertThat(content(result)).isEqualTo("Result2");
 
         final Result r3 = Results.ok("Result3");
         when(context.proceed()).thenReturn(r3);
@@ -145,7 +169,355 @@ public class CachedActionInterceptorTest {
         // Remove the cache-control
         when(context.context().header(HeaderNames.CACHE_CONTROL)).thenReturn(null);
         result = interceptor.call(cached, context);
-        assertThat(result).isEqualTo(r2).isNotEqualTo(r3);
+        assertThat(content(result)).isEqualTo("Result2");
+    }
+
+    @Test
+    public void testVary() throws Exception {
+        CachedActionInterceptor interceptor = new CachedActionInterceptor();
+        interceptor.cache = new DummyCache();
+        Cached cached = mock(Cached.class);
+        when(cached.duration()).thenReturn(10);
+        when(cached.key()).thenReturn("key");
+        when(cached.vary()).thenReturn(new String[]{HeaderNames.ACCEPT_LANGUAGE});
+
+        RequestContext context = mock(RequestContext.class);
+        when(context.request()).thenReturn(mock(Request.class));
+        Context ctx = mock(Context.class);
+        when(context.context()).thenReturn(ctx);
+        when(ctx.header(HeaderNames.ACCEPT_LANGUAGE)).thenReturn("fr");
+        when(context.proceed()).thenReturn(Results.ok("Bonjour").with(HeaderNames.VARY, HeaderNames.ACCEPT_LANGUAGE));
+        assertThat(content(interceptor.call(cached, context))).isEqualTo("Bonjour");
+
+        when(ctx.header(HeaderNames.ACCEPT_LANGUAGE)).thenReturn("en");
+        when(context.proceed()).thenReturn(Results.ok("Hello").with(HeaderNames.VARY, HeaderNames.ACCEPT_LANGUAGE));
+        assertThat(content(interceptor.call(cached, context))).isEqualTo("Hello");
+
+        when(ctx.header(HeaderNames.ACCEPT_LANGUAGE)).thenReturn("fr");
+        assertThat(content(interceptor.call(cached, context))).isEqualTo("Bonjour");
+        verify(context, times(2)).proceed();
+    }
+
+    @Test
+    public void testNegotiatedResponsesVaryOnAccept() throws Exception {
+        CachedActionInterceptor interceptor = new CachedActionInterceptor();
+        interceptor.cache = new DummyCache();
+        final ContentSerializer json = serializer(MimeTypes.JSON, "{}");
+        final ContentSerializer xml = serializer(MimeTypes.XML, "<data/>");
+        interceptor.engine = mock(ContentEngine.class);
+        Cached cached = mock(Cached.class);
+        when(cached.duration()).thenReturn(10);
+        when(cached.key()).thenReturn("key");
+
+        RequestContext context = mock(RequestContext.class);
+        when(context.request()).thenReturn(mock(Request.class));
+        final Context ctx = mock(Context.class);
+        when(context.context()).thenReturn(ctx);
+        when(interceptor.engine.getBestSerializer(anyCollectionOf(MediaType.class))).thenAnswer(
+                new Answer<ContentSerializer>() {
+                    @Override
+                    public ContentSerializer answer(InvocationOnMock invocation) throws Throwable {
+                        return MimeTypes.XML.equals(ctx.header(HeaderNames.ACCEPT)) ? xml : json;
+                    }
+                });
+        when(context.proceed()).thenAnswer(new Answer<Result>() {
+            @Override
+            public Result answer(InvocationOnMock invocation) throws Throwable {
+                // The content type is not set, the serializer is negotiated.
+                return Results.ok(new Object());
+            }
+        });
+
+        when(ctx.header(HeaderNames.ACCEPT)).thenReturn(MimeTypes.JSON);
+        Result result = interceptor.call(cached, context);
+        assertThat(content(result)).isEqualTo("{}");
+        assertThat(result.getHeaders()).containsEntry(HeaderNames.VARY, HeaderNames.ACCEPT);
+
+        when(ctx.header(HeaderNames.ACCEPT)).thenReturn(MimeTypes.XML);
+        result = interceptor.call(cached, context);
+        assertThat(content(result)).isEqualTo("<data/>");
+        assertThat(result.getContentType()).startsWith(MimeTypes.XML);
+
+        // Both formats are now cached.
+        when(ctx.header(HeaderNames.ACCEPT)).thenReturn(MimeTypes.JSON);
+        assertThat(content(interceptor.call(cached, context))).isEqualTo("{}");
+        when(ctx.header(HeaderNames.ACCEPT)).thenReturn(MimeTypes.XML);
+        assertThat(content(interceptor.call(cached, context))).isEqualTo("<data/>");
+        verify(context, times(2)).proceed();
+    }
+
+    private static ContentSerializer serializer(String type, final String serialized) {
+        ContentSerializer serializer = mock(ContentSerializer.class);
+        when(serializer.getContentType()).thenReturn(type);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                ((Renderable<?>) invocation.getArguments()[0]).setSerializedForm(serialized);
+                return null;
+            }
+        }).when(serializer).serialize(any(Renderable.class));
+        return serializer;
+    }
+
+    @Test
+    public void testUncacheableResults() throws Exception {
+        CachedActionInterceptor interceptor = new CachedActionInterceptor();
+        interceptor.cache = new DummyCache();
+        Cached cached = mock(Cached.class);
+        when(cached.duration()).thenReturn(10);
+        when(cached.key()).thenReturn("key");
+
+        RequestContext context = mock(RequestContext.class);
+        when(context.request()).thenReturn(mock(Request.class));
+        Context ctx = mock(Context.class);
+        when(context.context()).thenReturn(ctx);
+
+        Result cookie = Results.ok("Result").with(Cookie.cookie("id", "secret").build());
+        when(context.proceed()).thenReturn(cookie);
+        assertThat(interceptor.call(cached, context)).isSameAs(cookie);
+
+        Result error = Results.internalServerError("Oops");
+        when(context.proceed()).thenReturn(error);
+        assertThat(interceptor.call(cached, context)).isSameAs(error);
+
+        Result vary = Results.ok("Result").with(HeaderNames.VARY, "*");
+        when(context.proceed()).thenReturn(vary);
+        assertThat(interceptor.call(cached, context)).isSameAs(vary);
+
+        assertThat(interceptor.cache.get("key")).isNull();
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        CachedActionInterceptor interceptor = new CachedActionInterceptor();
+        interceptor.cache = new DummyCache();
+        Cached cached = mock(Cached.class);
+        when(cached.duration()).thenReturn(10);
+        when(cached.key()).thenReturn("key");
+
+        RequestContext context = mock(RequestContext.class);
+        when(context.request()).thenReturn(mock(Request.class));
+        Context ctx = mock(Context.class);
+        when(context.context()).thenReturn(ctx);
+        final String text = Strings.repeat("Wisdom is cached. ", 200);
+        when(context.proceed()).thenReturn(Results.ok(text));
+
+        when(ctx.header(HeaderNames.ACCEPT_ENCODING)).thenReturn("gzip, deflate");
+        Result result = interceptor.call(cached, context);
+        assertThat(result.getHeaders()).containsEntry(HeaderNames.CONTENT_ENCODING, "gzip")
+                .containsEntry(HeaderNames.VARY, HeaderNames.ACCEPT_ENCODING);
+        byte[] gzipped = (byte[]) result.getRenderable().content();
+        assertThat(gzipped.length).isLessThan(text.length());
+        assertThat(new String(ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(gzipped))),
+                Charsets.UTF_8)).isEqualTo(text);
+
+        when(ctx.header(HeaderNames.ACCEPT_ENCODING)).thenReturn("gzip;q=0");
+        result = interceptor.call(cached, context);
+        assertThat(result.getHeaders()).doesNotContainKey(HeaderNames.CONTENT_ENCODING);
+        assertThat(content(result)).isEqualTo(text);
+        verify(context, times(1)).proceed();
+    }
+
+    @Test
+    public void testAcceptsGzip() {
+        assertThat(CachedActionInterceptor.acceptsGzip(null)).isFalse();
+        assertThat(CachedActionInterceptor.acceptsGzip("deflate")).isFalse();
+        assertThat(CachedActionInterceptor.acceptsGzip("gzip")).isTrue();
+        assertThat(CachedActionInterceptor.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+        assertThat(CachedActionInterceptor.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(CachedActionInterceptor.acceptsGzip("*")).isTrue();
+    }
+
+    @Test
+    public void testStaleWhileRevalidate() throws Exception {
+        CachedActionInterceptor interceptor = new CachedActionInterceptor();
+        interceptor.cache = new DummyCache();
+        interceptor.executor = mock(ManagedExecutorService.class);
+        Cached cached = mock(Cached.class);
+        when(cached.duration()).thenReturn(10);
+        when(cached.staleWhileRevalidate()).thenReturn(60);
+        when(cached.key()).thenReturn("key");
+
+        RequestContext context = mock(RequestContext.class);
+        when(context.request()).thenReturn(mock(Request.class));
+        Context ctx = mock(Context.class);
+        when(context.context()).thenReturn(ctx);
+        when(context.proceed()).thenReturn(Results.ok("Fresh"));
+
+        // An expired entry.
+        interceptor.cache.set("key", new CachedResponse(Status.OK, new HashMap<String, String>(), "text/plain",
+                "Stale".getBytes(Charsets.UTF_8), null, System.currentTimeMillis() - 1000), 70);
+
+        // The stale entry is served, and a single refresh is submitted.
+        assertThat(content(interceptor.call(cached, context))).isEqualTo("Stale");
+        assertThat(content(interceptor.call(cached, context))).isEqualTo("Stale");
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(interceptor.executor, times(1)).submit(captor.capture());
+        verify(context, never()).proceed();
+
+        captor.getValue().run();
+        assertThat(content(interceptor.call(cached, context))).isEqualTo("Fresh");
+        verify(context, times(1)).proceed();
+    }
+
+    @Test
+    public void testRefreshReplacesTheEntryUsingTheHttpContext() throws Exception {
+        CachedActionInterceptor interceptor = new CachedActionInterceptor();
+        interceptor.cache = new DummyCache();
+        Cached cached = mock(Cached.class);
+        when(cached.duration()).thenReturn(10);
+        when(cached.staleWhileRevalidate()).thenReturn(60);
+        when(cached.key()).thenReturn("key");
+
+        // The refresh runs on another thread, and the executor does not propagate the HTTP context.
+        final List<Runnable> tasks = new ArrayList<>();
+        interceptor.executor = mock(ManagedExecutorService.class);
+        when(interceptor.executor.submit(any(Runnable.class))).thenAnswer(new Answer<Future<?>>() {
+            @Override
+            public Future<?> answer(InvocationOnMock invocation) throws Throwable {
+                tasks.add((Runnable) invocation.getArguments()[0]);
+                return null;
+            }
+        });
+
+        final Context http = mock(Context.class);
+        Request request = mock(Request.class);
+        when(request.uri()).thenReturn("/");
+        when(http.request()).thenReturn(request);
+        // A real request context, reading the HTTP context from the current thread.
+        RequestContext context = new RequestContext(mock(Route.class), new ArrayList<Filter>(),
+                new HashMap<Interceptor<?>, Object>(), new Object[0], new Filter() {
+            @Override
+            public Result call(Route route, RequestContext context) throws Exception {
+                return Results.ok(Context.CONTEXT.get() == http ? "Fresh" : "No context");
+            }
+
+            @Override
+            public Pattern uri() {
+                return null;
+            }
+
+            @Override
+            public int priority() {
+                return 0;
+            }
+        });
+
+        interceptor.cache.set("key", new CachedResponse(Status.OK, new HashMap<String, String>(), "text/plain",
+                "Stale".getBytes(Charsets.UTF_8), null, System.currentTimeMillis() - 1000), 70);
+
+        Context.CONTEXT.set(http);
+        try {
+            assertThat(content(interceptor.call(cached, context))).isEqualTo("Stale");
+        } finally {
+            // The request is answered and cleaned up.
+            Context.CONTEXT.remove();
+        }
+        assertThat(tasks).hasSize(1);
+
+        Thread refresh = new Thread(tasks.get(0));
+        refresh.start();
+        refresh.join(10000);
+
+        CachedResponse response = (CachedResponse) interceptor.cache.get("key");
+        assertThat(response.isFresh(System.currentTimeMillis())).isTrue();
+        assertThat(content(response.toResult(false))).isEqualTo("Fresh");
+    }
+
+    @Test
+    public void testWaitingForAnotherRequestIsBounded() throws Exception {
+        final CachedActionInterceptor interceptor = new CachedActionInterceptor();
+        interceptor.cache = new DummyCache();
+        interceptor.configuration = mock(ApplicationConfiguration.class);
+        when(interceptor.configuration.getDuration(CachedActionInterceptor.LOADING_TIMEOUT, TimeUnit.MILLISECONDS,
+                CachedActionInterceptor.DEFAULT_LOADING_TIMEOUT)).thenReturn(100L);
+        final Cached cached = mock(Cached.class);
+        when(cached.duration()).thenReturn(10);
+        when(cached.key()).thenReturn("key");
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final RequestContext slow = mock(RequestContext.class);
+        when(slow.request()).thenReturn(mock(Request.class));
+        when(slow.context()).thenReturn(mock(Context.class));
+        when(slow.proceed()).thenAnswer(new Answer<Result>() {
+            @Override
+            public Result answer(InvocationOnMock invocation) throws Throwable {
+                started.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return Results.ok("Slow");
+            }
+        });
+        RequestContext other = mock(RequestContext.class);
+        when(other.request()).thenReturn(mock(Request.class));
+        when(other.context()).thenReturn(mock(Context.class));
+        when(other.proceed()).thenReturn(Results.ok("Other"));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Result> first = executor.submit(new Callable<Result>() {
+                @Override
+                public Result call() throws Exception {
+                    return interceptor.call(cached, slow);
+                }
+            });
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // The second request does not wait for the first one forever.
+            long begin = System.currentTimeMillis();
+            assertThat(content(interceptor.call(cached, other))).isEqualTo("Other");
+            assertThat(System.currentTimeMillis() - begin).isLessThan(5000);
+
+            release.countDown();
+            assertThat(content(first.get(10, TimeUnit.SECONDS))).isEqualTo("Slow");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentMissesAreCoalesced() throws Exception {
+        final CachedActionInterceptor interceptor = new CachedActionInterceptor();
+        interceptor.cache = new DummyCache();
+        final Cached cached = mock(Cached.class);
+        when(cached.duration()).thenReturn(10);
+        when(cached.key()).thenReturn("key");
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger invocations = new AtomicInteger();
+        final RequestContext context = mock(RequestContext.class);
+        when(context.request()).thenReturn(mock(Request.class));
+        when(context.context()).thenReturn(mock(Context.class));
+        when(context.proceed()).thenAnswer(new Answer<Result>() {
+            @Override
+            public Result answer(InvocationOnMock invocation) throws Throwable {
+                invocations.incrementAndGet();
+                release.await(10, TimeUnit.SECONDS);
+                return Results.ok("Result");
+            }
+        });
+
+        final int clients = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        List<Future<Result>> results = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            results.add(executor.submit(new Callable<Result>() {
+                @Override
+                public Result call() throws Exception {
+                    return interceptor.call(cached, context);
+                }
+            }));
+        }
+        // Let the threads reach the interceptor before releasing the action.
+        Thread.sleep(200);
+        release.countDown();
+
+        for (Future<Result> result : results) {
+            assertThat(content(result.get(10, TimeUnit.SECONDS))).isEqualTo("Result");
+        }
+        assertThat(invocations.get()).isEqualTo(1);
+        executor.shutdownNow();
     }
 
     @Test
@@ -203,7 +575,11 @@ public class CachedActionInterceptorTest {
         svc.stop();
     }
 
-    private class DummyCache extends TreeMap<String, Object> implements Cache {
+    private static String content(Result result) {
+        return new String((byte[]) result.getRenderable().content(), Charsets.UTF_8);
+    }
+
+    private class DummyCache extends ConcurrentSkipListMap<String, Object> implements Cache {
         @Override
         public void set(String key, Object value, int expiration) {
             put(key, value);
@@ -223,5 +599,33 @@ public class CachedActionInterceptorTest {
         public boolean remove(String key) {
             return super.remove(key) != null;
         }
+
+        @Override
+        public Object getOrCompute(String key, Callable loader, Duration expiration) throws ExecutionException {
+            if (!containsKey(key)) {
+                try {
+                    put(key, loader.call());
+                } catch (Exception e) {
+                    throw new ExecutionException(e);
+                }
+            }
+            return super.get(key);
+        }
+
+        @Override
+        public Map getAll(Collection keys) {
+            Map<String, Object> result = new HashMap<>();
+            for (Object key : keys) {
+                if (containsKey(key)) {
+                    result.put((String) key, super.get(key));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public CacheStatistics statistics() {
+            return new CacheStatistics(0, 0, 0);
+        }
     }
 }
@@ -23,9 +23,14 @@ import org.joda.time.Duration;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.wisdom.api.cache.Cache;
+import org.wisdom.api.cache.CacheStatistics;
 import org.wisdom.api.configuration.ApplicationConfiguration;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -113,6 +118,55 @@ public class EhCacheServiceTest {
         impl.stop();
     }
 
+    @Test
+    public void testGetOrComputeGetAllAndStatistics() throws Exception {
+        ApplicationConfiguration configuration = mock(ApplicationConfiguration.class);
+        EhCacheService impl = new EhCacheService();
+        impl.configuration = configuration;
+        impl.start();
+        Cache svc = impl;
+
+        final AtomicInteger calls = new AtomicInteger();
+        Callable<String> loader = new Callable<String>() {
+            @Override
+            public String call() {
+                calls.incrementAndGet();
+                return "computed";
+            }
+        };
+        assertThat(svc.getOrCompute("key", loader, Duration.standardSeconds(10))).isEqualTo("computed");
+        assertThat(svc.getOrCompute("key", loader, Duration.standardSeconds(10))).isEqualTo("computed");
+        assertThat(calls.get()).isEqualTo(1);
+
+        svc.set("other", "value", 0);
+        Map<String, String> values = svc.getAll(Arrays.asList("key", "other", "missing"));
+        assertThat(values).hasSize(2).containsEntry("key", "computed").containsEntry("other", "value");
+
+        CacheStatistics statistics = svc.statistics();
+        assertThat(statistics.getHitCount()).isEqualTo(3);
+        assertThat(statistics.getMissCount()).isEqualTo(2);
+
+        impl.stop();
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void testGetOrComputeWithFailingLoader() throws Exception {
+        ApplicationConfiguration configuration = mock(ApplicationConfiguration.class);
+        EhCacheService impl = new EhCacheService();
+        impl.configuration = configuration;
+        impl.start();
+        try {
+            impl.getOrCompute("key", new Callable<String>() {
+                @Override
+                public String call() {
+                    throw new IllegalStateException("bad");
+                }
+            }, null);
+        } finally {
+            impl.stop();
+        }
+    }
+
     private static class User {
         String name;
 
@@ -0,0 +1,94 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.cache.heap;
+
+/**
+ * A doubly-linked list of nodes ordered from the least recently used to the most recently used, tracking the
+ * total weight of its nodes. Not thread-safe, only used by the thread holding the eviction lock.
+ */
+final class AccessQueue {
+
+    private final int type;
+    private final Node sentinel = new Node(null, null, 0, 0);
+    private long weight;
+
+    AccessQueue(int type) {
+        this.type = type;
+        sentinel.previous = sentinel;
+        sentinel.next = sentinel;
+    }
+
+    long weight() {
+        return weight;
+    }
+
+    /**
+     * @return the least recently used node, {@literal null} if the queue is empty.
+     */
+    Node peekFirst() {
+        return sentinel.next == sentinel ? null : sentinel.next;
+    }
+
+    /**
+     * Gets the node following the given one.
+     *
+     * @param node a node of the queue
+     * @return the next node, {@literal null} if the given node is the last one.
+     */
+    Node next(Node node) {
+        return node.next == sentinel ? null : node.next;
+    }
+
+    /**
+     * Removes and returns the least recently used node.
+     *
+     * @return the node, {@literal null} if the queue is empty.
+     */
+    Node pollFirst() {
+        Node first = peekFirst();
+        if (first != null) {
+            remove(first);
+        }
+        return first;
+    }
+
+    void addLast(Node node) {
+        node.previous = sentinel.previous;
+        node.next = sentinel;
+        sentinel.previous.next = node;
+        sentinel.previous = node;
+        node.queue = type;
+        weight += node.weight;
+    }
+
+    void remove(Node node) {
+        node.previous.next = node.next;
+        node.next.previous = node.previous;
+        node.previous = null;
+        node.next = null;
+        node.queue = Node.NONE;
+        weight -= node.weight;
+    }
+
+    void moveToBack(Node node) {
+        remove(node);
+        addLast(node);
+    }
+}
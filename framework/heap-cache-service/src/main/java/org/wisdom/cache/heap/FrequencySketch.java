@@ -0,0 +1,131 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.cache.heap;
+
+/**
+ * A probabilistic estimation of the access frequency of the keys (a Count-Min sketch), used by the admission
+ * policy of the {@link HeapCache} (TinyLFU).
+ * <p>
+ * Each key is counted by 4 counters of 4 bits, stored in an array of longs (16 counters per long). The frequency of
+ * a key is the minimum of its counters, so it is capped to 15. To keep the frequencies recent, all counters are
+ * halved once the number of increments reaches 10 times the size of the table.
+ * <p>
+ * Not thread-safe, only used by the thread holding the eviction lock.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int MAXIMUM_CAPACITY = 1 << 24;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    /**
+     * Creates a sketch.
+     *
+     * @param expectedEntries the expected number of entries in the cache
+     */
+    FrequencySketch(long expectedEntries) {
+        int capacity = 16;
+        long wanted = Math.min(expectedEntries, MAXIMUM_CAPACITY);
+        while (capacity < wanted) {
+            capacity <<= 1;
+        }
+        table = new long[capacity];
+        tableMask = capacity - 1;
+        sampleSize = 10 * capacity;
+    }
+
+    /**
+     * Gets the estimated frequency of a key.
+     *
+     * @param hashCode the hash code of the key
+     * @return the frequency, between 0 and 15
+     */
+    int frequency(int hashCode) {
+        int hash = spread(hashCode);
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Increments the frequency of a key, unless it has reached the maximum.
+     *
+     * @param hashCode the hash code of the key
+     */
+    void increment(int hashCode) {
+        int hash = spread(hashCode);
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Halves all the counters.
+     */
+    void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        // The odd counters lose their last increment.
+        size = (size >>> 1) - (odd >>> 2);
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    private static int spread(int x) {
+        int h = ((x >>> 16) ^ x) * 0x45d9f3b;
+        h = ((h >>> 16) ^ h) * 0x45d9f3b;
+        return (h >>> 16) ^ h;
+    }
+}
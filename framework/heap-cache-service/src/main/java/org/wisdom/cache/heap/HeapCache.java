@@ -0,0 +1,683 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.cache.heap;
+
+import org.joda.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wisdom.api.cache.Cache;
+import org.wisdom.api.cache.CacheStatistics;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An on-heap implementation of the {@link Cache} service, bounded by a maximum weight and using the W-TinyLFU
+ * eviction policy.
+ * <p>
+ * Entries are stored in a concurrent hash map, so reads and writes never wait for each other. The eviction policy
+ * is maintained by a single thread at a time: reads and writes are recorded in buffers, drained by the thread
+ * acquiring the eviction lock (using {@code tryLock}, so no caller ever waits for it).
+ * <p>
+ * New entries enter a small LRU window (1% of the maximum weight). Entries leaving the window become candidates
+ * to the main space, a segmented LRU made of a probation and a protected (80%) area. When the cache is full, a
+ * candidate is only admitted if its estimated access frequency is higher than the one of the entry it would evict,
+ * so one-hit wonders do not flush frequently used entries.
+ * <p>
+ * Each entry has its own expiration time. Expired entries are removed when read, and swept at most once per second
+ * during the maintenance.
+ * <p>
+ * A cache can have an overflow tier ({@link OffHeapStore}) keeping serialized values outside of the heap. Entries
+ * evicted from the heap are serialized and moved to this tier, which evicts its own least recently used entries
+ * when full. Reading an entry from the overflow tier moves it back to the heap, unless it is larger than the
+ * promotion threshold: such entries stay off-heap and are deserialized on every read, so large values do not
+ * end up in the old generation. Writes and removals of caches with an overflow tier synchronize on the store,
+ * so an entry is never present in both tiers.
+ */
+public class HeapCache implements Cache {
+
+    /**
+     * The number of pending reads triggering the maintenance.
+     */
+    private static final int DRAIN_THRESHOLD = ReadBuffer.SIZE / 4;
+
+    private static final long SWEEP_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HeapCache.class);
+
+    private final String name;
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final Weigher weigher;
+    private final OffHeapStore overflow;
+    private final ValueSerializer serializer;
+    private final int promotionThreshold;
+
+    private final ConcurrentHashMap<String, Node> data = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, FutureTask<Object>> loading = new ConcurrentHashMap<>();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ReadBuffer readBuffer = new ReadBuffer();
+    private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+
+    // Guarded by the eviction lock.
+    private final AccessQueue window = new AccessQueue(Node.WINDOW);
+    private final AccessQueue probation = new AccessQueue(Node.PROBATION);
+    private final AccessQueue protectedQueue = new AccessQueue(Node.PROTECTED);
+    private final FrequencySketch sketch;
+    private long expiringEntries;
+    private long lastSweep;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a cache bounded by a number of entries.
+     *
+     * @param name        the name of the cache
+     * @param maximumSize the maximum number of entries
+     */
+    public HeapCache(String name, long maximumSize) {
+        this(name, maximumSize, Weighers.SINGLETON);
+    }
+
+    /**
+     * Creates a cache bounded by a maximum weight.
+     *
+     * @param name          the name of the cache
+     * @param maximumWeight the maximum weight
+     * @param weigher       the weigher computing the weight of the entries
+     */
+    public HeapCache(String name, long maximumWeight, Weigher weigher) {
+        this(name, maximumWeight, weigher, null, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a cache bounded by a maximum weight, with an overflow tier.
+     *
+     * @param name               the name of the cache
+     * @param maximumWeight      the maximum weight of the heap tier
+     * @param weigher            the weigher computing the weight of the entries
+     * @param overflow           the overflow tier, {@code null} to evict entries from the heap without keeping them
+     * @param serializer         the serializer used to move entries to the overflow tier
+     * @param promotionThreshold the maximum size in bytes of the serialized entries moved back to the heap when
+     *                           read
+     */
+    public HeapCache(String name, long maximumWeight, Weigher weigher, OffHeapStore overflow,
+                     ValueSerializer serializer, int promotionThreshold) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("The maximum weight of the cache " + name + " must be positive");
+        }
+        this.name = name;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.overflow = overflow;
+        this.serializer = serializer;
+        this.promotionThreshold = promotionThreshold;
+        this.windowMaximum = Math.max(1, maximumWeight / 100);
+        this.protectedMaximum = (long) ((maximumWeight - windowMaximum) * 0.8);
+        // Use the size of the entries to estimate the number of entries of caches bounded by memory.
+        this.sketch = new FrequencySketch(weigher == Weighers.SINGLETON ? maximumWeight : maximumWeight >>> 10);
+    }
+
+    /**
+     * @return the cache name.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the approximate number of entries in the heap tier.
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * @return the overflow tier, {@code null} if none.
+     */
+    public OffHeapStore overflow() {
+        return overflow;
+    }
+
+    /**
+     * @return the current weight of the cache, i.e. the sum of the weights of the entries handled by the eviction
+     * policy.
+     */
+    public long weight() {
+        evictionLock.lock();
+        try {
+            maintenance();
+            return window.weight() + probation.weight() + protectedQueue.weight();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Sets a value into the cache.
+     *
+     * @param key        Item key.
+     * @param value      Item value.
+     * @param expiration Expiration time in seconds (0 second means eternity).
+     */
+    @Override
+    public void set(String key, Object value, int expiration) {
+        put(key, value, TimeUnit.SECONDS.toNanos(expiration));
+    }
+
+    /**
+     * Sets a value into the cache.
+     *
+     * @param key        Item key.
+     * @param value      Item value.
+     * @param expiration Expiration time, {@literal null} means eternity.
+     */
+    @Override
+    public void set(String key, Object value, Duration expiration) {
+        put(key, value, expiration == null ? 0L : TimeUnit.MILLISECONDS.toNanos(expiration.getMillis()));
+    }
+
+    private void put(String key, Object value, long timeToLive) {
+        if (value == null) {
+            remove(key);
+            return;
+        }
+        long expiresAt = timeToLive > 0 ? System.nanoTime() + timeToLive : 0L;
+        final Node node = new Node(key, value, weigher.weigh(key, value), expiresAt);
+        final Node old;
+        if (overflow == null) {
+            old = data.put(key, node);
+        } else {
+            synchronized (overflow) {
+                old = data.put(key, node);
+                overflow.remove(key);
+            }
+        }
+        afterWrite(new Runnable() {
+            @Override
+            public void run() {
+                if (old != null) {
+                    unlink(old);
+                }
+                onAdd(node);
+            }
+        });
+    }
+
+    /**
+     * Retrieves a value from the cache.
+     *
+     * @param key Item key.
+     * @return the value, {@literal null} if not cached or expired.
+     */
+    @Override
+    public Object get(String key) {
+        Node node = data.get(key);
+        if (node == null) {
+            Object value = overflow == null ? null : promote(key);
+            if (value == null) {
+                misses.incrementAndGet();
+            } else {
+                hits.incrementAndGet();
+            }
+            return value;
+        }
+        if (node.isExpired(System.nanoTime())) {
+            expire(node);
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        afterRead(node);
+        return node.value;
+    }
+
+    /**
+     * Retrieves several values from the cache.
+     *
+     * @param keys the keys
+     * @return the cached values by key
+     */
+    @Override
+    public Map getAll(Collection keys) {
+        Map<String, Object> result = new HashMap<>();
+        for (Object key : keys) {
+            Object value = get((String) key);
+            if (value != null) {
+                result.put((String) key, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves a value from the cache, or computes it. Concurrent callers requesting the same missing key wait
+     * for a single computation.
+     *
+     * @param key        Item key.
+     * @param loader     the loader
+     * @param expiration the expiration time of the computed value, {@literal null} means eternity
+     * @return the value
+     * @throws ExecutionException if the loader has thrown an exception
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object getOrCompute(String key, Callable loader, Duration expiration) throws ExecutionException {
+        Object value = get(key);
+        if (value != null) {
+            return value;
+        }
+
+        FutureTask<Object> task = new FutureTask<Object>(loader);
+        FutureTask<Object> existing = loading.putIfAbsent(key, task);
+        if (existing == null) {
+            try {
+                // The previous computation may have completed between our lookup and the registration of the task.
+                Node node = data.get(key);
+                if (node != null && !node.isExpired(System.nanoTime())) {
+                    return node.value;
+                }
+                task.run();
+                value = task.get();
+                set(key, value, expiration);
+                return value;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ExecutionException(e);
+            } finally {
+                loading.remove(key, task);
+            }
+        }
+
+        try {
+            return existing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExecutionException(e);
+        }
+    }
+
+    /**
+     * Removes a value from the cache.
+     *
+     * @param key Item key
+     * @return {@literal true} if the value was removed, {@literal false} otherwise.
+     */
+    @Override
+    public boolean remove(String key) {
+        final Node node;
+        if (overflow == null) {
+            node = data.remove(key);
+        } else {
+            synchronized (overflow) {
+                node = data.remove(key);
+                OffHeapStore.Entry entry = overflow.remove(key);
+                if (node == null) {
+                    return entry != null && !entry.isExpired(System.nanoTime());
+                }
+            }
+        }
+        if (node == null) {
+            return false;
+        }
+        afterWrite(new Runnable() {
+            @Override
+            public void run() {
+                unlink(node);
+            }
+        });
+        return !node.isExpired(System.nanoTime());
+    }
+
+    /**
+     * Removes all the entries, from both tiers.
+     */
+    public void clear() {
+        evictionLock.lock();
+        try {
+            maintenance();
+            for (Node node : data.values()) {
+                if (data.remove(node.key, node)) {
+                    unlink(node);
+                }
+            }
+            if (overflow != null) {
+                overflow.clear();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Removes all the entries and releases the overflow tier. The cache must not be used afterwards.
+     */
+    public void close() {
+        clear();
+        if (overflow != null) {
+            overflow.close();
+        }
+    }
+
+    /**
+     * @return a snapshot of the cache statistics.
+     */
+    @Override
+    public CacheStatistics statistics() {
+        long evicted = evictions.get();
+        if (overflow != null) {
+            evicted += overflow.evictions();
+        }
+        return new CacheStatistics(hits.get(), misses.get(), evicted);
+    }
+
+    /**
+     * Forces the maintenance of the eviction policy. Pending reads and writes are applied, and the cache is
+     * brought back under its maximum weight.
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void expire(final Node node) {
+        if (data.remove(node.key, node)) {
+            evictions.incrementAndGet();
+            afterWrite(new Runnable() {
+                @Override
+                public void run() {
+                    unlink(node);
+                }
+            });
+        }
+    }
+
+    private void afterRead(Node node) {
+        int pending = readBuffer.offer(node);
+        if (pending < 0 || pending >= DRAIN_THRESHOLD) {
+            tryMaintenance();
+        }
+    }
+
+    private void afterWrite(Runnable task) {
+        writeBuffer.add(task);
+        tryMaintenance();
+    }
+
+    private void tryMaintenance() {
+        // A write may be buffered while another thread releases the lock, so check again after releasing it.
+        do {
+            if (!evictionLock.tryLock()) {
+                return;
+            }
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        } while (!writeBuffer.isEmpty());
+    }
+
+    /**
+     * Applies the pending reads and writes, removes the expired entries and evicts entries if the cache is
+     * too heavy. Must be called with the eviction lock.
+     */
+    private void maintenance() {
+        readBuffer.drainTo(this);
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+            task.run();
+        }
+        sweepExpiredEntries();
+        evictEntries();
+    }
+
+    /**
+     * Adds a new node to the window.
+     *
+     * @param node the node
+     */
+    private void onAdd(Node node) {
+        if (data.get(node.key) != node) {
+            // Already replaced or removed.
+            return;
+        }
+        sketch.increment(node.key.hashCode());
+        window.addLast(node);
+        if (node.expiresAt != 0) {
+            expiringEntries++;
+        }
+    }
+
+    /**
+     * Updates the access order after a read. Called by the {@link ReadBuffer} when drained.
+     *
+     * @param node the node read
+     */
+    void onAccess(Node node) {
+        if (node.queue == Node.NONE) {
+            // Removed or not yet added.
+            return;
+        }
+        sketch.increment(node.key.hashCode());
+        switch (node.queue) {
+            case Node.WINDOW:
+                window.moveToBack(node);
+                break;
+            case Node.PROBATION:
+                // Promote to the protected area, demoting the least recently used protected entries if needed.
+                probation.remove(node);
+                protectedQueue.addLast(node);
+                while (protectedQueue.weight() > protectedMaximum) {
+                    probation.addLast(protectedQueue.pollFirst());
+                }
+                break;
+            default:
+                protectedQueue.moveToBack(node);
+                break;
+        }
+    }
+
+    private void unlink(Node node) {
+        switch (node.queue) {
+            case Node.WINDOW:
+                window.remove(node);
+                break;
+            case Node.PROBATION:
+                probation.remove(node);
+                break;
+            case Node.PROTECTED:
+                protectedQueue.remove(node);
+                break;
+            default:
+                // Not linked.
+                return;
+        }
+        if (node.expiresAt != 0) {
+            expiringEntries--;
+        }
+    }
+
+    private void evict(Node node) {
+        unlink(node);
+        if (data.remove(node.key, node)) {
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Evicts a node from the heap, moving it to the overflow tier if any.
+     *
+     * @param node the node
+     */
+    private void demote(Node node) {
+        if (overflow == null || node.isExpired(System.nanoTime())) {
+            evict(node);
+            return;
+        }
+        unlink(node);
+        byte[] bytes = null;
+        try {
+            bytes = serializer.serialize(node.value);
+        } catch (IOException e) {
+            LOGGER.debug("Cannot move the entry {} of the cache {} to the overflow tier", node.key, name, e);
+        }
+        synchronized (overflow) {
+            // The entry may have been replaced or removed during the serialization.
+            if (data.remove(node.key, node)
+                    && (bytes == null || !overflow.put(node.key, bytes, node.value.getClass(), node.expiresAt))) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Reads an entry from the overflow tier, and moves it back to the heap unless it is too large.
+     *
+     * @param key the key
+     * @return the value, {@code null} if not found
+     */
+    private Object promote(String key) {
+        OffHeapStore.Entry entry = overflow.get(key);
+        byte[] bytes = entry == null ? null : overflow.read(entry);
+        if (bytes == null) {
+            return null;
+        }
+        Object value;
+        try {
+            value = serializer.deserialize(bytes, entry.type);
+        } catch (IOException e) {
+            LOGGER.warn("Cannot read the entry {} from the overflow tier of the cache {}", key, name, e);
+            overflow.remove(key, entry);
+            return null;
+        }
+        if (bytes.length > promotionThreshold) {
+            return value;
+        }
+
+        final Node node = new Node(key, value, weigher.weigh(key, value), entry.expiresAt);
+        synchronized (overflow) {
+            // Do not resurrect an entry removed or replaced in the meantime.
+            if (!overflow.remove(key, entry) || data.putIfAbsent(key, node) != null) {
+                return value;
+            }
+        }
+        afterWrite(new Runnable() {
+            @Override
+            public void run() {
+                onAdd(node);
+            }
+        });
+        return value;
+    }
+
+    private void sweepExpiredEntries() {
+        long now = System.nanoTime();
+        if (expiringEntries == 0 || now - lastSweep < SWEEP_INTERVAL) {
+            return;
+        }
+        lastSweep = now;
+        for (AccessQueue queue : new AccessQueue[]{window, probation, protectedQueue}) {
+            Node node = queue.peekFirst();
+            while (node != null) {
+                Node next = queue.next(node);
+                if (node.isExpired(now)) {
+                    evict(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    private void evictEntries() {
+        // Entries leaving the window become candidates for the main space, at the end of the probation queue.
+        Node candidate = null;
+        while (window.weight() > windowMaximum) {
+            Node node = window.pollFirst();
+            probation.addLast(node);
+            if (candidate == null) {
+                candidate = node;
+            }
+        }
+
+        while (window.weight() + probation.weight() + protectedQueue.weight() > maximumWeight) {
+            Node victim = probation.peekFirst();
+            if (victim == null) {
+                victim = protectedQueue.peekFirst();
+                if (victim == null) {
+                    victim = window.peekFirst();
+                }
+                demote(victim);
+                continue;
+            }
+            if (candidate == null) {
+                demote(victim);
+                continue;
+            }
+
+            Node next = probation.next(candidate);
+            if (victim == candidate || admit(candidate, victim)) {
+                demote(victim);
+            } else {
+                demote(candidate);
+            }
+            candidate = next;
+        }
+    }
+
+    /**
+     * Decides whether the candidate should replace the victim, based on their estimated frequency.
+     *
+     * @param candidate the candidate
+     * @param victim    the victim
+     * @return {@code true} if the victim must be evicted, {@code false} if the candidate must be rejected
+     */
+    private boolean admit(Node candidate, Node victim) {
+        int candidateFrequency = sketch.frequency(candidate.key.hashCode());
+        int victimFrequency = sketch.frequency(victim.key.hashCode());
+        if (candidateFrequency > victimFrequency) {
+            return true;
+        }
+        if (candidateFrequency <= 5) {
+            return false;
+        }
+        // Admit warm candidates from time to time, so an attacker cannot pin a victim by inflating its frequency.
+        return ThreadLocalRandom.current().nextInt(128) == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "HeapCache{" + name + "}";
+    }
+}
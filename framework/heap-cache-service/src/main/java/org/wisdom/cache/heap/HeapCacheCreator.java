@@ -0,0 +1,209 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.cache.heap;
+
+import org.apache.felix.ipojo.annotations.*;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wisdom.api.cache.Cache;
+import org.wisdom.api.configuration.ApplicationConfiguration;
+import org.wisdom.api.configuration.Configuration;
+import org.wisdom.api.content.Json;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Component creating the heap cache regions and exposing each of them as a {@link Cache} service, with the
+ * {@literal name} service property set to the region name.
+ * <p>
+ * Regions are configured in the {@literal cache.regions} section of the application configuration:
+ * <pre>
+ * cache.regions {
+ *     wisdom.maximum-size = 10000
+ *     images.maximum-memory = 64MB
+ * }
+ * </pre>
+ * A region is bounded either by a number of entries ({@literal maximum-size}) or by an estimation of the memory
+ * consumed by its entries ({@literal maximum-memory}). The {@literal wisdom} region is always created, with 10000
+ * entries unless configured otherwise.
+ * <p>
+ * A region can have an overflow tier storing the entries evicted from the heap outside of the heap:
+ * <pre>
+ * cache.regions {
+ *     reports {
+ *         maximum-size = 100
+ *         overflow {
+ *             maximum-memory = 1GB
+ *             storage = file              # or direct (default)
+ *             file = cache/reports.bin    # optional, a temporary file is used by default
+ *             page-size = 8k
+ *             promotion-threshold = 64k   # larger entries stay off-heap when read
+ *             serializer = json           # or java (default)
+ *         }
+ *     }
+ * }
+ * </pre>
+ * The {@literal json} serializer relies on the mapper of the {@link Json} service.
+ */
+@Component
+@Instantiate
+public class HeapCacheCreator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HeapCacheCreator.class);
+
+    /**
+     * The name of the default region.
+     */
+    public static final String DEFAULT_REGION = "wisdom";
+
+    /**
+     * The default maximum number of entries of a region.
+     */
+    public static final long DEFAULT_MAXIMUM_SIZE = 10000L;
+
+    /**
+     * The default maximum size in bytes of the serialized entries moved back to the heap when read.
+     */
+    public static final int DEFAULT_PROMOTION_THRESHOLD = 64 * 1024;
+
+    @Requires
+    ApplicationConfiguration configuration;
+
+    /**
+     * The Json service used by the {@literal json} serializer. As it is a proxy, the service can arrive after the
+     * creation of the regions.
+     */
+    @Requires(optional = true)
+    Json json;
+
+    @Context
+    BundleContext context;
+
+    private final Map<ServiceRegistration, HeapCache> instances = new HashMap<>();
+
+    /**
+     * Creates the configured regions.
+     */
+    @Validate
+    public void start() {
+        Configuration regions = configuration.getConfiguration("cache.regions");
+        createRegion(DEFAULT_REGION, regions != null ? regions.getConfiguration(DEFAULT_REGION) : null);
+        if (regions != null) {
+            for (String key : regions.asMap().keySet()) {
+                // Skip the default region (already created).
+                if (!key.equals(DEFAULT_REGION)) {
+                    createRegion(key, regions.getConfiguration(key));
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a cache from its configuration.
+     *
+     * @param name the region name
+     * @param conf the configuration, {@literal null} to use the default settings
+     * @return the cache
+     */
+    static HeapCache createCache(String name, Configuration conf) {
+        return createCache(name, conf, null);
+    }
+
+    /**
+     * Creates a cache from its configuration.
+     *
+     * @param name the region name
+     * @param conf the configuration, {@literal null} to use the default settings
+     * @param json the Json service used by the {@literal json} serializer
+     * @return the cache
+     */
+    static HeapCache createCache(String name, Configuration conf, Json json) {
+        long maximum = DEFAULT_MAXIMUM_SIZE;
+        Weigher weigher = Weighers.SINGLETON;
+        if (conf != null && conf.has("maximum-memory")) {
+            maximum = conf.getBytes("maximum-memory");
+            weigher = Weighers.MEMORY;
+        } else if (conf != null) {
+            maximum = conf.getLongWithDefault("maximum-size", DEFAULT_MAXIMUM_SIZE);
+        }
+
+        Configuration overflow = conf == null ? null : conf.getConfiguration("overflow");
+        if (overflow == null) {
+            return new HeapCache(name, maximum, weigher);
+        }
+
+        Long capacity = overflow.getBytes("maximum-memory");
+        if (capacity == null) {
+            throw new IllegalArgumentException("The overflow tier of the cache region " + name + " must set its " +
+                    "'maximum-memory'");
+        }
+        int pageSize = overflow.getBytes("page-size", OffHeapStore.DEFAULT_PAGE_SIZE).intValue();
+        OffHeapStore store;
+        if ("file".equalsIgnoreCase(overflow.getWithDefault("storage", "direct"))) {
+            try {
+                File file;
+                if (overflow.has("file")) {
+                    file = new File(overflow.get("file"));
+                } else {
+                    file = File.createTempFile("wisdom-cache-" + name, ".bin");
+                }
+                store = OffHeapStore.mapped(name, file, capacity, pageSize);
+            } catch (IOException e) {
+                LOGGER.error("Cannot map the overflow file of the cache region {}, the region is kept in the heap " +
+                        "only", name, e);
+                return new HeapCache(name, maximum, weigher);
+            }
+        } else {
+            store = OffHeapStore.direct(name, capacity, pageSize);
+        }
+
+        ValueSerializer serializer = ValueSerializers.JAVA;
+        if ("json".equalsIgnoreCase(overflow.getWithDefault("serializer", "java"))) {
+            serializer = ValueSerializers.json(json);
+        }
+        int threshold = overflow.getBytes("promotion-threshold", DEFAULT_PROMOTION_THRESHOLD).intValue();
+        return new HeapCache(name, maximum, weigher, store, serializer, threshold);
+    }
+
+    private void createRegion(String name, Configuration conf) {
+        LOGGER.info("Creating heap cache region {}", name);
+        HeapCache cache = createCache(name, conf, json);
+        Hashtable<String, String> properties = new Hashtable<>();  //NOSONAR no choice here, OSGi API
+        properties.put("name", name);
+        ServiceRegistration reg = context.registerService(Cache.class.getName(), cache, properties);
+        instances.put(reg, cache);
+    }
+
+    /**
+     * Unregisters and clears all created regions.
+     */
+    @Invalidate
+    public void stop() {
+        for (Map.Entry<ServiceRegistration, HeapCache> entry : instances.entrySet()) {
+            entry.getKey().unregister();
+            entry.getValue().close();
+        }
+        instances.clear();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.cache.heap;
+
+/**
+ * A cache entry. The key, value, weight and expiration time are immutable, setting a value creates a new node.
+ * The links and the queue are only accessed by the thread holding the eviction lock.
+ */
+final class Node {
+
+    static final int NONE = 0;
+    static final int WINDOW = 1;
+    static final int PROBATION = 2;
+    static final int PROTECTED = 3;
+
+    final String key;
+    final Object value;
+    final int weight;
+
+    /**
+     * The expiration time (from {@link System#nanoTime()}), 0 if the entry never expires.
+     */
+    final long expiresAt;
+
+    Node previous;
+    Node next;
+    int queue = NONE;
+
+    Node(String key, Object value, int weight, long expiresAt) {
+        this.key = key;
+        this.value = value;
+        this.weight = weight;
+        this.expiresAt = expiresAt;
+    }
+
+    boolean isExpired(long now) {
+        return expiresAt != 0 && now - expiresAt >= 0;
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.cache.heap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A store keeping serialized values outside of the Java heap, used as overflow tier by a {@link HeapCache}. The
+ * values evicted from the heap are moved to this store, and moved back to the heap when read.
+ * <p>
+ * The memory is allocated once, either as direct buffers or by mapping a local file, and split in pages of fixed
+ * size. A value occupies as many pages as required, so the store does not suffer from fragmentation. When there
+ * are not enough free pages to store a value, the least recently used values are evicted.
+ * <p>
+ * All operations are synchronized. Values are copied to and from the pages while holding the lock, but the
+ * (more expensive) serialization is done by the callers, outside of the lock.
+ */
+public final class OffHeapStore {
+
+    /**
+     * The default size of a page (8 KB).
+     */
+    public static final int DEFAULT_PAGE_SIZE = 8 * 1024;
+
+    /**
+     * The maximum size of a buffer (1 GB), as buffers are indexed by int.
+     */
+    private static final long MAXIMUM_SEGMENT_SIZE = 1L << 30;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapStore.class);
+
+    private final String name;
+    private final int pageSize;
+    private final int pagesPerSegment;
+    private final ByteBuffer[] segments;
+    private final File file;
+    private final RandomAccessFile storage;
+
+    /**
+     * The free pages, used as a stack.
+     */
+    private final int[] freePages;
+    private int free;
+
+    /**
+     * The entries in access order (least recently used first).
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long evictions;
+
+    private OffHeapStore(String name, long capacity, int pageSize, File file) throws IOException {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The page size of the overflow store " + name + " must be positive");
+        }
+        int pages = (int) Math.min(capacity / pageSize, Integer.MAX_VALUE);
+        if (pages <= 0) {
+            throw new IllegalArgumentException("The overflow store " + name + " must be able to hold at least one " +
+                    "page of " + pageSize + " bytes");
+        }
+        this.name = name;
+        this.pageSize = pageSize;
+        this.pagesPerSegment = (int) Math.max(1, MAXIMUM_SEGMENT_SIZE / pageSize);
+        this.file = file;
+
+        this.segments = new ByteBuffer[(pages + pagesPerSegment - 1) / pagesPerSegment];
+        this.storage = file == null ? null : new RandomAccessFile(file, "rw");
+        try {
+            if (storage != null) {
+                storage.setLength((long) pages * pageSize);
+            }
+            for (int i = 0; i < segments.length; i++) {
+                long size = (long) Math.min(pagesPerSegment, pages - i * pagesPerSegment) * pageSize;
+                if (storage == null) {
+                    segments[i] = ByteBuffer.allocateDirect((int) size);
+                } else {
+                    segments[i] = storage.getChannel().map(FileChannel.MapMode.READ_WRITE,
+                            (long) i * pagesPerSegment * pageSize, size);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+
+        this.freePages = new int[pages];
+        for (int i = 0; i < pages; i++) {
+            // Pop the first pages first.
+            freePages[i] = pages - 1 - i;
+        }
+        this.free = pages;
+    }
+
+    /**
+     * Creates a store allocating direct memory. The memory is counted in the direct memory of the JVM (see
+     * {@literal -XX:MaxDirectMemorySize}).
+     *
+     * @param name     the name of the store
+     * @param capacity the capacity in bytes
+     * @param pageSize the size of the pages in bytes
+     * @return the store
+     */
+    public static OffHeapStore direct(String name, long capacity, int pageSize) {
+        try {
+            return new OffHeapStore(name, capacity, pageSize, null);
+        } catch (IOException e) {
+            // Cannot happen, no file is involved.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Creates a store mapping a local file in memory. The file is created (or truncated) and deleted when the
+     * store is closed, its content is not meant to survive restarts.
+     *
+     * @param name     the name of the store
+     * @param file     the file
+     * @param capacity the capacity in bytes
+     * @param pageSize the size of the pages in bytes
+     * @return the store
+     * @throws IOException if the file cannot be mapped
+     */
+    public static OffHeapStore mapped(String name, File file, long capacity, int pageSize) throws IOException {
+        return new OffHeapStore(name, capacity, pageSize, file);
+    }
+
+    /**
+     * @return the store name.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the capacity in bytes.
+     */
+    public long capacity() {
+        return (long) freePages.length * pageSize;
+    }
+
+    /**
+     * @return the number of stored values.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the size of the stored values in bytes.
+     */
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the number of values evicted because the store was full.
+     */
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    /**
+     * Stores a value, evicting the least recently used values if needed.
+     *
+     * @param key       the key
+     * @param data      the serialized value
+     * @param type      the class of the value
+     * @param expiresAt the expiration time (from {@link System#nanoTime()}), 0 if the value never expires
+     * @return {@code true} if the value was stored, {@code false} if it is larger than the store
+     */
+    synchronized boolean put(String key, byte[] data, Class<?> type, long expiresAt) {
+        remove(key);
+        int required = (data.length + pageSize - 1) / pageSize;
+        if (required > freePages.length) {
+            return false;
+        }
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (free < required) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            release(eldest);
+            evictions++;
+        }
+
+        int[] pages = new int[required];
+        for (int i = 0; i < required; i++) {
+            pages[i] = freePages[--free];
+            int offset = i * pageSize;
+            page(pages[i]).put(data, offset, Math.min(pageSize, data.length - offset));
+        }
+        entries.put(key, new Entry(pages, data.length, type, expiresAt));
+        bytes += data.length;
+        return true;
+    }
+
+    /**
+     * Looks up a value, and marks it as recently used. Expired values are removed.
+     *
+     * @param key the key
+     * @return the entry, {@code null} if not found or expired
+     */
+    synchronized Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.isExpired(System.nanoTime())) {
+            remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Reads a serialized value.
+     *
+     * @param entry the entry
+     * @return the serialized value, {@code null} if the entry has been removed in the meantime
+     */
+    synchronized byte[] read(Entry entry) {
+        if (!entry.stored) {
+            return null;
+        }
+        byte[] data = new byte[entry.length];
+        for (int i = 0; i < entry.pages.length; i++) {
+            int offset = i * pageSize;
+            page(entry.pages[i]).get(data, offset, Math.min(pageSize, data.length - offset));
+        }
+        return data;
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @param key the key
+     * @return the removed entry, {@code null} if not found
+     */
+    synchronized Entry remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            release(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Removes a value if it is still associated with the given entry.
+     *
+     * @param key   the key
+     * @param entry the entry
+     * @return {@code true} if the value was removed
+     */
+    synchronized boolean remove(String key, Entry entry) {
+        // An entry is stored as long as it is associated with its key.
+        if (!entry.stored) {
+            return false;
+        }
+        entries.remove(key);
+        release(entry);
+        return true;
+    }
+
+    /**
+     * Removes all the values.
+     */
+    public synchronized void clear() {
+        for (Entry entry : entries.values()) {
+            release(entry);
+        }
+        entries.clear();
+    }
+
+    /**
+     * Removes all the values and releases the storage. If the store maps a file, the file is deleted. Direct
+     * buffers and mapped files are actually released by the garbage collector.
+     */
+    public synchronized void close() {
+        clear();
+        if (storage != null) {
+            try {
+                storage.close();
+            } catch (IOException e) {
+                LOGGER.warn("Cannot close the storage file {} of the overflow store {}", file.getAbsolutePath(),
+                        name, e);
+            }
+            if (!file.delete()) {
+                LOGGER.warn("Cannot delete the storage file {} of the overflow store {}", file.getAbsolutePath(),
+                        name);
+            }
+        }
+    }
+
+    private void release(Entry entry) {
+        entry.stored = false;
+        for (int page : entry.pages) {
+            freePages[free++] = page;
+        }
+        bytes -= entry.length;
+    }
+
+    /**
+     * Gets a buffer positioned at the beginning of the given page. The buffer is a duplicate, so the segment
+     * position is not modified.
+     */
+    private ByteBuffer page(int page) {
+        ByteBuffer buffer = segments[page / pagesPerSegment].duplicate();
+        buffer.position((page % pagesPerSegment) * pageSize);
+        return buffer;
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapStore{" + name + "}";
+    }
+
+    /**
+     * A stored value.
+     */
+    static final class Entry {
+        final int[] pages;
+        final int length;
+        final Class<?> type;
+
+        /**
+         * The expiration time (from {@link System#nanoTime()}), 0 if the entry never expires.
+         */
+        final long expiresAt;
+
+        /**
+         * Whether the pages still belong to this entry, only accessed with the store lock.
+         */
+        boolean stored = true;
+
+        private Entry(int[] pages, int length, Class<?> type, long expiresAt) {
+            this.pages = pages;
+            this.length = length;
+            this.type = type;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt != 0 && now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.cache.heap;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded buffer recording the reads of the {@link HeapCache}, so the access order can be updated later by the
+ * thread holding the eviction lock. Readers never block: when the buffer is full, or when another reader wins the
+ * race for a slot, the read is simply not recorded. Losing a few reads does not matter for the eviction policy.
+ */
+final class ReadBuffer {
+
+    static final int SIZE = 128;
+    private static final int MASK = SIZE - 1;
+
+    private final AtomicReferenceArray<Node> buffer = new AtomicReferenceArray<>(SIZE);
+    private final AtomicLong writeCounter = new AtomicLong();
+    private volatile long readCounter;
+
+    /**
+     * Records a read.
+     *
+     * @param node the node read
+     * @return the number of pending reads, or -1 if the read was not recorded because the buffer is full.
+     */
+    int offer(Node node) {
+        long head = readCounter;
+        long tail = writeCounter.get();
+        long pending = tail - head;
+        if (pending >= SIZE) {
+            return -1;
+        }
+        if (writeCounter.compareAndSet(tail, tail + 1)) {
+            buffer.lazySet((int) (tail & MASK), node);
+            return (int) pending + 1;
+        }
+        // Another reader got the slot, drop this read.
+        return (int) pending;
+    }
+
+    /**
+     * Removes the recorded reads. Must only be called by the thread holding the eviction lock.
+     *
+     * @param cache the cache to notify
+     */
+    void drainTo(HeapCache cache) {
+        long head = readCounter;
+        long tail = writeCounter.get();
+        for (; head < tail; head++) {
+            int index = (int) (head & MASK);
+            Node node = buffer.get(index);
+            if (node == null) {
+                // The slot has been claimed but not yet written, we will get it on the next drain.
+                break;
+            }
+            buffer.lazySet(index, null);
+            cache.onAccess(node);
+        }
+        readCounter = head;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.cache.heap;
+
+import java.io.IOException;
+
+/**
+ * Converts the cached values to bytes, so they can be moved to the overflow tier ({@link OffHeapStore}) of a
+ * {@link HeapCache}.
+ */
+public interface ValueSerializer {
+
+    /**
+     * Serializes a value.
+     *
+     * @param value the value, not {@code null}
+     * @return the serialized form
+     * @throws IOException if the value cannot be serialized, in this case the value is not stored in the overflow
+     *                     tier
+     */
+    byte[] serialize(Object value) throws IOException;
+
+    /**
+     * Deserializes a value.
+     *
+     * @param data the serialized form
+     * @param type the class of the serialized value
+     * @return the value
+     * @throws IOException if the value cannot be deserialized
+     */
+    Object deserialize(byte[] data, Class<?> type) throws IOException;
+}
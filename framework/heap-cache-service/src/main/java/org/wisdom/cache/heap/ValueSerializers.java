@@ -0,0 +1,101 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.cache.heap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.wisdom.api.content.Json;
+
+import java.io.*;
+
+/**
+ * The built-in value serializers.
+ */
+public final class ValueSerializers {
+
+    /**
+     * The serializer using the Java serialization. Values must implement {@link Serializable}. Classes are loaded
+     * from the class loader of the serialized value, so values defined in other bundles can be restored.
+     */
+    public static final ValueSerializer JAVA = new ValueSerializer() {
+        @Override
+        public byte[] serialize(Object value) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(value);
+            }
+            return bytes.toByteArray();
+        }
+
+        @Override
+        public Object deserialize(byte[] data, final Class<?> type) throws IOException {
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data)) {
+                @Override
+                protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                    ClassLoader loader = type.getClassLoader();
+                    if (loader != null) {
+                        try {
+                            return Class.forName(desc.getName(), false, loader);
+                        } catch (ClassNotFoundException e) { //NOSONAR
+                            // Try with the default strategy.
+                        }
+                    }
+                    return super.resolveClass(desc);
+                }
+            }) {
+                return in.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Cannot load the class of the cached value", e);
+            }
+        }
+    };
+
+    private ValueSerializers() {
+        // Avoid direct instantiation.
+    }
+
+    /**
+     * Creates a serializer writing the values as JSON, using the mapper of the given {@link Json} service. Values
+     * must be supported by this mapper in both directions.
+     *
+     * @param json the Json service
+     * @return the serializer
+     */
+    public static ValueSerializer json(final Json json) {
+        return new ValueSerializer() {
+            @Override
+            public byte[] serialize(Object value) throws IOException {
+                return mapper().writeValueAsBytes(value);
+            }
+
+            @Override
+            public Object deserialize(byte[] data, Class<?> type) throws IOException {
+                return mapper().readValue(data, type);
+            }
+
+            private ObjectMapper mapper() throws IOException {
+                ObjectMapper mapper = json == null ? null : json.mapper();
+                if (mapper == null) {
+                    throw new IOException("The JSON mapper is not available");
+                }
+                return mapper;
+            }
+        };
+    }
+}
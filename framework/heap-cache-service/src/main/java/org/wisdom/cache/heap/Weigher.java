@@ -0,0 +1,36 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.cache.heap;
+
+/**
+ * Computes the weight of the cache entries. The sum of the entry weights of a cache is bounded by its maximum
+ * weight.
+ */
+public interface Weigher {
+
+    /**
+     * Computes the weight of an entry.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the weight, must be positive or zero.
+     */
+    int weigh(String key, Object value);
+}
@@ -0,0 +1,71 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.cache.heap;
+
+/**
+ * The built-in weighers.
+ */
+public final class Weighers {
+
+    /**
+     * The weigher giving a weight of 1 to every entry, so the maximum weight is a maximum number of entries.
+     */
+    public static final Weigher SINGLETON = new Weigher() {
+        @Override
+        public int weigh(String key, Object value) {
+            return 1;
+        }
+    };
+
+    /**
+     * The weigher estimating the memory consumed by an entry in bytes. The estimation is accurate for byte arrays
+     * and character sequences. For other values, a fixed size is used.
+     */
+    public static final Weigher MEMORY = new Weigher() {
+        @Override
+        public int weigh(String key, Object value) {
+            return ENTRY_OVERHEAD + 2 * key.length() + size(value);
+        }
+    };
+
+    /**
+     * The estimated size of the entry structures (map entry, node, key and value headers).
+     */
+    private static final int ENTRY_OVERHEAD = 96;
+
+    /**
+     * The size used for values of unknown types.
+     */
+    private static final int DEFAULT_VALUE_SIZE = 64;
+
+    private Weighers() {
+        // Avoid direct instantiation.
+    }
+
+    private static int size(Object value) {
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        if (value instanceof CharSequence) {
+            return 2 * ((CharSequence) value).length();
+        }
+        return DEFAULT_VALUE_SIZE;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.cache.heap;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the frequency sketch.
+ */
+public class FrequencySketchTest {
+
+    @Test
+    public void testIncrement() {
+        FrequencySketch sketch = new FrequencySketch(64);
+        int hash = "key".hashCode();
+        assertThat(sketch.frequency(hash)).isEqualTo(0);
+        sketch.increment(hash);
+        assertThat(sketch.frequency(hash)).isEqualTo(1);
+        sketch.increment(hash);
+        assertThat(sketch.frequency(hash)).isEqualTo(2);
+    }
+
+    @Test
+    public void testFrequencyIsCapped() {
+        FrequencySketch sketch = new FrequencySketch(64);
+        int hash = "key".hashCode();
+        for (int i = 0; i < 100; i++) {
+            sketch.increment(hash);
+        }
+        assertThat(sketch.frequency(hash)).isEqualTo(15);
+    }
+
+    @Test
+    public void testReset() {
+        FrequencySketch sketch = new FrequencySketch(64);
+        int hash = "key".hashCode();
+        for (int i = 0; i < 10; i++) {
+            sketch.increment(hash);
+        }
+        sketch.reset();
+        assertThat(sketch.frequency(hash)).isEqualTo(5);
+    }
+
+    @Test
+    public void testAging() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        int hash = "hot".hashCode();
+        for (int i = 0; i < 15; i++) {
+            sketch.increment(hash);
+        }
+        // Enough increments of other keys to trigger a reset.
+        for (int i = 0; i < 16 * 10; i++) {
+            sketch.increment(("other-" + i).hashCode());
+        }
+        assertThat(sketch.frequency(hash)).isLessThan(15);
+    }
+}
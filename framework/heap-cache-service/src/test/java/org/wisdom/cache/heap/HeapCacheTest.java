@@ -0,0 +1,322 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.cache.heap;
+
+import org.joda.time.Duration;
+import org.junit.Test;
+import org.wisdom.api.cache.Cache;
+import org.wisdom.api.cache.CacheStatistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Checks the heap cache.
+ */
+public class HeapCacheTest {
+
+    @Test
+    public void testSetGetRemove() {
+        Cache cache = new HeapCache("test", 100);
+        assertThat(cache.get("key")).isNull();
+        cache.set("key", "value", 0);
+        assertThat(cache.<String>get("key")).isEqualTo("value");
+        cache.set("key", "value2", Duration.standardMinutes(1));
+        assertThat(cache.<String>get("key")).isEqualTo("value2");
+        assertThat(cache.remove("key")).isTrue();
+        assertThat(cache.get("key")).isNull();
+        assertThat(cache.remove("missing")).isFalse();
+    }
+
+    @Test
+    public void testExpiration() throws InterruptedException {
+        HeapCache cache = new HeapCache("test", 100);
+        cache.set("key", "value", Duration.millis(100));
+        cache.set("eternal", "value", null);
+        assertThat(cache.get("key")).isEqualTo("value");
+        Thread.sleep(200);
+        assertThat(cache.get("key")).isNull();
+        assertThat(cache.get("eternal")).isEqualTo("value");
+        assertThat(cache.statistics().getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        HeapCache cache = new HeapCache("test", 100);
+        for (int i = 0; i < 1000; i++) {
+            cache.set("key-" + i, i, 0);
+        }
+        cache.cleanUp();
+        assertThat(cache.weight()).isLessThanOrEqualTo(100);
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+        assertThat(cache.statistics().getEvictionCount()).isEqualTo(900);
+    }
+
+    @Test
+    public void testWeightIsBounded() {
+        HeapCache cache = new HeapCache("test", 10 * 1024, Weighers.MEMORY);
+        for (int i = 0; i < 100; i++) {
+            cache.set("key-" + i, new byte[1024], 0);
+        }
+        cache.cleanUp();
+        assertThat(cache.weight()).isLessThanOrEqualTo(10 * 1024);
+        assertThat(cache.size()).isBetween(1, 9);
+    }
+
+    @Test
+    public void testFrequentEntriesAreKept() {
+        HeapCache cache = new HeapCache("test", 100);
+        for (int i = 0; i < 50; i++) {
+            cache.set("hot-" + i, i, 0);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.get("hot-" + i);
+            }
+            cache.cleanUp();
+        }
+
+        // A scan of one-hit wonders must not flush the frequently used entries.
+        for (int i = 0; i < 10000; i++) {
+            cache.set("scan-" + i, i, 0);
+        }
+        cache.cleanUp();
+
+        int kept = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get("hot-" + i) != null) {
+                kept++;
+            }
+        }
+        assertThat(kept).isGreaterThanOrEqualTo(45);
+    }
+
+    @Test
+    public void testGetAllAndStatistics() {
+        Cache cache = new HeapCache("test", 100);
+        cache.set("a", "1", 0);
+        cache.set("b", "2", 0);
+        Map<String, String> values = cache.getAll(Arrays.asList("a", "b", "c"));
+        assertThat(values).hasSize(2).containsEntry("a", "1").containsEntry("b", "2");
+
+        CacheStatistics statistics = cache.statistics();
+        assertThat(statistics.getHitCount()).isEqualTo(2);
+        assertThat(statistics.getMissCount()).isEqualTo(1);
+        assertThat(statistics.getRequestCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void testGetOrComputeCoalescesLoads() throws Exception {
+        final HeapCache cache = new HeapCache("test", 100);
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final Callable<String> loader = new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                loads.incrementAndGet();
+                Thread.sleep(200);
+                return "computed";
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                results.add(executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        start.await();
+                        return cache.getOrCompute("key", loader, null);
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Object> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo("computed");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.get("key")).isEqualTo("computed");
+    }
+
+    @Test
+    public void testGetOrComputeWithFailingLoader() {
+        HeapCache cache = new HeapCache("test", 100);
+        try {
+            cache.getOrCompute("key", new Callable<String>() {
+                @Override
+                public String call() {
+                    throw new IllegalStateException("bad");
+                }
+            }, null);
+            fail("Exception expected");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+        }
+        assertThat(cache.get("key")).isNull();
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final HeapCache cache = new HeapCache("test", 500);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        final CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            final int thread = t;
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < 20000; i++) {
+                            String key = "key-" + ((i * 31 + thread) % 2000);
+                            if (cache.get(key) == null) {
+                                cache.set(key, i, 0);
+                            }
+                            if (i % 100 == 0) {
+                                cache.remove(key);
+                            }
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+        cache.cleanUp();
+        assertThat(cache.weight()).isLessThanOrEqualTo(500);
+        assertThat(cache.size()).isLessThanOrEqualTo(500);
+    }
+
+    @Test
+    public void testClear() {
+        HeapCache cache = new HeapCache("test", 100);
+        cache.set("a", "1", 0);
+        cache.set("b", "2", 0);
+        cache.clear();
+        assertThat(cache.size()).isEqualTo(0);
+        assertThat(cache.weight()).isEqualTo(0);
+        assertThat(cache.get("a")).isNull();
+    }
+
+    @Test
+    public void testOverflow() {
+        HeapCache cache = new HeapCache("test", 10, Weighers.SINGLETON,
+                OffHeapStore.direct("test", 1024 * 1024, 1024), ValueSerializers.JAVA, Integer.MAX_VALUE);
+        for (int i = 0; i < 100; i++) {
+            cache.set("key-" + i, "value-" + i, 0);
+        }
+        cache.cleanUp();
+        assertThat(cache.size()).isLessThanOrEqualTo(10);
+        assertThat(cache.overflow().size()).isEqualTo(100 - cache.size());
+
+        // Every entry is still available, in one tier or the other.
+        for (int i = 0; i < 100; i++) {
+            assertThat(cache.get("key-" + i)).isEqualTo("value-" + i);
+        }
+        cache.cleanUp();
+        assertThat(cache.size()).isLessThanOrEqualTo(10);
+        assertThat(cache.statistics().getEvictionCount()).isEqualTo(0);
+        assertThat(cache.statistics().getMissCount()).isEqualTo(0);
+        cache.close();
+    }
+
+    @Test
+    public void testOverflowRemoveAndReplace() {
+        HeapCache cache = new HeapCache("test", 1, Weighers.SINGLETON,
+                OffHeapStore.direct("test", 64 * 1024, 1024), ValueSerializers.JAVA, Integer.MAX_VALUE);
+        cache.set("a", "1", 0);
+        cache.set("b", "2", 0);
+        cache.set("c", "3", 0);
+        cache.cleanUp();
+        assertThat(cache.overflow().size()).isEqualTo(2);
+
+        cache.set("a", "one", 0);
+        assertThat(cache.get("a")).isEqualTo("one");
+        assertThat(cache.remove("b")).isTrue();
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.remove("b")).isFalse();
+
+        cache.clear();
+        assertThat(cache.overflow().size()).isEqualTo(0);
+        assertThat(cache.get("c")).isNull();
+        cache.close();
+    }
+
+    @Test
+    public void testOverflowIsBounded() {
+        HeapCache cache = new HeapCache("test", 1, Weighers.SINGLETON,
+                OffHeapStore.direct("test", 8 * 1024, 1024), ValueSerializers.JAVA, Integer.MAX_VALUE);
+        for (int i = 0; i < 10; i++) {
+            cache.set("key-" + i, new byte[1500], 0);
+        }
+        cache.cleanUp();
+        // Each entry uses 2 pages, so the overflow tier holds 4 entries.
+        assertThat(cache.overflow().size()).isEqualTo(4);
+        assertThat(cache.statistics().getEvictionCount()).isEqualTo(10 - 1 - 4);
+        // The least recently used entries have been evicted.
+        assertThat(cache.get("key-0")).isNull();
+        assertThat(cache.get("key-8")).isNotNull();
+        cache.close();
+    }
+
+    @Test
+    public void testLargeEntriesStayOffHeap() {
+        HeapCache cache = new HeapCache("test", 1, Weighers.SINGLETON,
+                OffHeapStore.direct("test", 64 * 1024, 1024), ValueSerializers.JAVA, 1024);
+        cache.set("large", new byte[4096], 0);
+        cache.set("small", "small", 0);
+        cache.set("other", "other", 0);
+        cache.cleanUp();
+        assertThat(cache.overflow().size()).isEqualTo(2);
+
+        assertThat((byte[]) cache.get("large")).hasSize(4096);
+        assertThat(cache.get("small")).isEqualTo("small");
+        cache.cleanUp();
+        // The small entry has been moved back to the heap, the large one is still off-heap.
+        assertThat(cache.overflow().size()).isEqualTo(2);
+        assertThat(cache.get("large")).isNotNull();
+        cache.close();
+    }
+
+    @Test
+    public void testValuesThatCannotBeSerializedAreEvicted() {
+        HeapCache cache = new HeapCache("test", 1, Weighers.SINGLETON,
+                OffHeapStore.direct("test", 64 * 1024, 1024), ValueSerializers.JAVA, Integer.MAX_VALUE);
+        cache.set("a", new Object(), 0);
+        cache.set("b", new Object(), 0);
+        cache.cleanUp();
+        assertThat(cache.overflow().size()).isEqualTo(0);
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.statistics().getEvictionCount()).isEqualTo(1);
+        cache.close();
+    }
+}
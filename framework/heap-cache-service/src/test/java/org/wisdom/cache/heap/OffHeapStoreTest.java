@@ -0,0 +1,126 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.cache.heap;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the off-heap store.
+ */
+public class OffHeapStoreTest {
+
+    private static byte[] data(int length, int seed) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (i * 31 + seed);
+        }
+        return data;
+    }
+
+    @Test
+    public void testPutReadRemove() {
+        OffHeapStore store = OffHeapStore.direct("test", 64 * 1024, 1024);
+        byte[] data = data(3000, 1);
+        assertThat(store.put("a", data, byte[].class, 0)).isTrue();
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.bytes()).isEqualTo(3000);
+
+        OffHeapStore.Entry entry = store.get("a");
+        assertThat(entry.type).isEqualTo(byte[].class);
+        assertThat(store.read(entry)).isEqualTo(data);
+
+        assertThat(store.remove("a")).isSameAs(entry);
+        assertThat(store.get("a")).isNull();
+        assertThat(store.read(entry)).isNull();
+        assertThat(store.remove("a", entry)).isFalse();
+        assertThat(store.bytes()).isEqualTo(0);
+    }
+
+    @Test
+    public void testReplace() {
+        OffHeapStore store = OffHeapStore.direct("test", 4 * 1024, 1024);
+        store.put("a", data(4000, 1), byte[].class, 0);
+        OffHeapStore.Entry first = store.get("a");
+        store.put("a", data(4000, 2), byte[].class, 0);
+        assertThat(store.read(first)).isNull();
+        assertThat(store.read(store.get("a"))).isEqualTo(data(4000, 2));
+        assertThat(store.evictions()).isEqualTo(0);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        OffHeapStore store = OffHeapStore.direct("test", 4 * 1024, 1024);
+        store.put("a", data(1500, 1), byte[].class, 0);
+        store.put("b", data(1500, 2), byte[].class, 0);
+        // Use a, so b is the least recently used entry.
+        store.get("a");
+        store.put("c", data(1500, 3), byte[].class, 0);
+
+        assertThat(store.get("b")).isNull();
+        assertThat(store.read(store.get("a"))).isEqualTo(data(1500, 1));
+        assertThat(store.read(store.get("c"))).isEqualTo(data(1500, 3));
+        assertThat(store.evictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void testTooLargeValues() {
+        OffHeapStore store = OffHeapStore.direct("test", 4 * 1024, 1024);
+        store.put("a", data(10, 1), byte[].class, 0);
+        assertThat(store.put("b", data(5000, 1), byte[].class, 0)).isFalse();
+        assertThat(store.get("a")).isNotNull();
+        assertThat(store.put("c", new byte[0], byte[].class, 0)).isTrue();
+        assertThat(store.read(store.get("c"))).isEmpty();
+    }
+
+    @Test
+    public void testExpiration() {
+        OffHeapStore store = OffHeapStore.direct("test", 4 * 1024, 1024);
+        store.put("a", data(10, 1), byte[].class, System.nanoTime() - 1);
+        assertThat(store.get("a")).isNull();
+        assertThat(store.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testMappedFile() throws IOException {
+        File file = File.createTempFile("wisdom-cache-test", ".bin");
+        OffHeapStore store = OffHeapStore.mapped("test", file, 16 * 1024, 1024);
+        assertThat(file.length()).isEqualTo(16 * 1024);
+        byte[][] values = new byte[10][];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = data(1000 + i * 100, i);
+            store.put("key-" + i, values[i], byte[].class, 0);
+        }
+        for (int i = 0; i < values.length; i++) {
+            OffHeapStore.Entry entry = store.get("key-" + i);
+            if (entry != null) {
+                assertThat(Arrays.equals(store.read(entry), values[i])).isTrue();
+            }
+        }
+        assertThat(store.get("key-9")).isNotNull();
+        store.close();
+        assertThat(file.exists()).isFalse();
+    }
+}
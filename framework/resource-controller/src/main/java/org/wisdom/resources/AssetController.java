@@ -21,34 +21,39 @@ package org.wisdom.resources;
 
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.filefilter.TrueFileFilter;
 import org.apache.felix.ipojo.annotations.*;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.util.tracker.BundleTracker;
+import org.osgi.util.tracker.BundleTrackerCustomizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wisdom.api.Controller;
 import org.wisdom.api.DefaultController;
 import org.wisdom.api.asset.Asset;
 import org.wisdom.api.asset.AssetProvider;
 import org.wisdom.api.asset.DefaultAsset;
+import org.wisdom.api.concurrent.ManagedExecutorService;
 import org.wisdom.api.configuration.ApplicationConfiguration;
-import org.wisdom.api.crypto.Crypto;
 import org.wisdom.api.http.HttpMethod;
 import org.wisdom.api.http.Result;
 import org.wisdom.api.router.Route;
 import org.wisdom.api.router.RouteBuilder;
 
 import java.io.File;
-import java.net.URL;
-import java.util.*;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * A controller publishing the resources found in a folder and in bundles.
+ * <p>
+ * The assets are served from an {@link AssetIndex}, kept up to date by a bundle tracker for the assets embedded in
+ * bundles. ETags are computed from the asset content.
  */
 @Component(immediate = true)
-@Provides
-public class AssetController extends DefaultController implements AssetProvider {
+@Provides(specifications = {Controller.class, AssetProvider.class})
+public class AssetController extends DefaultController implements AssetProvider, BundleTrackerCustomizer<Bundle> {
 
     public static final Logger LOGGER = LoggerFactory.getLogger(AssetController.class);
     /**
@@ -62,17 +67,24 @@ public class AssetController extends DefaultController implements AssetProvider
     private final boolean manageAssetsFromBundles;
     private final String pathInBundles;
     private final String root;
+    private final AssetIndex index;
+    private BundleTracker<Bundle> tracker;
 
     @Requires
     ApplicationConfiguration configuration;
-    @Requires
-    Crypto crypto;
+
+    /**
+     * The executor computing the ETags, so the first request on an asset does not read it completely. If not
+     * available, the ETags are computed by the request thread.
+     */
+    @Requires(filter = "(name=" + ManagedExecutorService.SYSTEM + ")", proxy = false, optional = true,
+            nullable = false)
+    ManagedExecutorService executor;
 
     /**
      * Constructor used for testing purpose only.
      *
      * @param configuration           the configuration service
-     * @param crypto                  the crypto service
      * @param bc                      the bundle context
      * @param path                    the external FS path
      * @param manageAssetsFromBundles whether or not it should handle embedded assets
@@ -81,7 +93,6 @@ public class AssetController extends DefaultController implements AssetProvider
      */
     public AssetController(
             ApplicationConfiguration configuration,
-            Crypto crypto,
             BundleContext bc,
             String path,
             boolean manageAssetsFromBundles,
@@ -89,7 +100,6 @@ public class AssetController extends DefaultController implements AssetProvider
             String url) {
 
         this.configuration = configuration;
-        this.crypto = crypto;
         this.context = bc;
 
         if (!Strings.isNullOrEmpty(path)) {
@@ -100,6 +110,7 @@ public class AssetController extends DefaultController implements AssetProvider
         this.manageAssetsFromBundles = manageAssetsFromBundles;
         this.pathInBundles = computePathInBundle(pathInBundles);
         this.root = computeRoot(url);
+        this.index = new AssetIndex(directory, root, this.pathInBundles);
     }
 
     /**
@@ -122,6 +133,7 @@ public class AssetController extends DefaultController implements AssetProvider
         this.manageAssetsFromBundles = manageAssetsFromBundles;
         this.pathInBundles = computePathInBundle(pathInBundles);
         this.root = computeRoot(url);
+        this.index = new AssetIndex(directory, root, this.pathInBundles);
 
         if (manageAssetsFromBundles) {
             LOGGER.info("Serving assets from bundles ({}) on {}",
@@ -164,6 +176,30 @@ public class AssetController extends DefaultController implements AssetProvider
                 .to(this, "serve"));
     }
 
+    /**
+     * Starts the controller. It indexes the file system assets and starts tracking the bundles if the assets
+     * from bundles are served.
+     */
+    @Validate
+    public void start() {
+        index.refreshFiles();
+        if (manageAssetsFromBundles && context != null) {
+            tracker = new BundleTracker<>(context, Bundle.RESOLVED | Bundle.STARTING | Bundle.ACTIVE, this);
+            tracker.open();
+        }
+    }
+
+    /**
+     * Stops the controller.
+     */
+    @Invalidate
+    public void stop() {
+        if (tracker != null) {
+            tracker.close();
+            tracker = null;
+        }
+    }
+
     /**
      * @return the result serving the asset.
      */
@@ -173,104 +209,73 @@ public class AssetController extends DefaultController implements AssetProvider
             path = path.substring(1);
         }
 
-        Asset<?> asset = getAssetFromFS(path);
+        IndexedAsset<?> asset = index.file(path);
         if (asset == null && manageAssetsFromBundles) {
-            asset = getAssetFromBundle(path);
+            asset = index.bundle(path);
         }
 
         if (asset != null) {
-            return CacheUtils.fromAsset(context(), asset, configuration);
+            // Until the content hash is computed (or if ETags are disabled), only the modification date is used.
+            String etag = CacheUtils.isEtagEnabled(configuration) ? asset.getEtag(executor) : null;
+            return CacheUtils.fromAsset(context(), new DefaultAsset<>(asset.getPath(), asset.getContent(),
+                    asset.getSource(), asset.getLastModified(), etag), configuration);
         }
         return notFound();
     }
 
-    private Asset<URL> getAssetFromBundle(String path) {
-        Bundle[] bundles = context.getBundles();
-        // Skip bundle 0 as it cannot contain assets
-        for (int i = 1; i < bundles.length; i++) {
-            URL url = bundles[i].getResource(pathInBundles + path);
-            if (url != null) {
-                return new DefaultAsset<>(root + "/" + path, url, bundles[i].getSymbolicName(),
-                        bundles[i].getLastModified(),
-                        CacheUtils.computeEtag(bundles[i].getLastModified(), configuration, crypto));
-            }
-        }
-        return null; // Asset not found, just returning null.
-    }
-
-    private Asset<File> getAssetFromFS(String path) {
-        if (directory == null) {
+    /**
+     * A bundle arrives (or is resolved). Its assets are indexed.
+     *
+     * @param bundle the bundle
+     * @param event  the event
+     * @return the bundle if it contains assets, {@literal null} otherwise
+     */
+    @Override
+    public Bundle addingBundle(Bundle bundle, BundleEvent event) {
+        if (bundle.getBundleId() == 0) {
+            // Bundle 0 cannot contain assets.
             return null;
         }
-        File file = new File(directory, path);
-        if (!file.exists()) {
+        int count = index.addBundle(bundle);
+        if (count == 0) {
             return null;
         }
-        return new DefaultAsset<>(root + "/" + path, file, file.getAbsolutePath(), file.lastModified(),
-                CacheUtils.computeEtag(file.lastModified(), configuration, crypto));
+        LOGGER.debug("{} assets found in {} [{}]", count, bundle.getSymbolicName(), bundle.getBundleId());
+        return bundle;
     }
 
     /**
-     * @return the list of provided assets.
+     * A bundle containing assets is modified. Its assets are indexed again.
+     *
+     * @param bundle the bundle
+     * @param event  the event
+     * @param object the bundle
      */
     @Override
-    public Collection<Asset<?>> assets() {
-        Map<String, Asset<?>> map = new HashMap<>();
-        if (directory != null && directory.isDirectory()) {
-            // First insert the FS assets
-            // For this iterate over the file present on the file system.
-            Collection<File> files = FileUtils.listFiles(directory, TrueFileFilter.INSTANCE, TrueFileFilter.INSTANCE);
-            for (File file : files) {
-                if (file.getName().startsWith(".")) {
-                    // Skip file starting with . - there are hidden.
-                    continue;
-                }
-                if (file.getName().startsWith(".")) {
-                    // Skip file starting with . - there are hidden.
-                    continue;
-                }
-
-                // The path is computed as follows:
-                // root (ending with /) and the path of the file relative to the directory. As these path may contain
-                // \ on Windows we replace them by /.
-                String path = root
-                        + file.getAbsolutePath().substring(directory.getAbsolutePath().length()).replace("\\", "/");
-                // TODO Do we really need computing the ETAG here ?
-                map.put(path, new DefaultAsset<>(path, file, file.getAbsolutePath(), file.lastModified(), null));
-            }
-        }
-
-        if (!manageAssetsFromBundles) {
-            return map.values();
-        }
-
-        // No add the bundle things.
-        Bundle[] bundles = context.getBundles();
-        // Skip bundle 0
-        for (int i = 1; i < bundles.length; i++) {
-            // Remove the last "/" - we are sure to have one.
-            URL root = bundles[i].getEntry(pathInBundles.substring(0, pathInBundles.length() - 1));
-            Enumeration<URL> urls = bundles[i].findEntries(pathInBundles, "*", true);
+    public void modifiedBundle(Bundle bundle, BundleEvent event, Bundle object) {
+        index.addBundle(bundle);
+    }
 
-            if (urls != null) {
-                while (urls.hasMoreElements()) {
-                    URL url = urls.nextElement();
-                    String path = url.toExternalForm().substring(root.toExternalForm().length());
-                    if (path.startsWith("/")) {
-                        path = this.root + path;
-                    } else {
-                        path = this.root + "/" + path;
-                    }
-                    if (!map.containsKey(path)) {
-                        // We should not replace assets overridden by files.
-                        map.put(path, new DefaultAsset<>(path, url, url.toExternalForm(),
-                                bundles[i].getLastModified(), null));
-                    }
-                }
-            }
-        }
+    /**
+     * A bundle containing assets leaves. Its assets are removed from the index.
+     *
+     * @param bundle the bundle
+     * @param event  the event
+     * @param object the bundle
+     */
+    @Override
+    public void removedBundle(Bundle bundle, BundleEvent event, Bundle object) {
+        index.removeBundle(bundle);
+    }
 
-        return map.values();
+    /**
+     * @return the list of provided assets.
+     */
+    @Override
+    public Collection<Asset<?>> assets() {
+        // Pick up the files added since the last indexation.
+        index.refreshFiles();
+        return index.assets();
     }
 
     /**
@@ -281,9 +286,9 @@ public class AssetController extends DefaultController implements AssetProvider
      */
     @Override
     public Asset<?> assetAt(String path) {
-        Asset<?> asset = getAssetFromFS(path);
+        Asset<?> asset = index.file(path);
         if (asset == null) {
-            asset = getAssetFromBundle(path);
+            asset = index.bundle(path);
         }
         return asset;
     }
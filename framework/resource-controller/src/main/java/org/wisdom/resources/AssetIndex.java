@@ -0,0 +1,244 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.resources;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.filefilter.TrueFileFilter;
+import org.osgi.framework.Bundle;
+import org.wisdom.api.asset.Asset;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The index of the assets served by the {@link AssetController}, mapping the path of each asset (relative to the
+ * root url) to its metadata. Serving an indexed asset only requires a map lookup.
+ * <p>
+ * The file system assets are indexed when the controller starts and when the list of assets is requested. Files
+ * that are not indexed yet are looked up on the file system and added to the index. The modification date and the
+ * length of indexed files are checked on each access (without reading them), so modified files are re-indexed and
+ * deleted files are removed.
+ * <p>
+ * The bundle assets are indexed when the bundles arrive and are removed when they leave. When several bundles
+ * contain the same asset, the one from the bundle with the lowest id is served, and file system assets override
+ * bundle assets. Only the entries of the bundles (and of their fragments) are indexed, using
+ * {@link Bundle#findEntries(String, String, boolean)}: unlike a class loader lookup, the resources from imported
+ * packages or from jars embedded in the bundle class path are not served.
+ */
+final class AssetIndex {
+
+    private final File directory;
+    private final String root;
+    private final String pathInBundles;
+
+    private final ConcurrentMap<String, IndexedAsset<File>> files = new ConcurrentHashMap<>();
+
+    /**
+     * The assets of each bundle, sorted by bundle id. Guarded by this index.
+     */
+    private final SortedMap<Long, Map<String, IndexedAsset<URL>>> assetsPerBundle = new TreeMap<>();
+
+    /**
+     * The bundle assets, merged from {@link #assetsPerBundle}. Rebuilt when a bundle arrives or leaves.
+     */
+    private volatile Map<String, IndexedAsset<URL>> bundles = Collections.emptyMap();
+
+    /**
+     * Creates the index.
+     *
+     * @param directory     the directory containing the assets, {@literal null} if none
+     * @param root          the root url of the assets
+     * @param pathInBundles the path of the assets in bundles, starting and ending with {@literal /}
+     */
+    AssetIndex(File directory, String root, String pathInBundles) {
+        this.directory = directory;
+        this.root = root;
+        this.pathInBundles = pathInBundles;
+    }
+
+    /**
+     * Indexes the files from the asset directory. Unmodified files keep their current metadata (and so their ETag).
+     */
+    void refreshFiles() {
+        if (directory == null || !directory.isDirectory()) {
+            files.clear();
+            return;
+        }
+        Set<String> found = new HashSet<>();
+        String base = directory.getAbsolutePath();
+        for (File file : FileUtils.listFiles(directory, TrueFileFilter.INSTANCE, TrueFileFilter.INSTANCE)) {
+            if (file.getName().startsWith(".")) {
+                // Skip file starting with . - there are hidden.
+                continue;
+            }
+            // As the path may contain \ on Windows we replace them by /.
+            String path = file.getAbsolutePath().substring(base.length() + 1).replace("\\", "/");
+            found.add(path);
+            IndexedAsset<File> current = files.get(path);
+            if (current == null || current.isStale()) {
+                files.put(path, IndexedAsset.of(root + "/" + path, file));
+            }
+        }
+        files.keySet().retainAll(found);
+    }
+
+    /**
+     * Gets the asset stored in the asset directory. An indexed asset whose file has been modified or deleted is
+     * re-indexed or removed.
+     * <p>
+     * The path comes from the request, so it is not trusted: paths leaving the directory are rejected, and a file
+     * found on the file system is indexed under its real path (relative to the directory), so the different
+     * spellings of a path ({@code ./a.js}, {@code x/../a.js}...) do not add entries to the index.
+     *
+     * @param path the path of the asset, relative to the root url
+     * @return the asset, {@literal null} if there is no such file
+     */
+    IndexedAsset<File> file(String path) {
+        if (directory == null) {
+            return null;
+        }
+        IndexedAsset<File> asset = files.get(path);
+        if (asset != null) {
+            if (!asset.isStale()) {
+                return asset;
+            }
+            files.remove(path, asset);
+        }
+
+        String normalized = FilenameUtils.normalize(path, true);
+        if (normalized == null || FilenameUtils.getPrefixLength(normalized) != 0) {
+            // The path leaves the directory, or is absolute.
+            return null;
+        }
+        File file = new File(directory, normalized);
+        if (!file.isFile()) {
+            return null;
+        }
+        String key = getRelativePath(file);
+        if (key == null) {
+            // Not in the directory (symbolic link), served without being indexed.
+            return IndexedAsset.of(root + "/" + normalized, file);
+        }
+        IndexedAsset<File> indexed = files.get(key);
+        if (indexed == null || indexed.isStale()) {
+            indexed = IndexedAsset.of(root + "/" + key, file);
+            files.put(key, indexed);
+        }
+        return indexed;
+    }
+
+    /**
+     * Computes the real path of a file relative to the asset directory.
+     *
+     * @param file the file
+     * @return the path, using {@literal /} as separator, {@literal null} if the file is not in the directory
+     */
+    private String getRelativePath(File file) {
+        try {
+            String base = directory.getCanonicalPath() + File.separator;
+            String path = file.getCanonicalPath();
+            if (!path.startsWith(base)) {
+                return null;
+            }
+            return path.substring(base.length()).replace("\\", "/");
+        } catch (IOException e) { //NOSONAR
+            // Cannot be resolved, so not indexed.
+            return null;
+        }
+    }
+
+    /**
+     * Gets the asset embedded in a bundle.
+     *
+     * @param path the path of the asset, relative to the root url
+     * @return the asset, {@literal null} if no bundle contains this asset
+     */
+    IndexedAsset<URL> bundle(String path) {
+        return bundles.get(path);
+    }
+
+    /**
+     * Indexes the assets contained in the given bundle.
+     *
+     * @param bundle the bundle
+     * @return the number of assets found in the bundle
+     */
+    synchronized int addBundle(Bundle bundle) {
+        Map<String, IndexedAsset<URL>> assets = new HashMap<>();
+        Enumeration<URL> urls = bundle.findEntries(pathInBundles, "*", true);
+        if (urls != null) {
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                String entry = url.getPath();
+                if (!entry.startsWith(pathInBundles) || entry.endsWith("/")) {
+                    // Directory.
+                    continue;
+                }
+                String path = entry.substring(pathInBundles.length());
+                assets.put(path, IndexedAsset.of(root + "/" + path, url, bundle));
+            }
+        }
+        if (assets.isEmpty()) {
+            assetsPerBundle.remove(bundle.getBundleId());
+        } else {
+            assetsPerBundle.put(bundle.getBundleId(), assets);
+        }
+        mergeBundles();
+        return assets.size();
+    }
+
+    /**
+     * Removes the assets contained in the given bundle.
+     *
+     * @param bundle the bundle
+     */
+    synchronized void removeBundle(Bundle bundle) {
+        if (assetsPerBundle.remove(bundle.getBundleId()) != null) {
+            mergeBundles();
+        }
+    }
+
+    private void mergeBundles() {
+        Map<String, IndexedAsset<URL>> merged = new HashMap<>();
+        for (Map<String, IndexedAsset<URL>> assets : assetsPerBundle.values()) {
+            for (Map.Entry<String, IndexedAsset<URL>> entry : assets.entrySet()) {
+                if (!merged.containsKey(entry.getKey())) {
+                    merged.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        bundles = merged;
+    }
+
+    /**
+     * @return all the indexed assets, the file system assets overriding the bundle assets.
+     */
+    Collection<Asset<?>> assets() {
+        Map<String, Asset<?>> map = new HashMap<>();
+        map.putAll(bundles);
+        map.putAll(files);
+        return map.values();
+    }
+}
@@ -23,6 +23,10 @@ import org.osgi.framework.Bundle;
 import org.slf4j.LoggerFactory;
 import org.wisdom.api.asset.Asset;
 import org.wisdom.api.configuration.ApplicationConfiguration;
+import org.wisdom.api.configuration.Configuration;
+import org.wisdom.api.configuration.ConfigurationMapper;
+import org.wisdom.api.configuration.ConfigurationView;
+import org.wisdom.api.configuration.ConfigurationViews;
 import org.wisdom.api.crypto.Crypto;
 import org.wisdom.api.http.*;
 import org.wisdom.api.utils.DateUtil;
@@ -52,6 +56,12 @@ public class CacheUtils {
      */
     public static final boolean HTTP_USE_ETAG_DEFAULT = true;
 
+    /**
+     * The cache settings of the last used configuration. In practice, there is a single application
+     * configuration, so the settings are resolved once and then refreshed on reload.
+     */
+    private static volatile SettingsBinding binding;
+
     /**
      * Add the last modified header to the given result. This method handle the HTTP Date format.
      *
@@ -108,15 +118,23 @@ public class CacheUtils {
      * @return the encoded etag
      */
     public static String computeEtag(long lastModification, ApplicationConfiguration configuration, Crypto crypto) {
-        boolean useEtag = configuration.getBooleanWithDefault(HTTP_USE_ETAG,
-                HTTP_USE_ETAG_DEFAULT);
-        if (!useEtag) {
+        if (!getSettings(configuration).useEtag) {
             return null;
         }
         String raw = Long.toString(lastModification);
         return crypto.hexSHA1(raw);
     }
 
+    /**
+     * Checks whether ETags are enabled.
+     *
+     * @param configuration the configuration
+     * @return {@code true} if ETags are enabled
+     */
+    public static boolean isEtagEnabled(ApplicationConfiguration configuration) {
+        return getSettings(configuration).useEtag;
+    }
+
     /**
      * Adds cache control and etag to the given result.
      *
@@ -125,20 +143,11 @@ public class CacheUtils {
      * @param configuration the application configuration
      */
     public static void addCacheControlAndEtagToResult(Result result, String etag, ApplicationConfiguration configuration) {
-        String maxAge = configuration.getWithDefault(HTTP_CACHE_CONTROL_MAX_AGE,
-                HTTP_CACHE_CONTROL_DEFAULT);
-
-        if ("0".equals(maxAge)) {
-            result.with(HeaderNames.CACHE_CONTROL, "no-cache");
-        } else {
-            result.with(HeaderNames.CACHE_CONTROL, "max-age=" + maxAge);
-        }
+        CacheSettings settings = getSettings(configuration);
+        result.with(HeaderNames.CACHE_CONTROL, settings.cacheControl);
 
         // Use etag on demand:
-        boolean useEtag = configuration.getBooleanWithDefault(HTTP_USE_ETAG,
-                HTTP_USE_ETAG_DEFAULT);
-
-        if (useEtag) {
+        if (settings.useEtag) {
             result.with(HeaderNames.ETAG, etag);
         }
     }
@@ -198,4 +207,63 @@ public class CacheUtils {
             return result;
         }
     }
+
+    /**
+     * Gets the cache settings resolved from the given configuration.
+     *
+     * @param configuration the configuration
+     * @return the settings
+     */
+    private static CacheSettings getSettings(ApplicationConfiguration configuration) {
+        SettingsBinding current = binding;
+        if (current == null || current.configuration != configuration) {
+            current = new SettingsBinding(configuration);
+            binding = current;
+        }
+        return current.view.get();
+    }
+
+    /**
+     * Associates a configuration with the view on its cache settings.
+     */
+    private static final class SettingsBinding {
+        private final ApplicationConfiguration configuration;
+        private final ConfigurationView<CacheSettings> view;
+
+        private SettingsBinding(ApplicationConfiguration configuration) {
+            this.configuration = configuration;
+            this.view = ConfigurationViews.bind(configuration, CacheSettings.MAPPER);
+        }
+    }
+
+    /**
+     * The cache settings, with the Cache-Control header value already computed.
+     */
+    private static final class CacheSettings {
+
+        private static final ConfigurationMapper<CacheSettings> MAPPER = new ConfigurationMapper<CacheSettings>() {
+            @Override
+            public CacheSettings map(Configuration configuration) {
+                return new CacheSettings(configuration);
+            }
+        };
+
+        private final boolean useEtag;
+        private final String cacheControl;
+
+        private CacheSettings(Configuration configuration) {
+            String maxAge = HTTP_CACHE_CONTROL_DEFAULT;
+            boolean etag = HTTP_USE_ETAG_DEFAULT;
+            if (configuration != null) {
+                maxAge = configuration.getWithDefault(HTTP_CACHE_CONTROL_MAX_AGE, HTTP_CACHE_CONTROL_DEFAULT);
+                etag = configuration.getBooleanWithDefault(HTTP_USE_ETAG, HTTP_USE_ETAG_DEFAULT);
+            }
+            this.useEtag = etag;
+            if ("0".equals(maxAge)) {
+                this.cacheControl = "no-cache";
+            } else {
+                this.cacheControl = "max-age=" + maxAge;
+            }
+        }
+    }
 }
@@ -0,0 +1,173 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.resources;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteSource;
+import com.google.common.io.Files;
+import com.google.common.io.Resources;
+import org.osgi.framework.Bundle;
+import org.wisdom.api.asset.Asset;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An asset stored in the {@link AssetIndex}. The ETag of the asset is a hash of its content, computed on first
+ * access and then kept with the asset. Unlike an ETag computed from the modification date, it does not change when
+ * an unchanged file is redeployed. When served, the hash is computed in background (see
+ * {@link #getEtag(Executor)}), so the request does not read the whole asset.
+ *
+ * @param <T> the type of content, either {@link File} or {@link URL}
+ */
+final class IndexedAsset<T> implements Asset<T> {
+
+    private final String path;
+    private final T content;
+    private final String source;
+    private final long lastModified;
+    private final long length;
+    private final ByteSource bytes;
+    private volatile String etag;
+    private final AtomicBoolean hashing = new AtomicBoolean();
+
+    private IndexedAsset(String path, T content, String source, long lastModified, long length, ByteSource bytes) {
+        this.path = path;
+        this.content = content;
+        this.source = source;
+        this.lastModified = lastModified;
+        this.length = length;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Creates an asset from a file.
+     *
+     * @param path the url of the asset
+     * @param file the file
+     * @return the asset
+     */
+    static IndexedAsset<File> of(String path, File file) {
+        return new IndexedAsset<>(path, file, file.getAbsolutePath(), file.lastModified(), file.length(),
+                Files.asByteSource(file));
+    }
+
+    /**
+     * Creates an asset from a bundle entry.
+     *
+     * @param path   the url of the asset
+     * @param url    the url of the entry
+     * @param bundle the bundle
+     * @return the asset
+     */
+    static IndexedAsset<URL> of(String path, URL url, Bundle bundle) {
+        return new IndexedAsset<>(path, url, bundle.getSymbolicName(), bundle.getLastModified(), -1,
+                Resources.asByteSource(url));
+    }
+
+    @Override
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public T getContent() {
+        return content;
+    }
+
+    @Override
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return the hash of the asset content.
+     */
+    @Override
+    public String getEtag() {
+        String value = etag;
+        if (value == null) {
+            value = computeEtag();
+            etag = value;
+        }
+        return value;
+    }
+
+    /**
+     * Gets the hash of the asset content if already computed. Otherwise, the computation is submitted to the given
+     * executor, and {@literal null} is returned, so the response only relies on the modification date.
+     *
+     * @param executor the executor computing the hash, if {@literal null} the hash is computed by the caller
+     * @return the hash of the asset content, {@literal null} if not computed yet
+     */
+    String getEtag(Executor executor) {
+        String value = etag;
+        if (value != null || executor == null) {
+            return getEtag();
+        }
+        if (hashing.compareAndSet(false, true)) {
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        etag = computeEtag();
+                    }
+                });
+            } catch (RejectedExecutionException e) { //NOSONAR
+                // Retried on the next access.
+                hashing.set(false);
+            }
+        }
+        return null;
+    }
+
+    private String computeEtag() {
+        try {
+            return bytes.hash(Hashing.sha1()).toString();
+        } catch (IOException e) {
+            AssetController.LOGGER.warn("Cannot compute the hash of {}, using its modification date instead", source,
+                    e);
+            return Hashing.sha1().hashLong(lastModified).toString();
+        }
+    }
+
+    /**
+     * Checks whether the file backing the asset has been modified or deleted since the asset creation. Assets
+     * coming from bundles are never stale, as they are re-indexed when the bundle is updated.
+     *
+     * @return {@code true} if the asset is stale
+     */
+    boolean isStale() {
+        if (content instanceof File) {
+            File file = (File) content;
+            return file.lastModified() != lastModified || file.length() != length;
+        }
+        return false;
+    }
+}
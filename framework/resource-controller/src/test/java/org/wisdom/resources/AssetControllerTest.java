@@ -19,13 +19,22 @@
  */
 package org.wisdom.resources;
 
+import com.google.common.base.Charsets;
+import org.apache.commons.io.FileUtils;
 import org.junit.Test;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
+import org.wisdom.api.asset.Asset;
 import org.wisdom.api.configuration.ApplicationConfiguration;
-import org.wisdom.api.crypto.Crypto;
 
 import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -40,10 +49,9 @@ public class AssetControllerTest {
     public void testExternalAssets() {
         ApplicationConfiguration configuration = mock(ApplicationConfiguration.class);
         when(configuration.getBaseDir()).thenReturn(new File("target/test-classes"));
-        Crypto crypto = mock(Crypto.class);
         BundleContext context = mock(BundleContext.class);
         when(context.getBundles()).thenReturn(new Bundle[0]);
-        AssetController controller = new AssetController(configuration, crypto, context, "/public", false, null,
+        AssetController controller = new AssetController(configuration, context, "/public", false, null,
                 "/public");
 
         assertThat(controller.assets()).isNotEmpty().hasSize(1);
@@ -56,10 +64,9 @@ public class AssetControllerTest {
     public void testWithoutExternalAssets() {
         ApplicationConfiguration configuration = mock(ApplicationConfiguration.class);
         when(configuration.getBaseDir()).thenReturn(new File("target/test-classes"));
-        Crypto crypto = mock(Crypto.class);
         BundleContext context = mock(BundleContext.class);
         when(context.getBundles()).thenReturn(new Bundle[0]);
-        AssetController controller = new AssetController(configuration, crypto, context, "/assets", false, null,
+        AssetController controller = new AssetController(configuration, context, "/assets", false, null,
                 "/public");
 
         assertThat(controller.assets()).isEmpty();
@@ -71,10 +78,9 @@ public class AssetControllerTest {
     public void testWithEmptyUrlRoot() {
         ApplicationConfiguration configuration = mock(ApplicationConfiguration.class);
         when(configuration.getBaseDir()).thenReturn(new File("target/test-classes"));
-        Crypto crypto = mock(Crypto.class);
         BundleContext context = mock(BundleContext.class);
         when(context.getBundles()).thenReturn(new Bundle[0]);
-        new AssetController(configuration, crypto, context, "/assets", false, null,
+        new AssetController(configuration, context, "/assets", false, null,
                 "");
     }
 
@@ -82,10 +88,9 @@ public class AssetControllerTest {
     public void testWithUrlRootNotStartingBySlash() {
         ApplicationConfiguration configuration = mock(ApplicationConfiguration.class);
         when(configuration.getBaseDir()).thenReturn(new File("target/test-classes"));
-        Crypto crypto = mock(Crypto.class);
         BundleContext context = mock(BundleContext.class);
         when(context.getBundles()).thenReturn(new Bundle[0]);
-        new AssetController(configuration, crypto, context, "/assets", false, null,
+        new AssetController(configuration, context, "/assets", false, null,
                 "foo");
     }
 
@@ -93,10 +98,9 @@ public class AssetControllerTest {
     public void testWitInBundlePathNotStartingBySlash() {
         ApplicationConfiguration configuration = mock(ApplicationConfiguration.class);
         when(configuration.getBaseDir()).thenReturn(new File("target/test-classes"));
-        Crypto crypto = mock(Crypto.class);
         BundleContext context = mock(BundleContext.class);
         when(context.getBundles()).thenReturn(new Bundle[0]);
-        new AssetController(configuration, crypto, context, "/assets", true, "internal/",
+        new AssetController(configuration, context, "/assets", true, "internal/",
                 "/foo");
     }
 
@@ -104,11 +108,158 @@ public class AssetControllerTest {
     public void testWitInBundlePathNotEndingBySlash() {
         ApplicationConfiguration configuration = mock(ApplicationConfiguration.class);
         when(configuration.getBaseDir()).thenReturn(new File("target/test-classes"));
-        Crypto crypto = mock(Crypto.class);
         BundleContext context = mock(BundleContext.class);
         when(context.getBundles()).thenReturn(new Bundle[0]);
-        new AssetController(configuration, crypto, context, "/assets", true, "/internal",
+        new AssetController(configuration, context, "/assets", true, "/internal",
                 "/foo");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testContentBasedEtag() throws IOException {
+        File dir = new File("target/test-classes/etags");
+        FileUtils.deleteQuietly(dir);
+        File file = new File(dir, "script.js");
+        FileUtils.write(file, "var a = 1;", Charsets.UTF_8);
+
+        ApplicationConfiguration configuration = mock(ApplicationConfiguration.class);
+        when(configuration.getBaseDir()).thenReturn(new File("target/test-classes"));
+        when(configuration.isDev()).thenReturn(true);
+        AssetController controller = new AssetController(configuration,
+                mock(BundleContext.class), "/etags", false, null, "/assets");
+        controller.start();
+
+        Asset<?> asset = controller.assetAt("script.js");
+        assertThat(asset).isNotNull();
+        assertThat(asset.getPath()).isEqualTo("/assets/script.js");
+        String etag = asset.getEtag();
+        assertThat(etag).isNotEmpty();
+        // Same asset while unmodified.
+        assertThat(controller.assetAt("script.js")).isSameAs(asset);
+
+        // Touching the file (like a redeploy) does not change the etag.
+        assertThat(file.setLastModified(file.lastModified() - 10000)).isTrue();
+        Asset<?> touched = controller.assetAt("script.js");
+        assertThat(touched).isNotSameAs(asset);
+        assertThat(touched.getEtag()).isEqualTo(etag);
+
+        // Changing the content does.
+        FileUtils.write(file, "var a = 2;", Charsets.UTF_8);
+        assertThat(controller.assetAt("script.js").getEtag()).isNotEqualTo(etag);
+
+        FileUtils.deleteQuietly(file);
+        assertThat(controller.assetAt("script.js")).isNull();
+    }
+
+    @Test
+    public void testModifiedAndDeletedFilesAreRevalidatedInProduction() throws IOException {
+        File dir = new File("target/test-classes/revalidation");
+        FileUtils.deleteQuietly(dir);
+        File file = new File(dir, "style.css");
+        FileUtils.write(file, "body {}", Charsets.UTF_8);
+
+        ApplicationConfiguration configuration = mock(ApplicationConfiguration.class);
+        when(configuration.getBaseDir()).thenReturn(new File("target/test-classes"));
+        when(configuration.isDev()).thenReturn(false);
+        AssetController controller = new AssetController(configuration,
+                mock(BundleContext.class), "/revalidation", false, null, "/assets");
+        controller.start();
+
+        Asset<?> asset = controller.assetAt("style.css");
+        String etag = asset.getEtag();
+
+        FileUtils.write(file, "body { color: red; }", Charsets.UTF_8);
+        Asset<?> modified = controller.assetAt("style.css");
+        assertThat(modified).isNotSameAs(asset);
+        assertThat(modified.getEtag()).isNotEqualTo(etag);
+        assertThat(modified.getLastModified()).isEqualTo(file.lastModified());
+
+        FileUtils.deleteQuietly(file);
+        assertThat(controller.assetAt("style.css")).isNull();
+    }
+
+    @Test
+    public void testRequestPathsAreNormalizedBeforeIndexing() throws IOException {
+        File dir = new File("target/test-classes/spellings");
+        FileUtils.deleteQuietly(dir);
+        FileUtils.write(new File(dir, "js/app.js"), "var a = 1;", Charsets.UTF_8);
+        FileUtils.write(new File("target/test-classes/secret.txt"), "secret", Charsets.UTF_8);
+
+        AssetIndex index = new AssetIndex(dir, "/assets", "/assets/");
+        IndexedAsset<File> asset = index.file("js/app.js");
+        assertThat(asset).isNotNull();
+        assertThat(index.file("./js/app.js")).isSameAs(asset);
+        assertThat(index.file("js/../js/app.js")).isSameAs(asset);
+        assertThat(index.file("js//app.js")).isSameAs(asset);
+        // Paths leaving the directory are rejected.
+        assertThat(index.file("../secret.txt")).isNull();
+        assertThat(index.file("js/../../secret.txt")).isNull();
+        // The different spellings do not add entries.
+        assertThat(index.assets()).hasSize(1);
+    }
+
+    @Test
+    public void testEtagComputedInBackground() throws IOException {
+        File dir = new File("target/test-classes/background");
+        FileUtils.deleteQuietly(dir);
+        File file = new File(dir, "app.js");
+        FileUtils.write(file, "var a = 1;", Charsets.UTF_8);
+
+        final List<Runnable> tasks = new ArrayList<>();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        };
+        IndexedAsset<File> asset = IndexedAsset.of("/assets/app.js", file);
+
+        // The hash is not computed by the caller, and submitted only once.
+        assertThat(asset.getEtag(executor)).isNull();
+        assertThat(asset.getEtag(executor)).isNull();
+        assertThat(tasks).hasSize(1);
+
+        tasks.get(0).run();
+        assertThat(asset.getEtag(executor)).isNotEmpty().isEqualTo(asset.getEtag());
+        assertThat(tasks).hasSize(1);
+
+        // Without executor, the hash is computed immediately.
+        assertThat(IndexedAsset.of("/assets/app.js", file).getEtag(null)).isEqualTo(asset.getEtag());
+    }
+
+    @Test
+    public void testBundleAssetsIndex() throws IOException {
+        ApplicationConfiguration configuration = mock(ApplicationConfiguration.class);
+        when(configuration.getBaseDir()).thenReturn(new File("target/test-classes"));
+        AssetController controller = new AssetController(configuration,
+                mock(BundleContext.class), null, true, "/assets/", "/assets");
+
+        Bundle bundle = mock(Bundle.class);
+        when(bundle.getBundleId()).thenReturn(1L);
+        when(bundle.getSymbolicName()).thenReturn("first");
+        when(bundle.findEntries("/assets/", "*", true)).thenReturn(Collections.enumeration(Arrays.asList(
+                new URL("file:/assets/js/"), new URL("file:/assets/js/app.js"))));
+        Bundle other = mock(Bundle.class);
+        when(other.getBundleId()).thenReturn(2L);
+        when(other.getSymbolicName()).thenReturn("second");
+        when(other.findEntries("/assets/", "*", true)).thenReturn(Collections.enumeration(Arrays.asList(
+                new URL("file:/assets/js/app.js"), new URL("file:/assets/style.css"))));
+        Bundle empty = mock(Bundle.class);
+        when(empty.getBundleId()).thenReturn(3L);
+
+        assertThat(controller.addingBundle(bundle, null)).isSameAs(bundle);
+        assertThat(controller.addingBundle(other, null)).isSameAs(other);
+        assertThat(controller.addingBundle(empty, null)).isNull();
+
+        assertThat(controller.assets()).hasSize(2);
+        Asset<?> asset = controller.assetAt("js/app.js");
+        assertThat(asset.getPath()).isEqualTo("/assets/js/app.js");
+        // The bundle with the lowest id wins.
+        assertThat(asset.getSource()).isEqualTo("first");
+        controller.removedBundle(bundle, null, bundle);
+        assertThat(controller.assetAt("js/app.js").getSource()).isEqualTo("second");
+        controller.removedBundle(other, null, other);
+        assertThat(controller.assetAt("js/app.js")).isNull();
+        assertThat(controller.assets()).isEmpty();
+    }
+
+}
@@ -34,6 +34,7 @@ import org.wisdom.api.configuration.ApplicationConfiguration;
 import org.wisdom.api.router.Router;
 import org.wisdom.api.templates.Template;
 import org.wisdom.api.templates.TemplateEngine;
+import org.wisdom.template.thymeleaf.impl.StreamingRenderable;
 import org.wisdom.template.thymeleaf.impl.ThymeLeafTemplateImplementation;
 import org.wisdom.template.thymeleaf.impl.WisdomTemplateEngine;
 import org.wisdom.template.thymeleaf.impl.WisdomURLResourceResolver;
@@ -44,6 +45,7 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 /**
  * The main component of the Thymeleaf template engine integration in Wisdom.
@@ -88,6 +90,12 @@ public class ThymeleafTemplateCollector implements TemplateEngine {
     @Requires(optional = true)
     private Assets assets;
 
+    /**
+     * The executor used to render templates when streaming is enabled. It is dedicated to the rendering,
+     * as rendering threads block until the engine threads read the output.
+     */
+    private ExecutorService streamingExecutor;
+
     Set<IDialect> dialects = new HashSet();
 
 
@@ -114,6 +122,14 @@ public class ThymeleafTemplateCollector implements TemplateEngine {
             }
         }
         registrations.clear();
+        stopStreamingExecutor();
+    }
+
+    private synchronized void stopStreamingExecutor() {
+        if (streamingExecutor != null) {
+            streamingExecutor.shutdown();
+            streamingExecutor = null;
+        }
     }
 
     /**
@@ -219,7 +235,17 @@ public class ThymeleafTemplateCollector implements TemplateEngine {
         }
 
 
-        LOGGER.info("Thymeleaf configuration: mode={}, ttl={}", mode, ttl);
+        // When enabled, templates are rendered on dedicated threads while the response is sent,
+        // instead of being rendered into a String on the request thread.
+        boolean streaming = configuration.getBooleanWithDefault("application.template.thymeleaf.streaming", false);
+        if (streaming && streamingExecutor == null) {
+            // Once all threads are busy, templates are rendered in memory.
+            streamingExecutor = StreamingRenderable.createExecutor(
+                    configuration.getIntegerWithDefault("application.template.thymeleaf.streaming.threads",
+                            Runtime.getRuntime().availableProcessors() * 2));
+        }
+
+        LOGGER.info("Thymeleaf configuration: mode={}, ttl={}, streaming={}", mode, ttl, streaming);
 
         // A TCCL switch is required here as the default Thymeleaf engine initialization triggers a class loading
         // from a class that may be present in the class path  (org/apache/xerces/xni/parser/XMLParserConfiguration).
@@ -243,6 +269,9 @@ public class ThymeleafTemplateCollector implements TemplateEngine {
         engine.setTemplateResolver(resolver);
 
         engine.setMessageResolver(messageResolver);
+        if (streaming) {
+            engine.setStreamingExecutor(streamingExecutor);
+        }
         engine.initialize();
     }
 
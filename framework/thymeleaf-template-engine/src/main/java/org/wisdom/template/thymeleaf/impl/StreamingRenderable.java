@@ -0,0 +1,237 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.template.thymeleaf.impl;
+
+import com.google.common.base.Charsets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.thymeleaf.context.Context;
+import org.wisdom.api.http.MimeTypes;
+import org.wisdom.api.http.Renderable;
+import org.wisdom.api.http.RenderableException;
+import org.wisdom.api.http.Result;
+import org.wisdom.api.templates.Template;
+
+import java.io.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A renderable streaming the result of a Thymeleaf template to the client.
+ * <p>
+ * The Thymeleaf context is built when the renderable is created, i.e. on the thread handling the request. The
+ * template is only processed when the response is sent: the rendering runs on the given executor and writes into a
+ * {@link TemplateOutputPipe} read by the server. So, the first bytes are sent before the end of the rendering,
+ * and the full page is never held in memory. As the size is not known beforehand, the response is chunked.
+ * <p>
+ * The rendering thread blocks while the client is slower than the template. So, the executor must not be shared
+ * with the threads reading the pipe, otherwise blocked renderings could prevent the reads that would unblock them.
+ * {@link #createExecutor(int)} creates a suitable executor. It never queues renderings: when all its threads are
+ * busy, the page is rendered in memory on the thread sending the response, as when streaming is disabled.
+ * <p>
+ * {@link #content()} renders the template into a String, for callers (tests, filters...) that need the full page.
+ */
+public class StreamingRenderable implements Renderable<String> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StreamingRenderable.class);
+
+    private final WisdomTemplateEngine engine;
+    private final Template template;
+    private final Context context;
+    private final org.wisdom.api.http.Context http;
+    private final Executor executor;
+
+    private volatile String content;
+
+    /**
+     * Creates an executor dedicated to the rendering of streamed templates. It creates up to {@code threads}
+     * daemon threads, released after one minute of inactivity, and rejects the tasks submitted while all of them
+     * are busy.
+     *
+     * @param threads the maximum number of concurrent renderings
+     * @return the executor
+     */
+    public static ExecutorService createExecutor(int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES,
+                new SynchronousQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "wisdom-thymeleaf-streaming-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates a new streaming renderable.
+     *
+     * @param engine   the engine processing the template
+     * @param template the template
+     * @param context  the Thymeleaf context, already populated
+     * @param http     the HTTP context of the request, set on the rendering thread as it is used by the message
+     *                 resolver and the expression evaluator
+     * @param executor the executor on which the template is rendered, it must not be used to read the output
+     */
+    public StreamingRenderable(WisdomTemplateEngine engine, Template template, Context context,
+                               org.wisdom.api.http.Context http, Executor executor) {
+        this.engine = engine;
+        this.template = template;
+        this.context = context;
+        this.http = http;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts the rendering of the template on the executor, and returns the stream receiving the output. If the
+     * executor rejects the rendering, the template is rendered on the current thread.
+     *
+     * @param ctx    the HTTP context
+     * @param result the result having built this renderable object
+     * @return the stream
+     */
+    @Override
+    public InputStream render(org.wisdom.api.http.Context ctx, Result result) throws RenderableException {
+        if (content != null) {
+            return new ByteArrayInputStream(content.getBytes(Charsets.UTF_8));
+        }
+        final TemplateOutputPipe pipe = new TemplateOutputPipe();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    produce(pipe);
+                }
+            });
+        } catch (RejectedExecutionException e) { //NOSONAR
+            // All the rendering threads are busy, probably sending pages to slow clients. Do not wait for them.
+            LOGGER.debug("No thread available to stream the template {}, rendering it in memory",
+                    template.fullName());
+            return new ByteArrayInputStream(content().getBytes(Charsets.UTF_8));
+        }
+        return pipe.input();
+    }
+
+    private void produce(TemplateOutputPipe pipe) {
+        org.wisdom.api.http.Context previous = enter();
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(pipe.output(), Charsets.UTF_8),
+                    TemplateOutputPipe.CHUNK_SIZE);
+            engine.process(template, context, writer);
+            writer.close();
+        } catch (Exception e) {
+            LOGGER.error("Cannot render the template {}", template.fullName(), e);
+            pipe.fail(e);
+        } finally {
+            leave(previous);
+        }
+    }
+
+    /**
+     * Sets the HTTP context of the request on the current thread, if any.
+     *
+     * @return the context previously set, to be restored using {@link #leave(org.wisdom.api.http.Context)}
+     */
+    private org.wisdom.api.http.Context enter() {
+        org.wisdom.api.http.Context previous = org.wisdom.api.http.Context.CONTEXT.get();
+        if (http != null) {
+            org.wisdom.api.http.Context.CONTEXT.set(http);
+        }
+        return previous;
+    }
+
+    private static void leave(org.wisdom.api.http.Context previous) {
+        if (previous == null) {
+            org.wisdom.api.http.Context.CONTEXT.remove();
+        } else {
+            org.wisdom.api.http.Context.CONTEXT.set(previous);
+        }
+    }
+
+    /**
+     * @return -1, the length is unknown until the template is rendered.
+     */
+    @Override
+    public long length() {
+        if (content != null) {
+            return content.getBytes(Charsets.UTF_8).length;
+        }
+        return -1;
+    }
+
+    /**
+     * @return {@link MimeTypes#HTML}.
+     */
+    @Override
+    public String mimetype() {
+        return MimeTypes.HTML;
+    }
+
+    /**
+     * Renders the template into a String. The rendering happens on the calling thread, and the result is kept,
+     * so the response is then sent from the rendered page.
+     *
+     * @return the rendered page
+     */
+    @Override
+    public synchronized String content() {
+        if (content == null) {
+            StringWriter writer = new StringWriter();
+            org.wisdom.api.http.Context previous = enter();
+            try {
+                engine.process(template, context, writer);
+            } finally {
+                leave(previous);
+            }
+            content = writer.toString();
+        }
+        return content;
+    }
+
+    /**
+     * @return {@code false}, templates do not require serialization.
+     */
+    @Override
+    public boolean requireSerializer() {
+        return false;
+    }
+
+    /**
+     * Not supported.
+     *
+     * @param serialized the serialized form
+     */
+    @Override
+    public void setSerializedForm(String serialized) {
+        // Nothing to do.
+    }
+
+    /**
+     * @return {@code true} when the page has not been rendered yet.
+     */
+    @Override
+    public boolean mustBeChunked() {
+        return content == null;
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.template.thymeleaf.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded pipe used to stream the output of a template to the HTTP response. The rendering thread writes into
+ * {@link #output()}, while the thread sending the response reads from {@link #input()}.
+ * <p>
+ * Data is transferred by chunks of {@link #CHUNK_SIZE} bytes. Chunks are taken from a shared pool and returned to
+ * it once consumed, so rendering large pages does not allocate a buffer holding the full page. At most
+ * {@link #MAX_PENDING_CHUNKS} chunks can wait to be sent: when the client is slower than the template,
+ * the rendering thread blocks until chunks are consumed.
+ * <p>
+ * Unlike {@link java.io.PipedInputStream}, this pipe does not track the reader and writer threads,
+ * and so can be used from pooled threads.
+ */
+final class TemplateOutputPipe {
+
+    /**
+     * The size of the chunks.
+     */
+    static final int CHUNK_SIZE = 8 * 1024;
+
+    /**
+     * The maximum number of chunks waiting to be sent.
+     */
+    static final int MAX_PENDING_CHUNKS = 8;
+
+    /**
+     * The maximum number of free chunks kept in the pool.
+     */
+    private static final int POOL_SIZE = 256;
+
+    /**
+     * The pool of free chunks, shared by all pipes.
+     */
+    private static final BlockingQueue<byte[]> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    /**
+     * The period used by the writer to check whether the reader has been closed while waiting for room.
+     */
+    private static final long POLL_PERIOD_MS = 100;
+
+    /**
+     * Marks the end of the stream.
+     */
+    private static final Chunk END = new Chunk(null, 0);
+
+    private final BlockingQueue<Chunk> pending = new ArrayBlockingQueue<>(MAX_PENDING_CHUNKS + 1);
+
+    private final Output output = new Output();
+
+    private final Input input = new Input();
+
+    /**
+     * Set when the reader is closed, generally because the client has gone. The writer fails on its next write.
+     */
+    private volatile boolean readerClosed;
+
+    /**
+     * The error reported by the writer, rethrown to the reader.
+     */
+    private volatile Throwable failure;
+
+    /**
+     * @return the stream in which the template is rendered.
+     */
+    OutputStream output() {
+        return output;
+    }
+
+    /**
+     * @return the stream read to send the response.
+     */
+    InputStream input() {
+        return input;
+    }
+
+    /**
+     * Reports an error that occurred during the rendering. The reader gets an {@link IOException} once the data
+     * written before the error has been consumed.
+     *
+     * @param error the error
+     */
+    void fail(Throwable error) {
+        failure = error;
+        output.release();
+        enqueue(END);
+    }
+
+    private void enqueue(Chunk chunk) {
+        boolean interrupted = false;
+        try {
+            while (!readerClosed) {
+                try {
+                    if (pending.offer(chunk, POLL_PERIOD_MS, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) { //NOSONAR
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static byte[] acquire() {
+        byte[] buffer = POOL.poll();
+        if (buffer == null) {
+            buffer = new byte[CHUNK_SIZE];
+        }
+        return buffer;
+    }
+
+    private static void recycle(byte[] buffer) {
+        if (buffer != null) {
+            POOL.offer(buffer);
+        }
+    }
+
+    /**
+     * A chunk of data.
+     */
+    private static final class Chunk {
+        private final byte[] data;
+        private final int length;
+
+        private Chunk(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+    }
+
+    /**
+     * The writing side.
+     */
+    private final class Output extends OutputStream {
+
+        private byte[] current;
+        private int count;
+        private boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureOpen();
+            if (current == null) {
+                current = acquire();
+            }
+            current[count++] = (byte) b;
+            if (count == CHUNK_SIZE) {
+                flushChunk();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureOpen();
+            while (len > 0) {
+                if (current == null) {
+                    current = acquire();
+                }
+                int size = Math.min(len, CHUNK_SIZE - count);
+                System.arraycopy(b, off, current, count, size);
+                count += size;
+                off += size;
+                len -= size;
+                if (count == CHUNK_SIZE) {
+                    flushChunk();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            if (count > 0 && !readerClosed) {
+                flushChunk();
+            }
+            release();
+            enqueue(END);
+        }
+
+        private void flushChunk() throws IOException {
+            Chunk chunk = new Chunk(current, count);
+            current = null;
+            count = 0;
+            enqueue(chunk);
+            if (readerClosed) {
+                throw new IOException("The template output stream has been closed by the reader");
+            }
+        }
+
+        private void ensureOpen() throws IOException {
+            if (closed) {
+                throw new IOException("The template output stream is closed");
+            }
+            if (readerClosed) {
+                release();
+                throw new IOException("The template output stream has been closed by the reader");
+            }
+        }
+
+        private void release() {
+            closed = true;
+            recycle(current);
+            current = null;
+            count = 0;
+        }
+    }
+
+    /**
+     * The reading side.
+     */
+    private final class Input extends InputStream {
+
+        private Chunk current;
+        private int position;
+        private boolean eof;
+
+        @Override
+        public int read() throws IOException {
+            if (!next()) {
+                return -1;
+            }
+            return current.data[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!next()) {
+                return -1;
+            }
+            int size = Math.min(len, current.length - position);
+            System.arraycopy(current.data, position, b, off, size);
+            position += size;
+            return size;
+        }
+
+        @Override
+        public int available() {
+            if (current != null) {
+                return current.length - position;
+            }
+            return 0;
+        }
+
+        /**
+         * Makes sure the current chunk has unread data.
+         *
+         * @return {@code false} if the end of the stream has been reached
+         * @throws IOException if the rendering has failed or the thread was interrupted
+         */
+        private boolean next() throws IOException {
+            if (current != null && position < current.length) {
+                return true;
+            }
+            if (current != null) {
+                recycle(current.data);
+                current = null;
+            }
+            if (eof) {
+                return false;
+            }
+            try {
+                Chunk chunk = pending.take();
+                if (chunk == END) {
+                    eof = true;
+                    if (failure != null) {
+                        throw new IOException("Template rendering has failed", failure);
+                    }
+                    return false;
+                }
+                current = chunk;
+                position = 0;
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the template output");
+            }
+        }
+
+        @Override
+        public void close() {
+            readerClosed = true;
+            if (current != null) {
+                recycle(current.data);
+                current = null;
+            }
+            Chunk chunk;
+            while ((chunk = pending.poll()) != null) {
+                recycle(chunk.data);
+            }
+            eof = true;
+        }
+    }
+}
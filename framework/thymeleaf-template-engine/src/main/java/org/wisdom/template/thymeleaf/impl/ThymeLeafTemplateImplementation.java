@@ -34,6 +34,7 @@ import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Template implementation for ThymeLeaf template.
@@ -60,7 +61,11 @@ public class ThymeLeafTemplateImplementation implements Template {
      */
     private final Bundle bundle;
 
-    private WisdomTemplateEngine templateEngine;
+    /**
+     * The engine used to render the template. It is replaced when dialects arrive or leave, while renderings may be
+     * in progress. Renderings are not serialized, each of them uses the engine available when it starts.
+     */
+    private final AtomicReference<WisdomTemplateEngine> templateEngine = new AtomicReference<>();
 
     public ThymeLeafTemplateImplementation(WisdomTemplateEngine templateEngine, File templateFile, Router router,
                                            Assets assets, Bundle source
@@ -70,7 +75,7 @@ public class ThymeLeafTemplateImplementation implements Template {
 
     public ThymeLeafTemplateImplementation(WisdomTemplateEngine templateEngine, URL templateURL, Router router,
                                            Assets assets, Bundle source) {
-        this.templateEngine = templateEngine;
+        this.templateEngine.set(templateEngine);
         this.url = templateURL;
         this.bundle = source;
         // The name of the template is its relative path against its template root
@@ -87,8 +92,8 @@ public class ThymeLeafTemplateImplementation implements Template {
         this.assets = assets;
     }
 
-    public synchronized void updateEngine(WisdomTemplateEngine engine) {
-        this.templateEngine = engine;
+    public void updateEngine(WisdomTemplateEngine engine) {
+        this.templateEngine.set(engine);
     }
 
     /**
@@ -140,12 +145,12 @@ public class ThymeLeafTemplateImplementation implements Template {
      * @return the rendered object.
      */
     @Override
-    public synchronized Renderable<?> render(Controller controller, Map<String, Object> variables) {
+    public Renderable<?> render(Controller controller, Map<String, Object> variables) {
         HashMap<String, Object> map = new HashMap<>(variables);
         if (!map.containsKey(ExtendedOGNLExpressionEvaluator.BUNDLE_VAR_KEY)) {
             map.put(ExtendedOGNLExpressionEvaluator.BUNDLE_VAR_KEY, bundle);
         }
-        return templateEngine.process(this, controller, router, assets, map);
+        return templateEngine.get().render(this, controller, router, assets, map);
     }
 
     /**
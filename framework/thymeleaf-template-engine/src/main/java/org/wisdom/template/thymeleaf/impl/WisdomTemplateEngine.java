@@ -28,15 +28,18 @@ import org.wisdom.api.Controller;
 import org.wisdom.api.asset.Assets;
 import org.wisdom.api.bodies.RenderableString;
 import org.wisdom.api.http.MimeTypes;
+import org.wisdom.api.http.Renderable;
 import org.wisdom.api.router.Router;
 import org.wisdom.api.templates.Template;
 import org.wisdom.template.thymeleaf.dialect.Routes;
 import org.wisdom.template.thymeleaf.dialect.WisdomStandardDialect;
 
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * The main integration point of Thymeleaf in wisdom.
@@ -55,6 +58,20 @@ public class WisdomTemplateEngine extends TemplateEngine {
         }
     }
 
+    /**
+     * The executor used to stream the template output, {@literal null} if streaming is disabled.
+     */
+    private volatile Executor streamingExecutor;
+
+    /**
+     * Enables or disables the streaming of the template output.
+     *
+     * @param executor the executor on which templates are rendered, {@literal null} to disable streaming
+     */
+    public void setStreamingExecutor(Executor executor) {
+        this.streamingExecutor = executor;
+    }
+
     /**
      * Renders the given template.
      * <p>
@@ -68,6 +85,39 @@ public class WisdomTemplateEngine extends TemplateEngine {
      */
     public RenderableString process(Template template, Controller controller, Router router, Assets assets, Map<String,
             Object> variables) {
+        Context ctx = createContext(template, controller, router, assets, variables);
+        StringWriter writer = new StringWriter();
+        process(template, ctx, writer);
+        return new RenderableString(writer, MimeTypes.HTML);
+    }
+
+    /**
+     * Renders the given template, streaming the output to the client if enabled. Unlike {@link #process(Template,
+     * Controller, Router, Assets, Map)}, the template is only processed when the response is written,
+     * on the streaming executor.
+     *
+     * @param template   the template
+     * @param controller the template asking for the rendering
+     * @param router     the router service
+     * @param variables  the template parameters
+     * @return the renderable object, a {@link StreamingRenderable} if streaming is enabled.
+     */
+    public Renderable<?> render(Template template, Controller controller, Router router, Assets assets, Map<String,
+            Object> variables) {
+        Executor executor = streamingExecutor;
+        if (executor == null) {
+            return process(template, controller, router, assets, variables);
+        }
+        Context ctx = createContext(template, controller, router, assets, variables);
+        return new StreamingRenderable(this, template, ctx, org.wisdom.api.http.Context.CONTEXT.get(), executor);
+    }
+
+    /**
+     * Builds the Thymeleaf context. It must be called from the thread handling the request, as it reads the
+     * current HTTP context.
+     */
+    private Context createContext(Template template, Controller controller, Router router, Assets assets,
+                                  Map<String, Object> variables) {
         Context ctx = new Context();
         // Add session
         final org.wisdom.api.http.Context http = org.wisdom.api.http.Context.CONTEXT.get();
@@ -96,7 +146,17 @@ public class WisdomTemplateEngine extends TemplateEngine {
         // This variable let us resolve template using relative path (in the same directory as the current template).
         // It's mainly used for 'layout', so we can compute the full url.
         ctx.setVariable("__TEMPLATE__", template);
-        StringWriter writer = new StringWriter();
+        return ctx;
+    }
+
+    /**
+     * Processes the template with the given context, writing the output to the given writer.
+     *
+     * @param template the template
+     * @param ctx      the Thymeleaf context
+     * @param writer   the writer
+     */
+    void process(Template template, Context ctx, Writer writer) {
         try {
             this.process(template.fullName(), ctx, writer);
         } catch (TemplateProcessingException e) {
@@ -111,7 +171,6 @@ public class WisdomTemplateEngine extends TemplateEngine {
                 throw e;
             }
         }
-        return new RenderableString(writer, MimeTypes.HTML);
     }
 
 }
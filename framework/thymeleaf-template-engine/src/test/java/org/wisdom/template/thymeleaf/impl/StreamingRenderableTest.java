@@ -0,0 +1,163 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.template.thymeleaf.impl;
+
+import org.junit.Test;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.dialect.IDialect;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.wisdom.api.templates.Template;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the streaming of the template output.
+ */
+public class StreamingRenderableTest {
+
+    private static final int THREADS = 2;
+
+    private static final int RENDERINGS = 10;
+
+    @Test
+    public void testMoreConcurrentLargeRenderingsThanThreads() throws Exception {
+        WisdomTemplateEngine engine = new WisdomTemplateEngine(Collections.<IDialect>emptySet());
+        engine.setTemplateResolver(new ClassLoaderTemplateResolver());
+        engine.initialize();
+        Template template = mock(Template.class);
+        when(template.fullName()).thenReturn("templates/large.thl.html");
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            items.add("item-" + i);
+        }
+        Context context = new Context();
+        context.setVariable("items", items);
+
+        String expected = new StreamingRenderable(engine, template, context, null, null).content();
+        // The page does not fit in the pipe, so the renderings block until their output is read.
+        assertThat(expected.length())
+                .isGreaterThan(TemplateOutputPipe.CHUNK_SIZE * TemplateOutputPipe.MAX_PENDING_CHUNKS * 2);
+
+        ExecutorService renderers = StreamingRenderable.createExecutor(THREADS);
+        // The output is read as the engine does, one chunk per task, on a pool as small as the rendering one.
+        ExecutorService readers = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<ChunkReader> list = new ArrayList<>();
+            for (int i = 0; i < RENDERINGS; i++) {
+                StreamingRenderable renderable = new StreamingRenderable(engine, template, context, null, renderers);
+                ChunkReader reader = new ChunkReader(renderable.render(null, null), readers);
+                readers.execute(reader);
+                list.add(reader);
+            }
+            for (ChunkReader reader : list) {
+                assertThat(reader.get()).isEqualTo(expected);
+            }
+        } finally {
+            renderers.shutdownNow();
+            readers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testTheExecutorDoesNotQueueRenderings() throws Exception {
+        ExecutorService executor = StreamingRenderable.createExecutor(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        // Never executed.
+                    }
+                });
+                fail("Rejection expected");
+            } catch (RejectedExecutionException e) {
+                // Expected.
+            }
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads a stream one chunk at a time, each chunk being read by a different task.
+     */
+    private static class ChunkReader implements Runnable {
+
+        private final InputStream in;
+        private final Executor executor;
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile IOException failure;
+
+        private ChunkReader(InputStream in, Executor executor) {
+            this.in = in;
+            this.executor = executor;
+        }
+
+        @Override
+        public void run() {
+            try {
+                byte[] chunk = new byte[TemplateOutputPipe.CHUNK_SIZE];
+                int read = in.read(chunk);
+                if (read == -1) {
+                    in.close();
+                    done.countDown();
+                    return;
+                }
+                out.write(chunk, 0, read);
+                executor.execute(this);
+            } catch (IOException e) {
+                failure = e;
+                done.countDown();
+            }
+        }
+
+        private String get() throws Exception {
+            assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+            if (failure != null) {
+                throw failure;
+            }
+            return out.toString("UTF-8");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * #%L
+ * Wisdom-Framework
+ * %%
+ * Copyright (C) 2013 - 2014 Wisdom Framework
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package org.wisdom.template.thymeleaf.impl;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Checks the pipe used to stream the template output.
+ */
+public class TemplateOutputPipeTest {
+
+    @Test
+    public void testTransferOfSeveralChunks() throws Exception {
+        final TemplateOutputPipe pipe = new TemplateOutputPipe();
+        final byte[] data = new byte[TemplateOutputPipe.CHUNK_SIZE * (TemplateOutputPipe.MAX_PENDING_CHUNKS * 3) + 17];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    OutputStream out = pipe.output();
+                    out.write(data, 0, 10);
+                    out.write(data[10]);
+                    out.write(data, 11, data.length - 11);
+                    out.close();
+                    return null;
+                }
+            });
+            assertThat(IOUtils.toByteArray(pipe.input())).isEqualTo(data);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailureIsPropagatedToTheReader() throws Exception {
+        TemplateOutputPipe pipe = new TemplateOutputPipe();
+        pipe.output().write("hello".getBytes("UTF-8"));
+        pipe.fail(new IllegalStateException("bad template"));
+        InputStream in = pipe.input();
+        try {
+            IOUtils.toByteArray(in);
+            fail("Exception expected");
+        } catch (IOException e) {
+            assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    public void testClosingTheReaderStopsTheWriter() throws Exception {
+        final TemplateOutputPipe pipe = new TemplateOutputPipe();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Void> writer = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    byte[] chunk = new byte[TemplateOutputPipe.CHUNK_SIZE];
+                    OutputStream out = pipe.output();
+                    // Writes until the pipe is full, and then until the reader is closed.
+                    while (true) {
+                        out.write(chunk);
+                    }
+                }
+            });
+            assertThat(pipe.input().read()).isEqualTo(0);
+            pipe.input().close();
+            try {
+                writer.get(10, TimeUnit.SECONDS);
+                fail("Exception expected");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(IOException.class);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -19,8 +19,10 @@
  */
 package org.wisdom.template.thymeleaf.impl;
 
+import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import org.apache.commons.io.IOUtils;
 import org.junit.After;
 import org.junit.Test;
 import org.thymeleaf.TemplateEngine;
@@ -29,6 +31,7 @@ import org.thymeleaf.dialect.IDialect;
 import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
 import org.wisdom.api.Controller;
 import org.wisdom.api.asset.Assets;
+import org.wisdom.api.http.Renderable;
 import org.wisdom.api.http.Result;
 import org.wisdom.api.templates.Template;
 import org.wisdom.template.thymeleaf.dialect.Routes;
@@ -40,6 +43,8 @@ import java.io.File;
 import java.net.MalformedURLException;
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -155,6 +160,44 @@ public class WisdomTemplateEngineTest {
                 .contains("<span>KEY2</span> = <span>ongoing</span>");
     }
 
+    @Test
+    public void testStreaming() throws Exception {
+        final WisdomTemplateEngine engine = createWisdomEngine();
+        engine.initialize();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        engine.setStreamingExecutor(executor);
+        final Template template = mock(Template.class);
+        when(template.fullName()).thenReturn("templates/var.thl.html");
+
+        final FakeRouter router = new FakeRouter();
+        final Controller controller = new FakeController();
+        router.addController(controller);
+        final Assets assets = mock(Assets.class);
+
+        try {
+            Action.ActionResult result = action(new Invocation() {
+                @Override
+                public Result invoke() throws Throwable {
+                    return ok(engine.render(template, controller, router, assets,
+                            ImmutableMap.<String, Object>of("key", "test")));
+                }
+            }).with(new FakeContext().addToSession("key2", "session")).invoke();
+
+            Renderable<?> renderable = result.getResult().getRenderable();
+            assertThat(renderable).isInstanceOf(StreamingRenderable.class);
+            assertThat(renderable.mustBeChunked()).isTrue();
+            assertThat(renderable.length()).isEqualTo(-1);
+
+            // The template is rendered on the executor, outside of the request thread.
+            String content = IOUtils.toString(renderable.render(null, result.getResult()), Charsets.UTF_8);
+            assertThat(content)
+                    .contains("<span>KEY</span> = <span>test</span>")
+                    .contains("<span>KEY2</span> = <span>session</span>");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void testCustomDialect() {
         MyDialect dialect = new MyDialect();